@@ -0,0 +1,22 @@
+// Brouillard de guerre : un texel par tuile
+//   r = tuile explorée (0 / 1)
+//   g = tuile visible, dans la ligne de vue du joueur (0 / 1)
+// Le filtrage linéaire de la texture adoucit les bords entre tuiles.
+#ifdef GL_ES
+precision mediump float;
+#endif
+
+varying vec4 v_color;
+varying vec2 v_texCoords;
+
+uniform sampler2D u_texture;
+
+const float UNEXPLORED_ALPHA = 0.95;
+const float EXPLORED_ALPHA = 0.55;
+
+void main() {
+    vec4 state = texture2D(u_texture, v_texCoords);
+    float explored = EXPLORED_ALPHA * (1.0 - state.g);
+    float alpha = mix(UNEXPLORED_ALPHA, explored, state.r);
+    gl_FragColor = vec4(0.0, 0.0, 0.0, alpha * v_color.a);
+}
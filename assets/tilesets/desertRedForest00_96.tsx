@@ -1,5 +1,12 @@
 <?xml version="1.0" encoding="UTF-8"?>
 <tileset version="1.10" tiledversion="1.11.2" name="desertRedForest00_96" tilewidth="96" tileheight="96" tilecount="96" columns="8">
+ <properties>
+  <property name="food" type="int" value="0"/>
+  <property name="production" type="int" value="2"/>
+  <property name="gold" type="int" value="0"/>
+  <property name="moveCost" type="int" value="2"/>
+  <property name="blocksVision" type="bool" value="true"/>
+ </properties>
  <image source="../tiles/desertRedForest00_96.png" width="768" height="1152"/>
  <tile id="32">
   <properties>
@@ -1,4 +1,11 @@
 <?xml version="1.0" encoding="UTF-8"?>
 <tileset version="1.10" tiledversion="1.11.2" name="house00_96" tilewidth="96" tileheight="96" tilecount="1" columns="1">
+ <properties>
+  <property name="food" type="int" value="1"/>
+  <property name="production" type="int" value="1"/>
+  <property name="gold" type="int" value="1"/>
+  <property name="moveCost" type="int" value="1"/>
+  <property name="blocksVision" type="bool" value="false"/>
+ </properties>
  <image source="../tiles/house00_96.png" width="165" height="168"/>
 </tileset>
@@ -1,5 +1,12 @@
 <?xml version="1.0" encoding="UTF-8"?>
 <tileset version="1.10" tiledversion="1.11.2" name="islandSandy00_96" tilewidth="96" tileheight="96" tilecount="36" columns="6">
+ <properties>
+  <property name="food" type="int" value="1"/>
+  <property name="production" type="int" value="0"/>
+  <property name="gold" type="int" value="1"/>
+  <property name="moveCost" type="int" value="1"/>
+  <property name="blocksVision" type="bool" value="false"/>
+ </properties>
  <image source="../tiles/islandSandy00_96.png" width="621" height="645"/>
  <tile id="1">
   <properties>
@@ -0,0 +1,86 @@
+package com.despotisme.benchmarks;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.UnitType;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.TerrainGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// GameManager.endTurn (TurnPipeline) avec chaque unité sous un ordre de déplacement
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class EndTurnBenchmark {
+
+    private static final int MAP_SIZE = 1024;
+    private static final int GOTO_RANGE = 12;
+
+    @Param({"1000", "10000", "100000"})
+    public int units;
+
+    @Param({"1", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private GameManager game;
+    private int[] homeX, homeY, awayX, awayY;
+    private boolean outbound;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = new ForkJoinPool(threads);
+        TerrainGrid terrain = Fixtures.randomTerrain(MAP_SIZE, MAP_SIZE, 42);
+        game = new GameManager(pool);
+        game.setTerrain(terrain);
+
+        SplittableRandom random = new SplittableRandom(7);
+        homeX = new int[units];
+        homeY = new int[units];
+        awayX = new int[units];
+        awayY = new int[units];
+        for (int i = 0; i < units; i++) {
+            int tile = Fixtures.walkableTile(terrain, random);
+            homeX[i] = tile % MAP_SIZE;
+            homeY[i] = tile / MAP_SIZE;
+            awayX[i] = clamp(homeX[i] + random.nextInt(-GOTO_RANGE, GOTO_RANGE + 1));
+            awayY[i] = clamp(homeY[i] + random.nextInt(-GOTO_RANGE, GOTO_RANGE + 1));
+            game.createUnit(UnitType.SETTLER.key, homeX[i] * MapConstants.TILE_SIZE, homeY[i] * MapConstants.TILE_SIZE);
+        }
+
+        // une ville pour 20 unités : les phases de production et de croissance travaillent aussi
+        EntityStore store = game.getStore();
+        for (int i = 0; i < units / 20; i++)
+            store.createCity("City " + i, homeX[i], homeY[i]);
+    }
+
+    private static int clamp(int v) {
+        return Math.max(0, Math.min(MAP_SIZE - 1, v));
+    }
+
+    // les unités font la navette entre deux cases : chaque tour mesuré a des chemins à parcourir
+    @Setup(Level.Invocation)
+    public void giveOrders() {
+        EntityStore store = game.getStore();
+        int[] x = outbound ? homeX : awayX;
+        int[] y = outbound ? homeY : awayY;
+        for (int slot = 0; slot < store.getUnitCount(); slot++)
+            store.setUnitDestination(slot, x[slot], y[slot]);
+        outbound = !outbound;
+    }
+
+    @Benchmark
+    public int endTurn() {
+        game.endTurn();
+        return game.getTurnCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,50 @@
+package com.despotisme.benchmarks;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.City;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.Unit;
+import com.despotisme.factories.CityFactoryImpl;
+import com.despotisme.factories.UnitFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Création d'unités et de villes par les factories (lignes du store + index spatial + vue)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class FactoryBenchmark {
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    private EntityStore store;
+    private UnitFactoryImpl units;
+    private CityFactoryImpl cities;
+
+    // store neuf à chaque appel : mesure aussi la croissance des tableaux
+    @Setup(Level.Invocation)
+    public void setup() {
+        store = new EntityStore();
+        units = new UnitFactoryImpl(store);
+        cities = new CityFactoryImpl(store);
+    }
+
+    @Benchmark
+    public void createUnits(Blackhole bh) {
+        for (int i = 0; i < count; i++) {
+            Unit unit = units.createUnit("settler", (i & 1023) * MapConstants.TILE_SIZE, (i >> 10) * MapConstants.TILE_SIZE);
+            bh.consume(unit);
+        }
+    }
+
+    @Benchmark
+    public void createCities(Blackhole bh) {
+        for (int i = 0; i < count; i++) {
+            City city = cities.createCity("City", (i & 1023) * MapConstants.TILE_SIZE, (i >> 10) * MapConstants.TILE_SIZE);
+            bh.consume(city);
+        }
+    }
+}
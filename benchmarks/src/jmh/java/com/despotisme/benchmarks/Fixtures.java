@@ -0,0 +1,41 @@
+package com.despotisme.benchmarks;
+
+import com.despotisme.map.TerrainGrid;
+
+import java.io.File;
+import java.util.SplittableRandom;
+
+// Entrées partagées et déterministes des benchmarks
+final class Fixtures {
+
+    private Fixtures() {}
+
+    // dossier des assets, passé par la tâche jmh (-Ddespotisme.assets)
+    static File assets(String path) {
+        File file = new File(System.getProperty("despotisme.assets", "assets"), path);
+        if (!file.exists())
+            throw new IllegalStateException("Missing benchmark input (run :core:compileBinaryMaps): " + file);
+        return file;
+    }
+
+    // ~90% de terre praticable, coût de déplacement 1-3, petits rendements
+    static TerrainGrid randomTerrain(int width, int height, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        TerrainGrid grid = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.set(x, y, random.nextInt(10) > 0, random.nextInt(20) == 0,
+                        1 + random.nextInt(3), random.nextInt(4), random.nextInt(3), random.nextInt(2));
+            }
+        }
+        return grid;
+    }
+
+    static int walkableTile(TerrainGrid terrain, SplittableRandom random) {
+        int tile;
+        do {
+            tile = random.nextInt(terrain.size());
+        } while (!terrain.isWalkable(tile));
+        return tile;
+    }
+}
@@ -0,0 +1,72 @@
+package com.despotisme.benchmarks;
+
+import com.despotisme.map.BinaryMapFormat;
+import com.despotisme.map.MapData;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.map.TerrainGridLoader;
+import com.despotisme.map.TmxMapCompiler;
+import com.despotisme.map.WorldGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Chargement de carte sans GL : XML Tiled contre .dmap binaire, compilation du terrain, génération du monde
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class MapLoadBenchmark {
+
+    @Param({"testmap"})
+    public String map;
+
+    private File tmx;
+    private ByteBuffer binary;
+    private MapData catalog;
+    private MapData loaded;
+
+    @Setup
+    public void setup() throws IOException {
+        tmx = Fixtures.assets("atlas/" + map + ".tmx");
+        File dmap = Fixtures.assets("atlas/" + map + BinaryMapFormat.EXTENSION);
+        try (FileChannel channel = FileChannel.open(dmap.toPath(), StandardOpenOption.READ)) {
+            binary = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        catalog = BinaryMapFormat.read(ByteBuffer.wrap(Files.readAllBytes(
+                Fixtures.assets("atlas/tilesets" + BinaryMapFormat.EXTENSION).toPath())));
+        loaded = BinaryMapFormat.read(binary.duplicate());
+    }
+
+    @Benchmark
+    public MapData parseTmx() throws Exception {
+        return TmxMapCompiler.compile(tmx);
+    }
+
+    @Benchmark
+    public MapData readBinary() {
+        return BinaryMapFormat.read(binary.duplicate());
+    }
+
+    @Benchmark
+    public TerrainGrid buildTerrain() {
+        return TerrainGridLoader.load(loaded);
+    }
+
+    // seul generateWorld dépend de la taille du monde
+    @State(Scope.Benchmark)
+    public static class World {
+        @Param({"256", "1024"})
+        public int worldSize;
+    }
+
+    @Benchmark
+    public MapData generateWorld(World world) {
+        return new WorldGenerator(1L).generate(catalog, world.worldSize, world.worldSize, 96, ForkJoinPool.commonPool());
+    }
+}
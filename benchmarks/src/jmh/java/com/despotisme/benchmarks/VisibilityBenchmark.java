@@ -0,0 +1,53 @@
+package com.despotisme.benchmarks;
+
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.UnitType;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.map.VisibilityEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// VisibilityEngine.update après le pas d'une unité, parmi beaucoup d'unités et de villes
+// (le coût ne doit pas dépendre du nombre d'unités)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class VisibilityBenchmark {
+
+    private static final int MAP_SIZE = 1024;
+
+    @Param({"100", "10000"})
+    public int units;
+
+    private EntityStore store;
+    private VisibilityEngine visibility;
+    private int step;
+
+    @Setup
+    public void setup() {
+        TerrainGrid terrain = Fixtures.randomTerrain(MAP_SIZE, MAP_SIZE, 42);
+        store = new EntityStore();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < units; i++) {
+            int tile = Fixtures.walkableTile(terrain, random);
+            store.createUnit(UnitType.SETTLER, tile % MAP_SIZE, tile / MAP_SIZE);
+            if (i % 20 == 0)
+                store.createCity("City " + i, tile % MAP_SIZE, tile / MAP_SIZE);
+        }
+
+        visibility = new VisibilityEngine(terrain, store, 1);
+        visibility.update();
+    }
+
+    @Benchmark
+    public boolean stepOneUnit() {
+        // chaque unité à son tour fait un pas à droite puis revient, comme un déplacement clavier par frame
+        int slot = (step >> 1) % store.getUnitCount();
+        int dx = (step++ & 1) == 0 ? 1 : -1;
+        store.setUnitTile(slot, Math.max(0, Math.min(MAP_SIZE - 1, store.getUnitTileX(slot) + dx)), store.getUnitTileY(slot));
+        visibility.update();
+        return visibility.getPlayer(0).isVisible(store.getUnitTileX(slot), store.getUnitTileY(slot));
+    }
+}
@@ -0,0 +1,60 @@
+package com.despotisme.benchmarks;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.map.TerrainGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Requêtes de case comme MapScreen.isWalkable (pixels -> case) et la recherche de chemin (index)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class WalkabilityBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({"256", "1024"})
+    public int mapSize;
+
+    private TerrainGrid terrain;
+    private final float[] pixelX = new float[QUERIES];
+    private final float[] pixelY = new float[QUERIES];
+    private final int[] tiles = new int[QUERIES];
+
+    @Setup
+    public void setup() {
+        terrain = Fixtures.randomTerrain(mapSize, mapSize, 42);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < QUERIES; i++) {
+            pixelX[i] = random.nextInt(mapSize) * MapConstants.TILE_SIZE + random.nextInt((int) MapConstants.TILE_SIZE);
+            pixelY[i] = random.nextInt(mapSize) * MapConstants.TILE_SIZE + random.nextInt((int) MapConstants.TILE_SIZE);
+            tiles[i] = random.nextInt(terrain.size());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int isWalkablePixels() {
+        int walkable = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            int tileX = (int) (pixelX[i] / MapConstants.TILE_SIZE);
+            int tileY = (int) (pixelY[i] / MapConstants.TILE_SIZE);
+            if (terrain.isWalkable(tileX, tileY))
+                walkable++;
+        }
+        return walkable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int isWalkableIndex() {
+        int walkable = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            if (terrain.isWalkable(tiles[i]))
+                walkable++;
+        }
+        return walkable;
+    }
+}
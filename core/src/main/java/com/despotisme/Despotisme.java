@@ -1,6 +1,7 @@
 package com.despotisme;
 
 import com.badlogic.gdx.Game;
+import com.despotisme.managers.TextureRegistry;
 import com.despotisme.screens.MainMenuScreen;
 
 /** {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms. */
@@ -11,4 +12,10 @@ public class Despotisme extends Game {
         // Installing Menu Screen
         setScreen(new MainMenuScreen(this));
     }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        TextureRegistry.disposeInstance();
+    }
 }
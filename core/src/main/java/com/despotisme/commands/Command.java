@@ -0,0 +1,35 @@
+package com.despotisme.commands;
+
+import com.despotisme.managers.GameManager;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ============================================================================
+ * Command
+ * ----------------------------------------------------------------------------
+ * Une action de joueur qui modifie l'état (déplacer, fonder une ville,
+ * finir le tour...).
+ *
+ * La partie ne change que par des commandes exécutées par un
+ * CommandProcessor, qui les ajoute au CommandJournal : rejouer le journal
+ * depuis la même carte redonne la même partie. Unités et villes sont
+ * désignées par leur slot dans le store, déterministe pour une suite de
+ * commandes donnée et conservé par les keyframes (SaveManager.apply recrée
+ * les entités dans l'ordre des slots).
+ * ============================================================================
+ */
+public interface Command {
+
+    /** Type d'enregistrement dans le journal (voir CommandJournal). */
+    byte getType();
+
+    /** Applique l'action ; false si elle est refusée (rien ne change, rien n'est journalisé). */
+    boolean apply(GameManager game);
+
+    /** Contenu écrit après l'en-tête de l'enregistrement. */
+    void write(ByteBuffer out);
+
+    /** Taille du contenu en octets. */
+    int size();
+}
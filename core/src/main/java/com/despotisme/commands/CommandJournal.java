@@ -0,0 +1,146 @@
+package com.despotisme.commands;
+
+import com.despotisme.managers.GameManager;
+import com.despotisme.save.SaveFormat;
+import com.despotisme.save.SaveManager;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+/**
+ * ============================================================================
+ * CommandJournal
+ * ----------------------------------------------------------------------------
+ * Journal binaire, en ajout seul, des commandes d'une partie.
+ *
+ *   int MAGIC ("DJNL"), int VERSION, short longueur + chemin de carte UTF-8
+ *   enregistrements : byte type + contenu (fixé par le type, voir chaque Command)
+ *   enregistrement KEYFRAME : int tour, int longueur, octets d'une sauvegarde (SaveFormat)
+ *
+ * Les enregistrements passent par un buffer direct, écrit dans le canal
+ * quand il est plein et à chaque fin de tour. Une keyframe est une copie
+ * complète du modèle au début d'un tour : Replay se positionne en
+ * restaurant la dernière keyframe avant le tour voulu et ne rejoue que les
+ * commandes qui suivent.
+ *
+ * Le chemin de la carte est la seule "graine" nécessaire : les mondes
+ * générés portent la leur dans leur nom (WorldGenerator.worldFile) et le
+ * pipeline de tour est déterministe.
+ * ============================================================================
+ */
+public class CommandJournal implements Closeable {
+
+    public static final int MAGIC = 0x444A4E4C; // "DJNL"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".djnl";
+
+    // types d'enregistrement
+    public static final byte KEYFRAME = 0;
+    public static final byte SPAWN_UNIT = 1;
+    public static final byte MOVE_UNIT = 2;
+    public static final byte GOTO = 3;
+    public static final byte FOUND_CITY = 4;
+    public static final byte END_TURN = 5;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final String mapPath;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    /** Commence un nouveau journal (remplace le fichier). */
+    public CommandJournal(Path file, String mapPath) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null)
+            Files.createDirectories(dir);
+
+        this.mapPath = mapPath;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        byte[] map = mapPath.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(MAGIC).putInt(VERSION).putShort((short) map.length).put(map);
+    }
+
+    public void append(Command command) throws IOException {
+        reserve(1 + command.size());
+        buffer.put(command.getType());
+        command.write(buffer);
+
+        if (command.getType() == END_TURN)
+            flush();
+    }
+
+    /** Copie complète du modèle, au début du tour game.getTurnCount(). */
+    public void keyframe(GameManager game) throws IOException {
+        byte[] save = SaveFormat.encode(SaveManager.copyModel(mapPath, game), deflater);
+
+        reserve(1 + 4 + 4);
+        buffer.put(KEYFRAME).putInt(game.getTurnCount()).putInt(save.length);
+        flush();
+        writeFully(ByteBuffer.wrap(save));
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            deflater.end();
+            channel.close();
+        }
+    }
+
+    private void reserve(int bytes) throws IOException {
+        if (buffer.remaining() < bytes)
+            flush();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining())
+            channel.write(bytes);
+    }
+
+    /**
+     * Lit la commande d'un enregistrement dont l'octet de type vient d'être
+     * lu (pas KEYFRAME). Décode aussi les lots de commandes de
+     * net.LockstepClient : des octets faux ne donnent jamais qu'une
+     * IOException, EOFException pour un enregistrement tronqué.
+     */
+    public static Command read(byte type, ByteBuffer in) throws IOException {
+        try {
+            switch (type) {
+                case SPAWN_UNIT:
+                    return SpawnUnitCommand.read(in);
+                case MOVE_UNIT:
+                    return MoveUnitCommand.read(in);
+                case GOTO:
+                    return GotoCommand.read(in);
+                case FOUND_CITY:
+                    return FoundCityCommand.read(in);
+                case END_TURN:
+                    return EndTurnCommand.INSTANCE;
+                default:
+                    throw new IOException("Unknown journal record type " + type);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Truncated record of type " + type);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.despotisme.commands;
+
+import com.despotisme.logging.Logger;
+import com.despotisme.managers.GameManager;
+
+import java.io.IOException;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * CommandProcessor
+ * ----------------------------------------------------------------------------
+ * Point d'entrée unique des actions du joueur : applique une commande à la
+ * partie et, si un journal est branché, l'y enregistre (plus une keyframe
+ * tous les KEYFRAME_INTERVAL tours).
+ *
+ * Un journal dont l'écriture échoue est abandonné (la partie continue sans
+ * enregistrement) ; l'erreur est gardée dans lastError.
+ * ============================================================================
+ */
+public class CommandProcessor {
+
+    public static final int KEYFRAME_INTERVAL = 10;
+
+    private static final Logger LOG = Logger.get(CommandProcessor.class);
+
+    private final GameManager game;
+    private CommandJournal journal;
+
+    @Getter private IOException lastError;
+
+    public CommandProcessor(GameManager game) {
+        this.game = game;
+    }
+
+    /** Enregistre toutes les commandes à partir de maintenant (ferme le journal précédent). */
+    public void record(CommandJournal journal) {
+        close();
+        this.journal = journal;
+    }
+
+    public boolean execute(Command command) {
+        if (!command.apply(game))
+            return false;
+
+        if (journal != null) {
+            try {
+                journal.append(command);
+                if (command.getType() == CommandJournal.END_TURN
+                        && game.getTurnCount() % KEYFRAME_INTERVAL == 0)
+                    journal.keyframe(game);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+        return true;
+    }
+
+    /** Keyframe immédiate (journal commencé sur une partie restaurée). */
+    public void keyframe() {
+        if (journal == null)
+            return;
+        try {
+            journal.keyframe(game);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void close() {
+        if (journal == null)
+            return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            lastError = e;
+        }
+        journal = null;
+    }
+
+    private void fail(IOException e) {
+        LOG.warn("Journal write failed, recording stopped: {}", e);
+        lastError = e;
+        close();
+    }
+}
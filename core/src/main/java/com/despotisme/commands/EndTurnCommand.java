@@ -0,0 +1,33 @@
+package com.despotisme.commands;
+
+import com.despotisme.managers.GameManager;
+
+import java.nio.ByteBuffer;
+
+// lance le pipeline de tour ; marque aussi la fin du tour dans le journal
+public final class EndTurnCommand implements Command {
+
+    public static final EndTurnCommand INSTANCE = new EndTurnCommand();
+
+    private EndTurnCommand() {}
+
+    @Override
+    public byte getType() {
+        return CommandJournal.END_TURN;
+    }
+
+    @Override
+    public boolean apply(GameManager game) {
+        game.endTurn();
+        return true;
+    }
+
+    @Override
+    public void write(ByteBuffer out) {
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+}
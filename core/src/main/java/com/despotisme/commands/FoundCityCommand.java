@@ -0,0 +1,55 @@
+package com.despotisme.commands;
+
+import com.despotisme.entities.Settler;
+import com.despotisme.entities.Unit;
+import com.despotisme.managers.GameManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import lombok.Getter;
+
+// un colon devient une ville (refusé si une autre ville est trop proche)
+public class FoundCityCommand implements Command {
+    // slot du colon, retiré en cas de succès (la dernière unité prend sa place)
+    @Getter private final int slot;
+    private final String cityName;
+    private final byte[] encodedName;
+
+    public FoundCityCommand(int slot, String cityName) {
+        this.slot = slot;
+        this.cityName = cityName;
+        this.encodedName = cityName.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static FoundCityCommand read(ByteBuffer in) {
+        int slot = in.getInt();
+        byte[] name = new byte[in.getShort() & 0xFFFF];
+        in.get(name);
+        return new FoundCityCommand(slot, new String(name, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public byte getType() {
+        return CommandJournal.FOUND_CITY;
+    }
+
+    @Override
+    public boolean apply(GameManager game) {
+        if (slot < 0 || slot >= game.getStore().getUnitCount())
+            return false;
+
+        Unit unit = game.getUnitView(game.getStore().unitHandleAt(slot));
+        return unit instanceof Settler && game.foundCity(cityName, (Settler) unit) != null;
+    }
+
+    @Override
+    public void write(ByteBuffer out) {
+        out.putInt(slot).putShort((short) encodedName.length).put(encodedName);
+    }
+
+    @Override
+    public int size() {
+        return 4 + 2 + encodedName.length;
+    }
+}
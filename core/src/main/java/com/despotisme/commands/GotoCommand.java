@@ -0,0 +1,46 @@
+package com.despotisme.commands;
+
+import com.despotisme.managers.GameManager;
+
+import java.nio.ByteBuffer;
+
+import lombok.Getter;
+
+// ordre de déplacement : l'unité marche vers la case tour après tour (GameManager.orderMove)
+public class GotoCommand implements Command {
+    @Getter private final int slot;
+    private final int tileX;
+    private final int tileY;
+
+    public GotoCommand(int slot, int tileX, int tileY) {
+        this.slot = slot;
+        this.tileX = tileX;
+        this.tileY = tileY;
+    }
+
+    static GotoCommand read(ByteBuffer in) {
+        return new GotoCommand(in.getInt(), in.getInt(), in.getInt());
+    }
+
+    @Override
+    public byte getType() {
+        return CommandJournal.GOTO;
+    }
+
+    @Override
+    public boolean apply(GameManager game) {
+        if (slot < 0 || slot >= game.getStore().getUnitCount())
+            return false;
+        return game.orderMove(game.getUnitView(game.getStore().unitHandleAt(slot)), tileX, tileY);
+    }
+
+    @Override
+    public void write(ByteBuffer out) {
+        out.putInt(slot).putInt(tileX).putInt(tileY);
+    }
+
+    @Override
+    public int size() {
+        return 4 + 4 + 4;
+    }
+}
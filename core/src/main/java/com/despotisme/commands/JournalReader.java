@@ -0,0 +1,127 @@
+package com.despotisme.commands;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.despotisme.save.SaveData;
+import com.despotisme.save.SaveFormat;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * JournalReader
+ * ----------------------------------------------------------------------------
+ * Côté lecture d'un CommandJournal : le fichier est mappé en mémoire et
+ * parcouru une fois pour indexer les keyframes (tour -> position de
+ * l'enregistrement). Un journal interrompu par un crash est lu jusqu'à son
+ * dernier enregistrement complet.
+ * ============================================================================
+ */
+public class JournalReader {
+
+    @Getter private final String mapPath;
+    @Getter private final int firstTurn;    // tour du premier enregistrement
+    @Getter private final int lastTurn;     // tour en cours après le dernier enregistrement
+    private final ByteBuffer data;
+    private final int start;                // position du premier enregistrement
+    private final int end;                  // fin du dernier enregistrement complet
+
+    private final IntArray keyframeTurns = new IntArray();
+    private final IntArray keyframeOffsets = new IntArray();
+
+    public static JournalReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new JournalReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public JournalReader(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.getInt() != CommandJournal.MAGIC)
+            throw new IOException("Not a command journal");
+        int version = data.getInt();
+        if (version != CommandJournal.VERSION)
+            throw new IOException("Unsupported journal version " + version + " (expected " + CommandJournal.VERSION + ")");
+
+        byte[] map = new byte[data.getShort() & 0xFFFF];
+        data.get(map);
+        this.mapPath = new String(map, StandardCharsets.UTF_8);
+        this.start = data.position();
+
+        // passe d'indexation : keyframes et fins de tour
+        int turn = 1;
+        int complete = start;
+        try {
+            while (data.hasRemaining()) {
+                int offset = data.position();
+                byte type = data.get();
+                if (type == CommandJournal.KEYFRAME) {
+                    turn = data.getInt();
+                    int length = data.getInt();
+                    if (length > data.remaining())
+                        break;
+                    data.position(data.position() + length);
+                    keyframeTurns.add(turn);
+                    keyframeOffsets.add(offset);
+                } else {
+                    CommandJournal.read(type, data);
+                    if (type == CommandJournal.END_TURN)
+                        turn++;
+                }
+                complete = data.position();
+            }
+        } catch (EOFException | RuntimeException e) {
+            // dernier enregistrement tronqué : ignoré
+        }
+        // un journal commencé sur une partie restaurée s'ouvre sur une keyframe
+        this.firstTurn = keyframeOffsets.size > 0 && keyframeOffsets.first() == start ? keyframeTurns.first() : 1;
+        this.lastTurn = turn;
+        this.end = complete;
+    }
+
+    /** Position du premier enregistrement, pour un rejeu depuis le début. */
+    int start() {
+        return start;
+    }
+
+    /** Position de la dernière keyframe prise au tour turn ou avant, ou -1. */
+    int keyframeBefore(int turn) {
+        int best = -1;
+        for (int i = 0; i < keyframeTurns.size && keyframeTurns.get(i) <= turn; i++)
+            best = keyframeOffsets.get(i);
+        return best;
+    }
+
+    boolean hasRecord(int offset) {
+        return offset < end;
+    }
+
+    /** Copie positionnée à offset (les lecteurs ne partagent pas de position). */
+    ByteBuffer at(int offset) {
+        ByteBuffer in = data.duplicate();
+        in.position(offset);
+        return in;
+    }
+
+    /** Décode la keyframe à la position courante (octet de type déjà lu). */
+    static SaveData readKeyframe(ByteBuffer in) throws IOException {
+        in.getInt(); // tour, aussi dans la section META
+        int length = in.getInt();
+        ByteBuffer save = in.slice(in.position(), length);
+        in.position(in.position() + length);
+        return SaveFormat.read(save);
+    }
+
+    static void skipKeyframe(ByteBuffer in) {
+        in.getInt();
+        int length = in.getInt();
+        in.position(in.position() + length);
+    }
+}
@@ -0,0 +1,74 @@
+package com.despotisme.commands;
+
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.Unit;
+import com.despotisme.managers.GameManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import lombok.Getter;
+
+// déplacement direct sur une case (clavier), tourne aussi l'unité vers elle ;
+// modifiable : le clavier réutilise une seule instance via set(), le
+// journal n'en garde que les octets
+public class MoveUnitCommand implements Command {
+    private static final Unit.Direction[] DIRECTIONS = Unit.Direction.values();
+
+    @Getter private int slot;
+    private int tileX;
+    private int tileY;
+    private Unit.Direction direction = Unit.Direction.DOWN;
+
+    public MoveUnitCommand() {
+    }
+
+    public MoveUnitCommand(int slot, int tileX, int tileY, Unit.Direction direction) {
+        set(slot, tileX, tileY, direction);
+    }
+
+    public MoveUnitCommand set(int slot, int tileX, int tileY, Unit.Direction direction) {
+        this.slot = slot;
+        this.tileX = tileX;
+        this.tileY = tileY;
+        this.direction = direction;
+        return this;
+    }
+
+    static MoveUnitCommand read(ByteBuffer in) throws IOException {
+        int slot = in.getInt();
+        int tileX = in.getInt();
+        int tileY = in.getInt();
+        byte direction = in.get();
+        if (direction < 0 || direction >= DIRECTIONS.length)
+            throw new IOException("Bad direction " + direction);
+        return new MoveUnitCommand(slot, tileX, tileY, DIRECTIONS[direction]);
+    }
+
+    @Override
+    public byte getType() {
+        return CommandJournal.MOVE_UNIT;
+    }
+
+    @Override
+    public boolean apply(GameManager game) {
+        EntityStore store = game.getStore();
+        if (slot < 0 || slot >= store.getUnitCount() || !game.getTerrain().isWalkable(tileX, tileY))
+            return false;
+
+        Unit unit = game.getUnitView(store.unitHandleAt(slot));
+        unit.setDirection(direction);
+        store.setUnitTile(slot, tileX, tileY);
+        return true;
+    }
+
+    @Override
+    public void write(ByteBuffer out) {
+        out.putInt(slot).putInt(tileX).putInt(tileY).put((byte) direction.ordinal());
+    }
+
+    @Override
+    public int size() {
+        return 4 + 4 + 4 + 1;
+    }
+}
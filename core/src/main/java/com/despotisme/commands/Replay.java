@@ -0,0 +1,211 @@
+package com.despotisme.commands;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.BinaryMapFormat;
+import com.despotisme.map.GeneratedMapLoader;
+import com.despotisme.map.MapData;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.map.TerrainGridLoader;
+import com.despotisme.map.WorldGenerator;
+import com.despotisme.save.SaveData;
+import com.despotisme.save.SaveManager;
+import com.despotisme.simulation.Simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * Replay
+ * ----------------------------------------------------------------------------
+ * Reconstruit une partie depuis sa carte et son CommandJournal, sans rendu :
+ * les commandes sont appliquées à un GameManager neuf aussi vite que tourne
+ * le pipeline de tour. seek() part de la dernière keyframe avant le tour
+ * voulu : son coût est le nombre de tours depuis cette keyframe.
+ *
+ * verify() rejoue tout le journal et compare l'état à chaque keyframe : le
+ * premier tour qui diffère désigne une désynchronisation (rapport de bug)
+ * ou l'effet d'un changement d'équilibrage sur une ancienne partie.
+ * ============================================================================
+ */
+public class Replay {
+
+    private final JournalReader journal;
+    private final TerrainGrid terrain;
+    private final ForkJoinPool pool;
+
+    @Getter private GameManager game;
+    @Getter private int rejected;     // commandes refusées au rejeu (0 sauf désynchronisation)
+    @Getter private int startTurn;    // tour de départ du rejeu (keyframe ou premier tour)
+    private ByteBuffer in;
+
+    public Replay(JournalReader journal, TerrainGrid terrain, ForkJoinPool pool) {
+        this.journal = journal;
+        this.terrain = terrain;
+        this.pool = pool;
+    }
+
+    /** La partie au début du tour donné (avant ses commandes). */
+    public GameManager seek(int turn) throws IOException {
+        if (turn < journal.getFirstTurn() || turn > journal.getLastTurn())
+            throw new IllegalArgumentException("Turn " + turn + " is not in the journal ("
+                    + journal.getFirstTurn() + " to " + journal.getLastTurn() + ")");
+
+        restart(journal.keyframeBefore(turn));
+        while (game.getTurnCount() < turn && step(false) >= 0) {
+            // rejeu
+        }
+        return game;
+    }
+
+    /** Applique toutes les commandes restantes. */
+    public GameManager runToEnd() throws IOException {
+        while (step(false) >= 0) {
+            // rejeu
+        }
+        return game;
+    }
+
+    /**
+     * ============================================================================
+     * Rejoue tout le journal ; renvoie le premier tour dont la keyframe ne
+     * correspond pas à l'état rejoué, ou -1 si toutes correspondent.
+     * ============================================================================
+     */
+    public int verify() throws IOException {
+        restart(journal.keyframeBefore(journal.getFirstTurn()));
+        int result;
+        while ((result = step(true)) >= 0) {
+            if (result > 0)
+                return result;
+        }
+        return -1;
+    }
+
+    private void restart(int keyframe) throws IOException {
+        game = new GameManager(pool);
+        game.setTerrain(terrain);
+        rejected = 0;
+
+        if (keyframe < 0) {
+            in = journal.at(journal.start());
+        } else {
+            in = journal.at(keyframe);
+            in.get();
+            SaveManager.apply(JournalReader.readKeyframe(in), game, null);
+        }
+        startTurn = game.getTurnCount();
+    }
+
+    // -1 en fin de journal, un numéro de tour si une keyframe vérifiée diffère, 0 sinon
+    private int step(boolean check) throws IOException {
+        if (!journal.hasRecord(in.position()))
+            return -1;
+
+        byte type = in.get();
+        if (type == CommandJournal.KEYFRAME) {
+            if (!check) {
+                JournalReader.skipKeyframe(in);
+                return 0;
+            }
+            SaveData expected = JournalReader.readKeyframe(in);
+            return sameState(expected, SaveManager.copyModel(expected.mapPath, game)) ? 0 : expected.turnCount;
+        }
+
+        if (!CommandJournal.read(type, in).apply(game))
+            rejected++;
+        return 0;
+    }
+
+    private static boolean sameState(SaveData a, SaveData b) {
+        if (a.turnCount != b.turnCount || a.units.count != b.units.count || a.cities.count != b.cities.count)
+            return false;
+
+        int n = a.units.count;
+        SaveData.Units u = a.units, v = b.units;
+        if (!Arrays.equals(u.type, 0, n, v.type, 0, n)
+                || !Arrays.equals(u.owner, 0, n, v.owner, 0, n)
+                || !Arrays.equals(u.tileX, 0, n, v.tileX, 0, n)
+                || !Arrays.equals(u.tileY, 0, n, v.tileY, 0, n)
+                || !Arrays.equals(u.destX, 0, n, v.destX, 0, n)
+                || !Arrays.equals(u.destY, 0, n, v.destY, 0, n)
+                || !Arrays.equals(u.moves, 0, n, v.moves, 0, n)
+                || !Arrays.equals(u.hp, 0, n, v.hp, 0, n))
+            return false;
+
+        n = a.cities.count;
+        SaveData.Cities c = a.cities, d = b.cities;
+        return Arrays.equals(c.name, 0, n, d.name, 0, n)
+                && Arrays.equals(c.owner, 0, n, d.owner, 0, n)
+                && Arrays.equals(c.tileX, 0, n, d.tileX, 0, n)
+                && Arrays.equals(c.tileY, 0, n, d.tileY, 0, n)
+                && Arrays.equals(c.population, 0, n, d.population, 0, n)
+                && Arrays.equals(c.food, 0, n, d.food, 0, n)
+                && Arrays.equals(c.production, 0, n, d.production, 0, n)
+                && Arrays.equals(c.build, 0, n, d.build, 0, n);
+    }
+
+    /**
+     * Carte d'un journal : carte binaire (.dmap) ou monde généré (.world)
+     * sous le dossier assets. Les cartes Tiled .tmx demandent le chargeur
+     * GL : pas rejouables.
+     */
+    public static MapData readMap(Path assets, String mapPath, ForkJoinPool pool) throws IOException {
+        if (mapPath.endsWith(BinaryMapFormat.EXTENSION))
+            return Simulation.readMap(assets.resolve(mapPath));
+
+        if (mapPath.endsWith(WorldGenerator.EXTENSION)) {
+            MapData catalog = Simulation.readMap(assets.resolve(GeneratedMapLoader.CATALOG_FILE));
+            MapData world = WorldGenerator.generateWorldFile(mapPath, catalog, (int) MapConstants.TILE_SIZE, pool);
+            if (world != null)
+                return world;
+        }
+        throw new IOException("Cannot replay on map " + mapPath + " (needs a .dmap or a generated world)");
+    }
+
+    /**
+     * Usage : Replay <dossier assets> <journal.djnl> [tour] [threads]
+     * Sans tour (ou avec un tour négatif) : rejoue tout et vérifie chaque keyframe.
+     * Le verdict est imprimé sur stdout (sortie de l'outil, à lire ou à
+     * comparer dans un script), pas dans le log que -Ddespotisme.logFile
+     * peut envoyer dans un fichier.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2)
+            throw new IllegalArgumentException("Usage: Replay <assets dir> <journal.djnl> [turn] [threads]");
+
+        int turn = args.length > 2 ? Integer.parseInt(args[2]) : -1;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        JournalReader journal = JournalReader.open(Paths.get(args[1]));
+        TerrainGrid terrain = TerrainGridLoader.load(readMap(Paths.get(args[0]), journal.getMapPath(), pool));
+        Replay replay = new Replay(journal, terrain, pool);
+
+        long start = System.nanoTime();
+        String result;
+        if (turn < 0) {
+            int diverged = replay.verify();
+            result = diverged < 0 ? "all keyframes match" : "diverges before turn " + diverged;
+        } else {
+            replay.seek(turn);
+            result = "at turn " + turn;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        GameManager game = replay.getGame();
+        int turns = game.getTurnCount() - replay.getStartTurn();
+        // verdict de l'outil en ligne de commande, voir main
+        System.out.printf("%s: %d turns replayed in %.2f s (%.0f turns/s), %d units, %d cities, %d commands rejected%n",
+                result, turns, seconds, turns / seconds,
+                game.getStore().getUnitCount(), game.getStore().getCityCount(), replay.getRejected());
+        pool.shutdown();
+    }
+}
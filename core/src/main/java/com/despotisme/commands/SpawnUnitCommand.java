@@ -0,0 +1,54 @@
+package com.despotisme.commands;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.UnitType;
+import com.despotisme.managers.GameManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import lombok.Getter;
+
+// unité posée sans production de ville (début de partie)
+public class SpawnUnitCommand implements Command {
+    private final UnitType unitType;
+    private final int tileX;
+    private final int tileY;
+
+    // handle de l'unité créée, fixé par apply
+    @Getter private int handle = -1;
+
+    public SpawnUnitCommand(UnitType unitType, int tileX, int tileY) {
+        this.unitType = unitType;
+        this.tileX = tileX;
+        this.tileY = tileY;
+    }
+
+    static SpawnUnitCommand read(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        if (!UnitType.exists(type))
+            throw new IOException("Bad unit type " + type);
+        return new SpawnUnitCommand(UnitType.of(type), in.getInt(), in.getInt());
+    }
+
+    @Override
+    public byte getType() {
+        return CommandJournal.SPAWN_UNIT;
+    }
+
+    @Override
+    public boolean apply(GameManager game) {
+        handle = game.createUnit(unitType.key, tileX * MapConstants.TILE_SIZE, tileY * MapConstants.TILE_SIZE).getHandle();
+        return true;
+    }
+
+    @Override
+    public void write(ByteBuffer out) {
+        out.put((byte) unitType.ordinal()).putInt(tileX).putInt(tileY);
+    }
+
+    @Override
+    public int size() {
+        return 1 + 4 + 4;
+    }
+}
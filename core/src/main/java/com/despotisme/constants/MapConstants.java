@@ -4,4 +4,8 @@ public class MapConstants {
     public static final float TILE_SIZE = 96f;
     public static final float CITY_HEIGHT = 96f;
     public static final float CITY_WIDTH = 96f;
+    public static final String MAP_FILE = "maps/testmap.tmx";
+    public static final int GENERATED_WORLD_SIZE = 256;
+    public static final int MIN_CITY_DISTANCE = 4; // tiles between two city centers
+    public static final String CITY_TEXTURE = "buildings/city.png";
 }
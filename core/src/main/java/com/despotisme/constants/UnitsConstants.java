@@ -3,4 +3,14 @@ package com.despotisme.constants;
 public class UnitsConstants {
     public static final float UNIT_WIDTH = 96f;
     public static final float UNIT_HEIGHT = 96f;
+
+    // rayon de vision d'une ville (unités : UnitType.vision)
+    public static final int CITY_VISION_RADIUS = 3;
+
+    // textures (partagées par le TextureRegistry)
+    public static final String SELECTION_TEXTURE = "characters/settler/selection.png";
+    public static final String SETTLER_FRONT_TEXTURE = "characters/settler/settler_standing_front.png";
+    public static final String SETTLER_BACK_TEXTURE = "characters/settler/settler_standing_back.png";
+    public static final String SETTLER_LEFT_TEXTURE = "characters/settler/settler_standing_left.png";
+    public static final String SETTLER_RIGHT_TEXTURE = "characters/settler/settler_standing_right.png";
 }
@@ -0,0 +1,271 @@
+package com.despotisme.debug;
+
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ============================================================================
+ * FrameProfiler
+ * ----------------------------------------------------------------------------
+ * Chronométrage des phases de MapScreen.render() sur une fenêtre glissante
+ * de WINDOW frames (moyenne, 95e centile, max), plus les compteurs GL de
+ * libGDX (GLProfiler), la mémoire utilisée, les pauses GC et les octets
+ * alloués par frame sur le thread de rendu (ThreadAllocation).
+ *
+ * Les temps sont ceux du CPU (soumission des commandes GL) : un GPU saturé
+ * apparaît dans la phase qui attend, en général stage.draw / swap.
+ *
+ * Désactivé, begin()/end()/endFrame() se réduisent à un test de booléen et
+ * le GLProfiler est coupé (aucun intercepteur sur les appels GL).
+ *
+ * -Ddespotisme.allocBudget=<octets> : les frames qui allouent plus que ce
+ * budget sont comptées (overlay), pour repérer une régression en jeu ;
+ * la vérification automatique est le test FrameAllocationTest (gradle test).
+ * ============================================================================
+ */
+public class FrameProfiler {
+
+    // === Phases de MapScreen.render() ===
+    public static final int INPUT = 0;
+    public static final int MAP = 1;
+    public static final int FOG = 2;
+    public static final int ENTITIES = 3;
+    public static final int EVENTS = 4;
+    public static final int MINIMAP = 5;   // MiniMapView.flush (GameHUD.render)
+    public static final int STAGE = 6;    // act + draw de la Stage (GameHUD.render)
+    public static final int PHASE_COUNT = 7;
+
+    private static final String[] PHASE_NAMES = {
+            "input", "map", "fog", "entities", "events", "minimap", "stage"
+    };
+
+    // Nombre de frames conservées pour les statistiques
+    public static final int WINDOW = 120;
+
+    // Budget d'allocation par frame (octets, -1 = aucun)
+    private static final long ALLOC_BUDGET = Long.getLong("despotisme.allocBudget", -1L);
+
+    private final GLProfiler glProfiler;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private boolean enabled;
+
+    // === Fenêtre glissante : [phase][frame] en nanosecondes ===
+    private final long[][] samples = new long[PHASE_COUNT][WINDOW];
+    private final long[] started = new long[PHASE_COUNT];
+    private final long[] sorted = new long[WINDOW];  // tampon de tri (p95)
+    private int frame;                                // prochaine case de la fenêtre
+    private int frameCount;                           // frames valides (<= WINDOW)
+
+    // === Compteurs GL de la dernière frame ===
+    private int drawCalls;
+    private int textureBindings;
+    private int shaderSwitches;
+    private int vertices;
+
+    // === Allocations par frame (octets, même fenêtre glissante) ===
+    private final long[] allocated = new long[WINDOW];
+    private long allocMark;           // compteur du thread à la fin de la frame précédente
+    private long framesOverBudget;    // depuis l'activation
+
+    // === Mémoire / GC (cumul depuis l'activation) ===
+    private long gcCount;
+    private long gcMillis;
+    private long gcBaseCount;
+    private long gcBaseMillis;
+
+    public FrameProfiler(GLProfiler glProfiler) {
+        this.glProfiler = glProfiler;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (enabled == this.enabled)
+            return;
+        this.enabled = enabled;
+
+        if (enabled) {
+            for (long[] phase : samples)
+                Arrays.fill(phase, 0L);
+            Arrays.fill(allocated, 0L);
+            frame = 0;
+            frameCount = 0;
+            allocMark = ThreadAllocation.bytes();
+            framesOverBudget = 0;
+            sampleGc();
+            gcBaseCount = gcCount;
+            gcBaseMillis = gcMillis;
+            glProfiler.reset();
+            glProfiler.enable();
+        } else {
+            glProfiler.disable();
+        }
+    }
+
+    // ============================================================================
+    // Mesures (appelées par MapScreen à chaque frame)
+    // ============================================================================
+
+    public void begin(int phase) {
+        if (enabled)
+            started[phase] = System.nanoTime();
+    }
+
+    public void end(int phase) {
+        if (enabled)
+            samples[phase][frame] = System.nanoTime() - started[phase];
+    }
+
+    /**
+     * Clôt la frame : relève les compteurs GL (remis à zéro pour la
+     * suivante) et avance la fenêtre glissante.
+     */
+    public void endFrame() {
+        if (!enabled)
+            return;
+
+        drawCalls = glProfiler.getDrawCalls();
+        textureBindings = glProfiler.getTextureBindings();
+        shaderSwitches = glProfiler.getShaderSwitches();
+        vertices = (int) glProfiler.getVertexCount().total;
+        glProfiler.reset();
+
+        long mark = ThreadAllocation.bytes();
+        allocated[frame] = mark - allocMark;
+        allocMark = mark;
+        if (ALLOC_BUDGET >= 0 && allocated[frame] > ALLOC_BUDGET)
+            framesOverBudget++;
+
+        frame = (frame + 1) % WINDOW;
+        if (frameCount < WINDOW)
+            frameCount++;
+
+        // la frame suivante part de zéro (phase sautée = 0 ns, ex. pause)
+        for (long[] phase : samples)
+            phase[frame] = 0L;
+    }
+
+    // ============================================================================
+    // Statistiques (appelées seulement quand l'overlay se rafraîchit)
+    // ============================================================================
+
+    public static String getPhaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public double getAverageMillis(int phase) {
+        if (frameCount == 0)
+            return 0;
+        long total = 0;
+        for (int i = 0; i < frameCount; i++)
+            total += samples[phase][validIndex(i)];
+        return total / (double) frameCount / 1e6;
+    }
+
+    public double getPercentileMillis(int phase, double percentile) {
+        if (frameCount == 0)
+            return 0;
+        for (int i = 0; i < frameCount; i++)
+            sorted[i] = samples[phase][validIndex(i)];
+        Arrays.sort(sorted, 0, frameCount);
+        int rank = (int) Math.ceil(percentile * frameCount) - 1;
+        return sorted[Math.max(0, Math.min(frameCount - 1, rank))] / 1e6;
+    }
+
+    public double getMaxMillis(int phase) {
+        long max = 0;
+        for (int i = 0; i < frameCount; i++)
+            max = Math.max(max, samples[phase][validIndex(i)]);
+        return max / 1e6;
+    }
+
+    // i-ème frame terminée, de la plus ancienne à la plus récente
+    private int validIndex(int i) {
+        return (frame - frameCount + i + WINDOW) % WINDOW;
+    }
+
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    public int getTextureBindings() {
+        return textureBindings;
+    }
+
+    public int getShaderSwitches() {
+        return shaderSwitches;
+    }
+
+    public int getVertices() {
+        return vertices;
+    }
+
+    /** Octets alloués en moyenne par frame sur la fenêtre (-1 sans support JVM). */
+    public long getAverageAllocatedBytes() {
+        if (!ThreadAllocation.isSupported())
+            return -1;
+        if (frameCount == 0)
+            return 0;
+        long total = 0;
+        for (int i = 0; i < frameCount; i++)
+            total += allocated[validIndex(i)];
+        return total / frameCount;
+    }
+
+    public long getMaxAllocatedBytes() {
+        long max = 0;
+        for (int i = 0; i < frameCount; i++)
+            max = Math.max(max, allocated[validIndex(i)]);
+        return max;
+    }
+
+    public long getAllocBudget() {
+        return ALLOC_BUDGET;
+    }
+
+    public long getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    public long getUsedHeapBytes() {
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    public long getMaxHeapBytes() {
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    /** Nombre de collections depuis l'activation. */
+    public long getGcCount() {
+        sampleGc();
+        return gcCount - gcBaseCount;
+    }
+
+    /** Temps cumulé passé en GC depuis l'activation (ms). */
+    public long getGcMillis() {
+        sampleGc();
+        return gcMillis - gcBaseMillis;
+    }
+
+    private void sampleGc() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : collectors) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        gcCount = count;
+        gcMillis = millis;
+    }
+}
@@ -0,0 +1,114 @@
+package com.despotisme.debug;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.utils.Align;
+
+/**
+ * ============================================================================
+ * ProfilerOverlay
+ * ----------------------------------------------------------------------------
+ * Panneau texte (coin haut gauche du HUD) affichant les mesures du
+ * FrameProfiler. Le texte n'est reconstruit que toutes les REFRESH_SECONDS
+ * (tri du p95 compris) ; masqué, le panneau n'est ni mis à jour ni dessiné.
+ * ============================================================================
+ */
+public class ProfilerOverlay {
+
+    private static final float REFRESH_SECONDS = 0.5f;
+    private static final long MB = 1024 * 1024;
+
+    private final FrameProfiler profiler;
+    private final Table table;
+    private final Label label;
+    private final StringBuilder text = new StringBuilder(512);
+    private float sinceRefresh;
+
+    public ProfilerOverlay(Skin skin, FrameProfiler profiler) {
+        this.profiler = profiler;
+
+        label = new Label("", skin);
+        label.setColor(Color.LIME);
+        label.setAlignment(Align.topLeft);
+
+        table = new Table();
+        table.setFillParent(true);
+        table.top().left().pad(30);
+        table.add(label);
+        table.setTouchable(Touchable.disabled); // ne bloque pas les clics sur la carte
+        table.setVisible(false);
+    }
+
+    public Table getTable() {
+        return table;
+    }
+
+    public boolean isVisible() {
+        return table.isVisible();
+    }
+
+    public void setVisible(boolean visible) {
+        table.setVisible(visible);
+        profiler.setEnabled(visible);
+        sinceRefresh = REFRESH_SECONDS; // texte à jour dès l'affichage
+    }
+
+    public void toggle() {
+        setVisible(!isVisible());
+    }
+
+    public void update(float delta) {
+        if (!table.isVisible())
+            return;
+
+        sinceRefresh += delta;
+        if (sinceRefresh < REFRESH_SECONDS)
+            return;
+        sinceRefresh = 0f;
+
+        text.setLength(0);
+        text.append("phase         avg    p95    max (ms, ").append(profiler.getFrameCount()).append(" frames)\n");
+        for (int phase = 0; phase < FrameProfiler.PHASE_COUNT; phase++) {
+            String name = FrameProfiler.getPhaseName(phase);
+            text.append(name);
+            for (int i = name.length(); i < 10; i++)
+                text.append(' ');
+            appendMillis(profiler.getAverageMillis(phase));
+            appendMillis(profiler.getPercentileMillis(phase, 0.95));
+            appendMillis(profiler.getMaxMillis(phase));
+            text.append('\n');
+        }
+
+        text.append("draw calls ").append(profiler.getDrawCalls())
+            .append("  binds ").append(profiler.getTextureBindings())
+            .append("  shaders ").append(profiler.getShaderSwitches())
+            .append("  vertices ").append(profiler.getVertices()).append('\n');
+        text.append("heap ").append(profiler.getUsedHeapBytes() / MB)
+            .append(" / ").append(profiler.getMaxHeapBytes() / MB).append(" MB")
+            .append("  gc ").append(profiler.getGcCount())
+            .append(" (").append(profiler.getGcMillis()).append(" ms)").append('\n');
+        text.append("alloc/frame ").append(profiler.getAverageAllocatedBytes())
+            .append(" B avg  ").append(profiler.getMaxAllocatedBytes()).append(" B max");
+        if (profiler.getAllocBudget() >= 0)
+            text.append("  over ").append(profiler.getAllocBudget()).append(" B: ")
+                .append(profiler.getFramesOverBudget()).append(" frames");
+
+        label.setText(text);
+    }
+
+    // valeur sur 7 caractères, 2 décimales
+    private void appendMillis(double millis) {
+        long hundredths = Math.round(millis * 100);
+        int start = text.length();
+        text.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10)
+            text.append('0');
+        text.append(fraction);
+        for (int i = text.length() - start; i < 7; i++)
+            text.insert(start, ' ');
+    }
+}
@@ -0,0 +1,44 @@
+package com.despotisme.debug;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * ============================================================================
+ * ThreadAllocation
+ * ----------------------------------------------------------------------------
+ * Compteur d'octets alloués par le thread courant (extension HotSpot de
+ * ThreadMXBean). Lire le compteur n'alloue rien : la différence entre deux
+ * lectures donne exactement ce qu'a alloué le code entre les deux.
+ *
+ * Sans support de la JVM, bytes() renvoie -1.
+ * Aucune dépendance GL : utilisé par FrameProfiler et FrameAllocationTest.
+ * ============================================================================
+ */
+public final class ThreadAllocation {
+
+    private static final com.sun.management.ThreadMXBean BEAN = hotspotBean();
+
+    private ThreadAllocation() {
+    }
+
+    public static boolean isSupported() {
+        return BEAN != null;
+    }
+
+    /** Octets alloués depuis le démarrage du thread courant, ou -1. */
+    public static long bytes() {
+        return BEAN == null ? -1 : BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean hotspotBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return null;
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+        if (!hotspot.isThreadAllocatedMemorySupported())
+            return null;
+        hotspot.setThreadAllocatedMemoryEnabled(true);
+        return hotspot;
+    }
+}
@@ -1,16 +1,41 @@
 package com.despotisme.entities;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
-import com.despotisme.entities.Location;
-import com.despotisme.entities.Settler;
+import com.despotisme.constants.MapConstants;
 
+import lombok.Getter;
+
+// simple vue sur l'EntityStore
 public class City extends Location {
-    private String cityName;
+    private final EntityStore store;
+    @Getter private final int handle;
+
+    public City(EntityStore store, String cityName, float x, float y) {
+        super();
+        // Centering on grid
+        this.store = store;
+        this.handle = store.createCity(cityName,
+                Math.round(x / MapConstants.TILE_SIZE), Math.round(y / MapConstants.TILE_SIZE));
+    }
+
+    public String getCityName() {
+        return store.getCityName(store.citySlot(handle));
+    }
+
+    public int getTileX() {
+        return store.getCityTileX(store.citySlot(handle));
+    }
+
+    public int getTileY() {
+        return store.getCityTileY(store.citySlot(handle));
+    }
+
+    @Override
+    public float getX() {
+        return getTileX() * MapConstants.TILE_SIZE;
+    }
 
-    public City(String cityName, float x, float y) {
-        super(x, y);
-        this.cityName = cityName;
-        this.texture = new Texture(Gdx.files.internal("buildings/city.png"));
+    @Override
+    public float getY() {
+        return getTileY() * MapConstants.TILE_SIZE;
     }
 }
@@ -1,10 +1,19 @@
 package com.despotisme.entities;
 
 public abstract class CombatUnit extends Unit {
-    protected int damageInflicted = 10;
-    protected int hp = 50;
+    public CombatUnit(EntityStore store, UnitType type, float x, float y) {
+        super(store, type, x, y);
+    }
+
+    public int getHp() {
+        return store.getUnitHp(slot());
+    }
+
+    public void setHp(int hp) {
+        store.setUnitHp(slot(), hp);
+    }
 
-    public CombatUnit(String name, float x, float y) {
-        super(name, x, y);
+    public int getDamageInflicted() {
+        return store.getUnitDamage(slot());
     }
 }
@@ -0,0 +1,491 @@
+package com.despotisme.entities;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.despotisme.events.CityFounded;
+import com.despotisme.events.EventBus;
+import com.despotisme.events.UnitMoved;
+
+import java.util.Arrays;
+
+/**
+ * ============================================================================
+ * EntityStore
+ * ----------------------------------------------------------------------------
+ * État des unités et des villes dans des tableaux primitifs parallèles
+ * (struct of arrays).
+ *
+ * Les entités sont désignées par des handles int stables (voir HandleTable) ;
+ * les entrées vivantes restent tassées dans les slots [0, count) : les
+ * boucles de tour parcourent des tableaux contigus, sans pointeur à suivre
+ * ni allocation. Les accesseurs prennent un slot : le résoudre une fois
+ * avec unitSlot(handle) / citySlot(handle).
+ *
+ * Les objets Unit et City sont de simples vues (store + handle) pour l'UI.
+ * Les positions sont recopiées dans un SpatialIndex par type, pour les
+ * requêtes par case, par rectangle et du plus proche voisin.
+ * Pas thread-safe : le pipeline de tour n'écrit que des slots disjoints.
+ *
+ * Chaque changement lève un drapeau "modifié" par type, effacé par la
+ * sauvegarde quand elle copie ce type (autosave incrémentale). Le drapeau
+ * n'est écrit que s'il est encore à false : les phases parallèles ne se
+ * le disputent pas.
+ *
+ * Les changements de case et les nouvelles villes sont aussi publiés sur
+ * l'EventBus de la vue (UnitMoved, CityFounded), s'il y en a un qui écoute.
+ *
+ * Chaque unité et chaque ville appartient à un joueur (owner, 0 par
+ * défaut), ou aux barbares (BARBARIANS, sans vision ni joueur réseau).
+ * Une fois trackVision() appelé, les handles des unités et villes
+ * apparues, déplacées, données à un autre joueur ou retirées sont listés
+ * pour le VisibilityEngine, qui ne recalcule qu'eux.
+ * ============================================================================
+ */
+public class EntityStore {
+
+    // owner des unités barbares (BarbarianPhase) : au-delà de tout numéro de joueur
+    public static final int BARBARIANS = Byte.MAX_VALUE;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final byte FLAG_HAS_DESTINATION = 1;
+
+    // ---- unités ----
+    private final HandleTable unitHandles = new HandleTable(INITIAL_CAPACITY);
+    private int[] unitTileX = new int[INITIAL_CAPACITY];
+    private int[] unitTileY = new int[INITIAL_CAPACITY];
+    private int[] unitDestX = new int[INITIAL_CAPACITY];
+    private int[] unitDestY = new int[INITIAL_CAPACITY];
+    private byte[] unitType = new byte[INITIAL_CAPACITY];
+    private byte[] unitFlags = new byte[INITIAL_CAPACITY];
+    private short[] unitMoves = new short[INITIAL_CAPACITY];
+    private short[] unitMaxMoves = new short[INITIAL_CAPACITY];
+    private short[] unitHp = new short[INITIAL_CAPACITY];
+    private short[] unitDamage = new short[INITIAL_CAPACITY];
+    private byte[] unitOwner = new byte[INITIAL_CAPACITY];
+    private final SpatialIndex unitIndex = new SpatialIndex();
+
+    // ---- villes ----
+    private final HandleTable cityHandles = new HandleTable(INITIAL_CAPACITY);
+    private int[] cityTileX = new int[INITIAL_CAPACITY];
+    private int[] cityTileY = new int[INITIAL_CAPACITY];
+    private String[] cityName = new String[INITIAL_CAPACITY];
+    private short[] cityPopulation = new short[INITIAL_CAPACITY];
+    private int[] cityFood = new int[INITIAL_CAPACITY];
+    private int[] cityProduction = new int[INITIAL_CAPACITY];
+    private byte[] cityBuild = new byte[INITIAL_CAPACITY];   // ordinal de UnitType, -1 = rien
+    private byte[] cityOwner = new byte[INITIAL_CAPACITY];
+    private final SpatialIndex cityIndex = new SpatialIndex();
+
+    private boolean unitsChanged;
+    private boolean citiesChanged;
+
+    private EventBus events;   // null = aucune vue branchée
+
+    // handles dont la vision est à recalculer (null = vision non suivie)
+    private IntArray visionUnits;
+    private IntArray visionCities;
+
+    // taille les deux index spatiaux sur la carte (voir SpatialIndex.setMapSize)
+    public void setMapSize(int width, int height) {
+        unitIndex.setMapSize(width, height);
+        cityIndex.setMapSize(width, height);
+    }
+
+    // ============================================================================
+    // Unités
+    // ============================================================================
+
+    public int createUnit(UnitType type, int tileX, int tileY) {
+        markUnitsChanged();
+        int slot = unitHandles.size();
+        if (slot == unitTileX.length)
+            growUnits(slot * 2);
+
+        int handle = unitHandles.allocate();
+        unitTileX[slot] = tileX;
+        unitTileY[slot] = tileY;
+        unitDestX[slot] = -1;
+        unitDestY[slot] = -1;
+        unitType[slot] = (byte) type.ordinal();
+        unitFlags[slot] = 0;
+        unitMoves[slot] = (short) type.moves;
+        unitMaxMoves[slot] = (short) type.moves;
+        unitHp[slot] = (short) type.hp;
+        unitDamage[slot] = (short) type.damage;
+        unitOwner[slot] = 0;
+        unitIndex.insert(handle, tileX, tileY);
+        if (visionUnits != null)
+            visionUnits.add(handle);
+        return handle;
+    }
+
+    public void removeUnit(int handle) {
+        markUnitsChanged();
+        int hole = unitHandles.release(handle);
+        unitIndex.remove(handle);
+        if (visionUnits != null)
+            visionUnits.add(handle);
+        if (hole < 0)
+            return;
+
+        // le dernier slot bouche le trou : les tableaux restent tassés
+        int last = unitHandles.size();
+        unitTileX[hole] = unitTileX[last];
+        unitTileY[hole] = unitTileY[last];
+        unitDestX[hole] = unitDestX[last];
+        unitDestY[hole] = unitDestY[last];
+        unitType[hole] = unitType[last];
+        unitFlags[hole] = unitFlags[last];
+        unitMoves[hole] = unitMoves[last];
+        unitMaxMoves[hole] = unitMaxMoves[last];
+        unitHp[hole] = unitHp[last];
+        unitDamage[hole] = unitDamage[last];
+        unitOwner[hole] = unitOwner[last];
+    }
+
+    public int getUnitCount() {
+        return unitHandles.size();
+    }
+
+    /** Slot d'un handle d'unité, ou -1 si l'unité a été retirée. */
+    public int unitSlot(int handle) {
+        return unitHandles.slot(handle);
+    }
+
+    public int unitHandleAt(int slot) {
+        return unitHandles.handleAt(slot);
+    }
+
+    public boolean isUnitAlive(int handle) {
+        return unitHandles.slot(handle) >= 0;
+    }
+
+    public UnitType getUnitType(int slot) {
+        return UnitType.of(unitType[slot]);
+    }
+
+    public int getUnitTileX(int slot) {
+        return unitTileX[slot];
+    }
+
+    public int getUnitTileY(int slot) {
+        return unitTileY[slot];
+    }
+
+    public void setUnitTile(int slot, int tileX, int tileY) {
+        markUnitsChanged();
+        if (events != null && (tileX != unitTileX[slot] || tileY != unitTileY[slot])) {
+            UnitMoved moved = events.post(UnitMoved.TYPE);
+            if (moved != null) {
+                moved.handle = unitHandles.handleAt(slot);
+                moved.fromX = unitTileX[slot];
+                moved.fromY = unitTileY[slot];
+                moved.toX = tileX;
+                moved.toY = tileY;
+            }
+        }
+        if (visionUnits != null && (tileX != unitTileX[slot] || tileY != unitTileY[slot]))
+            visionUnits.add(unitHandles.handleAt(slot));
+        unitTileX[slot] = tileX;
+        unitTileY[slot] = tileY;
+        unitIndex.move(unitHandles.handleAt(slot), tileX, tileY);
+    }
+
+    public int getUnitOwner(int slot) {
+        return unitOwner[slot];
+    }
+
+    public void setUnitOwner(int slot, int player) {
+        markUnitsChanged();
+        unitOwner[slot] = (byte) player;
+        if (visionUnits != null)
+            visionUnits.add(unitHandles.handleAt(slot));
+    }
+
+    public SpatialIndex getUnitIndex() {
+        return unitIndex;
+    }
+
+    public int getUnitMoves(int slot) {
+        return unitMoves[slot];
+    }
+
+    public int getUnitMaxMoves(int slot) {
+        return unitMaxMoves[slot];
+    }
+
+    public void spendUnitMoves(int slot, int cost) {
+        markUnitsChanged();
+        unitMoves[slot] = (short) Math.max(0, unitMoves[slot] - cost);
+    }
+
+    public void setUnitMoves(int slot, int moves) {
+        markUnitsChanged();
+        unitMoves[slot] = (short) moves;
+    }
+
+    public void restoreUnitMoves(int slot) {
+        markUnitsChanged();
+        unitMoves[slot] = unitMaxMoves[slot];
+    }
+
+    public int getUnitHp(int slot) {
+        return unitHp[slot];
+    }
+
+    public void setUnitHp(int slot, int hp) {
+        markUnitsChanged();
+        unitHp[slot] = (short) hp;
+    }
+
+    public int getUnitDamage(int slot) {
+        return unitDamage[slot];
+    }
+
+    public boolean hasUnitDestination(int slot) {
+        return (unitFlags[slot] & FLAG_HAS_DESTINATION) != 0;
+    }
+
+    public int getUnitDestinationX(int slot) {
+        return unitDestX[slot];
+    }
+
+    public int getUnitDestinationY(int slot) {
+        return unitDestY[slot];
+    }
+
+    public void setUnitDestination(int slot, int tileX, int tileY) {
+        markUnitsChanged();
+        unitDestX[slot] = tileX;
+        unitDestY[slot] = tileY;
+        unitFlags[slot] |= FLAG_HAS_DESTINATION;
+    }
+
+    public void clearUnitDestination(int slot) {
+        markUnitsChanged();
+        unitDestX[slot] = -1;
+        unitDestY[slot] = -1;
+        unitFlags[slot] &= ~FLAG_HAS_DESTINATION;
+    }
+
+    // ---- en bloc ----
+
+    /** Début de tour : chaque unité récupère tous ses points de mouvement. */
+    public void restoreAllMoves() {
+        restoreMoves(0, unitHandles.size());
+    }
+
+    /** Idem pour les slots [from, to) seulement (une partition du pipeline de tour). */
+    public void restoreMoves(int from, int to) {
+        markUnitsChanged();
+        System.arraycopy(unitMaxMoves, from, unitMoves, from, to - from);
+    }
+
+    // ---- suivi des changements (sauvegarde, événements de la vue) ----
+
+    public void setEvents(EventBus events) {
+        this.events = events;
+    }
+
+    /** Commence à lister les changements de vision ; chaque unité et ville existante est listée une fois. */
+    public void trackVision() {
+        if (visionUnits != null)
+            return;
+        visionUnits = new IntArray();
+        visionCities = new IntArray();
+        for (int slot = 0; slot < unitHandles.size(); slot++)
+            visionUnits.add(unitHandles.handleAt(slot));
+        for (int slot = 0; slot < cityHandles.size(); slot++)
+            visionCities.add(cityHandles.handleAt(slot));
+    }
+
+    /** Unités créées, déplacées, données ou retirées depuis que l'appelant l'a vidée (null si non suivi). */
+    public IntArray getVisionUnits() {
+        return visionUnits;
+    }
+
+    public IntArray getVisionCities() {
+        return visionCities;
+    }
+
+    private void markUnitsChanged() {
+        if (!unitsChanged)
+            unitsChanged = true;
+    }
+
+    private void markCitiesChanged() {
+        if (!citiesChanged)
+            citiesChanged = true;
+    }
+
+    /** Vrai si une unité a changé depuis l'appel précédent ; efface le drapeau. */
+    public boolean pollUnitsChanged() {
+        boolean changed = unitsChanged;
+        unitsChanged = false;
+        return changed;
+    }
+
+    /** Vrai si une ville a changé depuis l'appel précédent ; efface le drapeau. */
+    public boolean pollCitiesChanged() {
+        boolean changed = citiesChanged;
+        citiesChanged = false;
+        return changed;
+    }
+
+    private void growUnits(int capacity) {
+        unitTileX = Arrays.copyOf(unitTileX, capacity);
+        unitTileY = Arrays.copyOf(unitTileY, capacity);
+        unitDestX = Arrays.copyOf(unitDestX, capacity);
+        unitDestY = Arrays.copyOf(unitDestY, capacity);
+        unitType = Arrays.copyOf(unitType, capacity);
+        unitFlags = Arrays.copyOf(unitFlags, capacity);
+        unitMoves = Arrays.copyOf(unitMoves, capacity);
+        unitMaxMoves = Arrays.copyOf(unitMaxMoves, capacity);
+        unitHp = Arrays.copyOf(unitHp, capacity);
+        unitDamage = Arrays.copyOf(unitDamage, capacity);
+        unitOwner = Arrays.copyOf(unitOwner, capacity);
+    }
+
+    // ============================================================================
+    // Villes
+    // ============================================================================
+
+    public int createCity(String name, int tileX, int tileY) {
+        markCitiesChanged();
+        int slot = cityHandles.size();
+        if (slot == cityTileX.length)
+            growCities(slot * 2);
+
+        int handle = cityHandles.allocate();
+        cityTileX[slot] = tileX;
+        cityTileY[slot] = tileY;
+        cityName[slot] = name;
+        cityPopulation[slot] = 1;
+        cityFood[slot] = 0;
+        cityProduction[slot] = 0;
+        cityBuild[slot] = -1;
+        cityOwner[slot] = 0;
+        cityIndex.insert(handle, tileX, tileY);
+        if (visionCities != null)
+            visionCities.add(handle);
+
+        CityFounded founded = events == null ? null : events.post(CityFounded.TYPE);
+        if (founded != null) {
+            founded.handle = handle;
+            founded.tileX = tileX;
+            founded.tileY = tileY;
+        }
+        return handle;
+    }
+
+    public void removeCity(int handle) {
+        markCitiesChanged();
+        int hole = cityHandles.release(handle);
+        cityIndex.remove(handle);
+        if (visionCities != null)
+            visionCities.add(handle);
+        int last = cityHandles.size();
+        if (hole >= 0) {
+            cityTileX[hole] = cityTileX[last];
+            cityTileY[hole] = cityTileY[last];
+            cityName[hole] = cityName[last];
+            cityPopulation[hole] = cityPopulation[last];
+            cityFood[hole] = cityFood[last];
+            cityProduction[hole] = cityProduction[last];
+            cityBuild[hole] = cityBuild[last];
+            cityOwner[hole] = cityOwner[last];
+        }
+        cityName[last] = null;
+    }
+
+    public int getCityCount() {
+        return cityHandles.size();
+    }
+
+    public int citySlot(int handle) {
+        return cityHandles.slot(handle);
+    }
+
+    public int cityHandleAt(int slot) {
+        return cityHandles.handleAt(slot);
+    }
+
+    public boolean isCityAlive(int handle) {
+        return cityHandles.slot(handle) >= 0;
+    }
+
+    public int getCityTileX(int slot) {
+        return cityTileX[slot];
+    }
+
+    public int getCityTileY(int slot) {
+        return cityTileY[slot];
+    }
+
+    public int getCityOwner(int slot) {
+        return cityOwner[slot];
+    }
+
+    public void setCityOwner(int slot, int player) {
+        markCitiesChanged();
+        cityOwner[slot] = (byte) player;
+        if (visionCities != null)
+            visionCities.add(cityHandles.handleAt(slot));
+    }
+
+    public String getCityName(int slot) {
+        return cityName[slot];
+    }
+
+    public int getCityPopulation(int slot) {
+        return cityPopulation[slot];
+    }
+
+    public void setCityPopulation(int slot, int population) {
+        markCitiesChanged();
+        cityPopulation[slot] = (short) population;
+    }
+
+    public int getCityFood(int slot) {
+        return cityFood[slot];
+    }
+
+    public void setCityFood(int slot, int food) {
+        markCitiesChanged();
+        cityFood[slot] = food;
+    }
+
+    public int getCityProduction(int slot) {
+        return cityProduction[slot];
+    }
+
+    public void setCityProduction(int slot, int production) {
+        markCitiesChanged();
+        cityProduction[slot] = production;
+    }
+
+    /** Unité en construction, ou null. */
+    public UnitType getCityBuild(int slot) {
+        return cityBuild[slot] < 0 ? null : UnitType.of(cityBuild[slot]);
+    }
+
+    public void setCityBuild(int slot, UnitType type) {
+        markCitiesChanged();
+        cityBuild[slot] = type == null ? -1 : (byte) type.ordinal();
+    }
+
+    public SpatialIndex getCityIndex() {
+        return cityIndex;
+    }
+
+    private void growCities(int capacity) {
+        cityTileX = Arrays.copyOf(cityTileX, capacity);
+        cityTileY = Arrays.copyOf(cityTileY, capacity);
+        cityName = Arrays.copyOf(cityName, capacity);
+        cityPopulation = Arrays.copyOf(cityPopulation, capacity);
+        cityFood = Arrays.copyOf(cityFood, capacity);
+        cityProduction = Arrays.copyOf(cityProduction, capacity);
+        cityBuild = Arrays.copyOf(cityBuild, capacity);
+        cityOwner = Arrays.copyOf(cityOwner, capacity);
+    }
+}
@@ -0,0 +1,122 @@
+package com.despotisme.entities;
+
+import java.util.Arrays;
+
+/**
+ * ============================================================================
+ * HandleTable
+ * ----------------------------------------------------------------------------
+ * Handles int stables sur un tableau dense de slots (sparse set).
+ *
+ * Les entrées vivantes occupent toujours les slots [0, size) : les boucles
+ * en bloc ne sautent jamais de trou. Retirer une entrée déplace le dernier
+ * slot dans le trou et corrige son handle. Un handle vaut
+ * (generation << INDEX_BITS | index) : un index recyclé change de
+ * génération, un handle périmé est détecté au lieu de désigner une
+ * nouvelle entité.
+ *
+ * 20 bits d'index (1M d'entrées à la fois) laissent 11 bits de génération
+ * sous le bit de signe (les handles restent positifs, -1 = aucun). Un index
+ * dont la génération est épuisée après 2048 usages est retiré, jamais
+ * réutilisé : un handle gardé toute la partie (mini-carte, panneau d'unité,
+ * vision) ne peut jamais désigner une autre entité, au prix d'un index
+ * perdu tous les 2048 recyclages.
+ * ============================================================================
+ */
+final class HandleTable {
+
+    static final int INDEX_BITS = 20;
+    static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    static final int MAX_ENTRIES = 1 << INDEX_BITS;
+    static final int MAX_GENERATION = (1 << (31 - INDEX_BITS)) - 1;
+
+    private int[] slotOf;       // index de handle -> slot (-1 si libre)
+    private int[] generation;   // index de handle -> génération courante
+    private int[] handleAt;     // slot -> handle
+    private int[] freeIndices;  // index de handles recyclés (pile), sans les retirés
+    private int freeCount;
+    private int indexCount;     // index de handles déjà utilisés
+    private int size;           // entrées vivantes = slots utilisés
+
+    HandleTable(int capacity) {
+        slotOf = new int[capacity];
+        generation = new int[capacity];
+        handleAt = new int[capacity];
+        freeIndices = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return handleAt.length;
+    }
+
+    /** Alloue un handle lié au slot size() ; l'appelant remplit ce slot. */
+    int allocate() {
+        int index;
+        if (freeCount > 0) {
+            index = freeIndices[--freeCount];
+        } else {
+            if (indexCount == MAX_ENTRIES)
+                throw new IllegalStateException("Entity store is full (" + MAX_ENTRIES + " entries)");
+            if (indexCount == slotOf.length)
+                grow();
+            index = indexCount++;
+        }
+
+        int handle = (generation[index] << INDEX_BITS) | index;
+        slotOf[index] = size;
+        handleAt[size] = handle;
+        size++;
+        return handle;
+    }
+
+    /**
+     * Libère un handle. Renvoie le slot à remplir avec les données du
+     * dernier slot (size() après l'appel), ou -1 si le slot libéré était
+     * le dernier.
+     */
+    int release(int handle) {
+        int slot = slot(handle);
+        if (slot < 0)
+            throw new IllegalArgumentException("Stale or invalid handle: " + handle);
+
+        int index = handle & INDEX_MASK;
+        slotOf[index] = -1;
+        if (generation[index] < MAX_GENERATION) {
+            generation[index]++;
+            freeIndices[freeCount++] = index;
+        }
+
+        int last = --size;
+        if (slot == last)
+            return -1;
+
+        int moved = handleAt[last];
+        handleAt[slot] = moved;
+        slotOf[moved & INDEX_MASK] = slot;
+        return slot;
+    }
+
+    /** Slot d'un handle vivant, ou -1 s'il a été libéré. */
+    int slot(int handle) {
+        int index = handle & INDEX_MASK;
+        if (handle < 0 || index >= indexCount || generation[index] != handle >>> INDEX_BITS)
+            return -1;
+        return slotOf[index];
+    }
+
+    int handleAt(int slot) {
+        return handleAt[slot];
+    }
+
+    private void grow() {
+        int capacity = Math.min(MAX_ENTRIES, slotOf.length * 2);
+        slotOf = Arrays.copyOf(slotOf, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        handleAt = Arrays.copyOf(handleAt, capacity);
+        freeIndices = Arrays.copyOf(freeIndices, capacity);
+    }
+}
@@ -0,0 +1,209 @@
+package com.despotisme.entities;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * ============================================================================
+ * SpatialIndex
+ * ----------------------------------------------------------------------------
+ * Grille uniforme de seaux de BUCKET_SIZE x BUCKET_SIZE cases sur des
+ * handles d'entités.
+ *
+ * Les seaux sont rangés dans une table en puissance de deux, taillée sur
+ * la carte par setMapSize() (le terrain posé) : un slot par seau de la
+ * carte, rangée par rangée, sans collision ; les seaux hors carte (bords
+ * des requêtes) retombent sur des slots partagés, filtrés par leur clé
+ * exacte. Avant setMapSize(), la table couvre 64 x 64 seaux et les cartes
+ * plus grandes s'y replient. La table ne réalloue jamais quand les unités
+ * se déplacent. Chaque seau est une liste doublement chaînée
+ * intrusive (tableaux indexés par index de handle) : insertion, retrait et
+ * déplacement en O(1), sans allocation. Les requêtes ne visitent que les
+ * seaux qui recouvrent la zone demandée et filtrent sur la case exacte :
+ * leur coût suit la surface et le nombre de résultats.
+ *
+ * Tenu à jour par EntityStore à la création, au déplacement et au retrait.
+ * ============================================================================
+ */
+public class SpatialIndex {
+
+    public static final int BUCKET_SHIFT = 3;
+    public static final int BUCKET_SIZE = 1 << BUCKET_SHIFT;   // 8 x 8 cases
+
+    private static final int DEFAULT_BUCKETS_WIDE = 64;        // avant setMapSize : 64 x 64 seaux
+
+    private int[] head = new int[DEFAULT_BUCKETS_WIDE * DEFAULT_BUCKETS_WIDE];   // slot de table -> premier nœud
+    private int bucketsWide = DEFAULT_BUCKETS_WIDE;
+    private int tableMask = head.length - 1;
+
+    // par nœud (= index de handle)
+    private int[] handle;
+    private int[] tileX;
+    private int[] tileY;
+    private int[] bucketKey;   // coordonnées du seau tassées (exactes, pas hachées)
+    private int[] next;
+    private int[] prev;
+
+    public SpatialIndex() {
+        Arrays.fill(head, -1);
+        handle = new int[64];
+        tileX = new int[64];
+        tileY = new int[64];
+        bucketKey = new int[64];
+        next = new int[64];
+        prev = new int[64];
+    }
+
+    /**
+     * Taille la table sur une carte de width x height cases : un slot par
+     * seau. Les entités déjà indexées sont rechaînées dans la nouvelle table.
+     */
+    public void setMapSize(int width, int height) {
+        int wide = (width + BUCKET_SIZE - 1) >> BUCKET_SHIFT;
+        int high = (height + BUCKET_SIZE - 1) >> BUCKET_SHIFT;
+        int size = Math.max(1, Integer.highestOneBit(Math.max(1, wide * high) - 1) << 1);
+
+        int[] old = head;
+        head = new int[size];
+        Arrays.fill(head, -1);
+        bucketsWide = wide;
+        tableMask = size - 1;
+        for (int first : old) {
+            for (int node = first; node >= 0; ) {
+                int following = next[node];
+                link(node, bucketKey[node]);
+                node = following;
+            }
+        }
+    }
+
+    // ============================================================================
+    // Mises à jour
+    // ============================================================================
+
+    public void insert(int entity, int x, int y) {
+        int node = entity & HandleTable.INDEX_MASK;
+        if (node >= handle.length)
+            grow(Math.max(node + 1, handle.length * 2));
+
+        handle[node] = entity;
+        tileX[node] = x;
+        tileY[node] = y;
+        link(node, key(x >> BUCKET_SHIFT, y >> BUCKET_SHIFT));
+    }
+
+    public void remove(int entity) {
+        unlink(entity & HandleTable.INDEX_MASK);
+    }
+
+    public void move(int entity, int x, int y) {
+        int node = entity & HandleTable.INDEX_MASK;
+        tileX[node] = x;
+        tileY[node] = y;
+
+        int key = key(x >> BUCKET_SHIFT, y >> BUCKET_SHIFT);
+        if (key != bucketKey[node]) {
+            unlink(node);
+            link(node, key);
+        }
+    }
+
+    // ============================================================================
+    // Requêtes (résultats ajoutés à out, vidé d'abord)
+    // ============================================================================
+
+    /** Entités sur la case (x, y). */
+    public int at(int x, int y, IntArray out) {
+        return inRect(x, y, x, y, out);
+    }
+
+    /** Entités dont la case est dans [minX, maxX] x [minY, maxY] (bornes incluses). */
+    public int inRect(int minX, int minY, int maxX, int maxY, IntArray out) {
+        out.clear();
+        for (int by = minY >> BUCKET_SHIFT; by <= maxY >> BUCKET_SHIFT; by++) {
+            for (int bx = minX >> BUCKET_SHIFT; bx <= maxX >> BUCKET_SHIFT; bx++) {
+                int key = key(bx, by);
+                for (int n = head[slot(key)]; n >= 0; n = next[n]) {
+                    if (bucketKey[n] == key
+                            && tileX[n] >= minX && tileX[n] <= maxX
+                            && tileY[n] >= minY && tileY[n] <= maxY)
+                        out.add(handle[n]);
+                }
+            }
+        }
+        return out.size;
+    }
+
+    /**
+     * Entité la plus proche à moins de radius cases (euclidien) de (x, y), ou -1.
+     */
+    public int nearest(int x, int y, int radius) {
+        int best = -1;
+        long bestDist = (long) radius * radius;
+
+        for (int by = (y - radius) >> BUCKET_SHIFT; by <= (y + radius) >> BUCKET_SHIFT; by++) {
+            for (int bx = (x - radius) >> BUCKET_SHIFT; bx <= (x + radius) >> BUCKET_SHIFT; bx++) {
+                int key = key(bx, by);
+                for (int n = head[slot(key)]; n >= 0; n = next[n]) {
+                    if (bucketKey[n] != key)
+                        continue;
+                    long dx = tileX[n] - x;
+                    long dy = tileY[n] - y;
+                    long dist = dx * dx + dy * dy;
+                    if (dist <= bestDist && (best < 0 || dist < bestDist)) {
+                        best = handle[n];
+                        bestDist = dist;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // ============================================================================
+    // Interne
+    // ============================================================================
+
+    // coordonnées de seau tassées sur 16 + 16 bits (cartes jusqu'à 524k cases de large)
+    private static int key(int bx, int by) {
+        return (bx << 16) | (by & 0xFFFF);
+    }
+
+    // rangée par rangée : les seaux de la carte ont chacun leur slot
+    private int slot(int key) {
+        int bx = key >> 16;
+        int by = (short) key;
+        return (by * bucketsWide + bx) & tableMask;
+    }
+
+    private void link(int node, int key) {
+        int s = slot(key);
+        bucketKey[node] = key;
+        prev[node] = -1;
+        next[node] = head[s];
+        if (head[s] >= 0)
+            prev[head[s]] = node;
+        head[s] = node;
+    }
+
+    private void unlink(int node) {
+        int p = prev[node];
+        int n = next[node];
+        if (p >= 0)
+            next[p] = n;
+        else
+            head[slot(bucketKey[node])] = n;
+        if (n >= 0)
+            prev[n] = p;
+    }
+
+    private void grow(int capacity) {
+        handle = Arrays.copyOf(handle, capacity);
+        tileX = Arrays.copyOf(tileX, capacity);
+        tileY = Arrays.copyOf(tileY, capacity);
+        bucketKey = Arrays.copyOf(bucketKey, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+    }
+}
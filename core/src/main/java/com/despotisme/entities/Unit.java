@@ -1,83 +1,121 @@
 package com.despotisme.entities;
 
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-
-import com.despotisme.constants.UnitsConstants;
 import com.despotisme.constants.MapConstants;
 
 import lombok.Getter;
 import lombok.Setter;
 
+// simple vue sur l'EntityStore : position, mouvements et ordres vivent dans le store
+// pas de GL ici : les sprites sont dessinés par render.EntityRenderer
 public abstract class Unit {
-    // moving capacity
-    @Getter protected int moves = 3;
-
-    // sprite
-    protected Texture frontTexture;
-    protected Texture backTexture;
-    protected Texture leftTexture;
-    protected Texture rightTexture;
-    protected Texture selectionTexture;
+    protected final EntityStore store;
+    @Getter protected final int handle;
 
     @Getter
     protected String name;
 
-    // state
-    protected Texture currentTexture;
+    // état
+    @Getter protected Direction direction = Direction.DOWN;
     @Getter @Setter protected boolean selected = false;
 
-    // location
-    @Getter protected float x, y;
+    public enum Direction { UP, DOWN, LEFT, RIGHT }
 
-    public Unit(String name, float x, float y) {
+    public Unit(EntityStore store, UnitType type, float x, float y) {
         // Centering on grid
-        this.x = Math.round(x / MapConstants.TILE_SIZE) * MapConstants.TILE_SIZE;
-        this.y = Math.round(y / MapConstants.TILE_SIZE) * MapConstants.TILE_SIZE;
-        this.name = name;
+        this.store = store;
+        this.handle = store.createUnit(type,
+                Math.round(x / MapConstants.TILE_SIZE), Math.round(y / MapConstants.TILE_SIZE));
+        this.name = type.displayName;
     }
 
-    public void render(SpriteBatch batch) {
-        if (selected) {
-            batch.setColor(1f, 1f, 1f, 1f);
-            batch.draw(selectionTexture, x - 8, y - 8, UnitsConstants.UNIT_HEIGHT, UnitsConstants.UNIT_WIDTH);
-        }
-        batch.draw(currentTexture, x, y, UnitsConstants.UNIT_HEIGHT, UnitsConstants.UNIT_WIDTH);
+    // le slot change quand d'autres unités sont retirées : résolu à chaque accès
+    protected int slot() {
+        return store.unitSlot(handle);
     }
 
     public void setDirection(String direction) {
         switch (direction) {
             case "up":
-                currentTexture = backTexture;
+                this.direction = Direction.UP;
                 break;
             case "down":
-                currentTexture = frontTexture;
+                this.direction = Direction.DOWN;
                 break;
             case "left":
-                currentTexture = leftTexture;
+                this.direction = Direction.LEFT;
                 break;
             case "right":
-                currentTexture = rightTexture;
+                this.direction = Direction.RIGHT;
                 break;
         }
     }
 
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
     public void setPosition(float x, float y) {
-        this.x = x;
-        this.y = y;
+        store.setUnitTile(slot(), Math.round(x / MapConstants.TILE_SIZE), Math.round(y / MapConstants.TILE_SIZE));
+    }
+
+    public float getX() {
+        return getTileX() * MapConstants.TILE_SIZE;
+    }
+
+    public float getY() {
+        return getTileY() * MapConstants.TILE_SIZE;
+    }
+
+    public int getTileX() {
+        return store.getUnitTileX(slot());
+    }
+
+    public int getTileY() {
+        return store.getUnitTileY(slot());
+    }
+
+    public UnitType getType() {
+        return store.getUnitType(slot());
+    }
+
+    public int getMoves() {
+        return store.getUnitMoves(slot());
+    }
+
+    public int getMaxMoves() {
+        return store.getUnitMaxMoves(slot());
+    }
+
+    public int getDestinationX() {
+        return store.getUnitDestinationX(slot());
+    }
+
+    public int getDestinationY() {
+        return store.getUnitDestinationY(slot());
+    }
+
+    public void setDestination(int tileX, int tileY) {
+        store.setUnitDestination(slot(), tileX, tileY);
+    }
+
+    public boolean hasDestination() {
+        return store.hasUnitDestination(slot());
+    }
+
+    public void clearDestination() {
+        store.clearUnitDestination(slot());
+    }
+
+    public void spendMoves(int cost) {
+        store.spendUnitMoves(slot(), cost);
     }
 
-    public void dispose() {
-        frontTexture.dispose();
-        backTexture.dispose();
-        leftTexture.dispose();
-        rightTexture.dispose();
-        selectionTexture.dispose();
+    public boolean isAlive() {
+        return store.isUnitAlive(handle);
     }
 
     public void restoreMoves() {
-        this.moves = 3;
+        store.restoreUnitMoves(slot());
     }
 
     public void endTurn() {
@@ -0,0 +1,35 @@
+package com.despotisme.entities;
+
+// Caractéristiques fixes par type, rangées par ordinal dans EntityStore
+public enum UnitType {
+    SETTLER("settler", "Settler", 3, 50, 0, 30, 5);
+
+    private static final UnitType[] VALUES = values();
+
+    public final String key;          // nom pour UnitFactory
+    public final String displayName;
+    public final int moves;
+    public final int hp;
+    public final int damage;
+    public final int cost;            // production nécessaire dans une ville
+    public final int vision;          // rayon de vision en cases (VisibilityEngine)
+
+    UnitType(String key, String displayName, int moves, int hp, int damage, int cost, int vision) {
+        this.key = key;
+        this.displayName = displayName;
+        this.moves = moves;
+        this.hp = hp;
+        this.damage = damage;
+        this.cost = cost;
+        this.vision = vision;
+    }
+
+    public static UnitType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    // false pour un octet qui n'est pas un ordinal de UnitType (sauvegarde corrompue, lot d'un pair)
+    public static boolean exists(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length;
+    }
+}
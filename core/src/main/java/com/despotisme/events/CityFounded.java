@@ -0,0 +1,15 @@
+package com.despotisme.events;
+
+// une ville a été fondée
+public final class CityFounded extends GameEvent {
+
+    public static final EventType<CityFounded> TYPE = new EventType<>("CityFounded", CityFounded::new);
+
+    public int handle;
+    public int tileX, tileY;
+
+    @Override
+    public EventType<?> getType() {
+        return TYPE;
+    }
+}
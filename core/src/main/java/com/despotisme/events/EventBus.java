@@ -0,0 +1,124 @@
+package com.despotisme.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ============================================================================
+ * EventBus
+ * ----------------------------------------------------------------------------
+ * File d'événements typés modèle -> vue, livrés en un lot par frame.
+ *
+ * Le modèle publie pendant qu'il change (EntityStore, ExploredArea,
+ * GameManager) ; la vue appelle dispatch() une fois par frame et chaque
+ * listener reçoit les événements dans l'ordre de publication. Les
+ * événements sont recyclés par type et la file est un tableau réutilisé :
+ * une fois chauds, publier et livrer n'allouent rien. post() renvoie null
+ * quand personne n'écoute un type : une partie sans rendu (Simulation,
+ * Replay, benchmarks) ne paie qu'un test par changement.
+ *
+ * Thread du jeu uniquement : les phases de tour publient depuis leur merge
+ * séquentiel.
+ * ============================================================================
+ */
+public class EventBus {
+
+    private List<EventListener<GameEvent>>[] listeners = newListeners(8);
+    private GameEvent[][] pools = new GameEvent[8][];
+    private int[] pooled = new int[8];
+
+    private GameEvent[] queue = new GameEvent[64];
+    private int queued;
+
+    @SuppressWarnings("unchecked")
+    public <E extends GameEvent> void subscribe(EventType<E> type, EventListener<? super E> listener) {
+        ensureType(type.id);
+        listeners[type.id].add((EventListener<GameEvent>) listener);
+    }
+
+    public void unsubscribe(EventType<?> type, EventListener<?> listener) {
+        if (type.id < listeners.length)
+            listeners[type.id].remove(listener);
+    }
+
+    public boolean hasListeners(EventType<?> type) {
+        return type.id < listeners.length && !listeners[type.id].isEmpty();
+    }
+
+    /**
+     * ============================================================================
+     * Met en file un événement recyclé de ce type et le renvoie, à remplir
+     * par l'appelant (il est livré au prochain dispatch), ou null si
+     * personne n'écoute.
+     * ============================================================================
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends GameEvent> E post(EventType<E> type) {
+        if (!hasListeners(type))
+            return null;
+
+        int id = type.id;
+        E event = pooled[id] > 0 ? (E) pools[id][--pooled[id]] : type.factory.get();
+        if (queued == queue.length)
+            queue = Arrays.copyOf(queue, queued * 2);
+        queue[queued++] = event;
+        return event;
+    }
+
+    /**
+     * ============================================================================
+     * Livre les événements en file, y compris ceux publiés par les listeners
+     * pendant cet appel, puis les rend à leur réserve.
+     * ============================================================================
+     */
+    public void dispatch() {
+        for (int i = 0; i < queued; i++) {
+            GameEvent event = queue[i];
+            List<EventListener<GameEvent>> targets = listeners[event.getType().id];
+            for (int l = 0; l < targets.size(); l++)
+                targets.get(l).handle(event);
+        }
+
+        for (int i = 0; i < queued; i++) {
+            release(queue[i]);
+            queue[i] = null;
+        }
+        queued = 0;
+    }
+
+    /** Nombre d'événements en attente de dispatch(). */
+    public int getQueued() {
+        return queued;
+    }
+
+    private void release(GameEvent event) {
+        int id = event.getType().id;
+        GameEvent[] pool = pools[id];
+        if (pool == null)
+            pool = pools[id] = new GameEvent[16];
+        else if (pooled[id] == pool.length)
+            pool = pools[id] = Arrays.copyOf(pool, pool.length * 2);
+        pool[pooled[id]++] = event;
+    }
+
+    private void ensureType(int id) {
+        if (id < listeners.length)
+            return;
+
+        int capacity = Math.max(id + 1, listeners.length * 2);
+        List<EventListener<GameEvent>>[] grown = newListeners(capacity);
+        System.arraycopy(listeners, 0, grown, 0, listeners.length);
+        listeners = grown;
+        pools = Arrays.copyOf(pools, capacity);
+        pooled = Arrays.copyOf(pooled, capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<EventListener<GameEvent>>[] newListeners(int capacity) {
+        List<EventListener<GameEvent>>[] lists = new List[capacity];
+        for (int i = 0; i < capacity; i++)
+            lists[i] = new ArrayList<>();
+        return lists;
+    }
+}
@@ -0,0 +1,7 @@
+package com.despotisme.events;
+
+@FunctionalInterface
+public interface EventListener<E extends GameEvent> {
+
+    void handle(E event);
+}
@@ -0,0 +1,33 @@
+package com.despotisme.events;
+
+import java.util.function.Supplier;
+
+/**
+ * ============================================================================
+ * EventType
+ * ----------------------------------------------------------------------------
+ * Clé d'une classe d'événement : identifiant dense (indice dans les
+ * tableaux du bus) et fabrique utilisée par le bus pour remplir sa réserve.
+ * ============================================================================
+ */
+public final class EventType<E extends GameEvent> {
+
+    private static int count;
+
+    final int id;
+    final Supplier<E> factory;
+    private final String name;
+
+    public EventType(String name, Supplier<E> factory) {
+        synchronized (EventType.class) {
+            this.id = count++;
+        }
+        this.name = name;
+        this.factory = factory;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,15 @@
+package com.despotisme.events;
+
+/**
+ * ============================================================================
+ * GameEvent
+ * ----------------------------------------------------------------------------
+ * Base des événements modèle -> vue. Les instances sont recyclées par
+ * l'EventBus : un listener ne doit pas en garder de référence après
+ * handle().
+ * ============================================================================
+ */
+public abstract class GameEvent {
+
+    public abstract EventType<?> getType();
+}
@@ -0,0 +1,13 @@
+package com.despotisme.events;
+
+public final class TurnEnded extends GameEvent {
+
+    public static final EventType<TurnEnded> TYPE = new EventType<>("TurnEnded", TurnEnded::new);
+
+    public int turn;    // tour qui commence
+
+    @Override
+    public EventType<?> getType() {
+        return TYPE;
+    }
+}
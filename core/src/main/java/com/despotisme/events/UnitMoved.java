@@ -0,0 +1,16 @@
+package com.despotisme.events;
+
+// une unité a changé de case (clavier, ordre de déplacement, mouvement de fin de tour)
+public final class UnitMoved extends GameEvent {
+
+    public static final EventType<UnitMoved> TYPE = new EventType<>("UnitMoved", UnitMoved::new);
+
+    public int handle;
+    public int fromX, fromY;
+    public int toX, toY;
+
+    @Override
+    public EventType<?> getType() {
+        return TYPE;
+    }
+}
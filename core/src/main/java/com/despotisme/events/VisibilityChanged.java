@@ -0,0 +1,16 @@
+package com.despotisme.events;
+
+// cases explorées et/ou visibles d'un joueur modifiées, rectangle englobant (bornes incluses)
+public final class VisibilityChanged extends GameEvent {
+
+    public static final EventType<VisibilityChanged> TYPE = new EventType<>("VisibilityChanged", VisibilityChanged::new);
+
+    public int player;
+    public int minX, minY;
+    public int maxX, maxY;
+
+    @Override
+    public EventType<?> getType() {
+        return TYPE;
+    }
+}
@@ -2,12 +2,17 @@ package com.despotisme.factories;
 
 import com.despotisme.entities.Settler;
 import com.despotisme.entities.City;
+import com.despotisme.entities.EntityStore;
 
 public class CityFactoryImpl implements CityFactory {
-    public CityFactoryImpl() {}
+    private final EntityStore store;
+
+    public CityFactoryImpl(EntityStore store) {
+        this.store = store;
+    }
 
     @Override
     public City createCity(String cityName, float x, float y) {
-        return  new City(cityName, x, y);
+        return  new City(store, cityName, x, y);
     }
 }
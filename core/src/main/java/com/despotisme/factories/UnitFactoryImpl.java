@@ -1,15 +1,20 @@
 package com.despotisme.factories;
 
+import com.despotisme.entities.EntityStore;
 import com.despotisme.entities.Unit;
 import com.despotisme.entities.Settler;
 
 public class UnitFactoryImpl implements UnitFactory {
-    public UnitFactoryImpl() {}
+    private final EntityStore store;
+
+    public UnitFactoryImpl(EntityStore store) {
+        this.store = store;
+    }
 
     @Override
     public Unit createUnit(String unit, float x, float y) {
         return switch(unit) {
-            case "settler" -> new Settler(x, y);
+            case "settler" -> new Settler(store, x, y);
             default -> throw new IllegalArgumentException("Unknown unit type: " + unit);
         };
     }
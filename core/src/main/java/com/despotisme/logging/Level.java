@@ -0,0 +1,17 @@
+package com.despotisme.logging;
+
+// niveaux du Logger, du plus bavard au plus grave (OFF coupe tout)
+public enum Level {
+    TRACE, DEBUG, INFO, WARN, ERROR, OFF;
+
+    // nom sans tenir compte de la casse, fallback si inconnu ou null
+    static Level parse(String name, Level fallback) {
+        if (name == null)
+            return fallback;
+        for (Level level : values()) {
+            if (level.name().equalsIgnoreCase(name.trim()))
+                return level;
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,233 @@
+package com.despotisme.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ============================================================================
+ * LogRing
+ * ----------------------------------------------------------------------------
+ * Anneau borné, multi-producteurs, d'enregistrements de log préalloués,
+ * vidé par un thread démon ("log-writer") qui les met en forme et les écrit.
+ *
+ * Un producteur réserve une séquence par un incrément atomique, copie ses
+ * arguments dans la case et la publie par la séquence volatile de la case :
+ * ni verrou, ni allocation, ni I/O. Quand l'écrivain a un anneau entier de
+ * retard, l'enregistrement est abandonné et compté au lieu d'attendre ; le
+ * compte est signalé dans la sortie.
+ *
+ * L'écrivain se met en pause quand l'anneau est vide et vide ses tampons
+ * dès qu'il a rattrapé son retard. Un hook d'arrêt écrit le reste à la
+ * sortie du programme.
+ * ============================================================================
+ */
+final class LogRing {
+
+    private static final int CAPACITY = 1024;             // puissance de deux
+    private static final int MASK = CAPACITY - 1;
+    private static final long IDLE_PARK_NANOS = 2_000_000L;
+    private static final int MAX_ARGS = 4;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private static final class Record {
+        volatile long published = -1;   // séquence de l'enregistrement contenu, écrite en dernier
+        Level level;
+        String logger;
+        String thread;
+        long millis;
+        String message;
+        int argCount;
+        int objectMask;                 // bit i levé : l'argument i est un objet
+        final Object[] objects = new Object[2];
+        final double[] numbers = new double[MAX_ARGS];
+    }
+
+    private static LogRing instance;
+
+    private final Record[] records = new Record[CAPACITY];
+    private final AtomicLong claimed = new AtomicLong();   // prochaine séquence à attribuer
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long consumed;                       // prochaine séquence lue par l'écrivain
+    private volatile boolean running = true;
+
+    private final Thread writerThread;
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(256);   // thread d'écriture uniquement
+
+    private LogRing(Writer out) {
+        for (int i = 0; i < CAPACITY; i++)
+            records[i] = new Record();
+        this.out = out;
+
+        writerThread = new Thread(this::drainLoop, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "log-shutdown"));
+    }
+
+    static synchronized LogRing get() {
+        if (instance == null)
+            instance = new LogRing(openOutput(System.getProperty("despotisme.logFile")));
+        return instance;
+    }
+
+    private static Writer openOutput(String file) {
+        if (file != null) {
+            try {
+                Path path = Paths.get(file);
+                Path dir = path.toAbsolutePath().getParent();
+                if (dir != null)
+                    Files.createDirectories(dir);
+                return Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("Cannot open log file " + file + ", logging to the console: " + e);
+            }
+        }
+        return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+
+    // ============================================================================
+    // Producteurs (tout thread)
+    // ============================================================================
+
+    void publish(Level level, String logger, String message, int argCount, int objectMask,
+                 Object o1, Object o2, double d1, double d2, double d3, double d4) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        Record r = records[(int) (seq & MASK)];
+        r.level = level;
+        r.logger = logger;
+        r.thread = Thread.currentThread().getName();
+        r.millis = System.currentTimeMillis();
+        r.message = message;
+        r.argCount = argCount;
+        r.objectMask = objectMask;
+        r.objects[0] = o1;
+        r.objects[1] = o2;
+        r.numbers[0] = d1;
+        r.numbers[1] = d2;
+        r.numbers[2] = d3;
+        r.numbers[3] = d4;
+        r.published = seq;
+    }
+
+    // ============================================================================
+    // Thread d'écriture
+    // ============================================================================
+
+    private void drainLoop() {
+        while (running) {
+            if (!drain())
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    // écrit dans l'ordre chaque enregistrement publié ; false s'il n'y en avait aucun
+    private synchronized boolean drain() {
+        long seq = consumed;
+        boolean wrote = false;
+        try {
+            while (true) {
+                Record r = records[(int) (seq & MASK)];
+                if (r.published != seq)
+                    break;   // pas encore réservé, ou réservé mais en cours de remplissage
+
+                format(r);
+                out.append(line);
+                r.objects[0] = null;
+                r.objects[1] = null;
+                consumed = ++seq;
+                wrote = true;
+            }
+
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                out.append("[log] ").append(Long.toString(lost)).append(" messages dropped (ring full)\n");
+                wrote = true;
+            }
+            if (wrote)
+                out.flush();
+        } catch (IOException e) {
+            // plus aucun endroit où le signaler : on saute ce qui n'a pas pu être écrit
+            consumed = seq + 1;
+        }
+        return wrote;
+    }
+
+    private void format(Record r) {
+        StringBuilder b = line;
+        b.setLength(0);
+        TIME.formatTo(Instant.ofEpochMilli(r.millis), b);
+        b.append(' ').append(r.level).append(' ')
+         .append('[').append(r.thread).append("] ").append(r.logger).append(": ");
+
+        String message = r.message;
+        int arg = 0;
+        int object = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '{' && i + 1 < message.length() && message.charAt(i + 1) == '}' && arg < r.argCount) {
+                if ((r.objectMask & (1 << arg)) != 0)
+                    b.append(r.objects[object++]);
+                else
+                    appendNumber(b, r.numbers[arg]);
+                arg++;
+                i++;
+            } else {
+                b.append(c);
+            }
+        }
+        b.append('\n');
+    }
+
+    // entiers sans ".0", autres valeurs avec deux décimales
+    private static void appendNumber(StringBuilder b, double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            b.append((long) value);
+            return;
+        }
+        long hundredths = Math.round(value * 100);
+        if (hundredths < 0) {
+            b.append('-');
+            hundredths = -hundredths;
+        }
+        b.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10)
+            b.append('0');
+        b.append(fraction);
+    }
+
+    /** Écrit ce qui est en file et arrête l'écrivain (appelé à la sortie). */
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+}
@@ -0,0 +1,120 @@
+package com.despotisme.logging;
+
+/**
+ * ============================================================================
+ * Logger
+ * ----------------------------------------------------------------------------
+ * Logger nommé, filtré par niveau. Les messages utilisent des "{}",
+ * remplis sur le thread d'écriture (LogRing) : un niveau désactivé coûte
+ * une comparaison avec une constante, un niveau actif copie les arguments
+ * dans une case préallouée. Rien n'est mis en forme ni alloué sur le thread
+ * appelant, tant que les nombres sont passés comme nombres (int et float
+ * sont élargis en double, sans boxing).
+ *
+ * Les arguments objets deviennent du texte plus tard, sur le thread
+ * d'écriture : passer des chaînes, des enums ou des valeurs immuables, pas
+ * un état sur le point de changer.
+ *
+ * Le niveau est lu une fois dans -Ddespotisme.log (TRACE..ERROR, OFF), INFO
+ * par défaut ; la sortie va à la console, ou dans -Ddespotisme.logFile.
+ * ============================================================================
+ */
+public final class Logger {
+
+    static final Level LEVEL = Level.parse(System.getProperty("despotisme.log"), Level.INFO);
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    public static Logger get(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    public static Logger get(String name) {
+        return new Logger(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= LEVEL.ordinal() && level != Level.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    // ---- trace / debug : chemins d'entrée et de rendu, coupés par défaut ----
+
+    public void trace(String message) {
+        if (isEnabled(Level.TRACE))
+            LogRing.get().publish(Level.TRACE, name, message, 0, 0, null, null, 0, 0, 0, 0);
+    }
+
+    public void trace(String message, double a, double b) {
+        if (isEnabled(Level.TRACE))
+            LogRing.get().publish(Level.TRACE, name, message, 2, 0, null, null, a, b, 0, 0);
+    }
+
+    public void trace(String message, double a, double b, double c, double d) {
+        if (isEnabled(Level.TRACE))
+            LogRing.get().publish(Level.TRACE, name, message, 4, 0, null, null, a, b, c, d);
+    }
+
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG))
+            LogRing.get().publish(Level.DEBUG, name, message, 0, 0, null, null, 0, 0, 0, 0);
+    }
+
+    public void debug(String message, Object a) {
+        if (isEnabled(Level.DEBUG))
+            LogRing.get().publish(Level.DEBUG, name, message, 1, 0b01, a, null, 0, 0, 0, 0);
+    }
+
+    public void debug(String message, double a, double b) {
+        if (isEnabled(Level.DEBUG))
+            LogRing.get().publish(Level.DEBUG, name, message, 2, 0, null, null, a, b, 0, 0);
+    }
+
+    public void debug(String message, double a, double b, double c, double d) {
+        if (isEnabled(Level.DEBUG))
+            LogRing.get().publish(Level.DEBUG, name, message, 4, 0, null, null, a, b, c, d);
+    }
+
+    // ---- info / warn / error ----
+
+    public void info(String message) {
+        if (isEnabled(Level.INFO))
+            LogRing.get().publish(Level.INFO, name, message, 0, 0, null, null, 0, 0, 0, 0);
+    }
+
+    public void info(String message, double a, Object b) {
+        if (isEnabled(Level.INFO))
+            LogRing.get().publish(Level.INFO, name, message, 2, 0b10, b, null, a, 0, 0, 0);
+    }
+
+    public void info(String message, Object a, Object b, double c, double d) {
+        if (isEnabled(Level.INFO))
+            LogRing.get().publish(Level.INFO, name, message, 4, 0b0011, a, b, 0, 0, c, d);
+    }
+
+    public void warn(String message, Object a) {
+        if (isEnabled(Level.WARN))
+            LogRing.get().publish(Level.WARN, name, message, 1, 0b01, a, null, 0, 0, 0, 0);
+    }
+
+    public void warn(String message, double a, Object b) {
+        if (isEnabled(Level.WARN))
+            LogRing.get().publish(Level.WARN, name, message, 2, 0b10, b, null, a, 0, 0, 0);
+    }
+
+    public void error(String message, Object a) {
+        if (isEnabled(Level.ERROR))
+            LogRing.get().publish(Level.ERROR, name, message, 1, 0b01, a, null, 0, 0, 0, 0);
+    }
+}
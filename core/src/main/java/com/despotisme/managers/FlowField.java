@@ -0,0 +1,196 @@
+package com.despotisme.managers;
+
+import com.despotisme.map.TerrainGrid;
+
+import java.util.Arrays;
+
+/**
+ * ============================================================================
+ * FlowField
+ * ----------------------------------------------------------------------------
+ * Champ de flux (carte de Dijkstra) vers une ou plusieurs tuiles objectif.
+ *
+ * Un seul Dijkstra inversé depuis les objectifs calcule, pour chaque tuile
+ * marchable, le coût restant jusqu'à l'objectif le plus proche, puis la tuile
+ * suivante à emprunter. Ensuite chaque unité trouve son prochain pas en O(1) :
+ * le coût pour N unités qui convergent vers la même cible dépend de la taille
+ * de la carte, pas de N.
+ *
+ * Le champ reste valide tant que ni le terrain (TerrainGrid.getVersion) ni les
+ * objectifs ne changent. Les instances sont gérées par FlowFieldCache.
+ * ============================================================================
+ */
+public class FlowField {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final TerrainGrid terrain;
+    private final int width;
+    private final int height;
+
+    private final int[] cost;      // coût restant jusqu'à l'objectif
+    private final int[] next;      // tuile suivante (-1 = objectif ou inaccessible)
+
+    // File de priorité : (coût << 32 | tuile), doublons tolérés
+    private long[] queue;
+    private int queueSize;
+
+    // Objectifs (copie exacte, comparée tuile à tuile) + version du terrain
+    // au moment du calcul
+    private int[] goals = new int[1];
+    private int goalCount = -1;
+    private int terrainVersion = -1;
+
+    public FlowField(TerrainGrid terrain) {
+        this.terrain = terrain;
+        this.width = terrain.getWidth();
+        this.height = terrain.getHeight();
+        this.cost = new int[terrain.size()];
+        this.next = new int[terrain.size()];
+        this.queue = new long[terrain.size() + 1];
+    }
+
+    /**
+     * Calcule le champ vers une seule tuile objectif.
+     */
+    public void compute(int goalX, int goalY) {
+        int goal = terrain.index(goalX, goalY);
+        goals[0] = goal;
+        begin(1);
+        seed(goal);
+        integrate();
+    }
+
+    /**
+     * Calcule le champ vers un ensemble de tuiles (ex. toutes les villes) :
+     * chaque unité est guidée vers l'objectif le plus proche.
+     */
+    public void compute(int[] goalTiles, int count) {
+        if (goals.length < count)
+            goals = new int[Math.max(count, goals.length * 2)];
+        System.arraycopy(goalTiles, 0, goals, 0, count);
+        begin(count);
+        for (int i = 0; i < count; i++)
+            seed(goalTiles[i]);
+        integrate();
+    }
+
+    /** Vrai si le champ a été calculé pour cette tuile et le terrain actuel. */
+    public boolean isValidFor(int goalX, int goalY) {
+        return goalCount == 1 && goals[0] == terrain.index(goalX, goalY)
+                && terrainVersion == terrain.getVersion();
+    }
+
+    /** Vrai si le champ a été calculé pour ces tuiles (même ordre) et le terrain actuel. */
+    public boolean isValidFor(int[] goalTiles, int count) {
+        if (goalCount != count || terrainVersion != terrain.getVersion())
+            return false;
+        for (int i = 0; i < count; i++) {
+            if (goals[i] != goalTiles[i])
+                return false;
+        }
+        return true;
+    }
+
+    private void begin(int count) {
+        goalCount = count;
+        terrainVersion = terrain.getVersion();
+        Arrays.fill(cost, UNREACHABLE);
+        Arrays.fill(next, -1);
+        queueSize = 0;
+    }
+
+    private void seed(int tile) {
+        if (!terrain.isWalkable(tile))
+            return;
+        cost[tile] = 0;
+        offer(0, tile);
+    }
+
+    /**
+     * Dijkstra inversé : entrer dans la tuile u coûte moveCost(u), donc le
+     * coût d'un voisin n de u vaut cost(u) + moveCost(u).
+     */
+    private void integrate() {
+        while (queueSize > 0) {
+            long top = poll();
+            int c = (int) (top >>> 32);
+            int u = (int) top;
+            if (c != cost[u])
+                continue; // entrée périmée
+
+            int through = c + terrain.getMoveCost(u);
+            int ux = u % width;
+            int uy = u / width;
+            if (ux + 1 < width)  relax(u + 1, u, through);
+            if (ux > 0)          relax(u - 1, u, through);
+            if (uy + 1 < height) relax(u + width, u, through);
+            if (uy > 0)          relax(u - width, u, through);
+        }
+    }
+
+    private void relax(int n, int via, int c) {
+        if (c < cost[n] && terrain.isWalkable(n)) {
+            cost[n] = c;
+            next[n] = via;
+            offer(c, n);
+        }
+    }
+
+    // ============================================================================
+    // Requêtes O(1)
+    // ============================================================================
+
+    /** Coût restant depuis (x, y), ou UNREACHABLE. */
+    public int getCost(int x, int y) {
+        return cost[terrain.index(x, y)];
+    }
+
+    /** Tuile suivante depuis (x, y) (index), ou -1 si objectif / inaccessible. */
+    public int nextTile(int x, int y) {
+        return next[terrain.index(x, y)];
+    }
+
+    public int nextTile(int tile) {
+        return next[tile];
+    }
+
+    // ============================================================================
+    // Tas binaire de longs (min)
+    // ============================================================================
+
+    private void offer(int c, int tile) {
+        if (queueSize == queue.length)
+            queue = Arrays.copyOf(queue, queue.length * 2);
+
+        long value = ((long) c << 32) | (tile & 0xffffffffL);
+        int i = queueSize++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (queue[p] <= value)
+                break;
+            queue[i] = queue[p];
+            i = p;
+        }
+        queue[i] = value;
+    }
+
+    private long poll() {
+        long top = queue[0];
+        long last = queue[--queueSize];
+        int i = 0;
+        int half = queueSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < queueSize && queue[child + 1] < queue[child])
+                child++;
+            if (last <= queue[child])
+                break;
+            queue[i] = queue[child];
+            i = child;
+        }
+        if (queueSize > 0)
+            queue[i] = last;
+        return top;
+    }
+}
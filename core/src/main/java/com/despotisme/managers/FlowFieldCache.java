@@ -0,0 +1,71 @@
+package com.despotisme.managers;
+
+import com.despotisme.map.TerrainGrid;
+
+/**
+ * Petit cache de champs de flux, indexé par tuile objectif.
+ *
+ * Les champs sont réutilisés tant que l'objectif et le terrain ne changent
+ * pas ; quand le cache est plein, le champ le moins récemment utilisé est
+ * recalculé pour la nouvelle cible. Un champ (~16 octets par tuile) n'est
+ * créé qu'au premier objectif qui ne trouve pas de place : une partie qui
+ * n'utilise pas les champs de flux (replay, simulation, pairs lockstep) ne
+ * paie rien. Aucune allocation une fois le cache rempli.
+ */
+public class FlowFieldCache {
+
+    private final TerrainGrid terrain;
+    private final FlowField[] fields;   // null = pas encore créé
+    private final long[] lastUse;
+    private long clock;
+
+    public FlowFieldCache(TerrainGrid terrain, int capacity) {
+        this.terrain = terrain;
+        this.fields = new FlowField[capacity];
+        this.lastUse = new long[capacity];
+    }
+
+    /** Champ vers (goalX, goalY), recalculé seulement si nécessaire. */
+    public FlowField get(int goalX, int goalY) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null && fields[i].isValidFor(goalX, goalY)) {
+                lastUse[i] = ++clock;
+                return fields[i];
+            }
+        }
+
+        int slot = evict();
+        fields[slot].compute(goalX, goalY);
+        return fields[slot];
+    }
+
+    /** Champ vers un ensemble de tuiles (index), recalculé seulement si nécessaire. */
+    public FlowField get(int[] goalTiles, int count) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null && fields[i].isValidFor(goalTiles, count)) {
+                lastUse[i] = ++clock;
+                return fields[i];
+            }
+        }
+
+        int slot = evict();
+        fields[slot].compute(goalTiles, count);
+        return fields[slot];
+    }
+
+    // Place libre (champ créé à la demande) sinon le moins récemment utilisé
+    private int evict() {
+        int oldest = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] == null) {
+                fields[i] = new FlowField(terrain);
+                oldest = i;
+                break;
+            }
+            if (lastUse[i] < lastUse[oldest])
+                oldest = i;
+        }
+        lastUse[oldest] = ++clock;
+        return oldest;
+    }
+}
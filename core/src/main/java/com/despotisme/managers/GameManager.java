@@ -5,66 +5,219 @@ import com.despotisme.factories.UnitFactoryImpl;
 import com.despotisme.entities.Unit;
 import com.despotisme.entities.Settler;
 import com.despotisme.entities.City;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.UnitType;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.constants.MapConstants;
+import com.despotisme.events.EventBus;
+import com.despotisme.events.TurnEnded;
+import com.despotisme.turn.BarbarianPhase;
+import com.despotisme.turn.CityTiles;
+import com.despotisme.turn.GrowthPhase;
+import com.despotisme.turn.MovementPhase;
+import com.despotisme.turn.ProductionPhase;
+import com.despotisme.turn.TurnPipeline;
+import com.despotisme.turn.UpkeepPhase;
 // import com.despotisme.entities.Ressource;
 
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
 import lombok.Getter;
+import lombok.Setter;
 
 public class GameManager {
+    public static final int FIRST_TURN = 1;
+
     @Getter private final UnitFactoryImpl unitFactory;
     @Getter private final CityFactoryImpl cityFactory;
 
-    @Getter
-    private int turnCount = 1;
+    @Getter @Setter
+    private int turnCount = FIRST_TURN;
+
+    // État de simulation de toutes les unités et villes (struct of arrays)
+    @Getter private final EntityStore store = new EntityStore();
 
+    // Notifications modèle -> vue (UnitMoved, CityFounded, TurnEnded...), livrées une fois par frame
+    @Getter private final EventBus events = new EventBus();
+
+    // Vues gardées pour l'UI (rendu, sélection)
     @Getter private final List<Unit> units = new ArrayList<>();
     @Getter private final List<City> cities = new ArrayList<>();
+    // handle -> vue, pour retrouver les vues des résultats de l'index spatial
+    private final IntMap<Unit> unitViews = new IntMap<>();
+    private final IntMap<City> cityViews = new IntMap<>();
+    private final IntArray scratchHandles = new IntArray();
     // private final List<Resource> = new ArrayList<>();
 
+    // Terrain + recherche de chemin (posés une fois la carte chargée)
+    @Getter private TerrainGrid terrain;
+    @Getter private PathfindingService pathfinding;
+    @Getter private FlowFieldCache flowFields;
+    private final Path scratchPath = new Path();
+    private final List<Unit> scratchGroup = new ArrayList<>();
+
+    // Fin de tour : entretien, production, croissance, déplacements, barbares (parallèle, déterministe)
+    private final ForkJoinPool turnPool;
+    @Getter private TurnPipeline turnPipeline;
+    private MovementPhase movement;
+
     // Input management ?
-    // Barbarians management ?
 
     public GameManager() {
-        this.unitFactory = new UnitFactoryImpl();
-        this.cityFactory = new CityFactoryImpl();
+        this(ForkJoinPool.commonPool());
     }
 
-    public void endTurn() {
-        for (Unit unit : units) {
-            unit.restoreMoves();
-            // unit.restoreAction();
-        }
+    public GameManager(ForkJoinPool turnPool) {
+        this.turnPool = turnPool;
+        this.unitFactory = new UnitFactoryImpl(this.store);
+        this.cityFactory = new CityFactoryImpl(this.store);
+        this.store.setEvents(this.events);
+    }
 
-        // City management ?
+    public void setTerrain(TerrainGrid terrain) {
+        this.terrain = terrain;
+        this.pathfinding = new PathfindingService(terrain);
+        this.flowFields = new FlowFieldCache(terrain, 8);
+        this.store.setMapSize(terrain.getWidth(), terrain.getHeight());
+
+        CityTiles cityTiles = new CityTiles(this.store, terrain);
+        this.movement = new MovementPhase(this.store, terrain, this.turnPool.getParallelism());
+        this.turnPipeline = new TurnPipeline(this.store, this.turnPool)
+                .add(new UpkeepPhase(this.store))
+                .add(new ProductionPhase(this.store, cityTiles, this::spawnProducedUnit))
+                .add(new GrowthPhase(this.store, cityTiles))
+                .add(this.movement)
+                .add(new BarbarianPhase(this.store, this::moveBarbarians));
+    }
 
-        // Barbarians ?
+    public void endTurn() {
+        if (this.turnPipeline != null)
+            this.turnPipeline.run();
+        else
+            this.store.restoreAllMoves(); // pas encore de carte : rien d'autre à simuler
 
         this.turnCount++;
+
+        TurnEnded ended = this.events.post(TurnEnded.TYPE);
+        if (ended != null)
+            ended.turn = this.turnCount;
     }
 
     // method to spawn a unit without city production (start of game)
     public Unit createUnit(String unit, float x, float y) {
         Unit created = this.unitFactory.createUnit(unit, x, y);
         this.units.add(created);
+        this.unitViews.put(created.getHandle(), created);
 
         return created;
     }
 
-    // method to produce a unit from a city queue
+    // méthode pour produire une unité depuis la file d'une ville (même joueur que la ville)
     public Unit produceUnit(String unit, City city) {
         Unit created = this.unitFactory.createUnit(unit, city.getX(), city.getY());
+        this.store.setUnitOwner(this.store.unitSlot(created.getHandle()),
+                this.store.getCityOwner(this.store.citySlot(city.getHandle())));
         this.units.add(created);
+        this.unitViews.put(created.getHandle(), created);
 
         return created;
     }
 
+    // étape de fusion de la phase de production
+    private void spawnProducedUnit(UnitType type, int cityHandle) {
+        produceUnit(type.key, this.cityViews.get(cityHandle));
+    }
+
+    // renvoie null si une autre ville est à moins de MIN_CITY_DISTANCE cases
     public City foundCity(String cityName, Settler settler) {
+        if (!canFoundCity(settler.getTileX(), settler.getTileY()))
+            return null;
+
         City city = this.cityFactory.createCity(cityName, settler.getX(), settler.getY());
+        store.setCityOwner(store.citySlot(city.getHandle()), store.getUnitOwner(store.unitSlot(settler.getHandle())));
         cities.add(city);
+        cityViews.put(city.getHandle(), city);
         settler.setSelected(false);
         units.remove(settler);
-        settler.dispose();
+        unitViews.remove(settler.getHandle());
+        store.removeUnit(settler.getHandle());
         return city;
     }
+
+    // méthode pour poser une ville directement (chargement d'une sauvegarde)
+    public City createCity(String cityName, int tileX, int tileY) {
+        City city = this.cityFactory.createCity(cityName, tileX * MapConstants.TILE_SIZE, tileY * MapConstants.TILE_SIZE);
+        cities.add(city);
+        cityViews.put(city.getHandle(), city);
+        return city;
+    }
+
+    public boolean canFoundCity(int tileX, int tileY) {
+        return this.store.getCityIndex().nearest(tileX, tileY, MapConstants.MIN_CITY_DISTANCE - 1) < 0;
+    }
+
+    public Unit getUnitView(int handle) {
+        return this.unitViews.get(handle);
+    }
+
+    public City getCityView(int handle) {
+        return this.cityViews.get(handle);
+    }
+
+    // première unité sur cette case, ou null
+    public Unit unitAt(int tileX, int tileY) {
+        if (this.store.getUnitIndex().at(tileX, tileY, this.scratchHandles) == 0)
+            return null;
+        return this.unitViews.get(this.scratchHandles.first());
+    }
+
+    // ordre de déplacement : vérifie que la destination est atteignable, l'unité y marche tour après tour
+    public boolean orderMove(Unit unit, int tileX, int tileY) {
+        if (this.pathfinding == null
+                || !this.pathfinding.findPath(unit.getTileX(), unit.getTileY(), tileX, tileY, this.scratchPath))
+            return false;
+
+        unit.setDestination(tileX, tileY);
+        // marche tout de suite avec les mouvements restants du tour, sur la route trouvée ci-dessus (un seul A*)
+        this.movement.moveNow(this.store.unitSlot(unit.getHandle()), this.pathfinding, this.scratchPath);
+        return true;
+    }
+
+    // déplace plusieurs unités vers la même case avec un flow field partagé (barbares, armées)
+    public void moveUnitsToward(List<Unit> group, int tileX, int tileY) {
+        if (this.flowFields == null)
+            return;
+
+        FlowField field = this.flowFields.get(tileX, tileY);
+        for (Unit unit : group)
+            stepAlong(this.store.unitSlot(unit.getHandle()), field);
+    }
+
+    // étape de fusion de la phase des barbares : un groupe par ville visée
+    private void moveBarbarians(int[] handles, int count, int tileX, int tileY) {
+        this.scratchGroup.clear();
+        for (int i = 0; i < count; i++)
+            this.scratchGroup.add(this.unitViews.get(handles[i]));
+        moveUnitsToward(this.scratchGroup, tileX, tileY);
+    }
+
+    // suit le flow field case par case, même règle d'entrée que les ordres de déplacement
+    private void stepAlong(int slot, FlowField field) {
+        EntityStore s = this.store;
+        int tile = this.terrain.index(s.getUnitTileX(slot), s.getUnitTileY(slot));
+        int next = field.nextTile(tile);
+        int maxMoves = s.getUnitMaxMoves(slot);
+
+        while (next >= 0 && PathfindingService.canEnter(this.terrain.getMoveCost(next), s.getUnitMoves(slot), maxMoves)) {
+            tile = next;
+            s.spendUnitMoves(slot, this.terrain.getMoveCost(tile));
+            next = field.nextTile(tile);
+        }
+
+        s.setUnitTile(slot, tile % this.terrain.getWidth(), tile / this.terrain.getWidth());
+    }
 }
@@ -0,0 +1,81 @@
+package com.despotisme.managers;
+
+/**
+ * Itinéraire calculé par le PathfindingService.
+ *
+ * Les tuiles sont codées en entier (index = x + y * largeur), départ exclu,
+ * arrivée incluse. L'itinéraire est découpé en tours : les tuiles du tour t
+ * sont dans [getTurnStart(t), getTurnEnd(t)). L'objet est réutilisable : ses
+ * tableaux ne grandissent que si nécessaire.
+ */
+public class Path {
+
+    private int[] tiles = new int[64];
+    private int length;
+
+    private int[] turnEnds = new int[8];
+    private int turns;
+
+    private int width;
+
+    void reset(int width) {
+        this.width = width;
+        this.length = 0;
+        this.turns = 0;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (tiles.length < capacity)
+            tiles = new int[Math.max(capacity, tiles.length * 2)];
+    }
+
+    void setTile(int i, int tile) {
+        tiles[i] = tile;
+    }
+
+    void setLength(int length) {
+        this.length = length;
+    }
+
+    void addTurnEnd(int end) {
+        if (turns == turnEnds.length) {
+            int[] grown = new int[turnEnds.length * 2];
+            System.arraycopy(turnEnds, 0, grown, 0, turns);
+            turnEnds = grown;
+        }
+        turnEnds[turns++] = end;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public int getTile(int i) {
+        return tiles[i];
+    }
+
+    public int getX(int i) {
+        return tiles[i] % width;
+    }
+
+    public int getY(int i) {
+        return tiles[i] / width;
+    }
+
+    /** Nombre de tours nécessaires (0 si splitTurns n'a pas été appelé). */
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getTurnStart(int turn) {
+        return turn == 0 ? 0 : turnEnds[turn - 1];
+    }
+
+    public int getTurnEnd(int turn) {
+        return turnEnds[turn];
+    }
+}
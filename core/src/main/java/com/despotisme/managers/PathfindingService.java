@@ -0,0 +1,242 @@
+package com.despotisme.managers;
+
+import com.despotisme.map.TerrainGrid;
+
+import java.util.Arrays;
+
+/**
+ * ============================================================================
+ * PathfindingService
+ * ----------------------------------------------------------------------------
+ * Recherche d'itinéraire A* sur la TerrainGrid (déplacements en 4 directions,
+ * comme au clavier), pensée pour être appelée des centaines de fois par tour :
+ *
+ *   - tuiles codées en entier (index = x + y * largeur)
+ *   - liste ouverte = tas binaire d'entiers réutilisé, avec decrease-key
+ *   - états "ouvert / fermé" marqués par un numéro de génération : rien à
+ *     effacer entre deux recherches
+ *
+ * Après le premier appel, une recherche n'alloue plus rien (hors
+ * agrandissement éventuel du Path fourni). Une instance n'est pas
+ * thread-safe : une instance par thread.
+ * ============================================================================
+ */
+public class PathfindingService {
+
+    private final TerrainGrid terrain;
+    private final int width;
+    private final int height;
+
+    // État par tuile, valide seulement si visited[i] == generation
+    private final int[] visited;
+    private final int[] closed;
+    private final int[] gScore;
+    private final int[] fScore;
+    private final int[] parent;
+    private final int[] heapIndex;
+    private int generation;
+
+    // Tas binaire (min sur fScore)
+    private final int[] heap;
+    private int heapSize;
+
+    public PathfindingService(TerrainGrid terrain) {
+        this.terrain = terrain;
+        this.width = terrain.getWidth();
+        this.height = terrain.getHeight();
+
+        int size = terrain.size();
+        this.visited = new int[size];
+        this.closed = new int[size];
+        this.gScore = new int[size];
+        this.fScore = new int[size];
+        this.parent = new int[size];
+        this.heapIndex = new int[size];
+        this.heap = new int[size];
+    }
+
+    /**
+     * ============================================================================
+     * Calcule le chemin le moins coûteux de (sx, sy) vers (tx, ty).
+     * Le coût d'une tuile est son moveCost ; la tuile de départ n'a pas besoin
+     * d'être marchable.
+     *
+     * @param out chemin rempli (départ exclu, arrivée incluse)
+     * @return false si l'arrivée est inaccessible
+     * ============================================================================
+     */
+    public boolean findPath(int sx, int sy, int tx, int ty, Path out) {
+        out.reset(width);
+
+        if (!terrain.inBounds(sx, sy) || !terrain.isWalkable(tx, ty))
+            return false;
+
+        int start = terrain.index(sx, sy);
+        int goal = terrain.index(tx, ty);
+        if (start == goal)
+            return true;
+
+        nextGeneration();
+        heapSize = 0;
+
+        visited[start] = generation;
+        gScore[start] = 0;
+        fScore[start] = heuristic(sx, sy, tx, ty);
+        parent[start] = -1;
+        push(start);
+
+        while (heapSize > 0) {
+            int current = pop();
+            if (current == goal) {
+                reconstruct(start, goal, out);
+                return true;
+            }
+            closed[current] = generation;
+
+            int cx = current % width;
+            int cy = current / width;
+            if (cx + 1 < width)  relax(current, current + 1, cx + 1, cy, tx, ty);
+            if (cx > 0)          relax(current, current - 1, cx - 1, cy, tx, ty);
+            if (cy + 1 < height) relax(current, current + width, cx, cy + 1, tx, ty);
+            if (cy > 0)          relax(current, current - width, cx, cy - 1, tx, ty);
+        }
+        return false;
+    }
+
+    private void relax(int from, int next, int nx, int ny, int tx, int ty) {
+        if (closed[next] == generation || !terrain.isWalkable(next))
+            return;
+
+        int g = gScore[from] + terrain.getMoveCost(next);
+
+        if (visited[next] != generation) {
+            visited[next] = generation;
+            gScore[next] = g;
+            fScore[next] = g + heuristic(nx, ny, tx, ty);
+            parent[next] = from;
+            push(next);
+        } else if (g < gScore[next]) {
+            fScore[next] -= gScore[next] - g;
+            gScore[next] = g;
+            parent[next] = from;
+            siftUp(heapIndex[next]);
+        }
+    }
+
+    /** Distance de Manhattan (coût minimal d'une tuile = 1 : admissible). */
+    private static int heuristic(int x, int y, int tx, int ty) {
+        return Math.abs(x - tx) + Math.abs(y - ty);
+    }
+
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    private void reconstruct(int start, int goal, Path out) {
+        int length = 0;
+        for (int n = goal; n != start; n = parent[n])
+            length++;
+
+        out.ensureCapacity(length);
+        int i = length;
+        for (int n = goal; n != start; n = parent[n])
+            out.setTile(--i, n);
+        out.setLength(length);
+    }
+
+    /**
+     * ============================================================================
+     * Règle d'entrée dans une tuile, commune à tous les déplacements (A*,
+     * champs de flux) : il faut assez de points pour son coût, sauf en début
+     * de tour (points pleins) : une tuile plus chère que le mouvement total
+     * reste donc franchissable en un tour.
+     * ============================================================================
+     */
+    public static boolean canEnter(int cost, int movesLeft, int movesPerTurn) {
+        return movesLeft > 0 && (cost <= movesLeft || movesLeft >= movesPerTurn);
+    }
+
+    /**
+     * ============================================================================
+     * Découpe un chemin en étapes par tour selon les points de mouvement
+     * (règle d'entrée : canEnter).
+     *
+     * @param movesLeft points restants pour le tour en cours
+     * @param movesPerTurn points rendus à chaque tour (Unit.restoreMoves)
+     * ============================================================================
+     */
+    public void splitTurns(Path path, int movesLeft, int movesPerTurn) {
+        int remaining = movesLeft;
+
+        for (int i = 0; i < path.getLength(); i++) {
+            int cost = terrain.getMoveCost(path.getTile(i));
+            if (!canEnter(cost, remaining, movesPerTurn)) {
+                path.addTurnEnd(i);
+                remaining = movesPerTurn;
+            }
+            remaining -= cost;
+        }
+        path.addTurnEnd(path.getLength());
+    }
+
+    // ============================================================================
+    // Tas binaire indexé
+    // ============================================================================
+
+    private void push(int node) {
+        heap[heapSize] = node;
+        heapIndex[node] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapIndex[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private boolean less(int a, int b) {
+        // À f égal, on préfère le nœud le plus avancé (g le plus grand)
+        return fScore[a] < fScore[b] || (fScore[a] == fScore[b] && gScore[a] > gScore[b]);
+    }
+
+    private void siftUp(int i) {
+        int node = heap[i];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!less(node, heap[p]))
+                break;
+            heap[i] = heap[p];
+            heapIndex[heap[i]] = i;
+            i = p;
+        }
+        heap[i] = node;
+        heapIndex[node] = i;
+    }
+
+    private void siftDown(int i) {
+        int node = heap[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && less(heap[child + 1], heap[child]))
+                child++;
+            if (!less(heap[child], node))
+                break;
+            heap[i] = heap[child];
+            heapIndex[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = node;
+        heapIndex[node] = i;
+    }
+}
@@ -0,0 +1,107 @@
+package com.despotisme.managers;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * ============================================================================
+ * TextureRegistry
+ * ----------------------------------------------------------------------------
+ * Registre partagé des textures, avec comptage de références.
+ *
+ * Chaque chemin n'est lu sur le disque et envoyé au GPU qu'une seule fois
+ * (via un AssetManager) : toutes les unités, villes et panneaux qui utilisent
+ * la même image partagent la même Texture. acquire() incrémente le compteur,
+ * release() le décrémente et la texture est libérée quand il retombe à zéro.
+ *
+ * Les textures des entités sont mises en file avec les assets de MapScreen
+ * (queue) : créer une unité ne coûte alors ni lecture disque ni envoi GPU.
+ * ============================================================================
+ */
+public class TextureRegistry implements Disposable {
+
+    private static TextureRegistry instance;
+
+    private final AssetManager assets = new AssetManager();
+    private final ObjectIntMap<String> references = new ObjectIntMap<>();
+
+    public static TextureRegistry get() {
+        if (instance == null)
+            instance = new TextureRegistry();
+        return instance;
+    }
+
+    /**
+     * Libère le registre global (fin de l'application).
+     */
+    public static void disposeInstance() {
+        if (instance != null) {
+            instance.dispose();
+            instance = null;
+        }
+    }
+
+    /**
+     * AssetManager partagé du jeu (carte, skin, polices...), utilisé aussi
+     * pour le chargement asynchrone de MapScreen.
+     */
+    public AssetManager getAssets() {
+        return assets;
+    }
+
+    /**
+     * Met en file une liste de textures (chargement asynchrone via
+     * AssetManager.update) et prend immédiatement une référence sur chacune
+     * (à rendre avec release).
+     */
+    public void queue(String... paths) {
+        for (String path : paths) {
+            if (!assets.contains(path))
+                assets.load(path, Texture.class);
+            references.getAndIncrement(path, 0, 1);
+        }
+    }
+
+    /**
+     * Retourne la texture partagée (chargée au premier appel) et prend une
+     * référence dessus.
+     */
+    public Texture acquire(String path) {
+        if (!assets.isLoaded(path, Texture.class)) {
+            if (!assets.contains(path))
+                assets.load(path, Texture.class);
+            assets.finishLoadingAsset(path);
+        }
+        references.getAndIncrement(path, 0, 1);
+        return assets.get(path, Texture.class);
+    }
+
+    /**
+     * Rend une référence ; la texture est déchargée à la dernière.
+     */
+    public void release(String path) {
+        int count = references.get(path, 0);
+        if (count <= 0)
+            throw new GdxRuntimeException("Texture released more times than acquired: " + path);
+
+        if (count == 1) {
+            references.remove(path, 0);
+            assets.unload(path);
+        } else {
+            references.put(path, count - 1);
+        }
+    }
+
+    public int getReferenceCount(String path) {
+        return references.get(path, 0);
+    }
+
+    @Override
+    public void dispose() {
+        assets.dispose();
+        references.clear();
+    }
+}
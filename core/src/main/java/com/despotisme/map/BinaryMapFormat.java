@@ -0,0 +1,311 @@
+package com.despotisme.map;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ============================================================================
+ * BinaryMapFormat
+ * ----------------------------------------------------------------------------
+ * Format binaire compact des cartes (.dmap), produit à la compilation par
+ * TmxMapCompiler et lu par BinaryMapLoader. Entiers big-endian.
+ *
+ *   int    magic "DMAP", int version
+ *   int    largeur, hauteur, largeur tuile, hauteur tuile
+ *   props  propriétés de la carte
+ *   int    nombre de tilesets, puis pour chacun :
+ *            str nom, int firstGid, str image, int imageW, imageH,
+ *            int tileCount, columns, margin, spacing,
+ *            props du tileset, int n, n x (int id local, props)
+ *   int    nombre de couches, puis pour chacune :
+ *            byte type (0 tuiles, 1 objets), str nom, byte visible, float opacité
+ *            tuiles : byte taille d'index (1, 2 ou 4)
+ *                     si 1 ou 2 : int n, n x int palette de GID, puis
+ *                     largeur x hauteur index (octets ou shorts)
+ *                     si 4 : largeur x hauteur int (GID bruts)
+ *                     (cellules en ligne 0 = bas)
+ *            objets : int n, n x (int id, str nom, str type,
+ *                     float x, y, w, h, int gid, props)
+ *
+ *   str    = short longueur + octets UTF-8
+ *   props  = int n, n x (str clé, byte type, valeur)
+ *
+ * La lecture ne parse rien de textuel : les tableaux d'index (l'essentiel du
+ * fichier, 1 octet par cellule sur une carte normale) sont copiés en bloc
+ * depuis le tampon mappé en mémoire puis traduits via la palette.
+ * ============================================================================
+ */
+public final class BinaryMapFormat {
+
+    public static final int MAGIC = 0x444D4150; // "DMAP"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".dmap";
+
+    private static final byte LAYER_TILES = 0;
+    private static final byte LAYER_OBJECTS = 1;
+
+    private static final byte PROP_STRING = 0;
+    private static final byte PROP_INT = 1;
+    private static final byte PROP_FLOAT = 2;
+    private static final byte PROP_BOOLEAN = 3;
+
+    private BinaryMapFormat() {}
+
+    // ============================================================================
+    // Écriture
+    // ============================================================================
+
+    public static void write(MapData map, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(map.width);
+        out.writeInt(map.height);
+        out.writeInt(map.tileWidth);
+        out.writeInt(map.tileHeight);
+        writeProperties(out, map.properties);
+
+        out.writeInt(map.tilesets.size());
+        for (MapData.Tileset ts : map.tilesets) {
+            writeString(out, ts.name);
+            out.writeInt(ts.firstGid);
+            writeString(out, ts.image);
+            out.writeInt(ts.imageWidth);
+            out.writeInt(ts.imageHeight);
+            out.writeInt(ts.tileCount);
+            out.writeInt(ts.columns);
+            out.writeInt(ts.margin);
+            out.writeInt(ts.spacing);
+            writeProperties(out, ts.properties);
+
+            out.writeInt(ts.tileProperties.size());
+            for (Map.Entry<Integer, Map<String, Object>> tile : ts.tileProperties.entrySet()) {
+                out.writeInt(tile.getKey());
+                writeProperties(out, tile.getValue());
+            }
+        }
+
+        out.writeInt(map.layers.size());
+        for (MapData.Layer layer : map.layers) {
+            out.writeByte(layer.isTileLayer() ? LAYER_TILES : LAYER_OBJECTS);
+            writeString(out, layer.name);
+            out.writeBoolean(layer.visible);
+            out.writeFloat(layer.opacity);
+
+            if (layer.isTileLayer()) {
+                if (layer.gids.length != map.width * map.height)
+                    throw new IOException("Layer " + layer.name + " does not match the map size");
+                writeCells(out, layer.gids);
+            } else {
+                out.writeInt(layer.objects.size());
+                for (MapData.MapObjectData o : layer.objects) {
+                    out.writeInt(o.id);
+                    writeString(out, o.name);
+                    writeString(out, o.type);
+                    out.writeFloat(o.x);
+                    out.writeFloat(o.y);
+                    out.writeFloat(o.width);
+                    out.writeFloat(o.height);
+                    out.writeInt(o.gid);
+                    writeProperties(out, o.properties);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Cellules d'une couche : palette des GID distincts + index compacts.
+     */
+    private static void writeCells(DataOutputStream out, int[] gids) throws IOException {
+        Map<Integer, Integer> palette = new LinkedHashMap<>();
+        for (int gid : gids)
+            palette.putIfAbsent(gid, palette.size());
+
+        int indexSize = palette.size() <= 0x100 ? 1 : palette.size() <= 0x10000 ? 2 : 4;
+        out.writeByte(indexSize);
+
+        ByteBuffer cells = ByteBuffer.allocate(gids.length * indexSize);
+        if (indexSize == 4) {
+            cells.asIntBuffer().put(gids);
+        } else {
+            out.writeInt(palette.size());
+            for (int gid : palette.keySet())
+                out.writeInt(gid);
+            for (int gid : gids) {
+                int index = palette.get(gid);
+                if (indexSize == 1)
+                    cells.put((byte) index);
+                else
+                    cells.putShort((short) index);
+            }
+        }
+        out.write(cells.array());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF)
+            throw new IOException("String too long for the map format: " + bytes.length + " bytes");
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeProperties(DataOutputStream out, Map<String, Object> props) throws IOException {
+        out.writeInt(props.size());
+        for (Map.Entry<String, Object> e : props.entrySet()) {
+            writeString(out, e.getKey());
+            Object v = e.getValue();
+            if (v instanceof Boolean) {
+                out.writeByte(PROP_BOOLEAN);
+                out.writeBoolean((Boolean) v);
+            } else if (v instanceof Integer) {
+                out.writeByte(PROP_INT);
+                out.writeInt((Integer) v);
+            } else if (v instanceof Float) {
+                out.writeByte(PROP_FLOAT);
+                out.writeFloat((Float) v);
+            } else {
+                out.writeByte(PROP_STRING);
+                writeString(out, String.valueOf(v));
+            }
+        }
+    }
+
+    // ============================================================================
+    // Lecture
+    // ============================================================================
+
+    /**
+     * Lit une carte depuis un tampon (mappé en mémoire ou non), à partir de
+     * sa position courante.
+     */
+    public static MapData read(ByteBuffer in) {
+        if (in.getInt() != MAGIC)
+            throw new IllegalArgumentException("Not a binary map file");
+        int version = in.getInt();
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unsupported map format version " + version + " (expected " + VERSION + ")");
+
+        MapData map = new MapData(in.getInt(), in.getInt(), in.getInt(), in.getInt());
+        readProperties(in, map.properties);
+
+        int tilesetCount = in.getInt();
+        for (int i = 0; i < tilesetCount; i++) {
+            MapData.Tileset ts = new MapData.Tileset();
+            ts.name = readString(in);
+            ts.firstGid = in.getInt();
+            ts.image = readString(in);
+            ts.imageWidth = in.getInt();
+            ts.imageHeight = in.getInt();
+            ts.tileCount = in.getInt();
+            ts.columns = in.getInt();
+            ts.margin = in.getInt();
+            ts.spacing = in.getInt();
+            readProperties(in, ts.properties);
+
+            int tiles = in.getInt();
+            for (int t = 0; t < tiles; t++) {
+                int id = in.getInt();
+                Map<String, Object> props = new LinkedHashMap<>();
+                readProperties(in, props);
+                ts.tileProperties.put(id, props);
+            }
+            map.tilesets.add(ts);
+        }
+
+        int layerCount = in.getInt();
+        for (int i = 0; i < layerCount; i++) {
+            MapData.Layer layer = new MapData.Layer();
+            byte type = in.get();
+            layer.name = readString(in);
+            layer.visible = in.get() != 0;
+            layer.opacity = in.getFloat();
+
+            if (type == LAYER_TILES) {
+                layer.gids = readCells(in, map.width * map.height);
+            } else {
+                int count = in.getInt();
+                layer.objects = new ArrayList<>(count);
+                for (int o = 0; o < count; o++) {
+                    MapData.MapObjectData obj = new MapData.MapObjectData();
+                    obj.id = in.getInt();
+                    obj.name = readString(in);
+                    obj.type = readString(in);
+                    obj.x = in.getFloat();
+                    obj.y = in.getFloat();
+                    obj.width = in.getFloat();
+                    obj.height = in.getFloat();
+                    obj.gid = in.getInt();
+                    readProperties(in, obj.properties);
+                    layer.objects.add(obj);
+                }
+            }
+            map.layers.add(layer);
+        }
+        return map;
+    }
+
+    private static int[] readCells(ByteBuffer in, int count) {
+        int[] gids = new int[count];
+        int indexSize = in.get();
+
+        if (indexSize == 4) {
+            // Copie en bloc des GID bruts
+            in.asIntBuffer().get(gids);
+            in.position(in.position() + count * 4);
+            return gids;
+        }
+
+        int[] palette = new int[in.getInt()];
+        in.asIntBuffer().get(palette);
+        in.position(in.position() + palette.length * 4);
+
+        if (indexSize == 1) {
+            byte[] index = new byte[count];
+            in.get(index);
+            for (int i = 0; i < count; i++)
+                gids[i] = palette[index[i] & 0xFF];
+        } else {
+            short[] index = new short[count];
+            in.asShortBuffer().get(index);
+            in.position(in.position() + count * 2);
+            for (int i = 0; i < count; i++)
+                gids[i] = palette[index[i] & 0xFFFF];
+        }
+        return gids;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (in.hasArray()) {
+            String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return s;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readProperties(ByteBuffer in, Map<String, Object> out) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = readString(in);
+            byte type = in.get();
+            switch (type) {
+                case PROP_BOOLEAN: out.put(key, in.get() != 0); break;
+                case PROP_INT:     out.put(key, in.getInt()); break;
+                case PROP_FLOAT:   out.put(key, in.getFloat()); break;
+                default:           out.put(key, readString(in)); break;
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.despotisme.map;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.maps.tiled.objects.TiledMapTileMapObject;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * ============================================================================
+ * BinaryMapLoader
+ * ----------------------------------------------------------------------------
+ * Charge une carte .dmap (voir BinaryMapFormat) en TiledMap via l'AssetManager.
+ *
+ *   - getDependencies (thread de l'AssetManager) : le fichier est mappé en
+ *     mémoire et décodé en MapData ; les images des tilesets deviennent des
+ *     dépendances Texture
+ *   - loadSync (thread de rendu) : construction des tuiles et des couches
+ *
+ * Aucune analyse XML/CSV : le temps de chargement dépend du nombre de
+ * cellules, plus de la taille du texte. Les cellules identiques (même GID,
+ * mêmes bits de flip) sont partagées entre toutes les tuiles de la carte :
+ * elles ne doivent donc pas être modifiées après chargement.
+ * ============================================================================
+ */
+public class BinaryMapLoader extends AsynchronousAssetLoader<TiledMap, BinaryMapLoader.Parameters> {
+
+    public static class Parameters extends AssetLoaderParameters<TiledMap> {
+        public Texture.TextureFilter textureMinFilter = Texture.TextureFilter.Nearest;
+        public Texture.TextureFilter textureMagFilter = Texture.TextureFilter.Nearest;
+    }
+
+    // Carte décodée entre getDependencies et loadSync (un chargement à la fois)
+    private MapData data;
+
+    public BinaryMapLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    /**
+     * Décode la carte (thread de l'AssetManager). Redéfini par GeneratedMapLoader.
+     */
+    protected MapData decode(String fileName, FileHandle file) {
+        return read(file);
+    }
+
+    /**
+     * Fichier par rapport auquel les images des tilesets sont résolues.
+     */
+    protected FileHandle tilesetBase(FileHandle file) {
+        return file;
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, Parameters parameter) {
+        data = decode(fileName, file);
+        FileHandle base = tilesetBase(file);
+
+        TextureLoader.TextureParameter textureParams = new TextureLoader.TextureParameter();
+        if (parameter != null) {
+            textureParams.minFilter = parameter.textureMinFilter;
+            textureParams.magFilter = parameter.textureMagFilter;
+        } else {
+            textureParams.minFilter = Texture.TextureFilter.Nearest;
+            textureParams.magFilter = Texture.TextureFilter.Nearest;
+        }
+
+        Array<AssetDescriptor> dependencies = new Array<>();
+        for (MapData.Tileset ts : data.tilesets)
+            dependencies.add(new AssetDescriptor<>(resolveRelative(base, ts.image), Texture.class, textureParams));
+        return dependencies;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, Parameters parameter) {
+        if (data == null)
+            data = decode(fileName, file);
+    }
+
+    @Override
+    public TiledMap loadSync(AssetManager manager, String fileName, FileHandle file, Parameters parameter) {
+        FileHandle base = tilesetBase(file);
+        ObjectMap<String, Texture> textures = new ObjectMap<>();
+        for (MapData.Tileset ts : data.tilesets)
+            textures.put(ts.image, manager.get(resolveRelative(base, ts.image).path(), Texture.class));
+
+        TiledMap map = build(data, textures);
+        data = null;
+        return map;
+    }
+
+    /**
+     * Lit un fichier .dmap : mappé en mémoire s'il est sur le disque, sinon
+     * (assets dans un jar, Android) lu d'un bloc.
+     */
+    public static MapData read(FileHandle file) {
+        ByteBuffer buffer;
+        try {
+            buffer = file.map();
+        } catch (GdxRuntimeException e) {
+            buffer = ByteBuffer.wrap(file.readBytes());
+        }
+        try {
+            return BinaryMapFormat.read(buffer);
+        } catch (RuntimeException e) {
+            throw new GdxRuntimeException("Error reading binary map: " + file.path(), e);
+        }
+    }
+
+    // ============================================================================
+    // Construction de la TiledMap
+    // ============================================================================
+
+    /**
+     * Construit une TiledMap à partir d'une MapData et des textures de ses
+     * tilesets (clé = MapData.Tileset.image). Les textures ne sont pas
+     * possédées par la carte.
+     */
+    public static TiledMap build(MapData data, ObjectMap<String, Texture> textures) {
+        TiledMap map = new TiledMap();
+
+        MapProperties props = map.getProperties();
+        props.put("orientation", "orthogonal");
+        props.put("width", data.width);
+        props.put("height", data.height);
+        props.put("tilewidth", data.tileWidth);
+        props.put("tileheight", data.tileHeight);
+        putAll(props, data.properties);
+
+        for (MapData.Tileset ts : data.tilesets)
+            map.getTileSets().addTileSet(buildTileset(data, ts, textures.get(ts.image)));
+
+        IntMap<TiledMapTileLayer.Cell> cells = new IntMap<>();
+        for (MapData.Layer layer : data.layers) {
+            MapLayer built = layer.isTileLayer()
+                    ? buildTileLayer(map, data, layer, cells)
+                    : buildObjectLayer(map, layer);
+            built.setName(layer.name);
+            built.setVisible(layer.visible);
+            built.setOpacity(layer.opacity);
+            map.getLayers().add(built);
+        }
+        return map;
+    }
+
+    private static TiledMapTileSet buildTileset(MapData data, MapData.Tileset ts, Texture texture) {
+        if (texture == null)
+            throw new GdxRuntimeException("Missing texture for tileset " + ts.name + ": " + ts.image);
+
+        TiledMapTileSet set = new TiledMapTileSet();
+        set.setName(ts.name);
+
+        MapProperties props = set.getProperties();
+        props.put("firstgid", ts.firstGid);
+        props.put("imagesource", ts.image);
+        props.put("imagewidth", ts.imageWidth);
+        props.put("imageheight", ts.imageHeight);
+        props.put("tilewidth", data.tileWidth);
+        props.put("tileheight", data.tileHeight);
+        props.put("margin", ts.margin);
+        props.put("spacing", ts.spacing);
+        putAll(props, ts.properties);
+
+        int columns = Math.max(1, ts.columns);
+        for (int id = 0; id < ts.tileCount; id++) {
+            int x = ts.margin + (id % columns) * (data.tileWidth + ts.spacing);
+            int y = ts.margin + (id / columns) * (data.tileHeight + ts.spacing);
+
+            StaticTiledMapTile tile = new StaticTiledMapTile(new TextureRegion(texture, x, y, data.tileWidth, data.tileHeight));
+            tile.setId(ts.firstGid + id);
+
+            Map<String, Object> tileProps = ts.tileProperties.get(id);
+            if (tileProps != null)
+                putAll(tile.getProperties(), tileProps);
+
+            set.putTile(tile.getId(), tile);
+        }
+        return set;
+    }
+
+    private static TiledMapTileLayer buildTileLayer(TiledMap map, MapData data, MapData.Layer layer,
+                                                    IntMap<TiledMapTileLayer.Cell> cells) {
+        TiledMapTileLayer result = new TiledMapTileLayer(data.width, data.height, data.tileWidth, data.tileHeight);
+
+        int[] gids = layer.gids;
+        for (int i = 0; i < gids.length; i++) {
+            int raw = gids[i];
+            if (raw == 0)
+                continue;
+
+            TiledMapTileLayer.Cell cell = cells.get(raw);
+            if (cell == null) {
+                cell = createCell(map, raw);
+                cells.put(raw, cell);
+            }
+            if (cell.getTile() != null)
+                result.setCell(i % data.width, i / data.width, cell);
+        }
+        return result;
+    }
+
+    /**
+     * Cellule d'un GID brut (mêmes règles de flip/rotation que TmxMapLoader).
+     */
+    private static TiledMapTileLayer.Cell createCell(TiledMap map, int raw) {
+        boolean flipH = (raw & MapData.FLIP_HORIZONTAL) != 0;
+        boolean flipV = (raw & MapData.FLIP_VERTICAL) != 0;
+        boolean flipD = (raw & MapData.FLIP_DIAGONAL) != 0;
+
+        TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+        cell.setTile(map.getTileSets().getTile(raw & ~MapData.FLIP_MASK));
+
+        if (flipD) {
+            if (flipH && flipV) {
+                cell.setFlipHorizontally(true);
+                cell.setRotation(TiledMapTileLayer.Cell.ROTATE_270);
+            } else if (flipH) {
+                cell.setRotation(TiledMapTileLayer.Cell.ROTATE_270);
+            } else if (flipV) {
+                cell.setRotation(TiledMapTileLayer.Cell.ROTATE_90);
+            } else {
+                cell.setFlipVertically(true);
+                cell.setRotation(TiledMapTileLayer.Cell.ROTATE_270);
+            }
+        } else {
+            cell.setFlipHorizontally(flipH);
+            cell.setFlipVertically(flipV);
+        }
+        return cell;
+    }
+
+    private static MapLayer buildObjectLayer(TiledMap map, MapData.Layer layer) {
+        MapLayer result = new MapLayer();
+
+        for (MapData.MapObjectData o : layer.objects) {
+            MapObject object;
+            if (o.gid != 0) {
+                TiledMapTile tile = map.getTileSets().getTile(o.gid & ~MapData.FLIP_MASK);
+                TiledMapTileMapObject tileObject = new TiledMapTileMapObject(tile,
+                        (o.gid & MapData.FLIP_HORIZONTAL) != 0, (o.gid & MapData.FLIP_VERTICAL) != 0);
+                TextureRegion region = tile.getTextureRegion();
+                tileObject.setX(o.x);
+                tileObject.setY(o.y);
+                tileObject.setScaleX(o.width / region.getRegionWidth());
+                tileObject.setScaleY(o.height / region.getRegionHeight());
+                tileObject.getProperties().put("gid", o.gid);
+                object = tileObject;
+            } else {
+                object = new RectangleMapObject(o.x, o.y, o.width, o.height);
+            }
+
+            object.setName(o.name);
+            MapProperties props = object.getProperties();
+            props.put("id", o.id);
+            props.put("type", o.type);
+            props.put("x", o.x);
+            props.put("y", o.y);
+            props.put("width", o.width);
+            props.put("height", o.height);
+            putAll(props, o.properties);
+
+            result.getObjects().add(object);
+        }
+        return result;
+    }
+
+    private static void putAll(MapProperties target, Map<String, Object> source) {
+        for (Map.Entry<String, Object> e : source.entrySet())
+            target.put(e.getKey(), e.getValue());
+    }
+
+    /**
+     * Résout un chemin relatif ("../tiles/x.png") par rapport au fichier de la carte.
+     */
+    private static FileHandle resolveRelative(FileHandle file, String path) {
+        FileHandle result = file.parent();
+        for (String part : path.split("/")) {
+            if (part.isEmpty() || part.equals("."))
+                continue;
+            result = part.equals("..") ? result.parent() : result.child(part);
+        }
+        return result;
+    }
+}
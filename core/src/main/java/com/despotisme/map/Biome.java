@@ -0,0 +1,46 @@
+package com.despotisme.map;
+
+/**
+ * Biomes du générateur de monde, chacun associé à un tileset existant.
+ * Les règles de jeu (marchable, coût, rendements, vision) restent celles
+ * du tileset (.tsx) : le biome ne choisit que l'image.
+ */
+public enum Biome {
+    OCEAN("ocean00_96", false),
+    BEACH("islandSandy00_96", false),
+    SNOW_FIELD("snowField00_96", false),
+    SNOW_FOREST("forestPineSnowCovered00_96", false),
+    TUNDRA("plainsColdSnowTransition00_96", true),
+    COLD_DIRT("dirtCold00_96", false),
+    PINE_FOREST("forestPine00_96", false),
+    WOODLANDS("woodlands00_96", false),
+    PLAINS("plains00_96", true),
+    BROADLEAF_FOREST("forestBroadleaf00_96", false),
+    SCRUBLAND("scrubland00_96", true),
+    MARSH("marsh00_96", false),
+    TROPICAL_PLAINS("tropicalPlains00_96", true),
+    JUNGLE("jungle00_96", false),
+    DESERT_HILLS("desertYellowHills00_96", false),
+    DESERT("desertDunes00_96", false),
+    HIGHLANDS("highlands00_96", true),
+    HILLS("hills00_96", true),
+    MOUNTAIN("mountain00_96", false),
+    SNOW_MOUNTAIN("mountainSnow00_96", false);
+
+    private static final Biome[] VALUES = values();
+
+    /** Nom du tileset (.tsx) utilisé pour ce biome. */
+    public final String tileset;
+
+    /** Peut accueillir la position de départ du joueur. */
+    public final boolean startable;
+
+    Biome(String tileset, boolean startable) {
+        this.tileset = tileset;
+        this.startable = startable;
+    }
+
+    public static Biome of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
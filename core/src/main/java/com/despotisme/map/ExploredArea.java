@@ -0,0 +1,161 @@
+package com.despotisme.map;
+
+import com.despotisme.events.EventBus;
+import com.despotisme.events.VisibilityChanged;
+
+/**
+ * ============================================================================
+ * ExploredArea
+ * ----------------------------------------------------------------------------
+ * Brouillard de guerre d'un joueur côté modèle, en deux couches de bits :
+ *   - explored : cases déjà vues au moins une fois (jamais effacées)
+ *   - visible  : cases dans la ligne de vue d'une de ses unités ou villes
+ *
+ * Les deux couches sont des long[] indexés colonne par colonne
+ * (index = x * hauteur + y, 64 cases par long) : 2 bits par case au lieu d'un
+ * boolean par case, et une colonne d'un rectangle se vide d'un seul masque.
+ * C'est aussi le format de sauvegarde : packBits()/unpackBits() ne font
+ * qu'une copie.
+ *
+ * Seul le VisibilityEngine écrit (clearVisible/markVisible puis
+ * postChanged) ; l'affichage (FogOfWarRenderer, mini-carte) lit
+ * isExplored()/isVisible() sur le rectangle du VisibilityChanged reçu.
+ * Aucune dépendance graphique : utilisable dans la simulation et les benchmarks.
+ *
+ * pollChanged() indique si de nouvelles cases ont été découvertes depuis le
+ * dernier appel (sauvegarde incrémentale).
+ * ============================================================================
+ */
+public class ExploredArea {
+
+    private final int width;
+    private final int height;
+    private final int player;
+
+    private final long[] explored;
+    private final long[] visible;
+
+    private boolean changed;
+    private EventBus events;    // null = personne n'écoute
+
+    public ExploredArea(int width, int height, int player) {
+        this.width = width;
+        this.height = height;
+        this.player = player;
+
+        int words = (width * height + 63) >>> 6;
+        this.explored = new long[words];
+        this.visible = new long[words];
+    }
+
+    public void setEvents(EventBus events) {
+        this.events = events;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getPlayer() {
+        return player;
+    }
+
+    public boolean isExplored(int x, int y) {
+        int i = x * height + y;
+        return (explored[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public boolean isVisible(int x, int y) {
+        int i = x * height + y;
+        return (visible[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // ============================================================================
+    // Écriture (VisibilityEngine)
+    // ============================================================================
+
+    /**
+     * Efface la couche visible sur le rectangle (inclusif, déjà borné à la carte).
+     */
+    void clearVisible(int x0, int y0, int x1, int y1) {
+        for (int x = x0; x <= x1; x++) {
+            int from = x * height + y0;
+            int to = x * height + y1;
+            int first = from >>> 6;
+            int last = to >>> 6;
+
+            long head = -1L << from;
+            long tail = -1L >>> (63 - (to & 63));
+            if (first == last) {
+                visible[first] &= ~(head & tail);
+                continue;
+            }
+            visible[first] &= ~head;
+            for (int w = first + 1; w < last; w++)
+                visible[w] = 0;
+            visible[last] &= ~tail;
+        }
+    }
+
+    /**
+     * Rend la case visible (et explorée).
+     */
+    void markVisible(int x, int y) {
+        int i = x * height + y;
+        int w = i >>> 6;
+        long bit = 1L << i;
+        visible[w] |= bit;
+        if ((explored[w] & bit) == 0) {
+            explored[w] |= bit;
+            changed = true;
+        }
+    }
+
+    /**
+     * Publie un VisibilityChanged pour le rectangle recalculé.
+     */
+    void postChanged(int minX, int minY, int maxX, int maxY) {
+        VisibilityChanged e = events == null ? null : events.post(VisibilityChanged.TYPE);
+        if (e != null) {
+            e.player = player;
+            e.minX = minX;
+            e.minY = minY;
+            e.maxX = maxX;
+            e.maxY = maxY;
+        }
+    }
+
+    // ============================================================================
+    // Sauvegarde
+    // ============================================================================
+
+    /** Vrai si des cases ont été découvertes depuis l'appel précédent. */
+    public boolean pollChanged() {
+        boolean c = changed;
+        changed = false;
+        return c;
+    }
+
+    public long[] packBits() {
+        return explored.clone();
+    }
+
+    public void unpackBits(long[] bits) {
+        if (bits.length != explored.length)
+            throw new IllegalArgumentException("Explored bits are for another map size: "
+                    + bits.length + " words, expected " + explored.length);
+
+        System.arraycopy(bits, 0, explored, 0, bits.length);
+        // les bits au-delà de la dernière case restent à 0
+        int tail = (width * height) & 63;
+        if (tail != 0)
+            explored[explored.length - 1] &= -1L >>> (64 - tail);
+
+        changed = true;
+        postChanged(0, 0, width - 1, height - 1);
+    }
+}
@@ -0,0 +1,49 @@
+package com.despotisme.map;
+
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.despotisme.constants.MapConstants;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ============================================================================
+ * GeneratedMapLoader
+ * ----------------------------------------------------------------------------
+ * Charge un monde procédural comme n'importe quelle carte de l'AssetManager.
+ *
+ * Le "fichier" worlds/<graine>_<L>x<H>.world n'existe pas : son nom porte les
+ * paramètres (voir WorldGenerator.worldFile). La génération, parallèle, se
+ * fait sur le thread de l'AssetManager (écran de chargement fluide), avec les
+ * tilesets du catalogue atlas/tilesets.dmap produit par compileBinaryMaps.
+ * ============================================================================
+ */
+public class GeneratedMapLoader extends BinaryMapLoader {
+
+    public static final String CATALOG_FILE = PackedMaps.ATLAS_FOLDER + "tilesets.dmap";
+
+    private MapData catalog;
+
+    public GeneratedMapLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    protected MapData decode(String fileName, FileHandle file) {
+        if (catalog == null)
+            catalog = read(resolve(CATALOG_FILE));
+
+        // "<graine>_<L>x<H>"
+        MapData world = WorldGenerator.generateWorldFile(file.path(), catalog,
+                (int) MapConstants.TILE_SIZE, ForkJoinPool.commonPool());
+        if (world == null)
+            throw new GdxRuntimeException("Invalid generated world name: " + fileName);
+        return world;
+    }
+
+    @Override
+    protected FileHandle tilesetBase(FileHandle file) {
+        return resolve(CATALOG_FILE);
+    }
+}
@@ -0,0 +1,90 @@
+package com.despotisme.map;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ============================================================================
+ * MapData
+ * ----------------------------------------------------------------------------
+ * Description d'une carte indépendante de libGDX : tilesets, couches de GID
+ * et objets. C'est le contenu du format binaire (voir BinaryMapFormat), que
+ * BinaryMapLoader transforme ensuite en TiledMap.
+ *
+ * Conventions (déjà celles de libGDX, pour une construction sans conversion) :
+ *   - couches de tuiles en tableau row-major, ligne 0 = bas de la carte
+ *     (index = x + y * largeur, comme TerrainGrid)
+ *   - positions des objets en pixels, origine en bas à gauche
+ *   - GID bruts : les bits de flip Tiled (FLIP_MASK) sont conservés
+ *   - valeurs de propriétés : String, Integer, Float ou Boolean
+ * ============================================================================
+ */
+public class MapData {
+
+    public static final int FLIP_HORIZONTAL = 0x80000000;
+    public static final int FLIP_VERTICAL = 0x40000000;
+    public static final int FLIP_DIAGONAL = 0x20000000;
+    public static final int FLIP_MASK = 0xF0000000;
+
+    public final int width;
+    public final int height;
+    public final int tileWidth;
+    public final int tileHeight;
+
+    public final Map<String, Object> properties = new LinkedHashMap<>();
+    public final List<Tileset> tilesets = new ArrayList<>();
+    public final List<Layer> layers = new ArrayList<>();
+
+    public MapData(int width, int height, int tileWidth, int tileHeight) {
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+    }
+
+    /**
+     * Tileset à image unique (découpée en grille).
+     */
+    public static class Tileset {
+        public String name;
+        public int firstGid;
+        public String image;            // chemin relatif au fichier de la carte
+        public int imageWidth, imageHeight;
+        public int tileCount, columns;
+        public int margin, spacing;
+
+        public final Map<String, Object> properties = new LinkedHashMap<>();
+        public final Map<Integer, Map<String, Object>> tileProperties = new LinkedHashMap<>();
+    }
+
+    /**
+     * Couche de tuiles (gids != null) ou couche d'objets (objects != null).
+     */
+    public static class Layer {
+        public String name;
+        public boolean visible = true;
+        public float opacity = 1f;
+
+        public int[] gids;
+        public List<MapObjectData> objects;
+
+        public boolean isTileLayer() {
+            return gids != null;
+        }
+    }
+
+    /**
+     * Objet Tiled : rectangle, ou tuile si gid != 0.
+     */
+    public static class MapObjectData {
+        public int id;
+        public String name = "";
+        public String type = "";
+        public float x, y, width, height;
+        public int gid;
+
+        public final Map<String, Object> properties = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,41 @@
+package com.despotisme.map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * ============================================================================
+ * PackedMaps
+ * ----------------------------------------------------------------------------
+ * Résout le chemin de la version "atlas" d'une carte Tiled.
+ *
+ * La tâche Gradle core:packMapAtlas réécrit chaque carte "maps/X.tmx" en
+ * "atlas/X.tmx" : seules les tuiles utilisées sont conservées, regroupées dans
+ * quelques pages de texture, et les GID des couches sont déjà remappés.
+ * core:compileBinaryMaps compile ensuite cette carte en "atlas/X.dmap"
+ * (BinaryMapLoader), sans XML à analyser au lancement.
+ *
+ * Si rien n'a été généré (lancement depuis l'IDE sans Gradle), on retombe sur
+ * la carte d'origine.
+ * ============================================================================
+ */
+public final class PackedMaps {
+
+    public static final String ATLAS_FOLDER = "atlas/";
+
+    private PackedMaps() {}
+
+    /**
+     * Retourne "atlas/X.dmap", sinon "atlas/X.tmx", sinon le chemin d'origine.
+     */
+    public static String resolve(String mapPath) {
+        String name = Gdx.files.internal(mapPath).nameWithoutExtension();
+
+        FileHandle binary = Gdx.files.internal(ATLAS_FOLDER + name + BinaryMapFormat.EXTENSION);
+        if (binary.exists())
+            return binary.path();
+
+        FileHandle packed = Gdx.files.internal(ATLAS_FOLDER + name + ".tmx");
+        return packed.exists() ? packed.path() : mapPath;
+    }
+}
@@ -0,0 +1,136 @@
+package com.despotisme.map;
+
+/**
+ * ============================================================================
+ * TerrainGrid
+ * ----------------------------------------------------------------------------
+ * Attributs du terrain "aplatis" dans des tableaux primitifs, indexés par
+ * tuile (index = x + y * largeur) :
+ *   - marchable / bloque la vue (bits de flags)
+ *   - coût de déplacement
+ *   - rendements (nourriture, production, or)
+ *
+ * Construit une seule fois au chargement de la carte (voir TerrainGridLoader),
+ * puis interrogé en O(1) sans allocation par le déplacement, le pathfinding,
+ * l'IA et la vision. Ne dépend d'aucune classe libGDX.
+ * ============================================================================
+ */
+public class TerrainGrid {
+
+    public static final byte FLAG_WALKABLE = 1;
+    public static final byte FLAG_BLOCKS_VISION = 2;
+
+    private final int width;
+    private final int height;
+
+    private final byte[] flags;
+    private final byte[] moveCost;
+    private final byte[] food;
+    private final byte[] production;
+    private final byte[] gold;
+
+    // Incrémenté à chaque modification (invalide les caches : champs de flux...)
+    private int version;
+
+    public TerrainGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        int size = width * height;
+        this.flags = new byte[size];
+        this.moveCost = new byte[size];
+        this.food = new byte[size];
+        this.production = new byte[size];
+        this.gold = new byte[size];
+    }
+
+    /**
+     * Définit tous les attributs d'une tuile.
+     */
+    public void set(int x, int y, boolean walkable, boolean blocksVision,
+                    int moveCost, int food, int production, int gold) {
+        int i = index(x, y);
+        this.flags[i] = (byte) ((walkable ? FLAG_WALKABLE : 0) | (blocksVision ? FLAG_BLOCKS_VISION : 0));
+        this.moveCost[i] = (byte) Math.max(1, moveCost);
+        this.food[i] = (byte) food;
+        this.production[i] = (byte) production;
+        this.gold[i] = (byte) gold;
+        this.version++;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return flags.length;
+    }
+
+    public int index(int x, int y) {
+        return x + y * width;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    // ============================================================================
+    // Requêtes par coordonnées (hors carte = non marchable)
+    // ============================================================================
+
+    public boolean isWalkable(int x, int y) {
+        return inBounds(x, y) && (flags[x + y * width] & FLAG_WALKABLE) != 0;
+    }
+
+    public boolean blocksVision(int x, int y) {
+        return !inBounds(x, y) || (flags[x + y * width] & FLAG_BLOCKS_VISION) != 0;
+    }
+
+    public int getMoveCost(int x, int y) {
+        return moveCost[index(x, y)];
+    }
+
+    public int getFood(int x, int y) {
+        return food[index(x, y)];
+    }
+
+    public int getProduction(int x, int y) {
+        return production[index(x, y)];
+    }
+
+    public int getGold(int x, int y) {
+        return gold[index(x, y)];
+    }
+
+    // ============================================================================
+    // Requêtes par index (boucles chaudes : pathfinding, vision)
+    // ============================================================================
+
+    public boolean isWalkable(int index) {
+        return (flags[index] & FLAG_WALKABLE) != 0;
+    }
+
+    public boolean blocksVision(int index) {
+        return (flags[index] & FLAG_BLOCKS_VISION) != 0;
+    }
+
+    public int getMoveCost(int index) {
+        return moveCost[index];
+    }
+
+    public int getFood(int index) {
+        return food[index];
+    }
+
+    public int getProduction(int index) {
+        return production[index];
+    }
+}
@@ -0,0 +1,203 @@
+package com.despotisme.map;
+
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * ============================================================================
+ * TerrainGridLoader
+ * ----------------------------------------------------------------------------
+ * Compile les propriétés des tuiles d'une TiledMap en TerrainGrid, ou d'une
+ * MapData sans passer par libGDX (simulation sans contexte graphique).
+ *
+ * Propriétés lues (tuile, sinon tileset .tsx, sinon valeur par défaut) :
+ *   walkable, blocksVision, moveCost, food, production, gold
+ *
+ * Règles de composition des couches (dans l'ordre Base -> World -> Insertions) :
+ *   - walkable : la première couche dont la tuile définit "walkable" décide
+ *     (même règle que l'ancien MapScreen.isWalkable)
+ *   - blocksVision : vrai si une des couches bloque la vue
+ *   - moveCost / rendements : la couche la plus haute qui les définit
+ * ============================================================================
+ */
+public final class TerrainGridLoader {
+
+    private TerrainGridLoader() {}
+
+    /** Attributs résolus d'une tuile (un seul objet par tuile distincte). */
+    private static final class TileAttributes {
+        Boolean walkable;
+        boolean blocksVision;
+        boolean hasCost, hasYields;
+        int moveCost = 1, food, production, gold;
+    }
+
+    /** Composition des couches pour une case (ordre Base -> Insertions). */
+    private static final class CellComposer {
+        Boolean walkable;
+        boolean blocksVision;
+        int moveCost, food, production, gold;
+
+        void reset() {
+            walkable = null;
+            blocksVision = false;
+            moveCost = 1;
+            food = production = gold = 0;
+        }
+
+        void add(TileAttributes a) {
+            if (a == null)
+                return;
+            if (walkable == null)
+                walkable = a.walkable;
+            blocksVision |= a.blocksVision;
+            if (a.hasCost)
+                moveCost = a.moveCost;
+            if (a.hasYields) {
+                food = a.food;
+                production = a.production;
+                gold = a.gold;
+            }
+        }
+
+        void store(TerrainGrid grid, int x, int y) {
+            grid.set(x, y, walkable != null && walkable, blocksVision, moveCost, food, production, gold);
+        }
+    }
+
+    public static TerrainGrid load(TiledMap map) {
+        Array<TiledMapTileLayer> layers = new Array<>();
+        for (MapLayer layer : map.getLayers()) {
+            if (layer instanceof TiledMapTileLayer)
+                layers.add((TiledMapTileLayer) layer);
+        }
+
+        IntMap<TileAttributes> attributes = resolveTiles(map);
+
+        TiledMapTileLayer base = layers.first();
+        TerrainGrid grid = new TerrainGrid(base.getWidth(), base.getHeight());
+        CellComposer cell = new CellComposer();
+
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                cell.reset();
+                for (TiledMapTileLayer layer : layers) {
+                    TiledMapTileLayer.Cell c = layer.getCell(x, y);
+                    if (c != null && c.getTile() != null)
+                        cell.add(attributes.get(c.getTile().getId()));
+                }
+                cell.store(grid, x, y);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * ============================================================================
+     * Même compilation depuis une MapData (couches de GID, propriétés des
+     * tilesets) : aucune classe graphique, utilisable dans une JVM nue.
+     * ============================================================================
+     */
+    public static TerrainGrid load(MapData map) {
+        IntMap<TileAttributes> attributes = new IntMap<>();
+        for (MapData.Tileset tileSet : map.tilesets) {
+            for (int id = 0; id < tileSet.tileCount; id++) {
+                Map<String, Object> props = tileSet.tileProperties.get(id);
+                Function<String, Object> tile = props == null ? key -> null : props::get;
+                attributes.put(tileSet.firstGid + id, resolve(tile, tileSet.properties::get));
+            }
+        }
+
+        TerrainGrid grid = new TerrainGrid(map.width, map.height);
+        CellComposer cell = new CellComposer();
+
+        for (int y = 0; y < map.height; y++) {
+            for (int x = 0; x < map.width; x++) {
+                cell.reset();
+                int i = x + y * map.width;
+                for (MapData.Layer layer : map.layers) {
+                    if (!layer.isTileLayer())
+                        continue;
+                    int gid = layer.gids[i] & ~MapData.FLIP_MASK;
+                    if (gid != 0)
+                        cell.add(attributes.get(gid));
+                }
+                cell.store(grid, x, y);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Résout une fois les attributs de chaque tuile de chaque tileset.
+     */
+    private static IntMap<TileAttributes> resolveTiles(TiledMap map) {
+        IntMap<TileAttributes> result = new IntMap<>();
+
+        for (TiledMapTileSet tileSet : map.getTileSets()) {
+            MapProperties setProps = tileSet.getProperties();
+
+            for (TiledMapTile tile : tileSet) {
+                MapProperties props = tile.getProperties();
+                result.put(tile.getId(), resolve(props::get, setProps::get));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Attributs d'une tuile à partir de ses propriétés et de celles de son
+     * tileset (TiledMap ou MapData).
+     */
+    private static TileAttributes resolve(Function<String, Object> props, Function<String, Object> setProps) {
+        TileAttributes a = new TileAttributes();
+
+        Object walk = props.apply("walkable");
+        if (walk != null)
+            a.walkable = toBoolean(walk);
+        a.blocksVision = toBoolean(lookup("blocksVision", props, setProps, Boolean.FALSE));
+
+        Object cost = lookup("moveCost", props, setProps, null);
+        if (cost != null) {
+            a.hasCost = true;
+            a.moveCost = toInt(cost);
+        }
+
+        Object food = lookup("food", props, setProps, null);
+        Object production = lookup("production", props, setProps, null);
+        Object gold = lookup("gold", props, setProps, null);
+        if (food != null || production != null || gold != null) {
+            a.hasYields = true;
+            a.food = food == null ? 0 : toInt(food);
+            a.production = production == null ? 0 : toInt(production);
+            a.gold = gold == null ? 0 : toInt(gold);
+        }
+        return a;
+    }
+
+    private static Object lookup(String key, Function<String, Object> tile, Function<String, Object> tileSet, Object fallback) {
+        Object value = tile.apply(key);
+        if (value == null)
+            value = tileSet.apply(key);
+        return value == null ? fallback : value;
+    }
+
+    private static boolean toBoolean(Object value) {
+        return (value instanceof Boolean)
+                ? (Boolean) value
+                : (value instanceof String && ((String) value).equalsIgnoreCase("true"));
+    }
+
+    private static int toInt(Object value) {
+        return (value instanceof Number) ? ((Number) value).intValue() : Integer.parseInt(value.toString().trim());
+    }
+}
@@ -0,0 +1,310 @@
+package com.despotisme.map;
+
+import com.despotisme.logging.Logger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ============================================================================
+ * TmxMapCompiler
+ * ----------------------------------------------------------------------------
+ * Compile une carte Tiled (.tmx + tilesets .tsx externes ou intégrés) en
+ * fichier binaire .dmap (voir BinaryMapFormat). Exécuté à la compilation par
+ * la tâche Gradle core:compileBinaryMaps, sur les cartes produites par
+ * packMapAtlas : le jeu ne lit plus jamais de XML ni de CSV.
+ *
+ * Les coordonnées sont converties une fois pour toutes vers celles de libGDX
+ * (mêmes règles que TmxMapLoader : ligne 0 en bas, objets en bas à gauche).
+ *
+ * Compile aussi le catalogue de tous les tilesets (carte vide 0 x 0), utilisé
+ * par WorldGenerator pour les mondes générés.
+ *
+ * Usage : TmxMapCompiler [<fichier.tmx | dossier>] [--tilesets <dossier .tsx> <sortie.dmap>]...
+ * ============================================================================
+ */
+public final class TmxMapCompiler {
+
+    private static final Logger LOG = Logger.get(TmxMapCompiler.class);
+
+    private TmxMapCompiler() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0)
+            throw new IllegalArgumentException("Usage: TmxMapCompiler [<map.tmx | folder>] [--tilesets <folder> <out.dmap>]...");
+
+        for (int a = 0; a < args.length; a++) {
+            if (args[a].equals("--tilesets")) {
+                File out = new File(args[a + 2]);
+                MapData catalog = compileTilesets(new File(args[a + 1]), out.getParentFile());
+                write(catalog, out);
+                LOG.info("compileBinaryMaps: {} tilesets -> {}", catalog.tilesets.size(), out.getName());
+                a += 2;
+                continue;
+            }
+
+            File input = new File(args[a]);
+            File[] maps = input.isDirectory()
+                    ? input.listFiles((dir, name) -> name.endsWith(".tmx"))
+                    : new File[]{input};
+            if (maps == null)
+                continue;
+
+            for (File tmx : maps) {
+                File out = new File(tmx.getParentFile(), tmx.getName().replaceFirst("\\.tmx$", "") + BinaryMapFormat.EXTENSION);
+                write(compile(tmx), out);
+                LOG.info("compileBinaryMaps: {} -> {} ({} KB xml -> {} KB)",
+                        tmx.getName(), out.getName(), tmx.length() / 1024, out.length() / 1024);
+            }
+        }
+    }
+
+    private static void write(MapData map, File out) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(out))) {
+            BinaryMapFormat.write(map, stream);
+        }
+    }
+
+    /**
+     * Lit une carte .tmx orthogonale, finie, à couches CSV.
+     */
+    public static MapData compile(File tmx) throws Exception {
+        Element root = parse(tmx).getDocumentElement();
+        if ("1".equals(root.getAttribute("infinite")))
+            throw new IOException(tmx.getName() + ": infinite maps are not supported");
+
+        MapData map = new MapData(
+                intAttr(root, "width", 0), intAttr(root, "height", 0),
+                intAttr(root, "tilewidth", 0), intAttr(root, "tileheight", 0));
+        readProperties(root, map.properties);
+
+        int mapHeightPx = map.height * map.tileHeight;
+
+        for (Node node = root.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (!(node instanceof Element))
+                continue;
+            Element e = (Element) node;
+
+            switch (e.getTagName()) {
+                case "tileset":
+                    map.tilesets.add(readTileset(tmx, e));
+                    break;
+                case "layer":
+                    map.layers.add(readTileLayer(tmx, map, e));
+                    break;
+                case "objectgroup":
+                    map.layers.add(readObjectLayer(e, mapHeightPx));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return map;
+    }
+
+    // ============================================================================
+    // Tilesets
+    // ============================================================================
+
+    /**
+     * Catalogue de tous les tilesets .tsx d'un dossier (triés par nom, GID
+     * consécutifs), chemins d'images relatifs à outputDir.
+     */
+    public static MapData compileTilesets(File folder, File outputDir) throws Exception {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".tsx"));
+        if (files == null)
+            throw new IOException("Not a folder: " + folder);
+        Arrays.sort(files);
+
+        MapData catalog = new MapData(0, 0, 0, 0);
+        int firstGid = 1;
+        for (File tsx : files) {
+            MapData.Tileset ts = readTileset(outputDir, tsx, parse(tsx).getDocumentElement(), firstGid);
+            catalog.tilesets.add(ts);
+            firstGid += ts.tileCount;
+        }
+        return catalog;
+    }
+
+    private static MapData.Tileset readTileset(File tmx, Element ref) throws Exception {
+        String source = ref.getAttribute("source");
+        int firstGid = intAttr(ref, "firstgid", 1);
+        if (source.isEmpty())
+            return readTileset(tmx.getParentFile(), tmx, ref, firstGid);
+
+        File tsx = new File(tmx.getParentFile(), source);
+        return readTileset(tmx.getParentFile(), tsx, parse(tsx).getDocumentElement(), firstGid);
+    }
+
+    /**
+     * @param mapDir dossier de référence des chemins d'images
+     * @param file   fichier contenant le nœud (tsx, ou tmx si intégré)
+     */
+    private static MapData.Tileset readTileset(File mapDir, File file, Element node, int firstGid) throws Exception {
+        Element image = firstChild(node, "image");
+        if (image == null)
+            throw new IOException(file.getName() + ": image collection tilesets are not supported");
+
+        MapData.Tileset ts = new MapData.Tileset();
+        ts.name = node.getAttribute("name");
+        ts.firstGid = firstGid;
+        ts.image = relativePath(mapDir, new File(file.getParentFile(), image.getAttribute("source")));
+        ts.imageWidth = intAttr(image, "width", 0);
+        ts.imageHeight = intAttr(image, "height", 0);
+        ts.tileCount = intAttr(node, "tilecount", 0);
+        ts.columns = intAttr(node, "columns", 0);
+        ts.margin = intAttr(node, "margin", 0);
+        ts.spacing = intAttr(node, "spacing", 0);
+        readProperties(node, ts.properties);
+
+        for (Element tile : children(node, "tile")) {
+            Map<String, Object> props = new LinkedHashMap<>();
+            readProperties(tile, props);
+            if (!props.isEmpty())
+                ts.tileProperties.put(intAttr(tile, "id", 0), props);
+        }
+        return ts;
+    }
+
+    // ============================================================================
+    // Couches
+    // ============================================================================
+
+    private static MapData.Layer readTileLayer(File tmx, MapData map, Element e) throws IOException {
+        MapData.Layer layer = newLayer(e);
+
+        Element data = firstChild(e, "data");
+        if (data == null || !"csv".equals(data.getAttribute("encoding")))
+            throw new IOException(tmx.getName() + "/" + layer.name + ": only CSV layers are supported");
+
+        layer.gids = new int[map.width * map.height];
+        String csv = data.getTextContent();
+        int cell = 0;
+        int start = -1;
+        for (int i = 0; i <= csv.length(); i++) {
+            char c = i < csv.length() ? csv.charAt(i) : ',';
+            boolean digit = c >= '0' && c <= '9';
+            if (digit && start < 0) {
+                start = i;
+            } else if (!digit && start >= 0) {
+                if (cell >= layer.gids.length)
+                    throw new IOException(tmx.getName() + "/" + layer.name + ": too many tiles");
+                // Tiled : ligne 0 en haut ; libGDX : ligne 0 en bas
+                int x = cell % map.width;
+                int y = map.height - 1 - cell / map.width;
+                layer.gids[x + y * map.width] = (int) Long.parseLong(csv, start, i, 10);
+                cell++;
+                start = -1;
+            }
+        }
+        if (cell != layer.gids.length)
+            throw new IOException(tmx.getName() + "/" + layer.name + ": expected " + layer.gids.length + " tiles, found " + cell);
+        return layer;
+    }
+
+    private static MapData.Layer readObjectLayer(Element e, int mapHeightPx) {
+        MapData.Layer layer = newLayer(e);
+        layer.objects = new ArrayList<>();
+
+        for (Element o : children(e, "object")) {
+            MapData.MapObjectData obj = new MapData.MapObjectData();
+            obj.id = intAttr(o, "id", 0);
+            obj.name = o.getAttribute("name");
+            obj.type = o.hasAttribute("type") ? o.getAttribute("type") : o.getAttribute("class");
+            obj.width = floatAttr(o, "width", 0f);
+            obj.height = floatAttr(o, "height", 0f);
+            obj.gid = o.hasAttribute("gid") ? (int) Long.parseLong(o.getAttribute("gid")) : 0;
+            obj.x = floatAttr(o, "x", 0f);
+
+            // Tuile : ancrée en bas à gauche dans Tiled ; rectangle : en haut à gauche
+            float y = floatAttr(o, "y", 0f);
+            obj.y = obj.gid != 0 ? mapHeightPx - y : mapHeightPx - y - obj.height;
+
+            readProperties(o, obj.properties);
+            layer.objects.add(obj);
+        }
+        return layer;
+    }
+
+    private static MapData.Layer newLayer(Element e) {
+        MapData.Layer layer = new MapData.Layer();
+        layer.name = e.getAttribute("name");
+        layer.visible = !"0".equals(e.getAttribute("visible"));
+        layer.opacity = floatAttr(e, "opacity", 1f);
+        return layer;
+    }
+
+    // ============================================================================
+    // Propriétés et utilitaires XML
+    // ============================================================================
+
+    private static void readProperties(Element owner, Map<String, Object> out) {
+        Element properties = firstChild(owner, "properties");
+        if (properties == null)
+            return;
+
+        for (Element p : children(properties, "property")) {
+            String value = p.hasAttribute("value") ? p.getAttribute("value") : p.getTextContent();
+            Object typed;
+            switch (p.getAttribute("type")) {
+                case "int":   typed = Integer.parseInt(value.trim()); break;
+                case "float": typed = Float.parseFloat(value.trim()); break;
+                case "bool":  typed = Boolean.parseBoolean(value.trim()); break;
+                default:      typed = value; break;
+            }
+            out.put(p.getAttribute("name"), typed);
+        }
+    }
+
+    private static Document parse(File file) throws Exception {
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        return builder.parse(file);
+    }
+
+    private static Element firstChild(Element parent, String tag) {
+        for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n instanceof Element && tag.equals(((Element) n).getTagName()))
+                return (Element) n;
+        }
+        return null;
+    }
+
+    private static List<Element> children(Element parent, String tag) {
+        List<Element> result = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node n = nodes.item(i);
+            if (n instanceof Element && tag.equals(((Element) n).getTagName()))
+                result.add((Element) n);
+        }
+        return result;
+    }
+
+    private static int intAttr(Element e, String name, int fallback) {
+        return e.hasAttribute(name) ? Integer.parseInt(e.getAttribute(name)) : fallback;
+    }
+
+    private static float floatAttr(Element e, String name, float fallback) {
+        return e.hasAttribute(name) ? Float.parseFloat(e.getAttribute(name)) : fallback;
+    }
+
+    private static String relativePath(File from, File to) throws IOException {
+        return from.getCanonicalFile().toPath()
+                .relativize(to.getCanonicalFile().toPath())
+                .toString().replace(File.separatorChar, '/');
+    }
+}
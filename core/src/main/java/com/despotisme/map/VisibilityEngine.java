@@ -0,0 +1,334 @@
+package com.despotisme.map;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.despotisme.constants.UnitsConstants;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.SpatialIndex;
+
+import java.util.Arrays;
+
+/**
+ * ============================================================================
+ * VisibilityEngine
+ * ----------------------------------------------------------------------------
+ * Ligne de vue de toutes les unités et villes, par joueur.
+ *
+ * Chaque unité ou ville est un "observateur" : sa position, son rayon
+ * (UnitType.vision, UnitsConstants.CITY_VISION_RADIUS) et le masque des
+ * cases qu'elle voit, calculé par shadowcasting récursif sur 8 octants :
+ * forêts et montagnes (TerrainGrid.blocksVision) sont vues mais cachent ce
+ * qui est derrière. Le masque est relatif à la position (VisionStamp) : un
+ * bit par case du disque.
+ *
+ * update() ne recalcule que les observateurs listés par l'EntityStore
+ * (trackVision : création, suppression, déplacement, changement de
+ * propriétaire), puis reconstruit la couche visible du joueur sur l'ancien
+ * et le nouveau rectangle de vision : effacement, puis OU des masques de
+ * tous ses observateurs proches (index spatiaux de l'EntityStore). Un tour
+ * où une unité bouge coûte donc un shadowcast et deux petits rectangles,
+ * quel que soit le nombre d'unités sur la carte.
+ *
+ * Les ExploredArea des joueurs (getPlayer) publient un VisibilityChanged
+ * par rectangle reconstruit. Une entité dont le propriétaire est >= au
+ * nombre de joueurs ne voit rien. Aucune allocation une fois les
+ * observateurs créés ; thread du jeu uniquement.
+ * ============================================================================
+ */
+public class VisibilityEngine {
+
+    // Multiplicateurs des 8 octants : (col, ligne) -> (dx, dy)
+    private static final int[] XX = {1, 0, 0, -1, -1, 0, 0, 1};
+    private static final int[] XY = {0, 1, -1, 0, 0, -1, 1, 0};
+    private static final int[] YX = {0, 1, 1, 0, 0, -1, -1, 0};
+    private static final int[] YY = {1, 0, 0, 1, -1, 0, 0, -1};
+
+    private final TerrainGrid terrain;
+    private final EntityStore store;
+    private final ExploredArea[] players;
+
+    private final IntMap<Viewer> unitViewers = new IntMap<>();
+    private final IntMap<Viewer> cityViewers = new IntMap<>();
+    private Viewer[] free = new Viewer[16];
+    private int freeCount;
+
+    // Rectangles à reconstruire : (joueur, x0, y0, x1, y1) à la suite
+    private final IntArray dirty = new IntArray();
+    private final IntArray nearby = new IntArray();
+    private int maxRadius = UnitsConstants.CITY_VISION_RADIUS;
+    private int pass;
+
+    /**
+     * Observateur : une unité ou une ville et ce qu'elle voit.
+     */
+    private static final class Viewer {
+        int player;
+        int x, y;
+        VisionStamp stamp;
+        long[] mask = new long[0];
+        int pass;   // dernier update() qui l'a recalculé
+    }
+
+    /**
+     * ============================================================================
+     * Crée une couche par joueur et commence le suivi des entités : toutes
+     * celles qui existent déjà seront vues au premier update().
+     * ============================================================================
+     */
+    public VisibilityEngine(TerrainGrid terrain, EntityStore store, int playerCount) {
+        this.terrain = terrain;
+        this.store = store;
+        this.players = new ExploredArea[playerCount];
+        for (int p = 0; p < playerCount; p++)
+            players[p] = new ExploredArea(terrain.getWidth(), terrain.getHeight(), p);
+        store.trackVision();
+    }
+
+    public ExploredArea getPlayer(int player) {
+        return players[player];
+    }
+
+    public int getPlayerCount() {
+        return players.length;
+    }
+
+    /**
+     * ============================================================================
+     * Recalcule les observateurs modifiés depuis l'appel précédent, puis la
+     * couche visible des rectangles concernés. À appeler une fois par frame
+     * (ou par tour côté serveur), avant EventBus.dispatch().
+     * ============================================================================
+     */
+    public void update() {
+        IntArray units = store.getVisionUnits();
+        IntArray cities = store.getVisionCities();
+        if (units.size == 0 && cities.size == 0)
+            return;
+
+        pass++;
+        for (int i = 0; i < units.size; i++)
+            refresh(units.get(i), false);
+        for (int i = 0; i < cities.size; i++)
+            refresh(cities.get(i), true);
+        units.clear();
+        cities.clear();
+
+        for (int i = 0; i < dirty.size; i += 5)
+            rebuild(dirty.get(i), dirty.get(i + 1), dirty.get(i + 2), dirty.get(i + 3), dirty.get(i + 4));
+        dirty.clear();
+    }
+
+    // ============================================================================
+    // Observateurs
+    // ============================================================================
+
+    private void refresh(int handle, boolean city) {
+        IntMap<Viewer> viewers = city ? cityViewers : unitViewers;
+        Viewer viewer = viewers.get(handle);
+        if (viewer != null && viewer.pass == pass)
+            return;    // déjà listé plus tôt dans ce passage
+
+        if (viewer != null)
+            markDirty(viewer);
+
+        int player, x, y, radius;
+        if (city) {
+            if (!store.isCityAlive(handle)) {
+                release(viewers.remove(handle));
+                return;
+            }
+            int slot = store.citySlot(handle);
+            player = store.getCityOwner(slot);
+            x = store.getCityTileX(slot);
+            y = store.getCityTileY(slot);
+            radius = UnitsConstants.CITY_VISION_RADIUS;
+        } else {
+            if (!store.isUnitAlive(handle)) {
+                release(viewers.remove(handle));
+                return;
+            }
+            int slot = store.unitSlot(handle);
+            player = store.getUnitOwner(slot);
+            x = store.getUnitTileX(slot);
+            y = store.getUnitTileY(slot);
+            radius = store.getUnitType(slot).vision;
+        }
+
+        if (player >= players.length) {
+            release(viewers.remove(handle));
+            return;
+        }
+
+        if (viewer == null) {
+            viewer = obtain();
+            viewers.put(handle, viewer);
+        }
+        viewer.pass = pass;
+        viewer.player = player;
+        viewer.x = x;
+        viewer.y = y;
+        if (viewer.stamp == null || viewer.stamp.radius != radius) {
+            viewer.stamp = VisionStamp.of(radius);
+            maxRadius = Math.max(maxRadius, radius);
+        }
+
+        castAll(viewer);
+        markDirty(viewer);
+    }
+
+    private Viewer obtain() {
+        return freeCount > 0 ? free[--freeCount] : new Viewer();
+    }
+
+    private void release(Viewer viewer) {
+        if (viewer == null)
+            return;
+        if (freeCount == free.length)
+            free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = viewer;
+    }
+
+    /**
+     * Ajoute le rectangle de vision de l'observateur (tel qu'il est
+     * maintenant) à la liste des rectangles à reconstruire. Un déplacement
+     * d'une case donne deux rectangles qui se chevauchent : fusionnés.
+     */
+    private void markDirty(Viewer viewer) {
+        int r = viewer.stamp.radius;
+        int x0 = Math.max(0, viewer.x - r);
+        int y0 = Math.max(0, viewer.y - r);
+        int x1 = Math.min(terrain.getWidth() - 1, viewer.x + r);
+        int y1 = Math.min(terrain.getHeight() - 1, viewer.y + r);
+
+        int last = dirty.size - 5;
+        if (last >= 0 && dirty.get(last) == viewer.player
+                && x0 <= dirty.get(last + 3) + 1 && x1 >= dirty.get(last + 1) - 1
+                && y0 <= dirty.get(last + 4) + 1 && y1 >= dirty.get(last + 2) - 1) {
+            dirty.set(last + 1, Math.min(x0, dirty.get(last + 1)));
+            dirty.set(last + 2, Math.min(y0, dirty.get(last + 2)));
+            dirty.set(last + 3, Math.max(x1, dirty.get(last + 3)));
+            dirty.set(last + 4, Math.max(y1, dirty.get(last + 4)));
+            return;
+        }
+        dirty.add(viewer.player);
+        dirty.add(x0);
+        dirty.add(y0);
+        dirty.add(x1);
+        dirty.add(y1);
+    }
+
+    // ============================================================================
+    // Reconstruction de la couche visible
+    // ============================================================================
+
+    private void rebuild(int player, int x0, int y0, int x1, int y1) {
+        ExploredArea area = players[player];
+        area.clearVisible(x0, y0, x1, y1);
+
+        // tout observateur dont le disque touche le rectangle
+        stampNearby(store.getUnitIndex(), unitViewers, area, x0, y0, x1, y1);
+        stampNearby(store.getCityIndex(), cityViewers, area, x0, y0, x1, y1);
+
+        area.postChanged(x0, y0, x1, y1);
+    }
+
+    private void stampNearby(SpatialIndex index, IntMap<Viewer> viewers, ExploredArea area,
+                             int x0, int y0, int x1, int y1) {
+        index.inRect(x0 - maxRadius, y0 - maxRadius, x1 + maxRadius, y1 + maxRadius, nearby);
+        for (int i = 0; i < nearby.size; i++) {
+            Viewer viewer = viewers.get(nearby.get(i));
+            if (viewer != null && viewer.player == area.getPlayer())
+                stamp(viewer, area, x0, y0, x1, y1);
+        }
+    }
+
+    /**
+     * OU du masque de l'observateur dans la couche, limité au rectangle.
+     */
+    private static void stamp(Viewer viewer, ExploredArea area, int x0, int y0, int x1, int y1) {
+        VisionStamp stamp = viewer.stamp;
+        int r = stamp.radius;
+        if (viewer.x + r < x0 || viewer.x - r > x1 || viewer.y + r < y0 || viewer.y - r > y1)
+            return;
+
+        long[] mask = viewer.mask;
+        for (int w = 0; w < stamp.words; w++) {
+            long bits = mask[w];
+            while (bits != 0) {
+                int bit = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int x = viewer.x + stamp.dx[bit];
+                int y = viewer.y + stamp.dy[bit];
+                if (x >= x0 && x <= x1 && y >= y0 && y <= y1)
+                    area.markVisible(x, y);
+            }
+        }
+    }
+
+    // ============================================================================
+    // Shadowcasting
+    // ============================================================================
+
+    /**
+     * Recalcule le masque de l'observateur : sa case plus les 8 octants.
+     */
+    private void castAll(Viewer viewer) {
+        VisionStamp stamp = viewer.stamp;
+        if (viewer.mask.length < stamp.words)
+            viewer.mask = new long[stamp.words];
+        Arrays.fill(viewer.mask, 0L);
+
+        see(viewer, 0, 0);
+        for (int octant = 0; octant < 8; octant++)
+            cast(viewer, 1, 1f, 0f, XX[octant], XY[octant], YX[octant], YY[octant]);
+    }
+
+    /**
+     * Balaye les lignes row..rayon d'un octant entre les pentes start et end ;
+     * chaque obstacle relance le balayage au-dessus de lui (pentes réduites).
+     */
+    private void cast(Viewer viewer, int row, float start, float end, int xx, int xy, int yx, int yy) {
+        if (start < end)
+            return;
+
+        int radius = viewer.stamp.radius;
+        float nextStart = start;
+        for (int j = row; j <= radius; j++) {
+            boolean blocked = false;
+            for (int dx = -j, dy = -j; dx <= 0; dx++) {
+                float leftSlope = (dx - 0.5f) / (dy + 0.5f);
+                float rightSlope = (dx + 0.5f) / (dy - 0.5f);
+                if (start < rightSlope)
+                    continue;
+                if (end > leftSlope)
+                    break;
+
+                int sx = dx * xx + dy * xy;
+                int sy = dx * yx + dy * yy;
+                see(viewer, sx, sy);
+
+                boolean opaque = terrain.blocksVision(viewer.x + sx, viewer.y + sy);
+                if (blocked) {
+                    if (opaque) {
+                        nextStart = rightSlope;
+                        continue;
+                    }
+                    blocked = false;
+                    start = nextStart;
+                } else if (opaque && j < radius) {
+                    blocked = true;
+                    cast(viewer, j + 1, start, leftSlope, xx, xy, yx, yy);
+                    nextStart = rightSlope;
+                }
+            }
+            if (blocked)
+                break;
+        }
+    }
+
+    private void see(Viewer viewer, int dx, int dy) {
+        int bit = viewer.stamp.bit(dx, dy);
+        if (bit >= 0 && terrain.inBounds(viewer.x + dx, viewer.y + dy))
+            viewer.mask[bit >>> 6] |= 1L << bit;
+    }
+}
@@ -0,0 +1,82 @@
+package com.despotisme.map;
+
+/**
+ * ============================================================================
+ * VisionStamp
+ * ----------------------------------------------------------------------------
+ * Disque de vision précalculé pour un rayon : chaque case (dx, dy) à distance
+ * <= rayon du centre reçoit un numéro de bit. Le champ de vision d'une unité
+ * est alors un masque de quelques longs (rayon 5 : 81 cases, 2 longs) au lieu
+ * d'une liste de cases, et le recopier dans la couche "visible" d'un joueur
+ * revient à parcourir les bits à 1.
+ *
+ * Une instance par rayon, partagée (of()) : les tables sont immuables.
+ * ============================================================================
+ */
+final class VisionStamp {
+
+    private static final int MAX_RADIUS = 31;
+    private static final VisionStamp[] CACHE = new VisionStamp[MAX_RADIUS + 1];
+
+    final int radius;
+    final int size;     // nombre de cases du disque (= de bits)
+    final int words;    // longs par masque
+
+    private final int side;
+    private final int[] bitAt;    // [(dy + r) * side + dx + r] -> bit, -1 hors du disque
+    final byte[] dx;              // par bit
+    final byte[] dy;
+
+    private VisionStamp(int radius) {
+        this.radius = radius;
+        this.side = 2 * radius + 1;
+        this.bitAt = new int[side * side];
+
+        int count = 0;
+        for (int y = -radius; y <= radius; y++)
+            for (int x = -radius; x <= radius; x++)
+                if (x * x + y * y <= radius * radius)
+                    count++;
+
+        this.size = count;
+        this.words = (count + 63) >>> 6;
+        this.dx = new byte[count];
+        this.dy = new byte[count];
+
+        int bit = 0;
+        for (int y = -radius; y <= radius; y++) {
+            for (int x = -radius; x <= radius; x++) {
+                int cell = (y + radius) * side + x + radius;
+                if (x * x + y * y > radius * radius) {
+                    bitAt[cell] = -1;
+                    continue;
+                }
+                bitAt[cell] = bit;
+                dx[bit] = (byte) x;
+                dy[bit] = (byte) y;
+                bit++;
+            }
+        }
+    }
+
+    /**
+     * Disque du rayon demandé (créé au premier appel).
+     */
+    static synchronized VisionStamp of(int radius) {
+        if (radius < 0 || radius > MAX_RADIUS)
+            throw new IllegalArgumentException("Vision radius out of range: " + radius);
+        VisionStamp stamp = CACHE[radius];
+        if (stamp == null)
+            stamp = CACHE[radius] = new VisionStamp(radius);
+        return stamp;
+    }
+
+    /**
+     * Bit de la case (dx, dy), ou -1 si elle est hors du disque.
+     */
+    int bit(int dx, int dy) {
+        if (dx < -radius || dx > radius || dy < -radius || dy > radius)
+            return -1;
+        return bitAt[(dy + radius) * side + dx + radius];
+    }
+}
@@ -0,0 +1,364 @@
+package com.despotisme.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ============================================================================
+ * WorldGenerator
+ * ----------------------------------------------------------------------------
+ * Générateur de monde procédural, déterministe pour une graine donnée.
+ *
+ *   - altitude et humidité : bruit de valeur fractal (fBm), atténué vers les
+ *     bords de la carte pour former des continents
+ *   - température : latitude, refroidie par l'altitude
+ *   - biome (voir Biome) choisi à partir des trois, puis tuile du tileset
+ *     correspondant (motif 8 x 8 comme sur testmap.tmx)
+ *
+ * La carte est découpée en chunks de CHUNK_SIZE x CHUNK_SIZE calculés en
+ * parallèle sur un ForkJoinPool. Chaque tuile ne dépend que de la graine et
+ * de ses coordonnées, et chaque chunk écrit une zone disjointe des tableaux :
+ * le résultat est identique quel que soit le nombre de cœurs.
+ *
+ * Sortie : une MapData (couches "Base", "World" et objet "Settler" de départ
+ * dans "Objects"), chargée en jeu par GeneratedMapLoader.
+ * ============================================================================
+ */
+public class WorldGenerator {
+
+    public static final int CHUNK_SIZE = 64;
+
+    /** Extension des "fichiers" de monde généré : worlds/<graine>_<L>x<H>.world */
+    public static final String EXTENSION = ".world";
+
+    private static final String BASE_TILESET = "base00_96";
+
+    // Les tuiles "pleines" de chaque tileset : ids locaux 32 à 95 (8 x 8)
+    private static final int PATTERN_FIRST_TILE = 32;
+    private static final int PATTERN_SIZE = 8;
+
+    private static final float SEA_LEVEL = 0.42f;
+    private static final float BEACH_LEVEL = 0.45f;
+    private static final float HILLS_LEVEL = 0.70f;
+    private static final float MOUNTAIN_LEVEL = 0.78f;
+    private static final float SNOW_MOUNTAIN_LEVEL = 0.86f;
+
+    private final long seed;
+    private final long elevationSeed;
+    private final long moistureSeed;
+    private final long temperatureSeed;
+
+    public WorldGenerator(long seed) {
+        this.seed = seed;
+        this.elevationSeed = mix(seed ^ 0x5DEECE66DL);
+        this.moistureSeed = mix(seed ^ 0x2545F4914F6CDD1DL);
+        this.temperatureSeed = mix(seed ^ 0x9E3779B97F4A7C15L);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Chemin logique d'un monde généré (clé AssetManager de GeneratedMapLoader).
+     */
+    public static String worldFile(long seed, int width, int height) {
+        return "worlds/" + seed + "_" + width + "x" + height + EXTENSION;
+    }
+
+    /**
+     * Régénère le monde désigné par un chemin worldFile() (graine et taille
+     * lues dans le nom "<graine>_<L>x<H>"), ou null si le nom n'a pas ce format.
+     */
+    public static MapData generateWorldFile(String path, MapData catalog, int tileSize, ForkJoinPool pool) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (name.endsWith(EXTENSION))
+            name = name.substring(0, name.length() - EXTENSION.length());
+
+        String[] parts = name.split("_");
+        String[] size = parts.length == 2 ? parts[1].split("x") : new String[0];
+        if (size.length != 2)
+            return null;
+
+        return new WorldGenerator(Long.parseLong(parts[0]))
+                .generate(catalog, Integer.parseInt(size[0]), Integer.parseInt(size[1]), tileSize, pool);
+    }
+
+    /**
+     * ============================================================================
+     * Génère la carte.
+     *
+     * @param catalog tilesets disponibles (atlas/tilesets.dmap, voir
+     *                TmxMapCompiler) ; seuls ceux utilisés sont repris
+     * @param tileSize taille des tuiles en pixels
+     * ============================================================================
+     */
+    public MapData generate(MapData catalog, int width, int height, int tileSize, ForkJoinPool pool) {
+        Map<String, MapData.Tileset> tilesets = new HashMap<>();
+        for (MapData.Tileset ts : catalog.tilesets)
+            tilesets.put(ts.name, ts);
+
+        int[] biomeGid = new int[Biome.values().length];
+        for (Biome biome : Biome.values())
+            biomeGid[biome.ordinal()] = require(tilesets, biome.tileset).firstGid + PATTERN_FIRST_TILE;
+        int baseGid = require(tilesets, BASE_TILESET).firstGid + PATTERN_FIRST_TILE;
+
+        // --- Génération parallèle par chunks ---
+        byte[] biomes = new byte[width * height];
+        int[] base = new int[width * height];
+        int[] world = new int[width * height];
+
+        int chunksX = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int chunksY = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        pool.invoke(new ChunkTask(0, chunksX * chunksY, chunksX, width, height, biomes, base, world, biomeGid, baseGid));
+
+        // --- Assemblage ---
+        MapData map = new MapData(width, height, tileSize, tileSize);
+        map.properties.put("seed", Long.toString(seed));
+
+        boolean[] used = new boolean[Biome.values().length];
+        for (byte b : biomes)
+            used[b] = true;
+
+        map.tilesets.add(tilesets.get(BASE_TILESET));
+        for (Biome biome : Biome.values()) {
+            MapData.Tileset ts = tilesets.get(biome.tileset);
+            if (used[biome.ordinal()] && !map.tilesets.contains(ts))
+                map.tilesets.add(ts);
+        }
+        map.tilesets.sort((a, b) -> Integer.compare(a.firstGid, b.firstGid));
+
+        map.layers.add(tileLayer("Base", base));
+        map.layers.add(tileLayer("World", world));
+        map.layers.add(objectLayer(findStart(biomes, width, height), width, tileSize));
+        return map;
+    }
+
+    private static MapData.Tileset require(Map<String, MapData.Tileset> tilesets, String name) {
+        MapData.Tileset ts = tilesets.get(name);
+        if (ts == null)
+            throw new IllegalArgumentException("Tileset missing from catalog: " + name);
+        return ts;
+    }
+
+    private static MapData.Layer tileLayer(String name, int[] gids) {
+        MapData.Layer layer = new MapData.Layer();
+        layer.name = name;
+        layer.gids = gids;
+        return layer;
+    }
+
+    private static MapData.Layer objectLayer(int startTile, int width, int tileSize) {
+        MapData.MapObjectData settler = new MapData.MapObjectData();
+        settler.id = 1;
+        settler.name = "Settler";
+        settler.x = (startTile % width) * tileSize;
+        settler.y = (startTile / width) * tileSize;
+        settler.width = tileSize;
+        settler.height = tileSize;
+
+        MapData.Layer layer = new MapData.Layer();
+        layer.name = "Objects";
+        layer.objects = new ArrayList<>();
+        layer.objects.add(settler);
+        return layer;
+    }
+
+    /**
+     * Première tuile "startable" en spirale depuis le centre (ordre fixe,
+     * donc déterministe) ; le centre à défaut.
+     */
+    private static int findStart(byte[] biomes, int width, int height) {
+        int cx = width / 2;
+        int cy = height / 2;
+        int maxRadius = Math.max(width, height) / 2;
+
+        for (int r = 0; r <= maxRadius; r++) {
+            for (int dy = -r; dy <= r; dy++) {
+                for (int dx = -r; dx <= r; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != r)
+                        continue; // seulement l'anneau de rayon r
+                    int x = cx + dx;
+                    int y = cy + dy;
+                    if (x < 0 || y < 0 || x >= width || y >= height)
+                        continue;
+                    int i = x + y * width;
+                    if (Biome.of(biomes[i]).startable)
+                        return i;
+                }
+            }
+        }
+        return cx + cy * width;
+    }
+
+    // ============================================================================
+    // Chunks
+    // ============================================================================
+
+    private final class ChunkTask extends RecursiveAction {
+        private final int from, to, chunksX, width, height;
+        private final byte[] biomes;
+        private final int[] base, world, biomeGid;
+        private final int baseGid;
+
+        ChunkTask(int from, int to, int chunksX, int width, int height,
+                  byte[] biomes, int[] base, int[] world, int[] biomeGid, int baseGid) {
+            this.from = from;
+            this.to = to;
+            this.chunksX = chunksX;
+            this.width = width;
+            this.height = height;
+            this.biomes = biomes;
+            this.base = base;
+            this.world = world;
+            this.biomeGid = biomeGid;
+            this.baseGid = baseGid;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                generateChunk(from % chunksX, from / chunksX);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, mid, chunksX, width, height, biomes, base, world, biomeGid, baseGid),
+                      new ChunkTask(mid, to, chunksX, width, height, biomes, base, world, biomeGid, baseGid));
+        }
+
+        private void generateChunk(int chunkX, int chunkY) {
+            int x0 = chunkX * CHUNK_SIZE;
+            int y0 = chunkY * CHUNK_SIZE;
+            int x1 = Math.min(x0 + CHUNK_SIZE, width);
+            int y1 = Math.min(y0 + CHUNK_SIZE, height);
+
+            for (int y = y0; y < y1; y++) {
+                // Motif 8 x 8 compté depuis le haut, comme dans Tiled
+                int patternRow = ((height - 1 - y) % PATTERN_SIZE) * PATTERN_SIZE;
+                for (int x = x0; x < x1; x++) {
+                    int i = x + y * width;
+                    int variant = patternRow + x % PATTERN_SIZE;
+                    Biome biome = biomeAt(x, y, width, height);
+
+                    biomes[i] = (byte) biome.ordinal();
+                    base[i] = baseGid + variant;
+                    world[i] = biomeGid[biome.ordinal()] + variant;
+                }
+            }
+        }
+    }
+
+    // ============================================================================
+    // Climat et biomes
+    // ============================================================================
+
+    /**
+     * Biome d'une tuile : fonction pure de (graine, x, y, taille de la carte).
+     */
+    public Biome biomeAt(int x, int y, int width, int height) {
+        float scale = Math.max(width, height) / 4f;
+        float nx = x / scale;
+        float ny = y / scale;
+
+        // Altitude : fBm, abaissée vers les bords (continents entourés d'océan)
+        float dx = 2f * x / (width - 1f) - 1f;
+        float dy = 2f * y / (height - 1f) - 1f;
+        float edge = Math.max(Math.abs(dx), Math.abs(dy));
+        float elevation = fbm(elevationSeed, nx, ny, 6) + 0.12f - 0.45f * edge * edge * edge;
+
+        if (elevation < SEA_LEVEL)
+            return Biome.OCEAN;
+        if (elevation > SNOW_MOUNTAIN_LEVEL)
+            return Biome.SNOW_MOUNTAIN;
+        if (elevation > MOUNTAIN_LEVEL)
+            return Biome.MOUNTAIN;
+
+        // Température : équateur au milieu de la carte, pôles en haut et en bas
+        float latitude = Math.abs(dy);
+        float temperature = 1f - latitude
+                - 0.6f * (elevation - SEA_LEVEL)
+                + 0.25f * (fbm(temperatureSeed, nx * 2f, ny * 2f, 3) - 0.5f);
+        float moisture = fbm(moistureSeed, nx * 1.5f, ny * 1.5f, 5);
+
+        if (elevation < BEACH_LEVEL && temperature > 0.35f)
+            return Biome.BEACH;
+
+        if (elevation > HILLS_LEVEL)
+            return temperature < 0.35f ? Biome.SNOW_MOUNTAIN : moisture > 0.5f ? Biome.HIGHLANDS : Biome.HILLS;
+
+        if (temperature < 0.15f)
+            return moisture > 0.5f ? Biome.SNOW_FOREST : Biome.SNOW_FIELD;
+        if (temperature < 0.3f)
+            return moisture > 0.55f ? Biome.SNOW_FOREST : moisture > 0.4f ? Biome.TUNDRA : Biome.COLD_DIRT;
+        if (temperature < 0.45f)
+            return moisture > 0.6f ? Biome.PINE_FOREST : moisture > 0.45f ? Biome.WOODLANDS : Biome.PLAINS;
+        if (temperature < 0.7f) {
+            if (moisture > 0.68f) return Biome.MARSH;
+            if (moisture > 0.55f) return Biome.BROADLEAF_FOREST;
+            if (moisture > 0.38f) return Biome.PLAINS;
+            return Biome.SCRUBLAND;
+        }
+        if (moisture > 0.62f) return Biome.JUNGLE;
+        if (moisture > 0.45f) return Biome.TROPICAL_PLAINS;
+        if (moisture > 0.32f) return Biome.DESERT_HILLS;
+        return Biome.DESERT;
+    }
+
+    // ============================================================================
+    // Bruit de valeur (sans état, donc utilisable par tous les threads)
+    // ============================================================================
+
+    /** Bruit fractal dans [0, 1]. */
+    private static float fbm(long seed, float x, float y, int octaves) {
+        float sum = 0f;
+        float amplitude = 0.5f;
+        float total = 0f;
+        for (int o = 0; o < octaves; o++) {
+            sum += amplitude * valueNoise(seed + o, x, y);
+            total += amplitude;
+            x *= 2f;
+            y *= 2f;
+            amplitude *= 0.5f;
+        }
+        return sum / total;
+    }
+
+    private static float valueNoise(long seed, float x, float y) {
+        int x0 = fastFloor(x);
+        int y0 = fastFloor(y);
+        float fx = x - x0;
+        float fy = y - y0;
+        float sx = fx * fx * (3f - 2f * fx);
+        float sy = fy * fy * (3f - 2f * fy);
+
+        float a = lattice(seed, x0, y0);
+        float b = lattice(seed, x0 + 1, y0);
+        float c = lattice(seed, x0, y0 + 1);
+        float d = lattice(seed, x0 + 1, y0 + 1);
+
+        float top = a + (b - a) * sx;
+        float bottom = c + (d - c) * sx;
+        return top + (bottom - top) * sy;
+    }
+
+    private static int fastFloor(float v) {
+        int i = (int) v;
+        return v < i ? i - 1 : i;
+    }
+
+    /** Valeur pseudo-aléatoire dans [0, 1] d'un point entier. */
+    private static float lattice(long seed, int x, int y) {
+        long h = mix(seed ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL));
+        return (h >>> 40) * (1f / (1 << 24));
+    }
+
+    // Finaliseur de SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
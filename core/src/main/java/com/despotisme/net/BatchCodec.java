@@ -0,0 +1,115 @@
+package com.despotisme.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * ============================================================================
+ * BatchCodec
+ * ----------------------------------------------------------------------------
+ * Encodage d'un lot de commandes dans un message :
+ *
+ *   byte RAW, int longueur, octets
+ *   byte DEFLATED, int longueur brute, int longueur stockée, octets
+ *
+ * Les enregistrements de commandes sont des int de taille fixe (slots,
+ * cases) faits surtout d'octets nuls : un lot de plus de quelques
+ * commandes se compresse bien, les tout petits restent bruts. Un codec
+ * par thread (état du Deflater/Inflater).
+ * ============================================================================
+ */
+final class BatchCodec {
+
+    static final byte RAW = 0;
+    static final byte DEFLATED = 1;
+
+    // en dessous, l'en-tête deflate coûte plus qu'il ne fait gagner
+    private static final int DEFLATE_ABOVE = 32;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+    private byte[] scratch = new byte[1024];
+
+    /** Écrit dans out les octets restants de batch (laissé inchangé). */
+    void encode(ByteBuffer batch, ByteBuffer out) {
+        int length = batch.remaining();
+        if (length > DEFLATE_ABOVE) {
+            if (scratch.length < length + 64)
+                scratch = new byte[length + 64];
+
+            deflater.reset();
+            deflater.setInput(batch.duplicate());
+            deflater.finish();
+            int stored = deflater.deflate(scratch);
+            if (deflater.finished() && stored + 4 < length) {
+                out.put(DEFLATED).putInt(length).putInt(stored).put(scratch, 0, stored);
+                return;
+            }
+        }
+        out.put(RAW).putInt(length).put(batch.duplicate());
+    }
+
+    /**
+     * Lit un lot dans in et renvoie ses enregistrements, valables jusqu'au
+     * decode() suivant (un lot brut est une tranche de in).
+     */
+    ByteBuffer decode(ByteBuffer in) throws IOException {
+        // in avance toujours après le lot, même quand son contenu est faux
+        byte codec = in.get();
+        int length = in.getInt();
+        if (length < 0 || length > Protocol.MAX_MESSAGE)
+            throw new IOException("Bad batch length " + length);
+
+        if (codec == RAW) {
+            ByteBuffer batch = in.slice(in.position(), length);
+            in.position(in.position() + length);
+            return batch;
+        }
+        if (codec != DEFLATED)
+            throw new IOException("Unknown batch codec " + codec);
+
+        int stored = in.getInt();
+        if (scratch.length < length)
+            scratch = new byte[length];
+        inflater.reset();
+        inflater.setInput(in.slice(in.position(), stored));
+        in.position(in.position() + stored);
+        try {
+            if (inflater.inflate(scratch, 0, length) != length || !inflater.finished())
+                throw new IOException("Truncated deflated batch");
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt deflated batch", e);
+        }
+        return ByteBuffer.wrap(scratch, 0, length);
+    }
+
+    /**
+     * Vrai si message (laissé inchangé) contient exactement un lot bien
+     * formé après son compte de commandes (short) : codec connu, longueurs
+     * dans les limites du message. Le contenu lui-même n'est pas décodé.
+     */
+    static boolean isWellFormed(ByteBuffer message) {
+        ByteBuffer in = message.duplicate();
+        if (in.remaining() < 2 + 1 + 4)
+            return false;
+        in.getShort();
+        byte codec = in.get();
+        int length = in.getInt();
+        if (length < 0 || length > Protocol.MAX_MESSAGE)
+            return false;
+        if (codec == RAW)
+            return in.remaining() == length;
+        if (codec != DEFLATED || in.remaining() < 4)
+            return false;
+        int stored = in.getInt();
+        return stored >= 0 && in.remaining() == stored;
+    }
+
+    void dispose() {
+        deflater.end();
+        inflater.end();
+    }
+}
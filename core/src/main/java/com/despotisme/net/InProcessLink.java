@@ -0,0 +1,80 @@
+package com.despotisme.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * InProcessLink
+ * ----------------------------------------------------------------------------
+ * Link entre deux threads d'une même JVM : chaque bout dépose une copie de
+ * ses messages dans la file de l'autre. Mêmes messages et mêmes comptes
+ * d'octets (trame de 4 octets comprise) qu'une SocketLink, sans passer par
+ * le noyau : sert à faire tourner plusieurs joueurs dans un seul processus.
+ * ============================================================================
+ */
+public final class InProcessLink implements Link {
+
+    private static final byte[] CLOSED = new byte[0];
+
+    private final BlockingQueue<byte[]> inbox = new LinkedBlockingQueue<>();
+    private InProcessLink peer;
+    private volatile boolean closed;
+
+    @Getter private volatile long bytesSent;
+    @Getter private volatile long bytesReceived;
+
+    private InProcessLink() {
+    }
+
+    /** Deux bouts reliés : ce que l'un envoie, l'autre le reçoit. */
+    public static InProcessLink[] pair() {
+        InProcessLink a = new InProcessLink();
+        InProcessLink b = new InProcessLink();
+        a.peer = b;
+        b.peer = a;
+        return new InProcessLink[] {a, b};
+    }
+
+    @Override
+    public void send(ByteBuffer message) throws IOException {
+        if (closed)
+            throw new IOException("Link closed");
+
+        byte[] copy = new byte[message.remaining()];
+        message.get(copy);
+        bytesSent += 4 + copy.length;
+        peer.inbox.add(copy);
+    }
+
+    @Override
+    public ByteBuffer receive() throws IOException {
+        byte[] message;
+        try {
+            message = inbox.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a message");
+        }
+        if (message == CLOSED) {
+            inbox.add(CLOSED);   // les receive() suivants voient aussi la fin
+            return null;
+        }
+        bytesReceived += 4 + message.length;
+        return ByteBuffer.wrap(message);
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        peer.inbox.add(CLOSED);
+        inbox.add(CLOSED);
+    }
+}
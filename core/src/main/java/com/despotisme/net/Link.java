@@ -0,0 +1,35 @@
+package com.despotisme.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * ============================================================================
+ * Link
+ * ----------------------------------------------------------------------------
+ * Canal de messages ordonné et fiable entre un client lockstep et le
+ * serveur : une socket TCP (SocketLink) ou une paire de files en mémoire
+ * (InProcessLink). Les messages arrivent entiers : un send() donne un
+ * receive().
+ *
+ * Un thread envoie, un thread reçoit ; ils peuvent être différents.
+ * ============================================================================
+ */
+public interface Link extends Closeable {
+
+    /** Envoie les octets restants de message en un seul message. */
+    void send(ByteBuffer message) throws IOException;
+
+    /**
+     * Message suivant, bloquant ; null une fois l'autre bout fermé. Le
+     * buffer peut être réutilisé par le receive() suivant.
+     */
+    ByteBuffer receive() throws IOException;
+
+    /** Octets envoyés jusqu'ici, en-têtes de trame compris. */
+    long getBytesSent();
+
+    /** Octets reçus jusqu'ici, en-têtes de trame compris. */
+    long getBytesReceived();
+}
@@ -0,0 +1,332 @@
+package com.despotisme.net;
+
+import com.despotisme.commands.Command;
+import com.despotisme.commands.CommandJournal;
+import com.despotisme.commands.CommandProcessor;
+import com.despotisme.commands.EndTurnCommand;
+import com.despotisme.commands.FoundCityCommand;
+import com.despotisme.commands.GotoCommand;
+import com.despotisme.commands.MoveUnitCommand;
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.Unit;
+import com.despotisme.entities.UnitType;
+import com.despotisme.logging.Logger;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.TerrainGrid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * LockstepClient
+ * ----------------------------------------------------------------------------
+ * Un joueur d'une partie lockstep. La partie locale ne change que par les
+ * messages TURN du serveur : submit() ajoute une commande au lot du tour
+ * (encodée tout de suite, comme un enregistrement du journal), endTurn()
+ * envoie le lot, awaitTurn() applique les commandes de tous pour ce tour,
+ * termine le tour et renvoie le StateHash obtenu. Un écran coupe
+ * awaitTurn() en receiveTurn() sur un thread d'arrière-plan et
+ * applyTurn() sur le sien.
+ *
+ * Tous les pairs appliquent un tour de la même façon : joueurs dans
+ * l'ordre, commandes de chaque joueur dans l'ordre d'envoi, puis les
+ * fondations de villes par slot de colon décroissant. Une fondation retire
+ * son colon et met la dernière unité à sa place ; faite en dernier et du
+ * plus haut slot au plus bas, elle ne déplace jamais une unité qu'une
+ * autre commande du tour désigne encore : chaque slot désigne ce que le
+ * joueur voyait en envoyant.
+ *
+ * Le lot d'un joueur est décodé en entier avant d'en appliquer quoi que ce
+ * soit : un lot qui ne se décode pas (enregistrement inconnu, ordinal faux,
+ * tronqué, deflate corrompu) est abandonné en entier, de la même façon sur
+ * tous les pairs, et la partie continue. Les commandes réservées à l'hôte
+ * (SPAWN_UNIT) sont refusées, comme celles qui désignent une unité d'un
+ * autre joueur que l'envoyeur.
+ *
+ * Les commandes passent par un CommandProcessor : y brancher un journal
+ * (record()) rend la partie multijoueur rejouable comme une partie solo.
+ * ============================================================================
+ */
+public class LockstepClient implements Closeable {
+
+    private static final Logger LOG = Logger.get(LockstepClient.class);
+
+    private static final int BATCH_CAPACITY = 64 * 1024;
+    private static final Comparator<FoundCityCommand> HIGHEST_SLOT_FIRST =
+            Comparator.comparingInt(FoundCityCommand::getSlot).reversed();
+
+    private final Link link;
+    private final GameManager game;
+    @Getter private final CommandProcessor commands;
+    private final BatchCodec codec = new BatchCodec();
+
+    private final ByteBuffer batch = ByteBuffer.allocate(BATCH_CAPACITY);
+    private int batchCommands;
+    private boolean batchSent;
+    private ByteBuffer out = ByteBuffer.allocate(1024);
+    private final List<Command> decoded = new ArrayList<>();
+    private final List<FoundCityCommand> foundings = new ArrayList<>();
+
+    @Getter private int player = -1;
+    @Getter private int playerCount;
+    @Getter private int rejected;           // commandes refusées à l'application (même compte sur chaque pair)
+    @Getter private int desyncTurn = -1;
+    @Getter private long lastHash;
+
+    public LockstepClient(Link link, GameManager game) {
+        this.link = link;
+        this.game = game;
+        this.commands = new CommandProcessor(game);
+    }
+
+    /** Réponse du serveur au HELLO : la place d'un joueur, avant que sa partie soit construite. */
+    public record Seat(Link link, int player, int playerCount, String mapPath) {
+    }
+
+    /**
+     * ============================================================================
+     * Poignée de main (bloquante) pour une partie commençant au tour donné.
+     * Un mapPath vide rejoint la carte choisie par le premier joueur,
+     * rendue dans la Seat : la charger, puis jouer avec
+     * new LockstepClient(seat, game).
+     * ============================================================================
+     */
+    public static Seat connect(Link link, String mapPath, int turn) throws IOException {
+        ByteBuffer hello = ByteBuffer.allocate(1 + 4 + 4 + 2 + mapPath.length() * 3);
+        hello.put(Protocol.HELLO).putInt(Protocol.VERSION).putInt(turn);
+        Protocol.putString(hello, mapPath);
+        link.send(hello.flip());
+
+        ByteBuffer welcome = link.receive();
+        Protocol.expect(welcome, Protocol.WELCOME);
+        int player = welcome.get();
+        int playerCount = welcome.get();
+        return new Seat(link, player, playerCount, Protocol.getString(welcome));
+    }
+
+    /** Joueur déjà placé par connect() ; la partie doit être dans son état de départ. */
+    public LockstepClient(Seat seat, GameManager game) {
+        this(seat.link(), game);
+        this.player = seat.player();
+        this.playerCount = seat.playerCount();
+    }
+
+    /** Rejoint la partie du serveur (bloquant) ; la partie doit être dans son état de départ. */
+    public void join(String mapPath) throws IOException {
+        Seat seat = connect(link, mapPath, game.getTurnCount());
+        player = seat.player();
+        playerCount = seat.playerCount();
+    }
+
+    /**
+     * Même départ sur chaque pair : les colons de chaque joueur sur des
+     * cases praticables tirées au hasard (graine), joueurs dans l'ordre.
+     */
+    public static void setupPlayers(GameManager game, int players, int settlers, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        TerrainGrid terrain = game.getTerrain();
+        EntityStore store = game.getStore();
+
+        for (int p = 0; p < players; p++) {
+            for (int n = 0; n < settlers; n++) {
+                int x, y;
+                do {
+                    x = random.nextInt(terrain.getWidth());
+                    y = random.nextInt(terrain.getHeight());
+                } while (!terrain.isWalkable(x, y));
+
+                Unit unit = game.createUnit(UnitType.SETTLER.key, x * MapConstants.TILE_SIZE, y * MapConstants.TILE_SIZE);
+                store.setUnitOwner(store.unitSlot(unit.getHandle()), p);
+            }
+        }
+    }
+
+    /**
+     * ============================================================================
+     * Ajoute une commande au lot de ce tour. Elle est appliquée avec le
+     * tour, en même temps que celles des autres, pas maintenant.
+     * ============================================================================
+     */
+    public void submit(Command command) {
+        byte type = command.getType();
+        if (type == CommandJournal.END_TURN || type == CommandJournal.KEYFRAME)
+            throw new IllegalArgumentException("Turns end with endTurn(), not a command");
+        if (batchSent)
+            throw new IllegalStateException("Turn already ended, waiting for the other players");
+
+        try {
+            batch.put(type);
+            command.write(batch);
+        } catch (BufferOverflowException e) {
+            throw new IllegalStateException("Too many commands in one turn", e);
+        }
+        batchCommands++;
+    }
+
+    /** Envoie les commandes de ce tour ; le tour est fini pour ce joueur. */
+    public void endTurn() throws IOException {
+        batch.flip();
+        int size = 1 + 4 + 2 + 1 + 4 + 4 + batch.remaining() + 64;
+        if (out.capacity() < size)
+            out = ByteBuffer.allocate(size);
+
+        out.clear();
+        out.put(Protocol.COMMANDS).putInt(game.getTurnCount()).putShort((short) batchCommands);
+        codec.encode(batch, out);
+        link.send(out.flip());
+
+        batch.clear();
+        batchCommands = 0;
+        batchSent = true;
+    }
+
+    /**
+     * ============================================================================
+     * Attend le TURN du serveur, l'applique, termine le tour et envoie le
+     * hash de l'état. False quand la partie est finie (un joueur est parti,
+     * ou désynchronisation : voir getDesyncTurn()).
+     * ============================================================================
+     */
+    public boolean awaitTurn() throws IOException {
+        return applyTurn(receiveTurn());
+    }
+
+    /**
+     * Première moitié d'awaitTurn() : attend le message suivant du serveur.
+     * Peut tourner sur un autre thread que le jeu (un écran doit continuer
+     * à dessiner), tant qu'applyTurn() reçoit le message avant l'appel
+     * suivant.
+     */
+    public ByteBuffer receiveTurn() throws IOException {
+        return link.receive();
+    }
+
+    /**
+     * Seconde moitié d'awaitTurn(), sur le thread du jeu : applique un
+     * message de receiveTurn(). False quand la partie est finie.
+     */
+    public boolean applyTurn(ByteBuffer message) throws IOException {
+        if (message == null)
+            return false;
+
+        byte type = message.get();
+        if (type == Protocol.DESYNC) {
+            desyncTurn = message.getInt();
+            LOG.warn("Server reports a desync after turn {}", desyncTurn);
+            return false;
+        }
+        if (type != Protocol.TURN)
+            throw new IOException("Unexpected message " + type + " while waiting for a turn");
+
+        int turn = message.getInt();
+        if (turn != game.getTurnCount())
+            throw new IOException("Server sent turn " + turn + ", game is at turn " + game.getTurnCount());
+
+        applyCommands(message);
+
+        lastHash = StateHash.of(game);
+        out.clear();
+        out.put(Protocol.HASH).putInt(turn).putLong(lastHash);
+        link.send(out.flip());
+        batchSent = false;
+        return true;
+    }
+
+    /** Vrai entre endTurn() et l'application du tour. */
+    public boolean isWaiting() {
+        return batchSent;
+    }
+
+    private void applyCommands(ByteBuffer message) throws IOException {
+        int players = message.get();
+        foundings.clear();
+        for (int p = 0; p < players; p++) {
+            int count = message.getShort() & 0xFFFF;
+            if (!decode(p, count, message)) {
+                rejected += count;
+                continue;
+            }
+            for (Command command : decoded) {
+                // SPAWN_UNIT ne désigne pas d'unité ; les slots n'ont pas encore
+                // bougé ce tour (les fondations passent en dernier)
+                if (!ownsUnit(p, unitSlot(command)))
+                    rejected++;
+                else if (command instanceof FoundCityCommand)
+                    foundings.add((FoundCityCommand) command);
+                else
+                    execute(command);
+            }
+        }
+
+        // tri stable : deux fondations sur un même slot gardent l'ordre des joueurs, la seconde est refusée
+        foundings.sort(HIGHEST_SLOT_FIRST);
+        int previous = -1;
+        for (FoundCityCommand founding : foundings) {
+            if (founding.getSlot() == previous) {
+                rejected++;
+                continue;
+            }
+            previous = founding.getSlot();
+            execute(founding);
+        }
+
+        commands.execute(EndTurnCommand.INSTANCE);
+    }
+
+    // false (lot abandonné) si les enregistrements du joueur ne se décodent pas
+    private boolean decode(int player, int count, ByteBuffer message) {
+        decoded.clear();
+        try {
+            ByteBuffer records = codec.decode(message);
+            for (int i = 0; i < count; i++) {
+                byte type = records.get();
+                if (type == CommandJournal.END_TURN || type == CommandJournal.KEYFRAME)
+                    throw new IOException("record of type " + type);
+                decoded.add(CommandJournal.read(type, records));
+            }
+            return true;
+        } catch (IOException | BufferUnderflowException e) {
+            LOG.warn("Dropped the commands of player {}: {}", player, e);
+            return false;
+        }
+    }
+
+    private boolean ownsUnit(int player, int slot) {
+        EntityStore store = game.getStore();
+        return slot >= 0 && slot < store.getUnitCount() && store.getUnitOwner(slot) == player;
+    }
+
+    // slot de l'unité commandée, -1 pour une commande qui n'en désigne pas
+    private static int unitSlot(Command command) {
+        if (command instanceof MoveUnitCommand move)
+            return move.getSlot();
+        if (command instanceof GotoCommand go)
+            return go.getSlot();
+        if (command instanceof FoundCityCommand founding)
+            return founding.getSlot();
+        return -1;
+    }
+
+    private void execute(Command command) {
+        if (!commands.execute(command))
+            rejected++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        commands.close();
+        codec.dispose();
+        link.close();
+    }
+}
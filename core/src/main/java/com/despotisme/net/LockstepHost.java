@@ -0,0 +1,74 @@
+package com.despotisme.net;
+
+import com.despotisme.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * LockstepHost
+ * ----------------------------------------------------------------------------
+ * Partie lockstep hébergée par l'un de ses joueurs : le LockstepServer
+ * tourne sur un thread d'arrière-plan, l'hôte joue par un lien en mémoire
+ * (getLocalLink(), à passer à LockstepClient.connect avec la carte de la
+ * partie) et les autres joueurs se connectent en TCP sur le port donné.
+ * Une fois toutes les places prises, le port est fermé et le serveur
+ * relaie les tours jusqu'à la fin de la partie.
+ * ============================================================================
+ */
+public class LockstepHost implements Closeable {
+
+    private static final Logger LOG = Logger.get(LockstepHost.class);
+
+    public static final int DEFAULT_PORT = 7777;
+
+    private final LockstepServer server;
+    private final ServerSocketChannel listener;
+    @Getter private final Link localLink;
+    private volatile boolean closed;
+
+    public LockstepHost(int port, int players) throws IOException {
+        this.server = new LockstepServer(players);
+        this.listener = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+
+        InProcessLink[] pair = InProcessLink.pair();
+        this.localLink = pair[0];
+        Thread thread = new Thread(() -> serve(pair[1], players), "lockstep-host");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void serve(Link hostSide, int players) {
+        try {
+            server.accept(hostSide);   // l'hôte d'abord : son HELLO choisit la carte
+            while (server.getJoined() < players) {
+                SocketLink link = new SocketLink(listener.accept());
+                try {
+                    server.accept(link);
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Refused a player: {}", e);
+                    link.close();
+                }
+            }
+            listener.close();
+        } catch (IOException e) {
+            if (!closed)
+                LOG.warn("Hosting stopped: {}", e);
+            server.close();
+            return;
+        }
+        server.run();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        listener.close();
+        server.close();
+    }
+}
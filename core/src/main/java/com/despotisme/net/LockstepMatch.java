@@ -0,0 +1,183 @@
+package com.despotisme.net;
+
+import com.despotisme.commands.FoundCityCommand;
+import com.despotisme.commands.GotoCommand;
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.MapData;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.map.WorldGenerator;
+import com.despotisme.simulation.Simulation;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ============================================================================
+ * LockstepMatch
+ * ----------------------------------------------------------------------------
+ * Partie lockstep sans rendu sur une seule machine : un LockstepServer et 2
+ * à 8 joueurs robots, chacun simulant toute la partie depuis le même monde
+ * généré, reliés en mémoire ou par des sockets loopback. Les robots donnent
+ * des ordres de déplacement au hasard et fondent des villes ; le serveur
+ * vérifie leur StateHash à chaque tour. Affiche les tours par seconde, les
+ * octets par tour et le premier tour désynchronisé, s'il y en a un.
+ * ============================================================================
+ */
+public class LockstepMatch {
+
+    private static final int WORLD_SIZE = 128;
+    private static final int GOTO_RANGE = 10;
+
+    // un joueur : ses unités inactives reçoivent un ordre de déplacement, ou fondent une ville de temps en temps
+    private static final class Bot {
+        private final LockstepClient client;
+        private final GameManager game;
+        private final SplittableRandom random;
+        private int cities;
+
+        Bot(LockstepClient client, GameManager game, long seed) {
+            this.client = client;
+            this.game = game;
+            this.random = new SplittableRandom(seed);
+        }
+
+        // partir (fermer le lien) termine la partie côté serveur
+        long play(String mapPath, int turns) throws IOException {
+            try {
+                client.join(mapPath);
+                for (int t = 0; t < turns; t++) {
+                    giveOrders();
+                    client.endTurn();
+                    if (!client.awaitTurn())
+                        break;
+                }
+                return client.getLastHash();
+            } finally {
+                client.close();
+            }
+        }
+
+        private void giveOrders() {
+            EntityStore store = game.getStore();
+            TerrainGrid terrain = game.getTerrain();
+            int player = client.getPlayer();
+
+            for (int slot = 0; slot < store.getUnitCount(); slot++) {
+                if (store.getUnitOwner(slot) != player || store.hasUnitDestination(slot))
+                    continue;
+
+                int x = store.getUnitTileX(slot);
+                int y = store.getUnitTileY(slot);
+                if (random.nextInt(6) == 0 && game.canFoundCity(x, y)) {
+                    client.submit(new FoundCityCommand(slot, "P" + player + " city " + cities++));
+                    continue;
+                }
+                int tx = Math.max(0, Math.min(terrain.getWidth() - 1, x + random.nextInt(-GOTO_RANGE, GOTO_RANGE + 1)));
+                int ty = Math.max(0, Math.min(terrain.getHeight() - 1, y + random.nextInt(-GOTO_RANGE, GOTO_RANGE + 1)));
+                client.submit(new GotoCommand(slot, tx, ty));
+            }
+        }
+    }
+
+    /**
+     * Usage : LockstepMatch <tilesets.dmap> [joueurs] [tours] [inprocess|loopback] [colons par joueur] [graine]
+     * Le bilan est la sortie de l'outil : écrit sur stdout, pas dans le log
+     * (qui peut aller dans un fichier), avant le code de sortie 1 d'une
+     * désynchronisation.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0)
+            throw new IllegalArgumentException(
+                    "Usage: LockstepMatch <tilesets.dmap> [players] [turns] [inprocess|loopback] [settlers per player] [seed]");
+
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int turns = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        boolean loopback = args.length > 3 && "loopback".equals(args[3]);
+        int settlers = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1L;
+        if (players < 2 || players > 8)
+            throw new IllegalArgumentException("2 to 8 players, not " + players);
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        MapData catalog = Simulation.readMap(Paths.get(args[0]));
+        MapData world = new WorldGenerator(seed).generate(catalog, WORLD_SIZE, WORLD_SIZE, (int) MapConstants.TILE_SIZE, pool);
+        String mapPath = WorldGenerator.worldFile(seed, WORLD_SIZE, WORLD_SIZE);
+
+        LockstepServer server = new LockstepServer(players);
+        ExecutorService threads = Executors.newFixedThreadPool(players);
+        ServerSocketChannel listener = loopback
+                ? ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                : null;
+
+        @SuppressWarnings("unchecked")
+        Future<Long>[] results = new Future[players];
+        LockstepClient[] clients = new LockstepClient[players];
+        GameManager observed = null;   // partie du joueur 0, pour le rapport
+        long start = System.nanoTime();
+        try {
+            for (int p = 0; p < players; p++) {
+                Simulation simulation = new Simulation(world, pool);
+                LockstepClient.setupPlayers(simulation.getGameManager(), players, settlers, seed);
+
+                Link serverSide;
+                Link clientSide;
+                if (loopback) {
+                    clientSide = SocketLink.connect((InetSocketAddress) listener.getLocalAddress());
+                    serverSide = new SocketLink(listener.accept());
+                } else {
+                    InProcessLink[] pair = InProcessLink.pair();
+                    clientSide = pair[0];
+                    serverSide = pair[1];
+                }
+
+                if (p == 0)
+                    observed = simulation.getGameManager();
+                LockstepClient client = new LockstepClient(clientSide, simulation.getGameManager());
+                Bot bot = new Bot(client, simulation.getGameManager(), seed * 31 + p);
+                clients[p] = client;
+                results[p] = threads.submit(() -> bot.play(mapPath, turns));
+                server.accept(serverSide);
+            }
+            server.run();
+
+            long first = results[0].get();
+            boolean agree = true;
+            for (Future<Long> result : results)
+                agree &= result.get() == first;
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int relayed = Math.max(1, server.getTurnsRelayed());
+            // sortie de l'outil en ligne de commande (voir main)
+            System.out.printf("%d players over %s: %d turns in %.2f s (%.0f turns/s)%n",
+                    players, loopback ? "loopback sockets" : "in-process links",
+                    server.getTurnsRelayed(), seconds, server.getTurnsRelayed() / seconds);
+            System.out.printf("server traffic: %.0f bytes/turn in, %.0f bytes/turn out; %d units, %d cities, %d commands refused%n",
+                    server.getBytesReceived() / (double) relayed, server.getBytesSent() / (double) relayed,
+                    observed.getStore().getUnitCount(), observed.getStore().getCityCount(), clients[0].getRejected());
+            System.out.println(server.getDesyncTurn() >= 0
+                    ? "DESYNC after turn " + server.getDesyncTurn()
+                    : agree ? "all peers agree on the final state" : "final states differ");
+            if (server.getDesyncTurn() >= 0 || !agree)
+                System.exit(1);
+        } finally {
+            for (LockstepClient client : clients) {
+                if (client != null)
+                    client.close();
+            }
+            if (listener != null)
+                listener.close();
+            threads.shutdown();
+            pool.shutdown();
+        }
+    }
+}
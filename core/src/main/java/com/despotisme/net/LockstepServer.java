@@ -0,0 +1,284 @@
+package com.despotisme.net;
+
+import com.despotisme.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * LockstepServer
+ * ----------------------------------------------------------------------------
+ * Relais du lockstep : range les lots de commandes des joueurs en tours et
+ * vérifie que tous les pairs ont calculé le même état.
+ *
+ * À chaque tour, chaque joueur envoie un lot COMMANDS (éventuellement vide)
+ * en finissant son tour. Quand tous les lots du tour sont arrivés, le
+ * serveur les renvoie à tous en un seul message TURN, dans l'ordre des
+ * joueurs ; chaque pair l'applique de la même façon (LockstepClient) et
+ * répond avec son StateHash. Un hash différent arrête la partie avec un
+ * DESYNC pour ce tour.
+ *
+ * Le serveur ne garde aucun état de partie et ne décode jamais une
+ * commande : son travail et son trafic par tour ne dépendent que des
+ * commandes envoyées. Il vérifie seulement la trame de chaque lot
+ * (BatchCodec.isWellFormed) et relaie un lot vide à la place d'un lot mal
+ * formé, pour que les autres lots du tour restent lisibles par tous. Un
+ * thread de lecture par joueur alimente une file vidée par run() : toute
+ * la logique de tour tourne sur un seul thread.
+ * ============================================================================
+ */
+public class LockstepServer implements Runnable, Closeable {
+
+    private static final Logger LOG = Logger.get(LockstepServer.class);
+
+    private final int players;
+    private final Link[] links;
+    private final BlockingQueue<Incoming> inbox = new LinkedBlockingQueue<>();
+
+    // fixés par le premier HELLO
+    private String mapPath;
+    private int turn;
+    @Getter private int joined;
+
+    // lots du tour en cours de collecte (null = pas reçu)
+    private final ByteBuffer[] batches;
+    private int batchesReceived;
+    private ByteBuffer out = ByteBuffer.allocate(1024);
+
+    // hash du dernier tour appliqué
+    private final long[] hashes;
+    private final boolean[] hashed;
+    private int hashesReceived;
+    private int hashTurn;
+
+    @Getter private int turnsRelayed;
+    @Getter private volatile int desyncTurn = -1;
+    private volatile boolean closed;
+
+    // compte (short) 0, RAW, longueur 0
+    private static final byte[] EMPTY_BATCH = {0, 0, BatchCodec.RAW, 0, 0, 0, 0};
+
+    private record Incoming(int player, byte[] message) {
+    }
+
+    public LockstepServer(int players) {
+        if (players < 1 || players > Byte.MAX_VALUE)
+            throw new IllegalArgumentException("Player count out of range: " + players);
+        this.players = players;
+        this.links = new Link[players];
+        this.batches = new ByteBuffer[players];
+        this.hashes = new long[players];
+        this.hashed = new boolean[players];
+    }
+
+    /**
+     * ============================================================================
+     * Poignée de main du joueur suivant (bloque jusqu'à son HELLO), puis
+     * lecture de ses messages. Renvoie son numéro de joueur. Le premier
+     * joueur choisit la carte ; un suivant qui n'en donne pas la reçoit dans
+     * WELCOME, un dont la version, la carte ou le tour diffère est refusé.
+     * ============================================================================
+     */
+    public int accept(Link link) throws IOException {
+        ByteBuffer hello = link.receive();
+        Protocol.expect(hello, Protocol.HELLO);
+        int version = hello.getInt();
+        int startTurn = hello.getInt();
+        String map = Protocol.getString(hello);
+
+        String refused = null;
+        if (version != Protocol.VERSION)
+            refused = "protocol version " + version + ", server speaks " + Protocol.VERSION;
+        else if (joined == players)
+            refused = "game is full (" + players + " players)";
+        else if (joined == 0 && map.isEmpty())
+            refused = "no game yet, the first player chooses the map";
+        else if (joined > 0 && (!map.isEmpty() && !map.equals(mapPath) || startTurn != turn))
+            refused = "game is on " + mapPath + " at turn " + turn;
+        if (refused != null) {
+            out.clear();
+            out.put(Protocol.REJECT);
+            Protocol.putString(out, refused);
+            link.send(out.flip());
+            link.close();
+            throw new IOException("Player rejected: " + refused);
+        }
+
+        if (joined == 0) {
+            mapPath = map;
+            turn = startTurn;
+        }
+        int player = joined++;
+        links[player] = link;
+
+        out.clear();
+        out.put(Protocol.WELCOME).put((byte) player).put((byte) players);
+        Protocol.putString(out, mapPath);
+        link.send(out.flip());
+
+        Thread reader = new Thread(() -> read(player, link), "lockstep-player-" + player);
+        reader.setDaemon(true);
+        reader.start();
+        LOG.info("Player {} joined the game on {}", player, mapPath);
+        return player;
+    }
+
+    private void read(int player, Link link) {
+        try {
+            ByteBuffer message;
+            while ((message = link.receive()) != null) {
+                byte[] copy = new byte[message.remaining()];
+                message.get(copy);
+                inbox.add(new Incoming(player, copy));
+            }
+        } catch (IOException e) {
+            if (!closed)
+                LOG.warn("Lost a player: {}", e);
+        }
+        inbox.add(new Incoming(player, null));
+    }
+
+    /**
+     * ============================================================================
+     * Relaie les tours jusqu'au départ d'un joueur ou à une
+     * désynchronisation ; tous les joueurs doivent avoir été acceptés.
+     * Ferme tous les liens en sortant.
+     * ============================================================================
+     */
+    @Override
+    public void run() {
+        if (joined != players)
+            throw new IllegalStateException(joined + " of " + players + " players joined");
+
+        try {
+            while (true) {
+                Incoming in = inbox.take();
+                if (in.message == null) {
+                    LOG.info("Player {} left, game over at turn {}", in.player, turn);
+                    return;
+                }
+                if (!handle(in.player, ByteBuffer.wrap(in.message)))
+                    return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Lockstep server stopped: {}", e);
+        } finally {
+            close();
+        }
+    }
+
+    // false quand la partie doit s'arrêter
+    private boolean handle(int player, ByteBuffer message) throws IOException {
+        byte type = message.get();
+        switch (type) {
+            case Protocol.COMMANDS: {
+                int batchTurn = message.getInt();
+                if (batchTurn != turn || batches[player] != null)
+                    throw new IOException("Player " + player + " sent commands for turn " + batchTurn
+                            + " during turn " + turn);
+                if (!BatchCodec.isWellFormed(message)) {
+                    LOG.warn("Player {} sent a malformed batch for turn {}, relaying an empty one", player, turn);
+                    message = ByteBuffer.wrap(EMPTY_BATCH);
+                }
+                batches[player] = message;   // compte (short) + lot, relayés tels quels
+                if (++batchesReceived == players)
+                    relayTurn();
+                return true;
+            }
+            case Protocol.HASH: {
+                int applied = message.getInt();
+                long hash = message.getLong();
+                if (hashesReceived == 0)
+                    hashTurn = applied;
+                if (applied != hashTurn || hashed[player])
+                    throw new IOException("Player " + player + " sent a hash for turn " + applied
+                            + " while checking turn " + hashTurn);
+                hashed[player] = true;
+                hashes[player] = hash;
+                return ++hashesReceived < players || checkHashes();
+            }
+            default:
+                throw new IOException("Unexpected message " + type + " from player " + player);
+        }
+    }
+
+    private void relayTurn() throws IOException {
+        int size = 1 + 4 + 1;
+        for (ByteBuffer batch : batches)
+            size += batch.remaining();
+        if (out.capacity() < size)
+            out = ByteBuffer.allocate(Math.max(size, out.capacity() * 2));
+
+        out.clear();
+        out.put(Protocol.TURN).putInt(turn).put((byte) players);
+        for (int p = 0; p < players; p++) {
+            out.put(batches[p]);
+            batches[p] = null;
+        }
+        out.flip();
+        for (Link link : links)
+            link.send(out.duplicate());
+
+        batchesReceived = 0;
+        turn++;
+        turnsRelayed++;
+    }
+
+    private boolean checkHashes() throws IOException {
+        hashesReceived = 0;
+        boolean same = true;
+        for (int p = 0; p < players; p++) {
+            hashed[p] = false;
+            same &= hashes[p] == hashes[0];
+        }
+        if (same)
+            return true;
+
+        desyncTurn = hashTurn;
+        LOG.warn("Desync: players disagree on the state after turn {}", hashTurn);
+        out.clear();
+        out.put(Protocol.DESYNC).putInt(hashTurn);
+        out.flip();
+        for (Link link : links)
+            link.send(out.duplicate());
+        return false;
+    }
+
+    /** Octets envoyés à tous les joueurs jusqu'ici. */
+    public long getBytesSent() {
+        long total = 0;
+        for (Link link : links)
+            total += link == null ? 0 : link.getBytesSent();
+        return total;
+    }
+
+    /** Octets reçus de tous les joueurs jusqu'ici. */
+    public long getBytesReceived() {
+        long total = 0;
+        for (Link link : links)
+            total += link == null ? 0 : link.getBytesReceived();
+        return total;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Link link : links) {
+            if (link == null)
+                continue;
+            try {
+                link.close();
+            } catch (IOException e) {
+                // déjà parti
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.despotisme.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ============================================================================
+ * Protocol
+ * ----------------------------------------------------------------------------
+ * Messages du lockstep, chacun un octet de type + contenu :
+ *
+ *   HELLO    c->s  int version, int tour, short longueur + chemin de carte UTF-8
+ *                  (vide : la carte choisie par le premier joueur)
+ *   WELCOME  s->c  byte joueur, byte nombre de joueurs, short longueur + chemin de carte UTF-8
+ *   REJECT   s->c  short longueur + raison UTF-8 (puis connexion fermée)
+ *   COMMANDS c->s  int tour, short compte, lot : les commandes du joueur pour ce tour
+ *   TURN     s->c  int tour, byte joueurs, par joueur : short compte, lot
+ *   HASH     c->s  int tour, long StateHash après application de ce tour
+ *   DESYNC   s->c  int tour dont les hash diffèrent (partie arrêtée)
+ *
+ * Un lot, ce sont les commandes sous forme d'enregistrements du
+ * CommandJournal (type + contenu), compressés quand c'est plus court
+ * (BatchCodec). Le serveur ne les décode jamais : TURN met les lots des
+ * joueurs bout à bout, le trafic d'un tour croît avec le nombre de
+ * commandes, jamais avec la taille de la partie.
+ * ============================================================================
+ */
+final class Protocol {
+
+    static final int VERSION = 2;
+    static final int MAX_MESSAGE = 4 * 1024 * 1024;
+
+    static final byte HELLO = 1;
+    static final byte WELCOME = 2;
+    static final byte REJECT = 3;
+    static final byte COMMANDS = 4;
+    static final byte TURN = 5;
+    static final byte HASH = 6;
+    static final byte DESYNC = 7;
+
+    private Protocol() {}
+
+    static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void expect(ByteBuffer message, byte type) throws IOException {
+        if (message == null)
+            throw new IOException("Connection closed while waiting for message " + type);
+        byte actual = message.get();
+        if (actual == REJECT)
+            throw new IOException("Rejected by the server: " + getString(message));
+        if (actual != type)
+            throw new IOException("Unexpected message " + actual + " (expected " + type + ")");
+    }
+}
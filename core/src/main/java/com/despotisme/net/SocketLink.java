@@ -0,0 +1,94 @@
+package com.despotisme.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * SocketLink
+ * ----------------------------------------------------------------------------
+ * Link sur une socket TCP bloquante : chaque message est une longueur (int)
+ * suivie de ses octets. Nagle est coupé : un tour est une poignée de petits
+ * messages qui ne doivent pas s'attendre. Le buffer de réception grandit
+ * jusqu'au plus gros message vu, puis il est réutilisé.
+ * ============================================================================
+ */
+public class SocketLink implements Link {
+
+    private final SocketChannel channel;
+    private final ByteBuffer[] frame = new ByteBuffer[2];
+    private final ByteBuffer sendHeader = ByteBuffer.allocate(4);
+    private final ByteBuffer receiveHeader = ByteBuffer.allocate(4);
+    private ByteBuffer received = ByteBuffer.allocate(4096);
+
+    @Getter private volatile long bytesSent;
+    @Getter private volatile long bytesReceived;
+
+    public SocketLink(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(true);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    public static SocketLink connect(InetSocketAddress address) throws IOException {
+        return new SocketLink(SocketChannel.open(address));
+    }
+
+    @Override
+    public synchronized void send(ByteBuffer message) throws IOException {
+        int length = message.remaining();
+        sendHeader.clear();
+        sendHeader.putInt(length).flip();
+        frame[0] = sendHeader;
+        frame[1] = message;
+        while (message.hasRemaining() || sendHeader.hasRemaining())
+            channel.write(frame);
+        frame[1] = null;
+        bytesSent += 4 + length;
+    }
+
+    @Override
+    public ByteBuffer receive() throws IOException {
+        receiveHeader.clear();
+        if (!readFully(receiveHeader))
+            return null;
+
+        int length = receiveHeader.flip().getInt();
+        if (length < 0 || length > Protocol.MAX_MESSAGE)
+            throw new IOException("Bad message length " + length);
+
+        if (received.capacity() < length)
+            received = ByteBuffer.allocate(Math.max(length, received.capacity() * 2));
+        received.clear().limit(length);
+        if (!readFully(received))
+            throw new EOFException("Connection closed inside a message");
+
+        bytesReceived += 4 + length;
+        return received.flip();
+    }
+
+    // false sur une fin de flux propre avant le premier octet
+    private boolean readFully(ByteBuffer buffer) throws IOException {
+        boolean started = false;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (started)
+                    throw new EOFException("Connection closed inside a message");
+                return false;
+            }
+            started = true;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.despotisme.net;
+
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.UnitType;
+import com.despotisme.managers.GameManager;
+
+/**
+ * ============================================================================
+ * StateHash
+ * ----------------------------------------------------------------------------
+ * Hash 64 bits de l'état simulé (tour, chaque colonne des unités et des
+ * villes dans l'ordre des slots), comparé par le serveur lockstep après
+ * chaque tour : des pairs qui ont appliqué les mêmes commandes doivent
+ * tomber d'accord, le premier tour qui diffère est la désynchronisation.
+ * Un seul passage sur les colonnes du store, sans allocation.
+ * ============================================================================
+ */
+public final class StateHash {
+
+    private static final long SEED = 0x6A09E667F3BCC908L;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private StateHash() {}
+
+    public static long of(GameManager game) {
+        EntityStore store = game.getStore();
+        long h = mix(SEED, game.getTurnCount());
+
+        int units = store.getUnitCount();
+        h = mix(h, units);
+        for (int slot = 0; slot < units; slot++) {
+            h = mix(h, store.getUnitType(slot).ordinal());
+            h = mix(h, store.getUnitOwner(slot));
+            h = mix(h, store.getUnitTileX(slot));
+            h = mix(h, store.getUnitTileY(slot));
+            h = mix(h, store.getUnitDestinationX(slot));
+            h = mix(h, store.getUnitDestinationY(slot));
+            h = mix(h, store.getUnitMoves(slot));
+            h = mix(h, store.getUnitHp(slot));
+        }
+
+        int cities = store.getCityCount();
+        h = mix(h, cities);
+        for (int slot = 0; slot < cities; slot++) {
+            UnitType build = store.getCityBuild(slot);
+            h = mix(h, store.getCityName(slot).hashCode());
+            h = mix(h, store.getCityOwner(slot));
+            h = mix(h, store.getCityTileX(slot));
+            h = mix(h, store.getCityTileY(slot));
+            h = mix(h, store.getCityPopulation(slot));
+            h = mix(h, store.getCityFood(slot));
+            h = mix(h, store.getCityProduction(slot));
+            h = mix(h, build == null ? -1 : build.ordinal());
+        }
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        h = (h ^ value) * MULTIPLIER;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,113 @@
+package com.despotisme.render;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Disposable;
+import com.despotisme.constants.MapConstants;
+import com.despotisme.constants.UnitsConstants;
+import com.despotisme.entities.City;
+import com.despotisme.entities.Unit;
+import com.despotisme.entities.UnitType;
+import com.despotisme.managers.TextureRegistry;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ============================================================================
+ * EntityRenderer
+ * ----------------------------------------------------------------------------
+ * Couche d'affichage des unités et des villes.
+ *
+ * Le modèle (entities, managers, turn) ne connaît ni OpenGL ni les textures :
+ * il tourne tel quel dans une JVM sans contexte graphique (simulation,
+ * serveur, benchmarks). Ce renderer choisit le sprite à partir de l'état
+ * exposé par les vues (type d'unité, direction, sélection) et prend ses
+ * textures dans le TextureRegistry partagé.
+ * ============================================================================
+ */
+public class EntityRenderer implements Disposable {
+
+    // Décalage du cadre de sélection sous le sprite
+    private static final float SELECTION_OFFSET = 8f;
+
+    private final Map<UnitType, Texture[]> unitTextures = new EnumMap<>(UnitType.class);
+    private final Texture selectionTexture;
+    private final Texture cityTexture;
+
+    public EntityRenderer() {
+        TextureRegistry registry = TextureRegistry.get();
+        for (UnitType type : UnitType.values()) {
+            String[] paths = unitTexturePaths(type);
+            Texture[] textures = new Texture[paths.length];
+            for (int i = 0; i < paths.length; i++)
+                textures[i] = registry.acquire(paths[i]);
+            unitTextures.put(type, textures);
+        }
+        selectionTexture = registry.acquire(UnitsConstants.SELECTION_TEXTURE);
+        cityTexture = registry.acquire(MapConstants.CITY_TEXTURE);
+    }
+
+    /**
+     * Sprites d'un type d'unité, dans l'ordre de Unit.Direction
+     * (haut = dos, bas = face, gauche, droite).
+     */
+    public static String[] unitTexturePaths(UnitType type) {
+        switch (type) {
+            case SETTLER:
+                return new String[] {
+                        UnitsConstants.SETTLER_BACK_TEXTURE,
+                        UnitsConstants.SETTLER_FRONT_TEXTURE,
+                        UnitsConstants.SETTLER_LEFT_TEXTURE,
+                        UnitsConstants.SETTLER_RIGHT_TEXTURE
+                };
+            default:
+                throw new IllegalArgumentException("No sprites for unit type: " + type);
+        }
+    }
+
+    public void render(SpriteBatch batch, Unit unit) {
+        float x = unit.getX();
+        float y = unit.getY();
+        if (unit.isSelected()) {
+            batch.setColor(1f, 1f, 1f, 1f);
+            batch.draw(selectionTexture, x - SELECTION_OFFSET, y - SELECTION_OFFSET,
+                    UnitsConstants.UNIT_HEIGHT, UnitsConstants.UNIT_WIDTH);
+        }
+        Texture sprite = unitTextures.get(unit.getType())[unit.getDirection().ordinal()];
+        batch.draw(sprite, x, y, UnitsConstants.UNIT_HEIGHT, UnitsConstants.UNIT_WIDTH);
+    }
+
+    public void render(SpriteBatch batch, City city) {
+        float x = city.getX();
+        float y = city.getY();
+        if (city.isSelected()) {
+            batch.setColor(1f, 1f, 1f, 1f);
+            batch.draw(selectionTexture, x - SELECTION_OFFSET, y - SELECTION_OFFSET,
+                    MapConstants.TILE_SIZE, MapConstants.TILE_SIZE);
+        }
+        batch.draw(cityTexture, x, y, MapConstants.CITY_HEIGHT, MapConstants.CITY_WIDTH);
+    }
+
+    /**
+     * Case visée par un ordre pas encore envoyé (partie en réseau) : cadre
+     * de sélection à demi transparent.
+     */
+    public void renderTarget(SpriteBatch batch, int tileX, int tileY) {
+        batch.setColor(1f, 1f, 1f, 0.5f);
+        batch.draw(selectionTexture, tileX * MapConstants.TILE_SIZE, tileY * MapConstants.TILE_SIZE,
+                MapConstants.TILE_SIZE, MapConstants.TILE_SIZE);
+        batch.setColor(1f, 1f, 1f, 1f);
+    }
+
+    @Override
+    public void dispose() {
+        TextureRegistry registry = TextureRegistry.get();
+        for (UnitType type : UnitType.values()) {
+            for (String path : unitTexturePaths(type))
+                registry.release(path);
+        }
+        registry.release(UnitsConstants.SELECTION_TEXTURE);
+        registry.release(MapConstants.CITY_TEXTURE);
+    }
+}
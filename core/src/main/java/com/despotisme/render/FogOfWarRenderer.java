@@ -0,0 +1,178 @@
+package com.despotisme.render;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.despotisme.events.EventBus;
+import com.despotisme.events.VisibilityChanged;
+import com.despotisme.map.ExploredArea;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ============================================================================
+ * FogOfWarRenderer
+ * ----------------------------------------------------------------------------
+ * Brouillard de guerre rendu par le GPU.
+ *
+ * L'état de chaque tuile est stocké dans une texture à raison d'un texel par
+ * tuile (r = explorée, g = visible). Seuls les texels modifiés sont renvoyés
+ * au GPU (glTexSubImage2D sur le rectangle modifié), puis le brouillard est dessiné en un seul quad couvrant la carte
+ * avec le shader assets/shaders/fog.frag. Le coût par frame ne dépend plus de
+ * la taille de la carte.
+ *
+ * Branché sur l'EventBus (subscribe), il ne touche la texture que sur un
+ * VisibilityChanged du joueur local : les deux canaux du rectangle sont
+ * relus dans son ExploredArea (calculée par le VisibilityEngine, ligne de
+ * vue de toutes ses unités et villes). Une frame sans événement ne coûte
+ * que le dessin du quad.
+ * ============================================================================
+ */
+public class FogOfWarRenderer implements Disposable {
+
+    private static final int BYTES_PER_TEXEL = 4;
+
+    private final int width;           // largeur en tuiles
+    private final int height;          // hauteur en tuiles
+    private final float tileSize;
+
+    private final Pixmap state;        // copie CPU de la texture (ligne 0 = haut de la carte)
+    private final Texture texture;
+    private final ShaderProgram shader;
+    private ByteBuffer upload;         // tampon réutilisé pour les rectangles modifiés
+
+    // Couches du joueur local
+    private ExploredArea explored;
+
+    // Rectangle modifié depuis le dernier envoi au GPU
+    private int dirtyX0, dirtyY0, dirtyX1 = -1, dirtyY1 = -1;
+
+    /**
+     * ============================================================================
+     * Crée la texture d'état (tout inexploré) et compile le shader.
+     * ============================================================================
+     */
+    public FogOfWarRenderer(int width, int height, float tileSize) {
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+
+        state = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+        state.setColor(0f, 0f, 0f, 1f);
+        state.fill();
+
+        texture = new Texture(state);
+        texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        texture.setWrap(Texture.TextureWrap.ClampToEdge, Texture.TextureWrap.ClampToEdge);
+
+        shader = new ShaderProgram(
+                Gdx.files.internal("shaders/fog.vert"),
+                Gdx.files.internal("shaders/fog.frag"));
+        if (!shader.isCompiled())
+            throw new GdxRuntimeException("Fog shader: " + shader.getLog());
+    }
+
+    /**
+     * ============================================================================
+     * Abonnement aux événements du modèle (une fois, à la création de l'écran).
+     * ============================================================================
+     */
+    public void subscribe(EventBus events, ExploredArea exploredArea) {
+        this.explored = exploredArea;
+        events.subscribe(VisibilityChanged.TYPE, this::onVisibilityChanged);
+    }
+
+    private void onVisibilityChanged(VisibilityChanged e) {
+        if (e.player != explored.getPlayer())
+            return;
+
+        ByteBuffer pixels = state.getPixels();
+        for (int x = e.minX; x <= e.maxX; x++) {
+            for (int y = e.minY; y <= e.maxY; y++) {
+                int i = index(x, y);
+                pixels.put(i, explored.isExplored(x, y) ? (byte) 255 : 0);
+                pixels.put(i + 1, explored.isVisible(x, y) ? (byte) 255 : 0);
+            }
+        }
+        markDirty(e.minX, e.minY, e.maxX, e.maxY);
+    }
+
+    private int index(int x, int y) {
+        return ((height - 1 - y) * width + x) * BYTES_PER_TEXEL;
+    }
+
+    private void markDirty(int x0, int y0, int x1, int y1) {
+        if (x1 < x0 || y1 < y0)
+            return;
+        if (dirtyX1 < dirtyX0) {
+            dirtyX0 = x0; dirtyY0 = y0; dirtyX1 = x1; dirtyY1 = y1;
+            return;
+        }
+        dirtyX0 = Math.min(dirtyX0, x0);
+        dirtyY0 = Math.min(dirtyY0, y0);
+        dirtyX1 = Math.max(dirtyX1, x1);
+        dirtyY1 = Math.max(dirtyY1, y1);
+    }
+
+    /**
+     * Envoie au GPU le rectangle modifié depuis la dernière frame.
+     */
+    private void flush() {
+        if (dirtyX1 < dirtyX0)
+            return;
+
+        int w = dirtyX1 - dirtyX0 + 1;
+        int h = dirtyY1 - dirtyY0 + 1;
+        int rowBytes = w * BYTES_PER_TEXEL;
+
+        if (upload == null || upload.capacity() < rowBytes * h)
+            upload = BufferUtils.newByteBuffer(rowBytes * h);
+        upload.clear();
+
+        // Lignes de la texture de haut en bas (ordre de la Pixmap)
+        ByteBuffer pixels = state.getPixels();
+        int topRow = height - 1 - dirtyY1;
+        for (int row = 0; row < h; row++) {
+            int from = ((topRow + row) * width + dirtyX0) * BYTES_PER_TEXEL;
+            for (int b = 0; b < rowBytes; b++)
+                upload.put(pixels.get(from + b));
+        }
+        upload.flip();
+
+        texture.bind();
+        Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, dirtyX0, topRow, w, h,
+                GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE, upload);
+
+        dirtyX0 = 0; dirtyY0 = 0; dirtyX1 = -1; dirtyY1 = -1;
+    }
+
+    /**
+     * ============================================================================
+     * Dessine le brouillard : un seul quad couvrant toute la carte.
+     * ============================================================================
+     */
+    public void render(SpriteBatch batch, OrthographicCamera camera) {
+        flush();
+
+        batch.setProjectionMatrix(camera.combined);
+        batch.setShader(shader);
+        batch.begin();
+        batch.draw(texture, 0, 0, width * tileSize, height * tileSize);
+        batch.end();
+        batch.setShader(null);
+    }
+
+    @Override
+    public void dispose() {
+        state.dispose();
+        texture.dispose();
+        shader.dispose();
+    }
+}
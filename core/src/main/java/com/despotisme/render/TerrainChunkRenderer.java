@@ -0,0 +1,212 @@
+package com.despotisme.render;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * ============================================================================
+ * TerrainChunkRenderer
+ * ----------------------------------------------------------------------------
+ * Rendu du terrain statique par "chunks" précalculés.
+ *
+ * Le terrain (couches Base / World / Insertions) ne change jamais pendant la
+ * partie : au lieu de parcourir chaque cellule visible à chaque frame comme
+ * OrthogonalTiledMapRenderer, on découpe la carte en blocs de CHUNK_SIZE x
+ * CHUNK_SIZE tuiles et on envoie une seule fois leurs sommets au GPU
+ * (SpriteCache). À l'affichage, on ne fait que dessiner les chunks qui
+ * intersectent la caméra : le coût dépend du nombre de chunks à l'écran,
+ * pas de la taille de la carte.
+ *
+ * Limites : les tuiles animées sont figées sur leur première image.
+ * ============================================================================
+ */
+public class TerrainChunkRenderer implements Disposable {
+
+    /** Taille d'un chunk en tuiles (16 x 16 x 3 couches = 768 sprites max). */
+    public static final int CHUNK_SIZE = 16;
+
+    /** Nombre max de sprites dans un SpriteCache indexé (indices en short). */
+    private static final int CACHE_CAPACITY = 8191;
+
+    private final Array<SpriteCache> caches = new Array<>();
+    private final int[] chunkCache;   // index du SpriteCache de chaque chunk
+    private final int[] chunkId;      // id de cache du chunk (-1 si vide)
+
+    private final int chunksX;
+    private final int chunksY;
+    private final float tileWidth;
+    private final float tileHeight;
+
+    // Zone visible (en chunks), mise à jour par setView()
+    private int fromX, fromY, toX, toY;
+    private OrthographicCamera camera;
+
+    /**
+     * ============================================================================
+     * Construit et précalcule tous les chunks de la carte.
+     * ============================================================================
+     */
+    public TerrainChunkRenderer(TiledMap map) {
+        Array<TiledMapTileLayer> layers = new Array<>();
+        for (MapLayer layer : map.getLayers()) {
+            if (layer instanceof TiledMapTileLayer && layer.isVisible())
+                layers.add((TiledMapTileLayer) layer);
+        }
+
+        TiledMapTileLayer base = layers.first();
+        this.tileWidth = base.getTileWidth();
+        this.tileHeight = base.getTileHeight();
+        this.chunksX = (base.getWidth() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunksY = (base.getHeight() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        this.chunkCache = new int[chunksX * chunksY];
+        this.chunkId = new int[chunksX * chunksY];
+
+        bake(layers, base.getWidth(), base.getHeight());
+    }
+
+    /**
+     * Envoie les sommets de chaque chunk au GPU, en remplissant les
+     * SpriteCache les uns après les autres.
+     */
+    private void bake(Array<TiledMapTileLayer> layers, int width, int height) {
+        SpriteCache cache = null;
+        int used = CACHE_CAPACITY;
+
+        for (int cy = 0; cy < chunksY; cy++) {
+            for (int cx = 0; cx < chunksX; cx++) {
+                int index = cy * chunksX + cx;
+                int x0 = cx * CHUNK_SIZE, y0 = cy * CHUNK_SIZE;
+                int x1 = Math.min(x0 + CHUNK_SIZE, width), y1 = Math.min(y0 + CHUNK_SIZE, height);
+
+                int count = countCells(layers, x0, y0, x1, y1);
+                if (count == 0) {
+                    chunkId[index] = -1;
+                    continue;
+                }
+
+                if (used + count > CACHE_CAPACITY) {
+                    cache = new SpriteCache(CACHE_CAPACITY, true);
+                    caches.add(cache);
+                    used = 0;
+                }
+
+                cache.beginCache();
+                for (TiledMapTileLayer layer : layers) {
+                    cache.setColor(1f, 1f, 1f, layer.getOpacity());
+                    for (int y = y0; y < y1; y++) {
+                        for (int x = x0; x < x1; x++) {
+                            TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                            if (cell != null && cell.getTile() != null)
+                                addCell(cache, cell, x * tileWidth, y * tileHeight);
+                        }
+                    }
+                }
+                chunkId[index] = cache.endCache();
+                chunkCache[index] = caches.size - 1;
+                used += count;
+            }
+        }
+    }
+
+    private static int countCells(Array<TiledMapTileLayer> layers, int x0, int y0, int x1, int y1) {
+        int count = 0;
+        for (TiledMapTileLayer layer : layers) {
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                    if (cell != null && cell.getTile() != null)
+                        count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void addCell(SpriteCache cache, TiledMapTileLayer.Cell cell, float x, float y) {
+        TextureRegion region = cell.getTile().getTextureRegion();
+        float w = region.getRegionWidth();
+        float h = region.getRegionHeight();
+        x += cell.getTile().getOffsetX();
+        y += cell.getTile().getOffsetY();
+
+        if (!cell.getFlipHorizontally() && !cell.getFlipVertically() && cell.getRotation() == 0) {
+            cache.add(region, x, y, w, h);
+            return;
+        }
+
+        // Tuile retournée / tournée : on passe par l'origine au centre
+        cache.add(region, x, y, w / 2f, h / 2f, w, h,
+                cell.getFlipHorizontally() ? -1f : 1f,
+                cell.getFlipVertically() ? -1f : 1f,
+                cell.getRotation() * 90f);
+    }
+
+    /**
+     * ============================================================================
+     * Calcule la plage de chunks visibles par la caméra.
+     * ============================================================================
+     */
+    public void setView(OrthographicCamera camera) {
+        this.camera = camera;
+
+        float halfW = camera.viewportWidth * camera.zoom * 0.5f;
+        float halfH = camera.viewportHeight * camera.zoom * 0.5f;
+        float chunkW = CHUNK_SIZE * tileWidth;
+        float chunkH = CHUNK_SIZE * tileHeight;
+
+        fromX = Math.max(0, (int) ((camera.position.x - halfW) / chunkW));
+        fromY = Math.max(0, (int) ((camera.position.y - halfH) / chunkH));
+        toX = Math.min(chunksX - 1, (int) ((camera.position.x + halfW) / chunkW));
+        toY = Math.min(chunksY - 1, (int) ((camera.position.y + halfH) / chunkH));
+    }
+
+    /**
+     * ============================================================================
+     * Dessine les chunks visibles.
+     * ============================================================================
+     */
+    public void render() {
+        if (camera == null)
+            return;
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+        SpriteCache current = null;
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                int index = cy * chunksX + cx;
+                if (chunkId[index] < 0)
+                    continue;
+
+                SpriteCache cache = caches.get(chunkCache[index]);
+                if (cache != current) {
+                    if (current != null)
+                        current.end();
+                    current = cache;
+                    current.setProjectionMatrix(camera.combined);
+                    current.begin();
+                }
+                current.draw(chunkId[index]);
+            }
+        }
+        if (current != null)
+            current.end();
+    }
+
+    @Override
+    public void dispose() {
+        for (SpriteCache cache : caches)
+            cache.dispose();
+        caches.clear();
+    }
+}
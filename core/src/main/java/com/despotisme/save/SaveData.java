@@ -0,0 +1,79 @@
+package com.despotisme.save;
+
+/**
+ * ============================================================================
+ * SaveData
+ * ----------------------------------------------------------------------------
+ * État de la partie tel qu'il est écrit dans une sauvegarde : un tableau
+ * (colonne) par champ.
+ *
+ * Sert aussi d'instantané pour l'autosave : une section laissée à null n'a
+ * pas changé depuis la sauvegarde précédente et vient du cache de
+ * l'écrivain.
+ * ============================================================================
+ */
+public class SaveData {
+
+    // ---- META (toujours présente) ----
+    public String mapPath;
+    public int turnCount;
+    public int width;       // taille de la carte en cases (grille explorée)
+    public int height;
+
+    // ---- EXPLORED : bits compactés, colonne par colonne (ExploredArea.packBits) ----
+    public long[] exploredBits;
+
+    // ---- UNITS (null = inchangée) ----
+    public Units units;
+
+    // ---- CITIES (null = inchangée) ----
+    public Cities cities;
+
+    public static class Units {
+        public int count;
+        public byte[] type;        // ordinal de UnitType
+        public byte[] owner;       // numéro du joueur
+        public int[] tileX;
+        public int[] tileY;
+        public int[] destX;        // -1 sans ordre de déplacement
+        public int[] destY;
+        public short[] moves;
+        public short[] hp;
+
+        public Units(int count) {
+            this.count = count;
+            type = new byte[count];
+            owner = new byte[count];
+            tileX = new int[count];
+            tileY = new int[count];
+            destX = new int[count];
+            destY = new int[count];
+            moves = new short[count];
+            hp = new short[count];
+        }
+    }
+
+    public static class Cities {
+        public int count;
+        public String[] name;
+        public byte[] owner;       // numéro du joueur
+        public int[] tileX;
+        public int[] tileY;
+        public short[] population;
+        public int[] food;
+        public int[] production;
+        public byte[] build;       // ordinal de UnitType, -1 = rien
+
+        public Cities(int count) {
+            this.count = count;
+            name = new String[count];
+            owner = new byte[count];
+            tileX = new int[count];
+            tileY = new int[count];
+            population = new short[count];
+            food = new int[count];
+            production = new int[count];
+            build = new byte[count];
+        }
+    }
+}
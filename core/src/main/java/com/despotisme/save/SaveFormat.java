@@ -0,0 +1,304 @@
+package com.despotisme.save;
+
+import com.despotisme.entities.UnitType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * ============================================================================
+ * SaveFormat
+ * ----------------------------------------------------------------------------
+ * Fichier de sauvegarde binaire : un en-tête suivi de sections compressées
+ * séparément.
+ *
+ *   int MAGIC ("DSAV"), int VERSION, int sectionCount
+ *   par section : int id, int rawLength, int storedLength, octets deflate
+ *
+ * Chaque section est compressée à part, pour qu'une autosave reprenne tels
+ * quels les octets des sections inchangées. Nombres en big-endian ; les
+ * entités sont rangées colonne par colonne (tous les tileX, puis tous les
+ * tileY...), ce qui se compresse bien mieux qu'un enregistrement par entité.
+ *
+ * read() ne fait confiance à rien : chaque longueur et chaque compte est
+ * vérifié contre les octets présents, et un fichier abîmé (autosave
+ * tronquée, octets faux) donne toujours une IOException, jamais une
+ * exception non vérifiée.
+ * ============================================================================
+ */
+public final class SaveFormat {
+
+    public static final int MAGIC = 0x44534156; // "DSAV"
+    public static final int VERSION = 2;   // 2 : colonnes owner (unités, villes)
+    public static final String EXTENSION = ".dsav";
+
+    public static final int SECTION_META = 1;
+    public static final int SECTION_EXPLORED = 2;
+    public static final int SECTION_UNITS = 3;
+    public static final int SECTION_CITIES = 4;
+
+    // deflate ne dépasse jamais ~1032:1 : une longueur brute plus grande est corrompue
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private SaveFormat() {}
+
+    /** Section compressée, telle qu'écrite dans le fichier. */
+    public static final class Section {
+        public final int id;
+        public final int rawLength;
+        public final byte[] stored;
+
+        Section(int id, int rawLength, byte[] stored) {
+            this.id = id;
+            this.rawLength = rawLength;
+            this.stored = stored;
+        }
+    }
+
+    // ============================================================================
+    // Encodage
+    // ============================================================================
+
+    public static byte[] encodeMeta(SaveData data) {
+        byte[] map = data.mapPath.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = ByteBuffer.allocate(4 * 4 + map.length);
+        out.putInt(data.turnCount).putInt(data.width).putInt(data.height);
+        out.putInt(map.length).put(map);
+        return out.array();
+    }
+
+    public static byte[] encodeExplored(long[] bits) {
+        ByteBuffer out = ByteBuffer.allocate(4 + bits.length * 8);
+        out.putInt(bits.length);
+        out.asLongBuffer().put(bits);
+        return out.array();
+    }
+
+    public static byte[] encodeUnits(SaveData.Units units) {
+        int n = units.count;
+        ByteBuffer out = ByteBuffer.allocate(4 + n * (1 + 1 + 4 * 4 + 2 * 2));
+        out.putInt(n);
+        out.put(units.type, 0, n);
+        out.put(units.owner, 0, n);
+        putInts(out, units.tileX, n);
+        putInts(out, units.tileY, n);
+        putInts(out, units.destX, n);
+        putInts(out, units.destY, n);
+        putShorts(out, units.moves, n);
+        putShorts(out, units.hp, n);
+        return out.array();
+    }
+
+    public static byte[] encodeCities(SaveData.Cities cities) {
+        int n = cities.count;
+        byte[][] names = new byte[n][];
+        int namesLength = 0;
+        for (int i = 0; i < n; i++) {
+            names[i] = cities.name[i].getBytes(StandardCharsets.UTF_8);
+            namesLength += 2 + names[i].length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(4 + namesLength + n * (1 + 4 * 4 + 2 + 1));
+        out.putInt(n);
+        for (byte[] name : names)
+            out.putShort((short) name.length).put(name);
+        out.put(cities.owner, 0, n);
+        putInts(out, cities.tileX, n);
+        putInts(out, cities.tileY, n);
+        putShorts(out, cities.population, n);
+        putInts(out, cities.food, n);
+        putInts(out, cities.production, n);
+        out.put(cities.build, 0, n);
+        return out.array();
+    }
+
+    public static Section compress(int id, byte[] raw, Deflater deflater) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] chunk = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(chunk);
+            out.write(chunk, 0, n);
+        }
+        return new Section(id, raw.length, out.toByteArray());
+    }
+
+    /** Fichier complet en mémoire, toutes les sections de data présentes (keyframes du journal). */
+    public static byte[] encode(SaveData data, Deflater deflater) {
+        Section[] sections = new Section[4];
+        int count = 0;
+        sections[count++] = compress(SECTION_META, encodeMeta(data), deflater);
+        if (data.exploredBits != null)
+            sections[count++] = compress(SECTION_EXPLORED, encodeExplored(data.exploredBits), deflater);
+        if (data.units != null)
+            sections[count++] = compress(SECTION_UNITS, encodeUnits(data.units), deflater);
+        if (data.cities != null)
+            sections[count++] = compress(SECTION_CITIES, encodeCities(data.cities), deflater);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(header(count));
+        for (int i = 0; i < count; i++) {
+            out.writeBytes(sectionHeader(sections[i]));
+            out.writeBytes(sections[i].stored);
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] header(int sectionCount) {
+        return ByteBuffer.allocate(12).putInt(MAGIC).putInt(VERSION).putInt(sectionCount).array();
+    }
+
+    public static byte[] sectionHeader(Section section) {
+        return ByteBuffer.allocate(12).putInt(section.id).putInt(section.rawLength).putInt(section.stored.length).array();
+    }
+
+    // ============================================================================
+    // Décodage
+    // ============================================================================
+
+    public static SaveData read(ByteBuffer in) throws IOException {
+        if (in.remaining() < 12 || in.getInt() != MAGIC)
+            throw new IOException("Not a save file");
+        int version = in.getInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported save version " + version + " (expected " + VERSION + ")");
+
+        SaveData data = new SaveData();
+        int sections = in.getInt();
+        Inflater inflater = new Inflater();
+        try {
+            for (int s = 0; s < sections; s++) {
+                if (in.remaining() < 12)
+                    throw new IOException("Truncated save file");
+                int id = in.getInt();
+                int rawLength = in.getInt();
+                int storedLength = in.getInt();
+                if (storedLength < 0 || storedLength > in.remaining()
+                        || rawLength < 0 || rawLength > (long) storedLength * MAX_DEFLATE_RATIO + 64)
+                    throw new IOException("Bad lengths for save section " + id);
+
+                byte[] raw = new byte[rawLength];
+                byte[] stored = new byte[storedLength];
+                in.get(stored);
+
+                inflater.reset();
+                inflater.setInput(stored);
+                if (inflater.inflate(raw) != raw.length)
+                    throw new IOException("Truncated save section " + id);
+
+                decode(id, ByteBuffer.wrap(raw), data);
+            }
+        } catch (DataFormatException | RuntimeException e) {
+            // BufferUnderflowException, IndexOutOfBoundsException... d'une section abîmée
+            throw new IOException("Corrupted save file", e);
+        } finally {
+            inflater.end();
+        }
+
+        if (data.mapPath == null || data.units == null || data.cities == null)
+            throw new IOException("Incomplete save file");
+        return data;
+    }
+
+    private static void decode(int id, ByteBuffer in, SaveData data) throws IOException {
+        switch (id) {
+            case SECTION_META: {
+                data.turnCount = in.getInt();
+                data.width = in.getInt();
+                data.height = in.getInt();
+                byte[] map = new byte[count(in, 1)];
+                in.get(map);
+                data.mapPath = new String(map, StandardCharsets.UTF_8);
+                break;
+            }
+            case SECTION_EXPLORED: {
+                data.exploredBits = new long[count(in, 8)];
+                in.asLongBuffer().get(data.exploredBits);
+                break;
+            }
+            case SECTION_UNITS: {
+                int n = count(in, 1 + 1 + 4 * 4 + 2 * 2);
+                SaveData.Units units = new SaveData.Units(n);
+                in.get(units.type, 0, n);
+                for (int i = 0; i < n; i++)
+                    checkType(units.type[i], false);
+                in.get(units.owner, 0, n);
+                getInts(in, units.tileX, n);
+                getInts(in, units.tileY, n);
+                getInts(in, units.destX, n);
+                getInts(in, units.destY, n);
+                getShorts(in, units.moves, n);
+                getShorts(in, units.hp, n);
+                data.units = units;
+                break;
+            }
+            case SECTION_CITIES: {
+                int n = count(in, 2 + 1 + 4 * 4 + 2 + 1);
+                SaveData.Cities cities = new SaveData.Cities(n);
+                for (int i = 0; i < n; i++) {
+                    byte[] name = new byte[in.getShort() & 0xFFFF];
+                    in.get(name);
+                    cities.name[i] = new String(name, StandardCharsets.UTF_8);
+                }
+                in.get(cities.owner, 0, n);
+                getInts(in, cities.tileX, n);
+                getInts(in, cities.tileY, n);
+                getShorts(in, cities.population, n);
+                getInts(in, cities.food, n);
+                getInts(in, cities.production, n);
+                in.get(cities.build, 0, n);
+                for (int i = 0; i < n; i++)
+                    checkType(cities.build[i], true);
+                data.cities = cities;
+                break;
+            }
+            default:
+                break; // section d'une version mineure plus récente : ignorée
+        }
+    }
+
+    // compte (int) d'entrées d'au moins bytesPerEntry octets chacune, vérifié contre le reste
+    private static int count(ByteBuffer in, int bytesPerEntry) throws IOException {
+        int n = in.getInt();
+        if (n < 0 || (long) n * bytesPerEntry > in.remaining())
+            throw new IOException("Bad count " + n + " in save section");
+        return n;
+    }
+
+    private static void checkType(byte ordinal, boolean noneAllowed) throws IOException {
+        if (!UnitType.exists(ordinal) && !(noneAllowed && ordinal == -1))
+            throw new IOException("Bad unit type " + ordinal + " in save file");
+    }
+
+    // ============================================================================
+    // Copies de colonnes en bloc
+    // ============================================================================
+
+    private static void putInts(ByteBuffer out, int[] values, int n) {
+        out.asIntBuffer().put(values, 0, n);
+        out.position(out.position() + n * 4);
+    }
+
+    private static void putShorts(ByteBuffer out, short[] values, int n) {
+        out.asShortBuffer().put(values, 0, n);
+        out.position(out.position() + n * 2);
+    }
+
+    private static void getInts(ByteBuffer in, int[] values, int n) {
+        in.asIntBuffer().get(values, 0, n);
+        in.position(in.position() + n * 4);
+    }
+
+    private static void getShorts(ByteBuffer in, short[] values, int n) {
+        in.asShortBuffer().get(values, 0, n);
+        in.position(in.position() + n * 2);
+    }
+}
@@ -0,0 +1,312 @@
+package com.despotisme.save;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.Unit;
+import com.despotisme.entities.UnitType;
+import com.despotisme.logging.Logger;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.ExploredArea;
+import com.despotisme.map.TerrainGrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * SaveManager
+ * ----------------------------------------------------------------------------
+ * Sauvegarde et restaure une partie (GameManager + zone explorée).
+ *
+ * save() tourne sur le thread du jeu et ne fait que copier l'état : les
+ * drapeaux de changement d'EntityStore et d'ExploredArea disent quelles
+ * sections copier, les autres restent à null. Un unique thread d'arrière-
+ * plan compresse ensuite l'instantané et écrit le fichier entier (fichier
+ * temporaire + renommage atomique), en reprenant pour les sections
+ * inchangées les octets compressés gardés de la sauvegarde précédente.
+ *
+ * Un SaveManager par partie : son cache de sections reflète le dernier
+ * fichier écrit.
+ * ============================================================================
+ */
+public class SaveManager {
+
+    private static final Logger LOG = Logger.get(SaveManager.class);
+
+    private static final int[] SECTION_ORDER = {
+            SaveFormat.SECTION_META, SaveFormat.SECTION_EXPLORED,
+            SaveFormat.SECTION_UNITS, SaveFormat.SECTION_CITIES
+    };
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // thread d'écriture uniquement : derniers octets compressés de chaque section, par id
+    private final SaveFormat.Section[] written = new SaveFormat.Section[SECTION_ORDER.length + 1];
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    // levé après un échec d'écriture : la sauvegarde suivante recopie tout
+    private volatile boolean needFull = true;
+    private Future<?> pending;
+
+    @Getter private volatile IOException lastError;
+    @Getter private long lastSnapshotNanos;   // temps du thread de jeu pour le dernier save()
+
+    /**
+     * ============================================================================
+     * Copie l'état de la partie et met l'écriture en file. Renvoie false
+     * (rien de copié, drapeaux gardés) tant que la sauvegarde précédente
+     * est en cours d'écriture.
+     * ============================================================================
+     */
+    public boolean save(Path file, String mapPath, GameManager game, ExploredArea explored) {
+        if (pending != null && !pending.isDone())
+            return false;
+
+        long start = System.nanoTime();
+        SaveData snapshot = snapshot(mapPath, game, explored, needFull);
+        lastSnapshotNanos = System.nanoTime() - start;
+
+        needFull = false;
+        pending = writer.submit(() -> write(file, snapshot));
+        return true;
+    }
+
+    /** Attend l'écriture en cours et arrête le thread d'écriture. */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ============================================================================
+    // Instantané (thread du jeu)
+    // ============================================================================
+
+    /**
+     * Copie les sections modifiées (toutes si full) et efface les drapeaux
+     * de changement : l'instantané propre à l'autosave, personne d'autre ne
+     * doit les consulter.
+     */
+    static SaveData snapshot(String mapPath, GameManager game, ExploredArea explored, boolean full) {
+        EntityStore store = game.getStore();
+        SaveData data = new SaveData();
+        data.mapPath = mapPath;
+        data.turnCount = game.getTurnCount();
+
+        // consultés d'abord : les drapeaux doivent être effacés même pour une copie complète
+        if (explored != null) {
+            data.width = explored.getWidth();
+            data.height = explored.getHeight();
+            if (explored.pollChanged() | full)
+                data.exploredBits = explored.packBits();
+        }
+        if (store.pollUnitsChanged() | full)
+            data.units = snapshotUnits(store);
+        if (store.pollCitiesChanged() | full)
+            data.cities = snapshotCities(store);
+        return data;
+    }
+
+    /**
+     * Copie tout le modèle (sans section EXPLORED) sans toucher aux
+     * drapeaux de changement : l'autosave suivante voit toujours ce qui a
+     * changé depuis la précédente. Keyframes du journal et vérifications
+     * du rejeu.
+     */
+    public static SaveData copyModel(String mapPath, GameManager game) {
+        EntityStore store = game.getStore();
+        SaveData data = new SaveData();
+        data.mapPath = mapPath;
+        data.turnCount = game.getTurnCount();
+        data.units = snapshotUnits(store);
+        data.cities = snapshotCities(store);
+        return data;
+    }
+
+    private static SaveData.Units snapshotUnits(EntityStore store) {
+        int n = store.getUnitCount();
+        SaveData.Units units = new SaveData.Units(n);
+        for (int i = 0; i < n; i++) {
+            units.type[i] = (byte) store.getUnitType(i).ordinal();
+            units.owner[i] = (byte) store.getUnitOwner(i);
+            units.tileX[i] = store.getUnitTileX(i);
+            units.tileY[i] = store.getUnitTileY(i);
+            units.destX[i] = store.getUnitDestinationX(i);
+            units.destY[i] = store.getUnitDestinationY(i);
+            units.moves[i] = (short) store.getUnitMoves(i);
+            units.hp[i] = (short) store.getUnitHp(i);
+        }
+        return units;
+    }
+
+    private static SaveData.Cities snapshotCities(EntityStore store) {
+        int n = store.getCityCount();
+        SaveData.Cities cities = new SaveData.Cities(n);
+        for (int i = 0; i < n; i++) {
+            UnitType build = store.getCityBuild(i);
+            cities.name[i] = store.getCityName(i);
+            cities.owner[i] = (byte) store.getCityOwner(i);
+            cities.tileX[i] = store.getCityTileX(i);
+            cities.tileY[i] = store.getCityTileY(i);
+            cities.population[i] = (short) store.getCityPopulation(i);
+            cities.food[i] = store.getCityFood(i);
+            cities.production[i] = store.getCityProduction(i);
+            cities.build[i] = build == null ? -1 : (byte) build.ordinal();
+        }
+        return cities;
+    }
+
+    // ============================================================================
+    // Compression + écriture (thread d'écriture)
+    // ============================================================================
+
+    private void write(Path file, SaveData snapshot) {
+        try {
+            written[SaveFormat.SECTION_META] = SaveFormat.compress(
+                    SaveFormat.SECTION_META, SaveFormat.encodeMeta(snapshot), deflater);
+            if (snapshot.exploredBits != null)
+                written[SaveFormat.SECTION_EXPLORED] = SaveFormat.compress(
+                        SaveFormat.SECTION_EXPLORED, SaveFormat.encodeExplored(snapshot.exploredBits), deflater);
+            if (snapshot.units != null)
+                written[SaveFormat.SECTION_UNITS] = SaveFormat.compress(
+                        SaveFormat.SECTION_UNITS, SaveFormat.encodeUnits(snapshot.units), deflater);
+            if (snapshot.cities != null)
+                written[SaveFormat.SECTION_CITIES] = SaveFormat.compress(
+                        SaveFormat.SECTION_CITIES, SaveFormat.encodeCities(snapshot.cities), deflater);
+
+            writeFile(file);
+            lastError = null;
+        } catch (IOException | RuntimeException e) {
+            // le cache peut ne plus correspondre à aucun fichier : on repart d'une copie complète
+            Arrays.fill(written, null);
+            needFull = true;
+            lastError = e instanceof IOException ? (IOException) e : new IOException(e);
+            LOG.warn("Autosave failed: {}", lastError);
+        }
+    }
+
+    private void writeFile(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null)
+            Files.createDirectories(dir);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // sans zone explorée (rejeu, partie sans brouillard), la section est absente, comme dans SaveFormat.encode
+            int count = 0;
+            for (int id : SECTION_ORDER) {
+                if (written[id] != null)
+                    count++;
+            }
+            writeFully(channel, SaveFormat.header(count));
+            for (int id : SECTION_ORDER) {
+                SaveFormat.Section section = written[id];
+                if (section == null)
+                    continue;
+                writeFully(channel, SaveFormat.sectionHeader(section));
+                writeFully(channel, section.stored);
+            }
+            channel.force(false);
+        }
+
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    // ============================================================================
+    // Chargement
+    // ============================================================================
+
+    public static SaveData read(Path file) throws IOException {
+        return SaveFormat.read(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /**
+     * ============================================================================
+     * Recrée les unités, villes, tour et cases explorées sauvegardés dans
+     * une partie qui n'en a pas encore (terrain déjà posé). Mouvements max
+     * et dégâts reviennent de UnitType, comme pour une unité neuve. explored
+     * peut être null (rejeu du journal). Une carte d'une autre taille ou une
+     * case hors du terrain lève IllegalArgumentException avant que rien ne
+     * soit créé.
+     * ============================================================================
+     */
+    public static void apply(SaveData data, GameManager game, ExploredArea explored) {
+        if (explored != null && (data.width != explored.getWidth() || data.height != explored.getHeight()))
+            throw new IllegalArgumentException("Save is for a " + data.width + "x" + data.height
+                    + " map, not " + explored.getWidth() + "x" + explored.getHeight());
+
+        TerrainGrid terrain = game.getTerrain();
+        SaveData.Units units = data.units;
+        for (int i = 0; i < units.count; i++) {
+            checkTile(terrain, "Unit", i, units.tileX[i], units.tileY[i]);
+            if (units.destX[i] >= 0)
+                checkTile(terrain, "Destination of unit", i, units.destX[i], units.destY[i]);
+        }
+        SaveData.Cities cities = data.cities;
+        for (int i = 0; i < cities.count; i++)
+            checkTile(terrain, "City", i, cities.tileX[i], cities.tileY[i]);
+
+        EntityStore store = game.getStore();
+        for (int i = 0; i < units.count; i++) {
+            Unit unit = game.createUnit(UnitType.of(units.type[i]).key,
+                    units.tileX[i] * MapConstants.TILE_SIZE, units.tileY[i] * MapConstants.TILE_SIZE);
+            int slot = store.unitSlot(unit.getHandle());
+            store.setUnitOwner(slot, units.owner[i]);
+            store.setUnitMoves(slot, units.moves[i]);
+            store.setUnitHp(slot, units.hp[i]);
+            if (units.destX[i] >= 0)
+                store.setUnitDestination(slot, units.destX[i], units.destY[i]);
+        }
+
+        for (int i = 0; i < cities.count; i++) {
+            int slot = store.citySlot(game.createCity(cities.name[i], cities.tileX[i], cities.tileY[i]).getHandle());
+            store.setCityOwner(slot, cities.owner[i]);
+            store.setCityPopulation(slot, cities.population[i]);
+            store.setCityFood(slot, cities.food[i]);
+            store.setCityProduction(slot, cities.production[i]);
+            store.setCityBuild(slot, cities.build[i] < 0 ? null : UnitType.of(cities.build[i]));
+        }
+
+        if (explored != null && data.exploredBits != null)
+            explored.unpackBits(data.exploredBits);
+        game.setTurnCount(data.turnCount);
+    }
+
+    private static void checkTile(TerrainGrid terrain, String what, int index, int x, int y) {
+        if (x < 0 || y < 0 || x >= terrain.getWidth() || y >= terrain.getHeight())
+            throw new IllegalArgumentException(what + " " + index + " is at " + x + "," + y
+                    + ", outside the " + terrain.getWidth() + "x" + terrain.getHeight() + " map");
+    }
+}
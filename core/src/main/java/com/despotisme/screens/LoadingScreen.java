@@ -0,0 +1,151 @@
+package com.despotisme.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.ProgressBar;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.despotisme.Despotisme;
+import com.despotisme.managers.TextureRegistry;
+import com.despotisme.net.LockstepClient;
+import com.despotisme.net.LockstepHost;
+import com.despotisme.save.SaveData;
+
+/**
+ * Écran de chargement affiché entre le menu et la carte.
+ *
+ * Les assets de MapScreen (carte, tilesets, skin, police, textures des
+ * entités) sont lus et décodés par le thread de l'AssetManager ; ici on ne
+ * fait qu'avancer le chargement par tranches de quelques millisecondes
+ * (envois GPU inclus) pour que la barre de progression reste fluide.
+ * Le menu principal a souvent déjà tout préchargé : l'écran ne fait alors
+ * qu'apparaître une frame.
+ */
+public class LoadingScreen implements Screen {
+
+    // Temps maximal consacré au chargement par frame (ms)
+    private static final int LOAD_SLICE_MILLIS = 12;
+
+    // === Références principales ===
+    private final Despotisme app;
+    private final AssetManager assets;
+    private final Stage stage;
+
+    // === Interface ===
+    private final ProgressBar progressBar;
+    private final Label progressLabel;
+    private int shownPercent = -1;
+
+    // Partie sauvegardée à reprendre une fois la carte chargée (null = nouvelle partie)
+    private final SaveData restore;
+
+    // Partie en réseau : place obtenue et serveur hébergé (null = partie solo)
+    private final LockstepClient.Seat seat;
+    private final LockstepHost host;
+
+    public LoadingScreen(Despotisme app) {
+        this(app, null);
+    }
+
+    /**
+     * @param mapPath carte à charger (null = carte de démonstration)
+     */
+    public LoadingScreen(Despotisme app, String mapPath) {
+        this(app, mapPath, null);
+    }
+
+    /**
+     * @param mapPath carte à charger (null = carte de démonstration)
+     * @param restore sauvegarde à reprendre sur cette carte, ou null
+     */
+    public LoadingScreen(Despotisme app, String mapPath, SaveData restore) {
+        this(app, mapPath, restore, null, null);
+    }
+
+    /**
+     * Partie en réseau sur la carte de la place obtenue.
+     *
+     * @param host serveur hébergé par ce joueur, ou null s'il a rejoint
+     */
+    public LoadingScreen(Despotisme app, LockstepClient.Seat seat, LockstepHost host) {
+        this(app, seat.mapPath(), null, seat, host);
+    }
+
+    private LoadingScreen(Despotisme app, String mapPath, SaveData restore,
+                          LockstepClient.Seat seat, LockstepHost host) {
+        this.app = app;
+        this.restore = restore;
+        this.seat = seat;
+        this.host = host;
+        this.assets = TextureRegistry.get().getAssets();
+
+        if (mapPath == null)
+            MapScreen.queueAssets();
+        else
+            MapScreen.queueAssets(mapPath);
+
+        // Le skin sert à l'écran lui-même : chargé tout de suite (petit fichier)
+        assets.finishLoadingAsset(MapScreen.SKIN_FILE);
+        Skin skin = assets.get(MapScreen.SKIN_FILE, Skin.class);
+
+        stage = new Stage(new ScreenViewport());
+
+        progressBar = new ProgressBar(0f, 1f, 0.01f, false, skin);
+        progressLabel = new Label("", skin);
+
+        Table root = new Table();
+        root.setFillParent(true);
+        root.add(progressLabel).padBottom(15).row();
+        root.add(progressBar).width(400);
+        stage.addActor(root);
+    }
+
+    @Override
+    public void render(float delta) {
+
+        // === Avance le chargement (temps borné) ===
+        boolean done = assets.update(LOAD_SLICE_MILLIS);
+
+        float progress = assets.getProgress();
+        progressBar.setValue(progress);
+
+        int percent = (int) (progress * 100);
+        if (percent != shownPercent) {
+            shownPercent = percent;
+            progressLabel.setText("Chargement de la carte... " + percent + " %");
+        }
+
+        // === Dessin ===
+        Gdx.gl.glClearColor(0, 0, 0, 1f);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        stage.act(delta);
+        stage.draw();
+
+        if (done)
+            app.setScreen(seat != null ? new MapScreen(app, seat, host) : new MapScreen(app, restore));
+    }
+
+    @Override
+    public void resize(int w, int h) {
+        stage.getViewport().update(w, h, true);
+    }
+
+    @Override public void show() {}
+    @Override public void pause() {}
+    @Override public void resume() {}
+
+    @Override
+    public void hide() {
+        dispose();
+    }
+
+    @Override
+    public void dispose() {
+        stage.dispose();
+    }
+}
@@ -3,6 +3,7 @@ package com.despotisme.screens;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Pixmap;
@@ -17,22 +18,45 @@ import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.badlogic.gdx.math.MathUtils;
 import com.despotisme.Despotisme;
+import com.despotisme.constants.MapConstants;
+import com.despotisme.managers.GameManager;
+import com.despotisme.managers.TextureRegistry;
+import com.despotisme.map.PackedMaps;
+import com.despotisme.map.WorldGenerator;
+import com.despotisme.net.LockstepClient;
+import com.despotisme.net.LockstepHost;
+import com.despotisme.net.SocketLink;
+import com.despotisme.save.SaveData;
+import com.despotisme.save.SaveManager;
 import com.despotisme.screens.MapScreen;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Callable;
+
 import static com.badlogic.gdx.scenes.scene2d.actions.Actions.*;
 
 /**
  * Écran principal du jeu.
  * Affiche le menu d’accueil avec :
  *  - le titre
+ *  - un bouton "Continue" (si une sauvegarde automatique existe)
  *  - un bouton "Play Demo"
+ *  - un bouton "Random World" (monde généré)
+ *  - une partie en réseau : "Host Game" (nombre de joueurs) ou
+ *    "Join Game" (adresse de l'hôte)
  *  - un réglage du volume de la musique
  *  - un bouton pour quitter le jeu
- * Gère également la musique et les transitions.
+ * Gère également la musique et les transitions, et précharge la carte
+ * (MapScreen.queueAssets) pendant que le menu est affiché.
  */
 public class MainMenuScreen implements Screen {
 
+    // Temps de préchargement de la carte accordé à chaque frame du menu (ms)
+    private static final int PREWARM_SLICE_MILLIS = 4;
+
     // === Références principales ===
     private final Despotisme app;   // Référence à l’application principale
     private final Stage stage;      // Scène contenant tous les éléments UI
@@ -42,6 +66,10 @@ public class MainMenuScreen implements Screen {
     private Music music;            // Musique du menu
     private Texture backgroundTexture; // Image de fond du menu
 
+    // === Partie en réseau ===
+    private Label netStatus;        // connexion en cours ou erreur
+    private boolean connecting;     // une seule tentative à la fois
+
     /**
      * Constructeur du menu principal.
      */
@@ -89,6 +117,9 @@ public class MainMenuScreen implements Screen {
 
         // === Construction de l’interface ===
         buildUI();
+
+        // === Préchargement de la carte pendant que le joueur est dans le menu ===
+        MapScreen.queueAssets();
     }
 
     /**
@@ -110,16 +141,75 @@ public class MainMenuScreen implements Screen {
         btnStyle.fontColor = Color.WHITE;
         btnStyle.overFontColor = Color.GOLD;
 
+        // === Bouton CONTINUER (dernière sauvegarde automatique) ===
+        FileHandle autosave = Gdx.files.local(MapScreen.AUTOSAVE_FILE);
+        TextButton btnContinue = new TextButton("Continue", btnStyle);
+        btnContinue.setVisible(autosave.exists());
+
+        btnContinue.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                try {
+                    SaveData save = SaveManager.read(autosave.file().toPath());
+                    fadeOutAndStart(save.mapPath, save);
+                } catch (IOException e) {
+                    // Sauvegarde illisible (tronquée, corrompue : toujours une IOException) : le bouton disparaît
+                    btnContinue.setVisible(false);
+                }
+            }
+        });
+
         // === Bouton PLAY DEMO ===
         TextButton btnPlay = new TextButton("Play Demo", btnStyle);
 
         btnPlay.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                fadeOutAndStart();
+                fadeOutAndStart(null, null);
+            }
+        });
+
+        // === Bouton MONDE ALÉATOIRE (carte générée) ===
+        TextButton btnRandom = new TextButton("Random World", btnStyle);
+
+        btnRandom.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                int size = MapConstants.GENERATED_WORLD_SIZE;
+                fadeOutAndStart(WorldGenerator.worldFile(MathUtils.random.nextLong(), size, size), null);
+            }
+        });
+
+        // === Partie en réseau : héberger (nombre de joueurs) ou rejoindre (adresse) ===
+        SelectBox<Integer> playersBox = new SelectBox<>(skin);
+        playersBox.setItems(2, 3, 4, 5, 6, 7, 8);
+        TextField addressField = new TextField("localhost:" + LockstepHost.DEFAULT_PORT, skin);
+        netStatus = new Label("", skin);
+
+        TextButton btnHost = new TextButton("Host Game", btnStyle);
+        btnHost.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                hostGame(playersBox.getSelected());
+            }
+        });
+
+        TextButton btnJoin = new TextButton("Join Game", btnStyle);
+        btnJoin.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                joinGame(addressField.getText().trim());
             }
         });
 
+        Table network = new Table();
+        network.defaults().pad(5);
+        network.add(btnHost).width(220).height(60);
+        network.add(playersBox).width(80);
+        network.row();
+        network.add(btnJoin).width(220).height(60);
+        network.add(addressField).width(200);
+
         // === Curseur de volume ===
         Label volumeLabel = new Label("Music Volume", skin, "medieval-ui");
 
@@ -144,7 +234,12 @@ public class MainMenuScreen implements Screen {
 
         // === Mise en page ===
         root.add(title).padBottom(50).row();
+        if (btnContinue.isVisible())
+            root.add(btnContinue).width(300).height(70).padBottom(20).row();
         root.add(btnPlay).width(300).height(70).padBottom(20).row();
+        root.add(btnRandom).width(300).height(70).padBottom(20).row();
+        root.add(network).padBottom(5).row();
+        root.add(netStatus).padBottom(20).row();
         root.add(volumeLabel).padBottom(5).row();
         root.add(volumeSlider).width(250).padBottom(30).row();
         root.add(btnExit).width(250).height(50).row();
@@ -155,14 +250,103 @@ public class MainMenuScreen implements Screen {
     }
 
     /**
-     * Lance une transition fade-out avant d'afficher la carte de démonstration.
+     * Lance une transition fade-out avant d'afficher la carte
+     * (mapPath null = carte de démonstration, save null = nouvelle partie).
+     */
+    private void fadeOutAndStart(String mapPath, SaveData save) {
+        stage.addAction(sequence(
+                fadeOut(1f),
+                run(() -> music.stop()),
+                delay(0.2f),
+                run(() -> app.setScreen(new LoadingScreen(app, mapPath, save)))
+        ));
+    }
+
+    /**
+     * Héberge une partie en réseau sur la carte de démonstration : le
+     * serveur tourne en arrière-plan et l'hôte, premier assis, choisit la
+     * carte. La partie démarre aussitôt ; le premier tour attend que les
+     * autres joueurs aient rejoint.
+     */
+    private void hostGame(int players) {
+        if (connecting)
+            return;
+        LockstepHost host;
+        try {
+            host = new LockstepHost(LockstepHost.DEFAULT_PORT, players);
+        } catch (IOException e) {
+            netStatus.setText("Port " + LockstepHost.DEFAULT_PORT + " indisponible : " + e.getMessage());
+            return;
+        }
+        String mapPath = PackedMaps.resolve(MapConstants.MAP_FILE);
+        seat(host, () -> LockstepClient.connect(host.getLocalLink(), mapPath, GameManager.FIRST_TURN));
+    }
+
+    /**
+     * Rejoint la partie de l'hôte "adresse:port" ; la carte est celle que
+     * l'hôte a choisie, donnée par le serveur.
+     */
+    private void joinGame(String address) {
+        if (connecting)
+            return;
+        int colon = address.lastIndexOf(':');
+        String hostName = colon < 0 ? address : address.substring(0, colon);
+        int port;
+        try {
+            port = colon < 0 ? LockstepHost.DEFAULT_PORT : Integer.parseInt(address.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            netStatus.setText("Adresse invalide : " + address);
+            return;
+        }
+        seat(null, () -> {
+            SocketLink link = SocketLink.connect(new InetSocketAddress(hostName, port));
+            try {
+                return LockstepClient.connect(link, "", GameManager.FIRST_TURN);
+            } catch (IOException e) {
+                link.close();
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Poignée de main avec le serveur sur un thread à part (le menu reste
+     * animé), puis chargement de la carte de la partie sur le thread du jeu.
      */
-    private void fadeOutAndStart() {
+    private void seat(LockstepHost host, Callable<LockstepClient.Seat> handshake) {
+        connecting = true;
+        netStatus.setText("Connexion...");
+        Thread thread = new Thread(() -> {
+            try {
+                LockstepClient.Seat seat = handshake.call();
+                Gdx.app.postRunnable(() -> fadeOutAndStart(seat, host));
+            } catch (Exception e) {
+                if (host != null) {
+                    try {
+                        host.close();
+                    } catch (IOException ignored) {
+                        // déjà fermé
+                    }
+                }
+                Gdx.app.postRunnable(() -> {
+                    connecting = false;
+                    netStatus.setText("Connexion impossible : " + e.getMessage());
+                });
+            }
+        }, "lockstep-connect");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Transition vers une partie en réseau (carte donnée par la place obtenue).
+     */
+    private void fadeOutAndStart(LockstepClient.Seat seat, LockstepHost host) {
         stage.addAction(sequence(
                 fadeOut(1f),
                 run(() -> music.stop()),
                 delay(0.2f),
-                run(() -> app.setScreen(new MapScreen(app)))
+                run(() -> app.setScreen(new LoadingScreen(app, seat, host)))
         ));
     }
 
@@ -185,6 +369,9 @@ public class MainMenuScreen implements Screen {
         // === Dessine l’interface ===
         stage.act(delta);
         stage.draw();
+
+        // === Préchargement en tâche de fond (tranche courte) ===
+        TextureRegistry.get().getAssets().update(PREWARM_SLICE_MILLIS);
     }
 
     @Override
@@ -4,6 +4,8 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
@@ -12,28 +14,67 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
+import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.MapObject;
 import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.objects.TextureMapObject;
 import com.badlogic.gdx.maps.tiled.*;
-import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.despotisme.entities.Settler;
 import com.despotisme.entities.Unit;
 import com.despotisme.entities.City;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.UnitType;
 import com.despotisme.ui.GameHUD;
 import com.despotisme.Despotisme;
 import com.despotisme.managers.GameManager;
+import com.despotisme.managers.TextureRegistry;
+import com.despotisme.commands.CommandJournal;
+import com.despotisme.commands.CommandProcessor;
+import com.despotisme.commands.EndTurnCommand;
+import com.despotisme.commands.FoundCityCommand;
+import com.despotisme.commands.GotoCommand;
+import com.despotisme.commands.MoveUnitCommand;
+import com.despotisme.commands.SpawnUnitCommand;
 import com.despotisme.constants.MapConstants;
 import com.despotisme.constants.UnitsConstants;
+import com.despotisme.debug.FrameProfiler;
+import com.despotisme.events.EventBus;
+import com.despotisme.logging.Logger;
+import com.despotisme.map.BinaryMapFormat;
+import com.despotisme.map.BinaryMapLoader;
+import com.despotisme.map.ExploredArea;
+import com.despotisme.map.GeneratedMapLoader;
+import com.despotisme.map.PackedMaps;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.map.TerrainGridLoader;
+import com.despotisme.map.VisibilityEngine;
+import com.despotisme.map.WorldGenerator;
+import com.despotisme.net.LockstepClient;
+import com.despotisme.net.LockstepHost;
+import com.despotisme.render.EntityRenderer;
+import com.despotisme.render.FogOfWarRenderer;
+import com.despotisme.render.TerrainChunkRenderer;
+import com.despotisme.save.SaveData;
+import com.despotisme.save.SaveFormat;
+import com.despotisme.save.SaveManager;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -47,22 +88,60 @@ import lombok.Setter;
  * - Gérer les interactions joueur (clics, déplacement, zoom)
  * - Maintenir et appliquer le Fog of War
  * - Afficher le HUD (mini-carte, ressources, panneau d’unité)
+ * - Fin de tour (Entrée) suivie d'une sauvegarde automatique
+ * - Passer toutes les actions du joueur par des commandes journalisées
+ * - En réseau (LockstepClient) : envoyer les ordres en fin de tour et
+ *   appliquer le tour de tous les joueurs à réception
  * ============================================================================
  */
 public class MapScreen implements Screen {
 
+    private static final Logger LOG = Logger.get(MapScreen.class);
+
     private final Despotisme app; // Référence à l'application principale
     private final GameManager gameManager = new GameManager();
+    // Toute action qui modifie la partie passe par ici (journal + rejeu) ; en réseau, celui du LockstepClient
+    private final CommandProcessor commands;
+
+    // Textures des unités / villes, gardées chargées pendant toute la partie
+    private static final String[] ENTITY_TEXTURES = {
+            UnitsConstants.SELECTION_TEXTURE,
+            UnitsConstants.SETTLER_FRONT_TEXTURE,
+            UnitsConstants.SETTLER_BACK_TEXTURE,
+            UnitsConstants.SETTLER_LEFT_TEXTURE,
+            UnitsConstants.SETTLER_RIGHT_TEXTURE,
+            MapConstants.CITY_TEXTURE
+    };
+
+    // Sauvegarde automatique, écrite en fin de tour
+    public static final String AUTOSAVE_FILE = "saves/autosave" + SaveFormat.EXTENSION;
+    // Journal des commandes de la partie en cours (rejouable par commands.Replay)
+    public static final String JOURNAL_FILE = "saves/journal" + CommandJournal.EXTENSION;
+    // En réseau, un journal par joueur (l'hôte et un client peuvent partager le dossier) : saves/journal-p1.djnl
+    public static final String NETWORK_JOURNAL_PREFIX = "saves/journal-p";
+
+    // === Assets chargés en asynchrone (voir queueAssets / LoadingScreen) ===
+    public static final String SKIN_FILE = "ui/uiskin.json";
+    private static final String HUD_FONT = "medieval-hud.ttf"; // nom logique, police générée par FreeType
+    private static String mapFile;                              // carte résolue (.dmap, .tmx ou .world)
+    private static boolean assetsQueued = false;
 
     // === Monde / Carte ===
     private TiledMap map; // Carte Tiled
-    private OrthogonalTiledMapRenderer renderer;// Rendu de la carte
+    private TerrainChunkRenderer renderer; // Rendu du terrain (chunks précalculés)
+    private TerrainGrid terrain; // Attributs du terrain (marchable, coût, rendements...)
     private OrthographicCamera camera; // Caméra principale
     private Viewport worldViewport; // Gestion des dimensions écran
     private SpriteBatch batch; // Batch pour afficher les sprites
+    private EntityRenderer entityRenderer; // Sprites des unités et des villes (le modèle n'a pas de GL)
 
     private Unit selectedUnit;
 
+    // === Tampons réutilisés (culling + sélection, aucune allocation par frame) ===
+    private final IntArray visibleHandles = new IntArray();
+    private final Vector3 touchPoint = new Vector3();
+    private final MoveUnitCommand moveCommand = new MoveUnitCommand(); // commande clavier réutilisée
+
     private float mapWidthPx; // Largeur totale de la carte
     private float mapHeightPx; // Hauteur totale de la carte
 
@@ -73,7 +152,7 @@ public class MapScreen implements Screen {
     // === Interface (HUD + menus) ===
     private Skin skin;
     private Table actionMenu;
-    private BitmapFont font;
+    private TextButton btnCity;        // désactivé sans colon du joueur sélectionné
     private GameHUD hud;
 
     // === Pause Menu ===
@@ -82,8 +161,23 @@ public class MapScreen implements Screen {
     private boolean paused = false; // État du jeu (en pause ou non)
 
     // === Fog of War ===
-    private boolean[][] explored;
-    private Texture fogTexture;
+    private final int localPlayer;                 // joueur dont on affiche la vision
+    private VisibilityEngine visibility;           // ligne de vue de toutes les unités et villes
+    private ExploredArea explored;                 // couches du joueur local
+    private FogOfWarRenderer fogRenderer;
+
+    // === Sauvegarde ===
+    private final SaveData restore;                            // partie à reprendre (null = nouvelle partie)
+    private final SaveManager saveManager = new SaveManager(); // instantané ici, écriture en arrière-plan
+
+    // === Partie en réseau (lockstep ; null = partie solo) ===
+    private final LockstepClient lockstep;      // seul chemin de modification de la partie
+    private final LockstepHost host;            // serveur hébergé par ce joueur, ou null
+    private ExecutorService turnReader;         // attend le tour des autres sans bloquer le rendu
+    private Future<ByteBuffer> incomingTurn;    // tour attendu du serveur (null = tour en cours)
+    private boolean gameOver;                   // joueur parti, connexion perdue ou désynchronisation
+    private int orderX = -1, orderY;            // case visée par l'unité sélectionnée (goto envoyé en fin de tour)
+    private Label netStatus;
 
     /**
      * ============================================================================
@@ -92,14 +186,100 @@ public class MapScreen implements Screen {
      * ============================================================================
      */
     public MapScreen(Despotisme app) {
+        this(app, null);
+    }
+
+    /**
+     * @param restore sauvegarde à reprendre (lue par SaveManager.read), ou null
+     */
+    public MapScreen(Despotisme app, SaveData restore) {
+        this(app, restore, null, null);
+    }
+
+    /**
+     * Partie en réseau sur la carte de la place obtenue (seat.mapPath()).
+     *
+     * @param seat place du joueur (LockstepClient.connect)
+     * @param host serveur hébergé par ce joueur, fermé avec l'écran ; null s'il a rejoint
+     */
+    public MapScreen(Despotisme app, LockstepClient.Seat seat, LockstepHost host) {
+        this(app, null, seat, host);
+    }
+
+    private MapScreen(Despotisme app, SaveData restore, LockstepClient.Seat seat, LockstepHost host) {
         this.app = app;
+        this.restore = restore;
+        this.host = host;
+        this.lockstep = seat != null ? new LockstepClient(seat, gameManager) : null;
+        this.commands = lockstep != null ? lockstep.getCommands() : new CommandProcessor(gameManager);
+        this.localPlayer = seat != null ? seat.player() : 0;
+    }
+
+    /**
+     * ============================================================================
+     * queueAssets()
+     * Met en file dans l'AssetManager partagé tout ce dont l'écran a besoin :
+     * - la carte Tiled et ses tilesets (analyse + décodage sur le thread de
+     *   l'AssetManager, envoi GPU par tranches dans AssetManager.update)
+     * - le Skin et la police médiévale (générée par FreeType)
+     * - les textures des unités et des villes
+     * Appelée dès le menu principal pour précharger la carte en arrière-plan.
+     * Sans argument : la carte de démonstration (si rien n'est déjà en file).
+     * ============================================================================
+     */
+    public static void queueAssets() {
+        if (!assetsQueued)
+            queueAssets(PackedMaps.resolve(MapConstants.MAP_FILE));
+    }
+
+    /**
+     * Met en file les assets de l'écran pour la carte donnée (.tmx, .dmap ou
+     * monde généré .world). Remplace la carte préchargée si elle diffère.
+     */
+    public static void queueAssets(String mapPath) {
+        AssetManager assets = TextureRegistry.get().getAssets();
+        if (assetsQueued) {
+            if (!mapPath.equals(mapFile)) {
+                assets.unload(mapFile);
+                mapFile = mapPath;
+                assets.load(mapFile, TiledMap.class);
+            }
+            return;
+        }
+        assetsQueued = true;
+
+        FileHandleResolver resolver = assets.getFileHandleResolver();
+        assets.setLoader(TiledMap.class, new TmxMapLoader(resolver));
+        assets.setLoader(TiledMap.class, BinaryMapFormat.EXTENSION, new BinaryMapLoader(resolver));
+        assets.setLoader(TiledMap.class, WorldGenerator.EXTENSION, new GeneratedMapLoader(resolver));
+        assets.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
+        assets.setLoader(BitmapFont.class, ".ttf", new FreetypeFontLoader(resolver));
+
+        assets.load(SKIN_FILE, Skin.class);
+
+        mapFile = mapPath;
+        assets.load(mapFile, TiledMap.class);
+
+        FreetypeFontLoader.FreeTypeFontLoaderParameter font = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
+        font.fontFileName = "fonts/MedievalSharp.ttf";
+        font.fontParameters.size = 22;
+        font.fontParameters.color = new Color(1f, 0.84f, 0f, 1f);
+        font.fontParameters.borderColor = Color.BLACK;
+        font.fontParameters.borderWidth = 2f;
+        font.fontParameters.shadowOffsetX = 2;
+        font.fontParameters.shadowOffsetY = 2;
+        font.fontParameters.shadowColor = new Color(0, 0, 0, 0.75f);
+        assets.load(HUD_FONT, BitmapFont.class, font);
+
+        // Références gardées pendant toute la partie (aucun chargement au spawn)
+        TextureRegistry.get().queue(ENTITY_TEXTURES);
     }
 
     /**
      * ============================================================================
      * show()
-     * Initialise entièrement l'écran :
-     * - Charge la carte
+     * Initialise entièrement l'écran (assets déjà chargés par LoadingScreen) :
+     * - Récupère la carte
      * - Configure la caméra
      * - Initialise le HUD
      * - Active les gestionnaires d'entrées
@@ -108,23 +288,49 @@ public class MapScreen implements Screen {
     @Override
     public void show() {
 
-        // --- Chargement de la carte ---
-        map = new TmxMapLoader().load("maps/testmap.tmx");
-        renderer = new OrthogonalTiledMapRenderer(map, 1f);
+        // --- Assets (normalement déjà prêts : on ne bloque que s'il en manque) ---
+        queueAssets();
+        AssetManager assets = TextureRegistry.get().getAssets();
+        assets.finishLoading();
+
+        // --- Carte (version atlas si générée) ---
+        map = assets.get(mapFile, TiledMap.class);
+        renderer = new TerrainChunkRenderer(map);
+        terrain = TerrainGridLoader.load(map);
+        gameManager.setTerrain(terrain);
         batch = new SpriteBatch();
+        entityRenderer = new EntityRenderer();
 
         // Dimensions de la carte
         TiledMapTileLayer base = (TiledMapTileLayer) map.getLayers().get(0);
         mapWidthPx = base.getWidth() * MapConstants.TILE_SIZE;
         mapHeightPx = base.getHeight() * MapConstants.TILE_SIZE;
 
-        explored = new boolean[base.getWidth()][base.getHeight()];
-
-        // --- Chargement du colon ---
-        Settler settler = loadSettlerFromMap();
-        if (settler == null)
-            settler = (Settler) this.gameManager.getUnitFactory().createUnit("settler", mapWidthPx / 2f, mapHeightPx / 2f);
-        this.selectedUnit = settler;
+        visibility = new VisibilityEngine(terrain, gameManager.getStore(), lockstep != null ? lockstep.getPlayerCount() : 1);
+        explored = visibility.getPlayer(localPlayer);
+        fogRenderer = new FogOfWarRenderer(base.getWidth(), base.getHeight(), MapConstants.TILE_SIZE);
+
+        // --- Événements du modèle : branchés avant la reprise pour en recevoir l'état ---
+        EventBus events = gameManager.getEvents();
+        explored.setEvents(events);
+        fogRenderer.subscribe(events, explored);
+
+        // --- Reprise d'une sauvegarde, sinon colon de départ de la carte ---
+        // (une partie reprise sans colon ne reçoit pas de colon gratuit)
+        Unit start;
+        if (lockstep != null) {
+            start = startNetworkGame();
+            startJournal();
+        } else if (restore != null) {
+            start = restoreGame();
+            startJournal();
+        } else {
+            startJournal();
+            start = loadSettlerFromMap();
+            if (start == null)
+                start = spawnSettler(mapWidthPx / 2f, mapHeightPx / 2f);
+        }
+        this.selectedUnit = start;
 
         // --- Caméra ---
         camera = new OrthographicCamera();
@@ -133,19 +339,30 @@ public class MapScreen implements Screen {
 
         // Set initial camera position properly
         camera.position.set(mapWidthPx / 2f, mapHeightPx / 2f, 0);
+        // Partie reprise : sur l'unité choisie, sinon sur la première ville du joueur
+        City home = restore != null && start == null ? firstOwnCity() : null;
+        if (restore != null && start != null)
+            camera.position.set(start.getX() + MapConstants.TILE_SIZE / 2f, start.getY() + MapConstants.TILE_SIZE / 2f, 0);
+        else if (home != null)
+            camera.position.set(home.getX() + MapConstants.TILE_SIZE / 2f, home.getY() + MapConstants.TILE_SIZE / 2f, 0);
         camera.update();
 
         // --- Skin + police médiévale ---
-        skin = new Skin(Gdx.files.internal("ui/uiskin.json"));
-        generateMedievalFont();
+        skin = assets.get(SKIN_FILE, Skin.class);
+        registerMedievalFont(assets.get(HUD_FONT, BitmapFont.class));
 
         // --- HUD ---
-        hud = new GameHUD(skin, map, settler, mapWidthPx, mapHeightPx);
+        hud = new GameHUD(skin, map, start, mapWidthPx, mapHeightPx);
+        hud.subscribe(gameManager, explored);
+        hud.setTrackedUnit(start);
 
         // --- Menu d'action (Fonder / Explorer / Attendre) ---
-        createActionMenu(settler);
+        createActionMenu();
         // --- Menu de pause
         createPauseMenu();
+        // --- État de la partie en réseau
+        if (lockstep != null)
+            createNetworkStatus();
 
         // --- Multiplexeur d'entrées ---
         InputMultiplexer multiplexer = new InputMultiplexer(
@@ -165,9 +382,17 @@ public class MapScreen implements Screen {
             return null;
 
         for (MapObject obj : objectLayer.getObjects()) {
-            if (obj instanceof RectangleMapObject && "Settler".equals(obj.getName())) {
+            if (!"Settler".equals(obj.getName()))
+                continue;
+
+            if (obj instanceof RectangleMapObject) {
                 Rectangle r = ((RectangleMapObject) obj).getRectangle();
-                return (Settler) this.gameManager.getUnitFactory().createUnit("settler", r.x, r.y);
+                return spawnSettler(r.x, r.y);
+            }
+            // Objet "tuile" (gid) : position en bas à gauche
+            if (obj instanceof TextureMapObject) {
+                TextureMapObject t = (TextureMapObject) obj;
+                return spawnSettler(t.getX(), t.getY());
             }
         }
         return null;
@@ -175,28 +400,205 @@ public class MapScreen implements Screen {
 
     /**
      * ============================================================================
-     * Génère et ajoute une police médiévale dans le Skin
+     * Crée un colon (commande journalisée) à la position en pixels donnée
+     * ============================================================================
+     */
+    private Settler spawnSettler(float x, float y) {
+        SpawnUnitCommand spawn = new SpawnUnitCommand(UnitType.SETTLER,
+                Math.round(x / MapConstants.TILE_SIZE), Math.round(y / MapConstants.TILE_SIZE));
+        commands.execute(spawn);
+        return (Settler) gameManager.getUnitView(spawn.getHandle());
+    }
+
+    /**
+     * ============================================================================
+     * Démarre le journal des commandes. Sur une partie reprise ou en réseau,
+     * il commence par une image clé de l'état de départ ; une partie en
+     * réseau écrit dans le journal de son joueur, pas dans celui de la
+     * partie solo. Sans disque accessible, la partie continue sans journal.
+     * ============================================================================
+     */
+    private void startJournal() {
+        try {
+            String file = lockstep != null ? NETWORK_JOURNAL_PREFIX + localPlayer + CommandJournal.EXTENSION : JOURNAL_FILE;
+            commands.record(new CommandJournal(Gdx.files.local(file).file().toPath(), mapFile));
+        } catch (IOException e) {
+            LOG.warn("Command journal disabled: {}", e);
+            return;
+        }
+        if (restore != null || lockstep != null)
+            commands.keyframe();
+    }
+
+    private int slotOf(Unit unit) {
+        return gameManager.getStore().unitSlot(unit.getHandle());
+    }
+
+    // Seules les unités du joueur local se sélectionnent et reçoivent des ordres
+    private boolean isOwn(Unit unit) {
+        return gameManager.getStore().getUnitOwner(slotOf(unit)) == localPlayer;
+    }
+
+    // Unité sélectionnée si c'est un colon vivant du joueur local, sinon null
+    private Settler selectedSettler() {
+        if (selectedUnit instanceof Settler && selectedUnit.isAlive() && isOwn(selectedUnit))
+            return (Settler) selectedUnit;
+        return null;
+    }
+
+    private Settler firstOwnSettler() {
+        for (Unit unit : gameManager.getUnits()) {
+            if (unit instanceof Settler && isOwn(unit))
+                return (Settler) unit;
+        }
+        return null;
+    }
+
+    private Unit firstOwnUnit() {
+        for (Unit unit : gameManager.getUnits()) {
+            if (isOwn(unit))
+                return unit;
+        }
+        return null;
+    }
+
+    private City firstOwnCity() {
+        EntityStore store = gameManager.getStore();
+        for (City city : gameManager.getCities()) {
+            if (store.getCityOwner(store.citySlot(city.getHandle())) == localPlayer)
+                return city;
+        }
+        return null;
+    }
+
+    /**
+     * ============================================================================
+     * Recrée unités, villes, tour et zone explorée depuis la sauvegarde.
+     * Retourne le premier colon du joueur, sinon sa première unité, ou null
+     * s'il n'en a plus (la caméra va alors sur sa première ville).
      * ============================================================================
      */
-    private void generateMedievalFont() {
-        FreeTypeFontGenerator gen = new FreeTypeFontGenerator(Gdx.files.internal("fonts/MedievalSharp.ttf"));
-        FreeTypeFontGenerator.FreeTypeFontParameter p = new FreeTypeFontGenerator.FreeTypeFontParameter();
+    private Unit restoreGame() {
+        SaveManager.apply(restore, gameManager, explored);
+        Settler settler = firstOwnSettler();
+        return settler != null ? settler : firstOwnUnit();
+    }
 
-        p.size = 22;
-        p.color = new Color(1f, 0.84f, 0f, 1f);
-        p.borderColor = Color.BLACK;
-        p.borderWidth = 2f;
-        p.shadowOffsetX = 2;
-        p.shadowOffsetY = 2;
-        p.shadowColor = new Color(0, 0, 0, 0.75f);
+    /**
+     * ============================================================================
+     * Départ d'une partie en réseau : chaque pair place les colons de tous
+     * les joueurs de la même façon (graine tirée de la carte), hors commandes.
+     * Le thread lecteur attend ensuite les tours du serveur.
+     * ============================================================================
+     */
+    private Settler startNetworkGame() {
+        LockstepClient.setupPlayers(gameManager, lockstep.getPlayerCount(), 1, mapFile.hashCode());
+        turnReader = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "lockstep-turns");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return firstOwnSettler();
+    }
 
-        BitmapFont f = gen.generateFont(p);
-        gen.dispose();
+    /**
+     * ============================================================================
+     * Fin de tour : simulation (GameManager.endTurn) puis sauvegarde automatique.
+     * Seul l'instantané des sections modifiées est pris sur ce thread ;
+     * compression et écriture se font en arrière-plan.
+     * ============================================================================
+     */
+    private void endTurn() {
+        if (lockstep != null) {
+            sendTurn();
+            return;
+        }
+        commands.execute(EndTurnCommand.INSTANCE);
+        saveManager.save(Gdx.files.local(AUTOSAVE_FILE).file().toPath(), mapFile, gameManager, explored);
+    }
 
+    /**
+     * ============================================================================
+     * Fin de tour en réseau : les ordres du joueur partent au serveur, le
+     * tour de tous les joueurs est attendu en arrière-plan (pollTurn).
+     * Pas de sauvegarde automatique : une partie en réseau ne se reprend pas
+     * seule, le journal suffit à la rejouer.
+     * ============================================================================
+     */
+    private void sendTurn() {
+        if (gameOver || lockstep.isWaiting())
+            return;
+        submitOrder();
+        try {
+            lockstep.endTurn();
+        } catch (IOException e) {
+            LOG.warn("Network game stopped: {}", e);
+            endNetworkGame("connexion perdue");
+            return;
+        }
+        incomingTurn = turnReader.submit(lockstep::receiveTurn);
+        netStatus.setText("En attente des autres joueurs...");
+    }
+
+    /**
+     * ============================================================================
+     * Applique le tour reçu du serveur, s'il est arrivé, sur le thread du
+     * jeu. L'unité sélectionnée a pu disparaître (ville fondée).
+     * ============================================================================
+     */
+    private void pollTurn() {
+        if (incomingTurn == null || !incomingTurn.isDone())
+            return;
+        Future<ByteBuffer> received = incomingTurn;
+        incomingTurn = null;
+
+        try {
+            if (received.state() == Future.State.FAILED)
+                throw new IOException(received.exceptionNow());
+            if (!lockstep.applyTurn(received.resultNow())) {
+                endNetworkGame(lockstep.getDesyncTurn() >= 0
+                        ? "désynchronisation au tour " + lockstep.getDesyncTurn()
+                        : "un joueur est parti");
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Network game stopped: {}", e);
+            endNetworkGame("connexion perdue");
+            return;
+        }
+        netStatus.setText("");
+
+        if (selectedUnit != null && !selectedUnit.isAlive()) {
+            selectedUnit = null;
+            hud.setTrackedUnit(null);
+            hud.showUnitPanel(false, null);
+            actionMenu.setVisible(false);
+        }
+    }
+
+    private void endNetworkGame(String reason) {
+        gameOver = true;
+        orderX = -1;
+        netStatus.setText("Partie terminée : " + reason);
+    }
+
+    // Goto de l'unité sélectionnée vers la case visée, ajouté aux ordres du tour
+    private void submitOrder() {
+        if (orderX >= 0 && selectedUnit != null && selectedUnit.isAlive() && !lockstep.isWaiting())
+            lockstep.submit(new GotoCommand(slotOf(selectedUnit), orderX, orderY));
+        orderX = -1;
+    }
+
+    /**
+     * ============================================================================
+     * Ajoute la police médiévale (générée au chargement) dans le Skin
+     * ============================================================================
+     */
+    private void registerMedievalFont(BitmapFont f) {
         skin.add("medieval-font", f);
         Label.LabelStyle style = new Label.LabelStyle();
         style.font = f;
-        style.fontColor = p.color;
+        style.fontColor = f.getColor();
         skin.add("medieval", style);
     }
 
@@ -268,65 +670,16 @@ public class MapScreen implements Screen {
 
     /**
      * ============================================================================
-     * Vérifie si une tuile est marchable (propriété walkable=true dans Tiled)
+     * Bandeau d'état de la partie en réseau (attente des joueurs, fin de partie)
      * ============================================================================
      */
-    private boolean isWalkable(float x, float y) {
-        int tileX = (int) (x / MapConstants.TILE_SIZE);
-        int tileY = (int) (y / MapConstants.TILE_SIZE);
-
-        for (MapLayer mapLayer : map.getLayers()) {
-            if (!(mapLayer instanceof TiledMapTileLayer))
-                continue;
-
-            TiledMapTileLayer layer = (TiledMapTileLayer) mapLayer;
-
-            if (tileX < 0 || tileY < 0 || tileX >= layer.getWidth() || tileY >= layer.getHeight())
-                return false;
-
-            TiledMapTileLayer.Cell cell = layer.getCell(tileX, tileY);
-            if (cell == null)
-                continue;
-
-            Object walk = cell.getTile().getProperties().get("walkable");
-            if (walk == null)
-                continue;
-
-            boolean ok = (walk instanceof Boolean)
-                    ? (Boolean) walk
-                    : (walk instanceof String && ((String) walk).equalsIgnoreCase("true"));
-
-            if (!ok)
-                return false;
-            return true;
-        }
-        return false;
-    }
-
-    /**
-     * ============================================================================
-     * Met à jour les cases "explored" selon la vision du Settler
-     * ============================================================================
-     */
-    private void updateExploredArea() {
-        if (selectedUnit != null) {
-            int cx = (int) (selectedUnit.getX() / MapConstants.TILE_SIZE);
-            int cy = (int) (selectedUnit.getY() / MapConstants.TILE_SIZE);
-            int radius = 5;
-
-            for (int x = cx - radius; x <= cx + radius; x++) {
-                for (int y = cy - radius; y <= cy + radius; y++) {
-                    if (x < 0 || y < 0 || x >= explored.length || y >= explored[0].length)
-                        continue;
-
-                    float dx = x - cx;
-                    float dy = y - cy;
-
-                    if (dx * dx + dy * dy <= radius * radius)
-                        explored[x][y] = true;
-                }
-            }
-        }
+    private void createNetworkStatus() {
+        netStatus = new Label("", skin, "medieval");
+        Table top = new Table();
+        top.setFillParent(true);
+        top.top().padTop(20);
+        top.add(netStatus);
+        hud.getStage().addActor(top);
     }
 
     /**
@@ -347,7 +700,7 @@ public class MapScreen implements Screen {
      * Crée le menu d'action (Found City / Explore / Wait)
      * ============================================================================
      */
-    private void createActionMenu(Settler settler) {
+    private void createActionMenu() {
 
         actionMenu = new Table();
         actionMenu.align(Align.bottomLeft);
@@ -360,29 +713,48 @@ public class MapScreen implements Screen {
         st.fontColor = Color.WHITE;
         st.overFontColor = Color.GOLD;
         st.downFontColor = Color.YELLOW;
+        st.disabledFontColor = Color.GRAY;
 
-        TextButton btnCity = new TextButton("Found a city", st);
+        btnCity = new TextButton("Found a city", st);
         TextButton btnExplore = new TextButton("Explore", st);
         TextButton btnWait = new TextButton("Wait", st);
 
         btnCity.addListener(new ClickListener() {
             public void clicked(InputEvent e, float x, float y) {
-                gameManager.foundCity("test", settler);
+                // Le colon est celui sélectionné au moment du clic
+                Settler settler = selectedSettler();
+                if (settler == null)
+                    return;
+                // En réseau : fondée à la réception du tour, avec les ordres des autres joueurs
+                if (lockstep != null) {
+                    if (gameOver || lockstep.isWaiting()
+                            || !gameManager.canFoundCity(settler.getTileX(), settler.getTileY()))
+                        return;
+                    lockstep.submit(new FoundCityCommand(slotOf(settler), "test"));
+                    orderX = -1;
+                    actionMenu.setVisible(false);
+                    return;
+                }
+                // Trop près d'une autre ville : le colon reste sur place
+                if (!commands.execute(new FoundCityCommand(slotOf(settler), "test")))
+                    return;
                 selectedUnit = null;
+                hud.setTrackedUnit(null);
+                hud.showUnitPanel(false, null);
                 actionMenu.setVisible(false);
             }
         });
 
         btnExplore.addListener(new ClickListener() {
             public void clicked(InputEvent e, float x, float y) {
-                System.out.println("Explore");
+                LOG.debug("Explore");
                 actionMenu.setVisible(false);
             }
         });
 
         btnWait.addListener(new ClickListener() {
             public void clicked(InputEvent e, float x, float y) {
-                System.out.println("Wait");
+                LOG.debug("Wait");
                 actionMenu.setVisible(false);
             }
         });
@@ -403,50 +775,7 @@ public class MapScreen implements Screen {
      * ============================================================================
      */
     private void renderFogOfWar() {
-        batch.setProjectionMatrix(camera.combined);
-        batch.begin();
-
-        if (fogTexture == null) {
-            Pixmap pm = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
-            pm.setColor(Color.WHITE);
-            pm.fill();
-            fogTexture = new Texture(pm);
-            pm.dispose();
-        }
-
-        if (selectedUnit != null) {
-            int cx = (int) (selectedUnit.getX() / MapConstants.TILE_SIZE);
-            int cy = (int) (selectedUnit.getY() / MapConstants.TILE_SIZE);
-            int radius = 5;
-
-            TiledMapTileLayer layer = (TiledMapTileLayer) map.getLayers().get(0);
-            int W = layer.getWidth();
-            int H = layer.getHeight();
-
-            for (int x = 0; x < W; x++) {
-                for (int y = 0; y < H; y++) {
-
-                    float dx = x - cx;
-                    float dy = y - cy;
-                    float dist = (float) Math.sqrt(dx * dx + dy * dy);
-
-                    boolean inVision = dist <= radius;
-                    boolean exp = explored[x][y];
-
-                    if (!exp)
-                        batch.setColor(0f, 0f, 0f, 0.95f);
-                    else if (!inVision)
-                        batch.setColor(0f, 0f, 0f, 0.55f);
-                    else
-                        batch.setColor(0f, 0f, 0f, (dist / radius) * 0.4f);
-
-                    batch.draw(fogTexture, x * MapConstants.TILE_SIZE, y * MapConstants.TILE_SIZE, MapConstants.TILE_SIZE, MapConstants.TILE_SIZE);
-                }
-            }
-        }
-
-        batch.setColor(1, 1, 1, 1);
-        batch.end();
+        fogRenderer.render(batch, camera);
     }
 
     /**
@@ -464,9 +793,23 @@ public class MapScreen implements Screen {
                 hidePauseMenu();
         }
 
+        // --- Overlay de profilage (F3) ---
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3))
+            hud.toggleProfiler();
+        FrameProfiler profiler = hud.getProfiler();
+
+        // --- Fin de tour (Entrée) ---
+        if (!paused && Gdx.input.isKeyJustPressed(Input.Keys.ENTER))
+            endTurn();
+
+        // --- Tour des autres joueurs reçu (réseau) ---
+        if (lockstep != null)
+            pollTurn();
+
         if (paused) {
             // Pas de mouvement, pas d’input de carte
-            hud.render(delta, batch, this.selectedUnit);
+            hud.render(delta);
+            profiler.endFrame();
             return;
         }
 
@@ -474,43 +817,83 @@ public class MapScreen implements Screen {
         Gdx.gl.glClearColor(0, 0, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
+        profiler.begin(FrameProfiler.INPUT);
         handleInput(delta);
+        profiler.end(FrameProfiler.INPUT);
 
         // Rendu de la carte
+        profiler.begin(FrameProfiler.MAP);
         camera.update();
         renderer.setView(camera);
         renderer.render();
+        profiler.end(FrameProfiler.MAP);
+
+        // Vision puis événements du modèle (entrées + fin de tour) : une livraison par frame
+        profiler.begin(FrameProfiler.EVENTS);
+        visibility.update();
+        gameManager.getEvents().dispatch();
+        profiler.end(FrameProfiler.EVENTS);
 
+        profiler.begin(FrameProfiler.FOG);
         renderFogOfWar();
-        updateExploredArea();
+        profiler.end(FrameProfiler.FOG);
 
-        // Rendu des unités
+        // Rendu des unités et des villes visibles
+        profiler.begin(FrameProfiler.ENTITIES);
         batch.setProjectionMatrix(camera.combined);
         batch.begin();
+        renderVisibleEntities();
+        batch.end();
+        profiler.end(FrameProfiler.ENTITIES);
 
-        if (selectedUnit != null) {
-            this.selectedUnit.render(batch);
-        }
+        // Rendu du HUD (phases MINIMAP et STAGE)
+        hud.render(delta);
 
-        for (Unit unit : gameManager.getUnits()) {
-            unit.render(batch);
-        }
+        profiler.endFrame();
+    }
 
-        // Rendu des villes
-        for (City city : gameManager.getCities()) {
-            city.render(batch);
+    /**
+     * ============================================================================
+     * Dessine uniquement les villes et unités dont la case est dans la vue
+     * de la caméra (une case de marge), via les index spatiaux du store :
+     * le coût dépend de la zone affichée, pas du nombre total d'entités.
+     * ============================================================================
+     */
+    private void renderVisibleEntities() {
+        float halfW = camera.viewportWidth * camera.zoom * 0.5f;
+        float halfH = camera.viewportHeight * camera.zoom * 0.5f;
+        int minX = (int) Math.floor((camera.position.x - halfW) / MapConstants.TILE_SIZE) - 1;
+        int minY = (int) Math.floor((camera.position.y - halfH) / MapConstants.TILE_SIZE) - 1;
+        int maxX = (int) Math.floor((camera.position.x + halfW) / MapConstants.TILE_SIZE) + 1;
+        int maxY = (int) Math.floor((camera.position.y + halfH) / MapConstants.TILE_SIZE) + 1;
+
+        EntityStore store = gameManager.getStore();
+
+        // Villes d'abord : les unités sont dessinées par-dessus
+        int n = store.getCityIndex().inRect(minX, minY, maxX, maxY, visibleHandles);
+        for (int i = 0; i < n; i++) {
+            City city = gameManager.getCityView(visibleHandles.get(i));
+            if (city != null)
+                entityRenderer.render(batch, city);
         }
 
-        batch.end();
+        n = store.getUnitIndex().inRect(minX, minY, maxX, maxY, visibleHandles);
+        for (int i = 0; i < n; i++) {
+            Unit unit = gameManager.getUnitView(visibleHandles.get(i));
+            if (unit != null)
+                entityRenderer.render(batch, unit);
+        }
 
-        // Rendu du HUD
-        hud.updateFog(explored, this.selectedUnit);
-        hud.render(delta, batch, this.selectedUnit);
+        // Ordre en attente de la fin de tour (réseau)
+        if (orderX >= 0)
+            entityRenderer.renderTarget(batch, orderX, orderY);
     }
 
     /**
      * ============================================================================
      * Gestion des entrées clavier pour déplacer le Settler
+     * En réseau, les touches déplacent la case visée : le goto part avec les
+     * ordres du tour.
      * ============================================================================
      */
     private void handleInput(float delta) {
@@ -521,30 +904,34 @@ public class MapScreen implements Screen {
         if (moveTimer > 0)
             return;
 
-        float newX = this.selectedUnit.getX();
-        float newY = this.selectedUnit.getY();
-        String dir = null;
+        boolean aiming = lockstep != null && orderX >= 0;
+        int tileX = aiming ? orderX : this.selectedUnit.getTileX();
+        int tileY = aiming ? orderY : this.selectedUnit.getTileY();
+        Unit.Direction dir = null;
 
         if (Gdx.input.isKeyPressed(Input.Keys.W)) {
-            newY += MapConstants.TILE_SIZE;
-            dir = "up";
+            tileY++;
+            dir = Unit.Direction.UP;
         } else if (Gdx.input.isKeyPressed(Input.Keys.S)) {
-            newY -= MapConstants.TILE_SIZE;
-            dir = "down";
+            tileY--;
+            dir = Unit.Direction.DOWN;
         } else if (Gdx.input.isKeyPressed(Input.Keys.A)) {
-            newX -= MapConstants.TILE_SIZE;
-            dir = "left";
+            tileX--;
+            dir = Unit.Direction.LEFT;
         } else if (Gdx.input.isKeyPressed(Input.Keys.D)) {
-            newX += MapConstants.TILE_SIZE;
-            dir = "right";
+            tileX++;
+            dir = Unit.Direction.RIGHT;
         }
 
-        if (dir != null && isWalkable(newX, newY)) {
-
-            this.selectedUnit.setDirection(dir);
-            this.selectedUnit.setPosition(newX, newY);
-
-            updateExploredArea();
+        if (lockstep != null) {
+            // Ordres figés pendant l'attente du tour ; case hors carte ou non marchable refusée
+            if (dir != null && !gameOver && !lockstep.isWaiting() && terrain.isWalkable(tileX, tileY)) {
+                orderX = tileX;
+                orderY = tileY;
+                moveTimer = moveCooldown;
+            }
+        } else if (dir != null && commands.execute(moveCommand.set(slotOf(this.selectedUnit), tileX, tileY, dir))) {
+            // Refusé si la case n'est pas marchable
             moveTimer = moveCooldown;
         }
 
@@ -588,6 +975,7 @@ public class MapScreen implements Screen {
 
         private boolean dragging = false;
         private int lastX, lastY;
+        private final float[] worldPos = new float[2];   // résultat du clic mini-carte
         private final float zoomSpeed = 0.1f;
         private final float minZoom = 0.5f;
         private final float maxZoom = 2.0f;
@@ -595,9 +983,6 @@ public class MapScreen implements Screen {
         @Override
         public boolean touchDown(int screenX, int screenY, int pointer, int button) {
 
-            hud.forceLayout();
-            float[] worldPos = new float[2];
-
             // Clic sur la mini-carte
             if (hud.handleMiniMapClick(screenX, screenY, worldPos)) {
                 camera.position.set(worldPos[0], worldPos[1], 0);
@@ -615,15 +1000,27 @@ public class MapScreen implements Screen {
             // Clic gauche = sélection d’unité
             if (button == Input.Buttons.LEFT) {
 
-                Vector3 world = camera.unproject(new Vector3(screenX, screenY, 0));
-                if (selectedUnit != null) {
-                    Rectangle r = new Rectangle(selectedUnit.getX(), selectedUnit.getY(), MapConstants.TILE_SIZE, MapConstants.TILE_SIZE);
+                Vector3 world = camera.unproject(touchPoint.set(screenX, screenY, 0));
+                int tileX = (int) Math.floor(world.x / MapConstants.TILE_SIZE);
+                int tileY = (int) Math.floor(world.y / MapConstants.TILE_SIZE);
+
+                // Recherche de l'unité sur la case cliquée (index spatial)
+                Unit clicked = gameManager.unitAt(tileX, tileY);
+                if (clicked != null && lockstep != null && !isOwn(clicked))
+                    clicked = null;   // unité d'un autre joueur
+                if (clicked != null) {
+                    setSelectedUnit(clicked);
+                } else if (selectedUnit != null) {
+                    selectedUnit.setSelected(false);
+                }
 
-                    boolean selected = r.contains(world.x, world.y);
-                    selectedUnit.setSelected(selected);
+                if (selectedUnit != null) {
+                    boolean selected = selectedUnit.isSelected();
 
-                    if (actionMenu != null)
+                    if (actionMenu != null) {
                         actionMenu.setVisible(selected);
+                        btnCity.setDisabled(selectedSettler() == null);
+                    }
 
                     hud.showUnitPanel(selected, selected ? selectedUnit : null);
 
@@ -670,11 +1067,15 @@ public class MapScreen implements Screen {
     }
 
     public void setSelectedUnit(Unit unit) {
+        // En réseau, l'ordre visé pour l'unité précédente part avec le tour
+        if (lockstep != null && unit != this.selectedUnit && !gameOver)
+            submitOrder();
         if (this.selectedUnit != null) {
             this.selectedUnit.setSelected(false);
         }
         unit.setSelected(true);
         this.selectedUnit = unit;
+        hud.setTrackedUnit(unit);
     }
 
     /**
@@ -684,10 +1085,34 @@ public class MapScreen implements Screen {
      */
     @Override
     public void dispose() {
-        map.dispose();
+        AssetManager assets = TextureRegistry.get().getAssets();
+        assets.unload(mapFile);
+        assets.unload(HUD_FONT);
+        assets.unload(SKIN_FILE);
+        assetsQueued = false;
+
+        saveManager.shutdown(); // termine l'écriture en cours
+
+        if (lockstep != null) {
+            // Quitter la partie la termine pour tous les joueurs
+            turnReader.shutdownNow();
+            try {
+                lockstep.close();
+                if (host != null)
+                    host.close();
+            } catch (IOException e) {
+                LOG.warn("Network game not closed cleanly: {}", e);
+            }
+        } else {
+            commands.close();
+        }
+
         renderer.dispose();
         batch.dispose();
-        if (font != null)
-            font.dispose();
+        entityRenderer.dispose();
+        fogRenderer.dispose();
+        hud.dispose();
+        for (String path : ENTITY_TEXTURES)
+            TextureRegistry.get().release(path);
     }
 }
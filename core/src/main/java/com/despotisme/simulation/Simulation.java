@@ -0,0 +1,134 @@
+package com.despotisme.simulation;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.City;
+import com.despotisme.entities.Settler;
+import com.despotisme.entities.Unit;
+import com.despotisme.entities.UnitType;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.BinaryMapFormat;
+import com.despotisme.map.MapData;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.map.TerrainGridLoader;
+import com.despotisme.map.WorldGenerator;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * Simulation
+ * ----------------------------------------------------------------------------
+ * Modèle de jeu sans contexte GL : terrain issu d'une MapData, GameManager,
+ * entités et pipeline de tour. Le rendu se branche à part (MapScreen +
+ * render.EntityRenderer) ; ici rien ne charge de texture, une JVM nue
+ * (serveur, benchmark, JUnit) peut jouer des milliers de tours.
+ * ============================================================================
+ */
+public class Simulation {
+
+    @Getter private final GameManager gameManager;
+    @Getter private final TerrainGrid terrain;
+
+    public Simulation(MapData map, ForkJoinPool pool) {
+        this.terrain = TerrainGridLoader.load(map);
+        this.gameManager = new GameManager(pool);
+        this.gameManager.setTerrain(terrain);
+
+        // position de départ, même règle que MapScreen.loadSettlerFromMap
+        for (MapData.Layer layer : map.layers) {
+            if (layer.objects == null || !"Objects".equals(layer.name))
+                continue;
+            for (MapData.MapObjectData obj : layer.objects) {
+                if ("Settler".equals(obj.name))
+                    gameManager.createUnit(UnitType.SETTLER.key,
+                            obj.x * MapConstants.TILE_SIZE / map.tileWidth,
+                            obj.y * MapConstants.TILE_SIZE / map.tileHeight);
+            }
+        }
+    }
+
+    public static MapData readMap(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return BinaryMapFormat.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public void runTurns(int turns) {
+        for (int i = 0; i < turns; i++)
+            gameManager.endTurn();
+    }
+
+    /**
+     * Ajoute des colons sur des cases praticables tirées au hasard (graine),
+     * chacun envoyé vers une case proche au hasard ; un sur deux fonde une
+     * ville qui produit des colons.
+     */
+    public void populate(int settlers, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int width = terrain.getWidth();
+        int height = terrain.getHeight();
+
+        for (int n = 0; n < settlers; n++) {
+            int x, y;
+            do {
+                x = random.nextInt(width);
+                y = random.nextInt(height);
+            } while (!terrain.isWalkable(x, y));
+
+            Unit unit = gameManager.createUnit(UnitType.SETTLER.key,
+                    x * MapConstants.TILE_SIZE, y * MapConstants.TILE_SIZE);
+
+            if (n % 2 == 0 && gameManager.canFoundCity(x, y)) {
+                City city = gameManager.foundCity("City " + n, (Settler) unit);
+                gameManager.getStore().setCityBuild(gameManager.getStore().citySlot(city.getHandle()), UnitType.SETTLER);
+                continue;
+            }
+
+            int tx = Math.max(0, Math.min(width - 1, x + random.nextInt(-20, 21)));
+            int ty = Math.max(0, Math.min(height - 1, y + random.nextInt(-20, 21)));
+            gameManager.orderMove(unit, tx, ty);
+        }
+    }
+
+    /**
+     * Usage : Simulation <tilesets.dmap> [graine] [taille] [tours] [colons] [threads]
+     * Le débit mesuré est le résultat de l'outil, imprimé sur stdout ; le
+     * log garde les messages des modules.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0)
+            throw new IllegalArgumentException("Usage: Simulation <tilesets.dmap> [seed] [size] [turns] [settlers] [threads]");
+
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : MapConstants.GENERATED_WORLD_SIZE;
+        int turns = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int settlers = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        MapData catalog = readMap(Paths.get(args[0]));
+        MapData world = new WorldGenerator(seed).generate(catalog, size, size, (int) MapConstants.TILE_SIZE, pool);
+
+        Simulation simulation = new Simulation(world, pool);
+        simulation.populate(settlers, seed);
+
+        long start = System.nanoTime();
+        simulation.runTurns(turns);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        GameManager game = simulation.getGameManager();
+        // résultat de l'outil en ligne de commande, pas un message de log
+        System.out.printf("%d turns in %.2f s (%.0f turns/s) on %d threads: %d units, %d cities%n",
+                turns, seconds, turns / seconds, threads,
+                game.getStore().getUnitCount(), game.getStore().getCityCount());
+        pool.shutdown();
+    }
+}
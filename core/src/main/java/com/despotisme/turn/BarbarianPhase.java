@@ -0,0 +1,82 @@
+package com.despotisme.turn;
+
+import com.despotisme.entities.EntityStore;
+
+/**
+ * ============================================================================
+ * BarbarianPhase
+ * ----------------------------------------------------------------------------
+ * IA des barbares (owner EntityStore.BARBARIANS) : chaque unité barbare
+ * sans ordre de déplacement marche sur la ville d'un joueur la plus proche
+ * à moins de SIGHT cases. Pas encore de combat : arrivée sur la ville,
+ * elle y reste.
+ *
+ * Les cibles sont cherchées en parallèle (index des villes en lecture
+ * seule) et rangées par slot ; le merge regroupe les unités par ville, par
+ * slot croissant, et fait marcher chaque groupe avec un seul champ de flux
+ * (GameManager.moveUnitsToward, FlowFieldCache).
+ * ============================================================================
+ */
+public class BarbarianPhase extends TurnPhase {
+
+    public static final int SIGHT = 12;   // cases
+
+    // fait marcher un groupe d'unités (handles) vers la même case (vues, cache de champs : thread principal)
+    public interface GroupMover {
+        void moveToward(int[] handles, int count, int tileX, int tileY);
+    }
+
+    private final EntityStore store;
+    private final GroupMover mover;
+
+    // par slot, rempli par process() : handle de la ville visée, -1 = aucune
+    private int[] target = new int[0];
+    private int[] group = new int[0];
+
+    public BarbarianPhase(EntityStore store, GroupMover mover) {
+        super("barbarians", Scope.UNITS);
+        this.store = store;
+        this.mover = mover;
+    }
+
+    @Override
+    public void prepare(int count) {
+        if (target.length < count) {
+            target = new int[Math.max(count, target.length * 2)];
+            group = new int[target.length];
+        }
+    }
+
+    @Override
+    public void process(int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            target[slot] = -1;
+            if (store.getUnitOwner(slot) != EntityStore.BARBARIANS || store.hasUnitDestination(slot))
+                continue;
+
+            int city = store.getCityIndex().nearest(store.getUnitTileX(slot), store.getUnitTileY(slot), SIGHT);
+            if (city >= 0 && store.getCityOwner(store.citySlot(city)) != EntityStore.BARBARIANS)
+                target[slot] = city;
+        }
+    }
+
+    @Override
+    public void merge(int count) {
+        // un déplacement ne change pas les slots : le groupe d'une ville est pris en une fois, au premier slot qui la vise
+        for (int slot = 0; slot < count; slot++) {
+            int city = target[slot];
+            if (city < 0)
+                continue;
+
+            int n = 0;
+            for (int other = slot; other < count; other++) {
+                if (target[other] == city) {
+                    group[n++] = store.unitHandleAt(other);
+                    target[other] = -1;
+                }
+            }
+            int citySlot = store.citySlot(city);
+            mover.moveToward(group, n, store.getCityTileX(citySlot), store.getCityTileY(citySlot));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.despotisme.turn;
+
+import com.despotisme.entities.EntityStore;
+import com.despotisme.map.TerrainGrid;
+
+/**
+ * ============================================================================
+ * CityTiles
+ * ----------------------------------------------------------------------------
+ * Cases exploitées par chaque ville : le carré de rayon RADIUS autour de
+ * son centre.
+ *
+ * Les zones de villes voisines peuvent se chevaucher : claim() attribue
+ * chaque case à la première ville (par slot) qui l'atteint, une ville
+ * gardant toujours son propre centre. L'attribution est refaite une fois
+ * par tour, en séquentiel ; ensuite les sommes de rendement ne font que
+ * lire et peuvent être appelées depuis n'importe quelle partition.
+ * ============================================================================
+ */
+public class CityTiles {
+
+    public static final int RADIUS = 2;
+
+    private final EntityStore store;
+    private final TerrainGrid terrain;
+    private final int[] owner;   // case -> slot de ville, valide si stamp correspond
+    private final int[] stamp;
+    private int turn;
+
+    public CityTiles(EntityStore store, TerrainGrid terrain) {
+        this.store = store;
+        this.terrain = terrain;
+        this.owner = new int[terrain.size()];
+        this.stamp = new int[terrain.size()];
+    }
+
+    public void claim() {
+        turn++;
+        int count = store.getCityCount();
+
+        // les centres d'abord : aucune ville ne perd sa case au profit d'une voisine
+        for (int slot = 0; slot < count; slot++)
+            claimTile(store.getCityTileX(slot), store.getCityTileY(slot), slot);
+
+        for (int slot = 0; slot < count; slot++) {
+            int cx = store.getCityTileX(slot);
+            int cy = store.getCityTileY(slot);
+            for (int y = cy - RADIUS; y <= cy + RADIUS; y++)
+                for (int x = cx - RADIUS; x <= cx + RADIUS; x++)
+                    claimTile(x, y, slot);
+        }
+    }
+
+    private void claimTile(int x, int y, int slot) {
+        if (!terrain.inBounds(x, y))
+            return;
+        int i = terrain.index(x, y);
+        if (stamp[i] != turn) {
+            stamp[i] = turn;
+            owner[i] = slot;
+        }
+    }
+
+    public int food(int slot) {
+        return sum(slot, true);
+    }
+
+    public int production(int slot) {
+        return sum(slot, false);
+    }
+
+    private int sum(int slot, boolean food) {
+        int cx = store.getCityTileX(slot);
+        int cy = store.getCityTileY(slot);
+        int total = 0;
+        for (int y = cy - RADIUS; y <= cy + RADIUS; y++) {
+            for (int x = cx - RADIUS; x <= cx + RADIUS; x++) {
+                if (!terrain.inBounds(x, y))
+                    continue;
+                int i = terrain.index(x, y);
+                if (stamp[i] == turn && owner[i] == slot)
+                    total += food ? terrain.getFood(i) : terrain.getProduction(i);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,48 @@
+package com.despotisme.turn;
+
+import com.despotisme.entities.EntityStore;
+
+/**
+ * ============================================================================
+ * GrowthPhase
+ * ----------------------------------------------------------------------------
+ * Le surplus de nourriture des cases exploitées remplit le grenier : un
+ * grenier plein ajoute un citoyen, la famine en retire un.
+ * ============================================================================
+ */
+public class GrowthPhase extends TurnPhase {
+
+    public static final int FOOD_PER_CITIZEN = 2;
+
+    private final EntityStore store;
+    private final CityTiles tiles;
+
+    public GrowthPhase(EntityStore store, CityTiles tiles) {
+        super("growth", Scope.CITIES);
+        this.store = store;
+        this.tiles = tiles;
+    }
+
+    public static int growthThreshold(int population) {
+        return 10 + 5 * population;
+    }
+
+    @Override
+    public void process(int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            int population = store.getCityPopulation(slot);
+            int food = store.getCityFood(slot) + tiles.food(slot) - population * FOOD_PER_CITIZEN;
+
+            if (food >= growthThreshold(population)) {
+                population++;
+                food = 0;
+            } else if (food < 0) {
+                if (population > 1)
+                    population--;
+                food = 0;
+            }
+            store.setCityPopulation(slot, population);
+            store.setCityFood(slot, food);
+        }
+    }
+}
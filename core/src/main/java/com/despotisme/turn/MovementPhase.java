@@ -0,0 +1,177 @@
+package com.despotisme.turn;
+
+import com.despotisme.entities.EntityStore;
+import com.despotisme.managers.Path;
+import com.despotisme.managers.PathfindingService;
+import com.despotisme.map.TerrainGrid;
+
+import java.util.Arrays;
+
+/**
+ * ============================================================================
+ * MovementPhase
+ * ----------------------------------------------------------------------------
+ * Les unités qui ont un ordre de déplacement avancent sur leur route
+ * autant que leurs points de mouvement le permettent.
+ *
+ * Les routes sont calculées en parallèle, sur le terrain seul, et rangées
+ * par slot ; le merge applique ensuite les déplacements par slot croissant,
+ * et c'est là que l'index spatial est mis à jour.
+ *
+ * Chaque partition emprunte un A* (7 tableaux de la taille de la carte) à
+ * une réserve de la phase : au plus parallelism + 1 sont gardés (les
+ * workers et le thread appelant), créés au premier besoin et libérés avec
+ * la phase, pas laissés dans les threads du pool.
+ * ============================================================================
+ */
+public class MovementPhase extends TurnPhase {
+
+    private static final byte STAY = 0;
+    private static final byte MOVE = 1;
+    private static final byte ARRIVE = 2;
+    private static final byte UNREACHABLE = 3;
+
+    private final EntityStore store;
+    private final TerrainGrid terrain;
+
+    // planificateurs libres (pile), protégée par elle-même
+    private final Planner[] planners;
+    private int freePlanners;
+
+    // par slot, remplis par process()
+    private byte[] outcome = new byte[0];
+    private int[] target = new int[0];
+    private int[] cost = new int[0];
+
+    private static final class Planner {
+        final PathfindingService pathfinding;
+        final Path path = new Path();
+
+        Planner(TerrainGrid terrain) {
+            this.pathfinding = new PathfindingService(terrain);
+        }
+    }
+
+    public MovementPhase(EntityStore store, TerrainGrid terrain, int parallelism) {
+        super("movement", Scope.UNITS);
+        this.store = store;
+        this.terrain = terrain;
+        this.planners = new Planner[parallelism + 1];
+    }
+
+    @Override
+    public void prepare(int count) {
+        ensureCapacity(count);
+    }
+
+    @Override
+    public void process(int from, int to) {
+        Planner planner = borrowPlanner();
+        try {
+            for (int slot = from; slot < to; slot++)
+                plan(slot, planner.pathfinding, planner.path);
+        } finally {
+            returnPlanner(planner);
+        }
+    }
+
+    private Planner borrowPlanner() {
+        synchronized (planners) {
+            if (freePlanners > 0) {
+                Planner planner = planners[--freePlanners];
+                planners[freePlanners] = null;
+                return planner;
+            }
+        }
+        // premier besoin, ou plus de partitions simultanées que prévu (threads de compensation)
+        return new Planner(terrain);
+    }
+
+    private void returnPlanner(Planner planner) {
+        synchronized (planners) {
+            if (freePlanners < planners.length)
+                planners[freePlanners++] = planner;
+        }
+    }
+
+    @Override
+    public void merge(int count) {
+        for (int slot = 0; slot < count; slot++)
+            apply(slot);
+    }
+
+    // déplacement immédiat d'une unité (nouvel ordre) sur la route déjà trouvée vers sa destination, sur le thread appelant
+    public void moveNow(int slot, PathfindingService pathfinding, Path path) {
+        ensureCapacity(slot + 1);
+        planAlong(slot, pathfinding, path);
+        apply(slot);
+    }
+
+    private void plan(int slot, PathfindingService pathfinding, Path path) {
+        EntityStore s = store;
+        outcome[slot] = STAY;
+        if (!s.hasUnitDestination(slot))
+            return;
+
+        if (!pathfinding.findPath(s.getUnitTileX(slot), s.getUnitTileY(slot),
+                s.getUnitDestinationX(slot), s.getUnitDestinationY(slot), path)) {
+            outcome[slot] = UNREACHABLE;
+            return;
+        }
+        planAlong(slot, pathfinding, path);
+    }
+
+    // path : route de la case de l'unité à sa destination
+    private void planAlong(int slot, PathfindingService pathfinding, Path path) {
+        EntityStore s = store;
+        outcome[slot] = STAY;
+        if (path.isEmpty()) {
+            // envoyée sur sa propre case : arrivée, l'ordre est effacé
+            target[slot] = terrain.index(s.getUnitTileX(slot), s.getUnitTileY(slot));
+            cost[slot] = 0;
+            outcome[slot] = ARRIVE;
+            return;
+        }
+
+        pathfinding.splitTurns(path, s.getUnitMoves(slot), s.getUnitMaxMoves(slot));
+        int end = path.getTurnEnd(0);
+        if (end == 0)
+            return;
+
+        int spent = 0;
+        for (int i = 0; i < end; i++)
+            spent += terrain.getMoveCost(path.getTile(i));
+
+        target[slot] = path.getTile(end - 1);
+        cost[slot] = spent;
+        outcome[slot] = end == path.getLength() ? ARRIVE : MOVE;
+    }
+
+    private void apply(int slot) {
+        switch (outcome[slot]) {
+            case MOVE:
+            case ARRIVE:
+                int width = terrain.getWidth();
+                store.setUnitTile(slot, target[slot] % width, target[slot] / width);
+                store.spendUnitMoves(slot, cost[slot]);
+                if (outcome[slot] == ARRIVE)
+                    store.clearUnitDestination(slot);
+                break;
+            case UNREACHABLE:
+                store.clearUnitDestination(slot);
+                break;
+            default:
+                break;
+        }
+        outcome[slot] = STAY;
+    }
+
+    private void ensureCapacity(int count) {
+        if (outcome.length >= count)
+            return;
+        int capacity = Math.max(count, outcome.length * 2);
+        outcome = Arrays.copyOf(outcome, capacity);
+        target = Arrays.copyOf(target, capacity);
+        cost = Arrays.copyOf(cost, capacity);
+    }
+}
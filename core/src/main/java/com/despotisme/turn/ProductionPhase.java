@@ -0,0 +1,65 @@
+package com.despotisme.turn;
+
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.UnitType;
+
+import java.util.Arrays;
+
+/**
+ * ============================================================================
+ * ProductionPhase
+ * ----------------------------------------------------------------------------
+ * Les villes ajoutent la production de leurs cases à l'unité en
+ * construction ; les unités terminées apparaissent dans le merge, par slot
+ * de ville croissant.
+ * ============================================================================
+ */
+public class ProductionPhase extends TurnPhase {
+
+    // crée l'unité produite par une ville (vues, textures : thread principal)
+    public interface UnitSpawner {
+        void spawn(UnitType type, int cityHandle);
+    }
+
+    private final EntityStore store;
+    private final CityTiles tiles;
+    private final UnitSpawner spawner;
+    private boolean[] finished = new boolean[0];
+
+    public ProductionPhase(EntityStore store, CityTiles tiles, UnitSpawner spawner) {
+        super("production", Scope.CITIES);
+        this.store = store;
+        this.tiles = tiles;
+        this.spawner = spawner;
+    }
+
+    @Override
+    public void prepare(int count) {
+        tiles.claim();
+        if (finished.length < count)
+            finished = new boolean[Math.max(count, finished.length * 2)];
+    }
+
+    @Override
+    public void process(int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            int stored = store.getCityProduction(slot) + Math.max(1, tiles.production(slot));
+            UnitType build = store.getCityBuild(slot);
+
+            finished[slot] = build != null && stored >= build.cost;
+            if (finished[slot])
+                stored -= build.cost;
+            store.setCityProduction(slot, stored);
+        }
+    }
+
+    @Override
+    public void merge(int count) {
+        // une apparition ne fait qu'ajouter des unités : les slots de ville restent valides
+        for (int slot = 0; slot < count; slot++) {
+            if (finished[slot])
+                spawner.spawn(store.getCityBuild(slot), store.cityHandleAt(slot));
+        }
+        Arrays.fill(finished, 0, count, false);
+    }
+}
@@ -0,0 +1,42 @@
+package com.despotisme.turn;
+
+import lombok.Getter;
+
+/**
+ * ============================================================================
+ * TurnPhase
+ * ----------------------------------------------------------------------------
+ * Une étape du traitement de fin de tour, sur toutes les unités ou toutes
+ * les villes.
+ *
+ * process() est appelé en parallèle sur des plages de slots disjointes et
+ * n'écrit que les données des slots de sa plage (tableaux du store ou
+ * tampons par slot de la phase). Tout ce qui touche un état partagé (index
+ * spatial, création d'entités, cases disputées) se fait dans prepare() ou
+ * merge(), sur le thread appelant et par slot croissant : le résultat ne
+ * dépend ni du nombre de threads ni de l'ordonnancement.
+ * ============================================================================
+ */
+public abstract class TurnPhase {
+
+    public enum Scope { UNITS, CITIES }
+
+    @Getter private final String name;
+    @Getter private final Scope scope;
+
+    protected TurnPhase(String name, Scope scope) {
+        this.name = name;
+        this.scope = scope;
+    }
+
+    // séquentiel, avant la passe parallèle
+    public void prepare(int count) {
+    }
+
+    // parallèle : slots [from, to) uniquement
+    public abstract void process(int from, int to);
+
+    // séquentiel, après la passe parallèle
+    public void merge(int count) {
+    }
+}
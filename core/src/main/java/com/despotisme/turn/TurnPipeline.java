@@ -0,0 +1,96 @@
+package com.despotisme.turn;
+
+import com.despotisme.entities.EntityStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ============================================================================
+ * TurnPipeline
+ * ----------------------------------------------------------------------------
+ * Traitement de fin de tour : les phases s'enchaînent, chacune découpée en
+ * plages fixes de PARTITION_SIZE slots traitées en parallèle sur un
+ * ForkJoinPool.
+ *
+ * Le découpage ne dépend que du nombre d'entités, jamais de la taille du
+ * pool, et les phases ne publient les changements partagés que dans leur
+ * merge séquentiel : un tour donne le même résultat, au bit près, sur 1 ou
+ * 32 threads.
+ * ============================================================================
+ */
+public class TurnPipeline {
+
+    public static final int PARTITION_SIZE = 256;
+
+    private final EntityStore store;
+    private final ForkJoinPool pool;
+    private final List<TurnPhase> phases = new ArrayList<>();
+    private long[] phaseNanos = new long[0];   // durée de chaque phase au dernier tour
+
+    public TurnPipeline(EntityStore store, ForkJoinPool pool) {
+        this.store = store;
+        this.pool = pool;
+    }
+
+    public TurnPipeline add(TurnPhase phase) {
+        phases.add(phase);
+        phaseNanos = new long[phases.size()];
+        return this;
+    }
+
+    public List<TurnPhase> getPhases() {
+        return phases;
+    }
+
+    public long getPhaseNanos(int phase) {
+        return phaseNanos[phase];
+    }
+
+    public void run() {
+        for (int i = 0; i < phases.size(); i++) {
+            long start = System.nanoTime();
+            runPhase(phases.get(i));
+            phaseNanos[i] = System.nanoTime() - start;
+        }
+    }
+
+    private void runPhase(TurnPhase phase) {
+        // comptes lus après le merge précédent : les entités qu'il a créées en font partie
+        int count = phase.getScope() == TurnPhase.Scope.UNITS ? store.getUnitCount() : store.getCityCount();
+        phase.prepare(count);
+
+        int partitions = (count + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        if (partitions == 1)
+            phase.process(0, count);
+        else if (partitions > 1)
+            pool.invoke(new PartitionTask(phase, 0, partitions, count));
+
+        phase.merge(count);
+    }
+
+    private static final class PartitionTask extends RecursiveAction {
+        private final TurnPhase phase;
+        private final int from, to, count;
+
+        PartitionTask(TurnPhase phase, int from, int to, int count) {
+            this.phase = phase;
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                phase.process(from * PARTITION_SIZE, Math.min(count, (from + 1) * PARTITION_SIZE));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PartitionTask(phase, from, mid, count),
+                      new PartitionTask(phase, mid, to, count));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.despotisme.turn;
+
+import com.despotisme.entities.EntityStore;
+
+/**
+ * ============================================================================
+ * UpkeepPhase
+ * ----------------------------------------------------------------------------
+ * Chaque unité récupère tous ses points de mouvement.
+ * ============================================================================
+ */
+public class UpkeepPhase extends TurnPhase {
+    private final EntityStore store;
+
+    public UpkeepPhase(EntityStore store) {
+        super("upkeep", Scope.UNITS);
+        this.store = store;
+    }
+
+    @Override
+    public void process(int from, int to) {
+        store.restoreMoves(from, to);
+    }
+}
@@ -2,14 +2,20 @@ package com.despotisme.ui;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.despotisme.debug.FrameProfiler;
+import com.despotisme.debug.ProfilerOverlay;
 import com.despotisme.entities.Unit;
+import com.despotisme.logging.Logger;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.ExploredArea;
+import com.despotisme.managers.TextureRegistry;
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.math.Vector2;
 
@@ -23,10 +29,18 @@ import com.badlogic.gdx.math.Vector2;
  *  - Affiche les informations de l’unité sélectionnée
  *  - Dessine le cadre décoratif autour de l’écran
  *  - Gère les interactions du HUD (dont clic mini-carte)
+ *  - Overlay de profilage (F3) : temps par phase, compteurs GL, mémoire
+ *
+ *  Mode « retenu » : la taille de fenêtre, le contenu et la
+ *  visibilité des panneaux ne sont recalculés que lorsqu'ils
+ *  changent (resize, événements du modèle, sélection). Une frame
+ *  sans changement ne fait que dessiner les widgets déjà disposés.
  * ================================================================
  */
 public class GameHUD {
 
+    private static final Logger LOG = Logger.get(GameHUD.class);
+
     // ===============================================================
     // === 1. Éléments principaux du HUD
     // ===============================================================
@@ -44,9 +58,27 @@ public class GameHUD {
     // ===============================================================
     // === 2. Cadre décoratif (bordure en pierre autour de l'écran)
     // ===============================================================
+    private static final String FRAME_TEXTURE = "ui/roman_stone_frame.png";
     private final Image frameImage;
     private final Texture frameTexture;
 
+    // ===============================================================
+    // === 3. Profilage (overlay masqué par défaut, coût quasi nul)
+    // ===============================================================
+    private final FrameProfiler profiler;
+    private final ProfilerOverlay profilerOverlay;
+
+    // ===============================================================
+    // === 4. État « sale » (recalculé seulement s'il a changé)
+    // ===============================================================
+    private int windowWidth = -1;         // Taille appliquée au cadre et au viewport
+    private int windowHeight = -1;
+    private boolean windowDirty = true;   // resize() reçu depuis la dernière application
+    private boolean unitPanelVisible;     // Visibilité actuelle du panneau d'unité
+
+    // Tampon réutilisé pour les conversions écran -> stage
+    private final Vector2 stageCoords = new Vector2();
+
     /**
      * ===============================================================
      *  Constructeur : crée et configure entièrement le HUD.
@@ -71,7 +103,7 @@ public class GameHUD {
         // ---------------------------------------------------------------
         //  Cadre décoratif autour de l'écran
         // ---------------------------------------------------------------
-        frameTexture = new Texture(Gdx.files.internal("ui/roman_stone_frame.png"));
+        frameTexture = TextureRegistry.get().acquire(FRAME_TEXTURE);
         frameTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
 
         frameImage = new Image(frameTexture);
@@ -123,7 +155,12 @@ public class GameHUD {
         stage.addActor(frameImage);
         stage.addActor(root);
 
-        updateFrameToWindow();
+        // Overlay de profilage, au-dessus du reste
+        profiler = new FrameProfiler(new GLProfiler(Gdx.graphics));
+        profilerOverlay = new ProfilerOverlay(skin, profiler);
+        stage.addActor(profilerOverlay.getTable());
+
+        applyWindowSize();
     }
 
     /**
@@ -131,6 +168,8 @@ public class GameHUD {
      *  Gère un clic sur la mini-carte.
      *
      *  Convertit d’abord screen → stage → coordonnées mini-carte → monde.
+     *  Le layout est celui de la dernière frame dessinée ; seul un
+     *  resize pas encore appliqué est rattrapé ici.
      * ===============================================================
      *
      * @param screenX coordonnée X écran
@@ -140,24 +179,31 @@ public class GameHUD {
     public boolean handleMiniMapClick(float screenX, float screenY, float[] worldPos) {
 
         // Conversion screen → coordonnées du Stage (Scene2D)
-        Vector2 stageCoords = stage.screenToStageCoordinates(new Vector2(screenX, screenY));
-
-        System.out.println("handleMiniMapClick: screen=" + screenX + "," + screenY +
-                           " -> stage=" + stageCoords.x + "," + stageCoords.y);
+        applyWindowSize();
+        root.validate();  // Sans effet si rien n'a été invalidé
+        stage.screenToStageCoordinates(stageCoords.set(screenX, screenY));
+        LOG.trace("handleMiniMapClick: screen={},{} -> stage={},{}", screenX, screenY, stageCoords.x, stageCoords.y);
 
         return miniMapView.screenToWorld(stageCoords.x, stageCoords.y, worldPos);
     }
 
     /**
      * ===============================================================
-     *  Ajuste la taille du cadre décoratif lors d'un resize.
+     *  Ajuste le cadre décoratif et le viewport à la fenêtre, une
+     *  seule fois par changement de taille (resize).
      * ===============================================================
      */
-    private void updateFrameToWindow() {
+    private void applyWindowSize() {
 
         int width  = Gdx.graphics.getWidth();
         int height = Gdx.graphics.getHeight();
 
+        if (!windowDirty && width == windowWidth && height == windowHeight)
+            return;
+        windowDirty = false;
+        windowWidth = width;
+        windowHeight = height;
+
         // Taille et position du cadre
         frameImage.setPosition(0, 0);
         frameImage.setSize(width, height);
@@ -175,28 +221,43 @@ public class GameHUD {
 
     /**
      * ===============================================================
-     *  Met à jour la mini-carte avec le brouillard et le colon.
+     *  Branche les panneaux sur les événements du modèle : la
+     *  mini-carte et le panneau d'unité ne se mettent à jour que
+     *  lorsqu'un événement les concerne.
      * ===============================================================
      */
-    public void updateFog(boolean[][] explored, Unit unit) {
-        miniMapView.renderMiniMap(explored, unit);
+    public void subscribe(GameManager game, ExploredArea explored) {
+        miniMapView.subscribe(game.getEvents(), explored, game.getStore());
+        unitPanel.subscribe(game.getEvents());
+    }
+
+    /**
+     * Unité dont la mini-carte affiche le marqueur.
+     */
+    public void setTrackedUnit(Unit unit) {
+        miniMapView.track(unit);
     }
 
     /**
      * ===============================================================
      *  Dessine l’HUD (appelé à chaque frame).
+     *  Rien n'est redisposé ici : seuls un resize en attente et les
+     *  zones de mini-carte marquées par les événements sont traités.
+     *  Chronométré en deux phases du profileur : MINIMAP et STAGE.
      * ===============================================================
      */
-    public void render(float delta, SpriteBatch batch, Unit selectedUnit) {
+    public void render(float delta) {
 
-        updateFrameToWindow(); // Ajuster si fenêtre changée
-
-        if (selectedUnit == null) {
-            unitPanel.getTable().setVisible(false);
-        }
+        profiler.begin(FrameProfiler.MINIMAP);
+        miniMapView.flush();   // Zones marquées par les événements de la frame
+        profiler.end(FrameProfiler.MINIMAP);
 
+        profiler.begin(FrameProfiler.STAGE);
+        applyWindowSize();     // Sans effet si la fenêtre n'a pas changé
+        profilerOverlay.update(delta);
         stage.act(delta);      // Mise à jour logique
         stage.draw();          // Rendu de toute l’interface
+        profiler.end(FrameProfiler.STAGE);
     }
 
     /**
@@ -205,7 +266,7 @@ public class GameHUD {
      * ===============================================================
      */
     public void resize(int width, int height) {
-        updateFrameToWindow();
+        windowDirty = true;    // Appliqué à la prochaine frame (ou au prochain clic)
     }
 
     /**
@@ -217,27 +278,27 @@ public class GameHUD {
         if (unit != null) {
             unitPanel.updateInfo(unit);
         }
+        if (!visible) {
+            unitPanel.clear();     // L'unité peut avoir disparu (ville fondée)
+        }
 
-        unitPanel.getTable().setVisible(visible);
+        if (visible != unitPanelVisible) {
+            unitPanelVisible = visible;
+            unitPanel.getTable().setVisible(visible);
+        }
     }
 
-    /**
-     * ===============================================================
-     *  Forcer Scene2D à recalculer immédiatement tout le layout.
-     * ===============================================================
-     */
-    public void forceLayout() {
-        stage.act(0);
-        stage.draw();
-        root.validate();
+    public Stage getStage() {
+        return stage;
     }
 
-    public void updateLayout() {
-        root.validate();
+    public FrameProfiler getProfiler() {
+        return profiler;
     }
 
-    public Stage getStage() {
-        return stage;
+    /** Affiche / masque l'overlay de profilage (le profilage suit). */
+    public void toggleProfiler() {
+        profilerOverlay.toggle();
     }
 
     /**
@@ -246,7 +307,11 @@ public class GameHUD {
      * ===============================================================
      */
     public void dispose() {
+        profiler.setEnabled(false);
         stage.dispose();
-        frameTexture.dispose();
+        miniMapView.dispose();
+        resourcePanel.dispose();
+        unitPanel.dispose();
+        TextureRegistry.get().release(FRAME_TEXTURE);
     }
 }
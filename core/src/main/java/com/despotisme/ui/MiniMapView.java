@@ -1,14 +1,15 @@
 package com.despotisme.ui;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.Touchable;
@@ -20,25 +21,47 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.Scaling;
+import com.despotisme.entities.EntityStore;
 import com.despotisme.entities.Unit;
+import com.despotisme.events.CityFounded;
+import com.despotisme.events.EventBus;
+import com.despotisme.events.UnitMoved;
+import com.despotisme.events.VisibilityChanged;
+import com.despotisme.logging.Logger;
+import com.despotisme.map.ExploredArea;
+import com.despotisme.managers.TextureRegistry;
+
+import java.nio.ByteBuffer;
 
 /**
  * ============================================================================
  * MiniMapView
  * ----------------------------------------------------------------------------
  * Gère :
- *   - Le rendu de la mini-carte dans un FrameBuffer
- *   - Le tuilage tuiles -> pixels -> minimap
+ *   - Le raster de couleurs du terrain (une couleur moyenne par tuile,
+ *     calculée une seule fois au chargement)
  *   - Le brouillard de guerre en 3 couches (non exploré / exploré / visible)
- *   - Le marqueur du colon
+ *   - Le marqueur du colon et ceux des villes
  *   - La détection de clic dans la mini-carte (conversion stage -> world)
  *
+ * La mini-carte est une texture d'un texel par tuile. Elle écoute l'EventBus
+ * du modèle (UnitMoved de l'unité suivie, VisibilityChanged du joueur
+ * local, CityFounded) et
+ * n'accumule qu'un rectangle à redessiner ; flush() ne recalcule et
+ * n'envoie au GPU que ce rectangle, et ne fait rien tant que rien ne change.
+ *
  * La mini-carte est entièrement autonome et appelée via GameHUD.
  * ============================================================================
  */
 public class MiniMapView {
 
+    private static final Logger LOG = Logger.get(MiniMapView.class);
+
     // ============================================================================
     // === 1. Widgets UI de la mini-carte
     // ============================================================================
@@ -48,32 +71,52 @@ public class MiniMapView {
     private Image miniImage;           // Zone affichant la texture finale
 
     // ============================================================================
-    // === 2. Objets LibGDX nécessaires au rendu
-    // ============================================================================
-    private OrthogonalTiledMapRenderer mapRenderer;   // Rendu de la carte
-    private OrthographicCamera miniCamera;            // Caméra orthographique réduite
-    private FrameBuffer fbo;                          // Texture rendue dans un FBO
-    private final SpriteBatch miniBatch;              // Batch interne pour brouillard + colon
-
-    // ============================================================================
-    // === 3. Ressources minimap
+    // === 2. Raster de la mini-carte
     // ============================================================================
-    private Texture fogPixel;         // Texture 1×1 blanche pour dessiner le fog
-    private Texture settlerPixel;     // Texture du marqueur rouge du colon
+    private int[] terrainColors;       // Couleur RGBA8888 moyenne de chaque tuile (x + y * largeur)
+    private Pixmap raster;             // Copie CPU de la texture (ligne 0 = haut de la carte)
+    private Texture rasterTexture;     // Texture affichée (1 texel par tuile)
+    private ByteBuffer upload;         // Tampon réutilisé pour les envois partiels
+    private int tilesX;
+    private int tilesY;
+
+    // État suivi (mis à jour par les événements)
+    private ExploredArea explored;     // couches explorée / visible du joueur local
+    private int unitHandle = -1;       // unité suivie (marqueur), -1 = aucune
+    private int unitTileX;
+    private int unitTileY;
+    private final IntArray cityTiles = new IntArray(); // x + y * largeur
+
+    // Tampon réutilisé pour les conversions stage -> mini-carte
+    private final Vector2 localCoords = new Vector2();
+
+    // Rectangle à redessiner au prochain flush() (vide si x1 < x0)
+    private int dirtyX0, dirtyY0, dirtyX1 = -1, dirtyY1 = -1;
 
     // ============================================================================
-    // === 4. Informations sur la carte principale
+    // === 3. Informations sur la carte principale
     // ============================================================================
     private float mapWidth;
     private float mapHeight;
 
+    // Fond du panneau minimap
+    private static final String PANEL_TEXTURE = "ui/panel_minimap.png";
+
     // Taille affichée du panneau minimap
     private static final float PANEL_WIDTH  = 460f;
     private static final float PANEL_HEIGHT = 400f;
 
-    // Taille fixe du rendu interne (256x256)
+    // Taille d'affichage de la mini-carte (256x256)
     private static final int MINIMAP_SIZE = 256;
 
+    // Opacité du brouillard
+    private static final float FOG_UNEXPLORED = 0.95f;
+    private static final float FOG_EXPLORED = 0.55f;
+    private static final float FOG_VISIBLE = 0.20f;
+
+    // Pas d'échantillonnage des pixels pour la couleur moyenne d'une tuile
+    private static final int COLOR_SAMPLE_STEP = 4;
+
     /**
      * ============================================================================
      * Constructeur : crée l'interface visuelle du panneau mini-carte.
@@ -86,7 +129,7 @@ public class MiniMapView {
         // ---------------------------------------------------------
         // Fond du panneau
         // ---------------------------------------------------------
-        panelTexture = new Texture(Gdx.files.internal("ui/panel_minimap.png"));
+        panelTexture = TextureRegistry.get().acquire(PANEL_TEXTURE);
         panelImage = new Image(panelTexture);
         table.setBackground(panelImage.getDrawable());
 
@@ -105,22 +148,21 @@ public class MiniMapView {
         table.add(title).center().padBottom(8).row();
 
         // ---------------------------------------------------------
-        // Zone d'affichage de la mini-carte (texture FBO)
+        // Zone d'affichage de la mini-carte (raster du terrain)
         // ---------------------------------------------------------
         miniImage = new Image();
         miniImage.setTouchable(Touchable.enabled);
 
-        // Listener temporaire (debug)
+        // Listener de debug (niveau DEBUG : -Ddespotisme.log=DEBUG)
         miniImage.addListener(new ClickListener() {
             @Override
             public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
-                System.out.println("### miniImage.touchDown: local=" + x + "," + y +
-                        "  stage=" + event.getStageX() + "," + event.getStageY());
+                LOG.debug("miniImage.touchDown: local={},{} stage={},{}", x, y, event.getStageX(), event.getStageY());
                 return false;
             }
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                System.out.println("### miniImage.clicked: local=" + x + "," + y);
+                LOG.debug("miniImage.clicked: local={},{}", x, y);
             }
         });
 
@@ -132,50 +174,193 @@ public class MiniMapView {
              .row();
 
         table.setSize(PANEL_WIDTH, PANEL_HEIGHT);
-
-        // ---------------------------------------------------------
-        // Textures utilitaires
-        // ---------------------------------------------------------
-        // Fog pixel (blanc 1x1)
-        Pixmap pm = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
-        pm.setColor(1, 1, 1, 1);
-        pm.fill();
-        fogPixel = new Texture(pm);
-        pm.dispose();
-
-        // Pixel rouge (marqueur du colon)
-        Pixmap pm2 = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
-        pm2.setColor(1, 0, 0, 1);
-        pm2.fill();
-        settlerPixel = new Texture(pm2);
-        pm2.dispose();
-
-        miniBatch = new SpriteBatch();
     }
 
     /**
      * ============================================================================
      * Initialise les informations de la mini-carte.
-     * - renderer
-     * - caméra indépendante
-     * - FrameBuffer (texture finale)
+     * - raster des couleurs du terrain (calculé une fois)
+     * - texture de la mini-carte (1 texel par tuile)
      * ============================================================================
      */
     public void init(TiledMap map, Unit unit, float mapWidth, float mapHeight) {
-        this.mapRenderer = new OrthogonalTiledMapRenderer(map, 1f);
         this.mapWidth = mapWidth;
         this.mapHeight = mapHeight;
 
-        // Caméra centrée sur la carte
-        miniCamera = new OrthographicCamera();
-        miniCamera.position.set(mapWidth / 2f, mapHeight / 2f, 0);
-        miniCamera.update();
+        TiledMapTileLayer base = (TiledMapTileLayer) map.getLayers().get(0);
+        tilesX = base.getWidth();
+        tilesY = base.getHeight();
+        terrainColors = bakeTerrainColors(map, tilesX, tilesY);
 
-        // Création du FBO 256x256
-        if (fbo != null)
-            fbo.dispose();
+        if (rasterTexture != null) {
+            rasterTexture.dispose();
+            raster.dispose();
+        }
+        raster = new Pixmap(tilesX, tilesY, Pixmap.Format.RGBA8888);
+        rasterTexture = new Texture(raster);
+        rasterTexture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+
+        miniImage.setDrawable(new TextureRegionDrawable(new TextureRegion(rasterTexture)));
+        cityTiles.clear();
+        track(unit);
+        markDirty(0, 0, tilesX - 1, tilesY - 1);
+    }
 
-        fbo = new FrameBuffer(Pixmap.Format.RGBA8888, MINIMAP_SIZE, MINIMAP_SIZE, false);
+    /**
+     * ============================================================================
+     * Abonnement aux événements du modèle (une fois, après init()).
+     * Les villes déjà présentes (partie reprise) sont lues dans le store.
+     * ============================================================================
+     */
+    public void subscribe(EventBus events, ExploredArea exploredArea, EntityStore store) {
+        this.explored = exploredArea;
+        for (int slot = 0; slot < store.getCityCount(); slot++)
+            cityTiles.add(store.getCityTileX(slot) + store.getCityTileY(slot) * tilesX);
+        markDirty(0, 0, tilesX - 1, tilesY - 1);
+
+        events.subscribe(UnitMoved.TYPE, this::onUnitMoved);
+        events.subscribe(VisibilityChanged.TYPE, e -> {
+            if (e.player == explored.getPlayer())
+                markDirty(e.minX, e.minY, e.maxX, e.maxY);
+        });
+        events.subscribe(CityFounded.TYPE, this::onCityFounded);
+    }
+
+    /**
+     * Change l'unité suivie (marqueur), ou aucune si null.
+     */
+    public void track(Unit unit) {
+        markMarker();
+        unitHandle = unit == null ? -1 : unit.getHandle();
+        if (unit != null) {
+            unitTileX = unit.getTileX();
+            unitTileY = unit.getTileY();
+        }
+        markMarker();
+    }
+
+    private void onUnitMoved(UnitMoved e) {
+        if (e.handle != unitHandle)
+            return;
+        markMarker();
+        unitTileX = e.toX;
+        unitTileY = e.toY;
+        markMarker();
+    }
+
+    private void onCityFounded(CityFounded e) {
+        cityTiles.add(e.tileX + e.tileY * tilesX);
+        markDirty(e.tileX, e.tileY, e.tileX, e.tileY);
+    }
+
+    // Croix du marqueur de l'unité suivie
+    private void markMarker() {
+        if (unitHandle >= 0)
+            markDirty(unitTileX - 1, unitTileY - 1, unitTileX + 1, unitTileY + 1);
+    }
+
+    private void markDirty(int x0, int y0, int x1, int y1) {
+        x0 = Math.max(0, x0); y0 = Math.max(0, y0);
+        x1 = Math.min(tilesX - 1, x1); y1 = Math.min(tilesY - 1, y1);
+        if (x1 < x0 || y1 < y0)
+            return;
+        if (dirtyX1 < dirtyX0) {
+            dirtyX0 = x0; dirtyY0 = y0; dirtyX1 = x1; dirtyY1 = y1;
+            return;
+        }
+        dirtyX0 = Math.min(dirtyX0, x0);
+        dirtyY0 = Math.min(dirtyY0, y0);
+        dirtyX1 = Math.max(dirtyX1, x1);
+        dirtyY1 = Math.max(dirtyY1, y1);
+    }
+
+    /**
+     * ============================================================================
+     * Calcule la couleur moyenne de chaque tuile de la carte en composant les
+     * couches dans l'ordre d'affichage. Les pixels des tilesets sont relus une
+     * seule fois, puis libérés.
+     * ============================================================================
+     */
+    private static int[] bakeTerrainColors(TiledMap map, int width, int height) {
+        IntIntMap tileColors = new IntIntMap();               // id de tuile -> couleur moyenne
+        ObjectMap<Texture, Pixmap> pixmaps = new ObjectMap<>();
+        float[] r = new float[width * height];
+        float[] g = new float[width * height];
+        float[] b = new float[width * height];
+        Color c = new Color();
+
+        for (MapLayer mapLayer : map.getLayers()) {
+            if (!(mapLayer instanceof TiledMapTileLayer) || !mapLayer.isVisible())
+                continue;
+            TiledMapTileLayer layer = (TiledMapTileLayer) mapLayer;
+
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                    if (cell == null || cell.getTile() == null)
+                        continue;
+
+                    TiledMapTile tile = cell.getTile();
+                    int color = tileColors.get(tile.getId(), 0);
+                    if (color == 0) {
+                        color = averageColor(tile.getTextureRegion(), pixmaps);
+                        tileColors.put(tile.getId(), color);
+                    }
+
+                    // Composition "over" de la tuile sur les couches inférieures
+                    Color.rgba8888ToColor(c, color);
+                    float a = c.a * layer.getOpacity();
+                    int i = x + y * width;
+                    r[i] = c.r * a + r[i] * (1f - a);
+                    g[i] = c.g * a + g[i] * (1f - a);
+                    b[i] = c.b * a + b[i] * (1f - a);
+                }
+            }
+        }
+
+        for (Pixmap pm : pixmaps.values())
+            pm.dispose();
+
+        int[] colors = new int[width * height];
+        for (int i = 0; i < colors.length; i++)
+            colors[i] = Color.rgba8888(r[i], g[i], b[i], 1f);
+        return colors;
+    }
+
+    /**
+     * Couleur moyenne (pondérée par l'alpha) d'une région de texture.
+     * Ne retourne jamais 0, qui sert de valeur "non calculée".
+     */
+    private static int averageColor(TextureRegion region, ObjectMap<Texture, Pixmap> pixmaps) {
+        Pixmap pm = pixmaps.get(region.getTexture());
+        if (pm == null) {
+            TextureData data = region.getTexture().getTextureData();
+            if (!data.isPrepared())
+                data.prepare();
+            Pixmap consumed = data.consumePixmap();
+            // Copie si la TextureData garde la main sur sa Pixmap
+            pm = data.disposePixmap() ? consumed : new Pixmap(consumed.getWidth(), consumed.getHeight(), consumed.getFormat());
+            if (pm != consumed)
+                pm.drawPixmap(consumed, 0, 0);
+            pixmaps.put(region.getTexture(), pm);
+        }
+
+        float r = 0, g = 0, b = 0, a = 0;
+        int samples = 0;
+        Color c = new Color();
+        for (int y = 0; y < region.getRegionHeight(); y += COLOR_SAMPLE_STEP) {
+            for (int x = 0; x < region.getRegionWidth(); x += COLOR_SAMPLE_STEP) {
+                Color.rgba8888ToColor(c, pm.getPixel(region.getRegionX() + x, region.getRegionY() + y));
+                r += c.r * c.a;
+                g += c.g * c.a;
+                b += c.b * c.a;
+                a += c.a;
+                samples++;
+            }
+        }
+        if (a <= 0f)
+            return Color.rgba8888(0f, 0f, 0f, 0f) | 1;
+        return Color.rgba8888(r / a, g / a, b / a, a / samples) | 1;
     }
 
     /**
@@ -185,20 +370,13 @@ public class MiniMapView {
      */
     public boolean screenToWorld(float stageX, float stageY, float[] outPos) {
 
-        System.out.println("screenToWorld() STAGE=" + stageX + "," + stageY);
-
         // Stage -> miniImage (local)
-        Vector2 local = new Vector2(stageX, stageY);
-        miniImage.stageToLocalCoordinates(local);
-
-        System.out.println("  -> local=" + local.x + "," + local.y +
-                "  miniImage size=" + miniImage.getWidth() + "x" + miniImage.getHeight());
+        Vector2 local = miniImage.stageToLocalCoordinates(localCoords.set(stageX, stageY));
 
         // Hors de la mini-carte ?
         if (local.x < 0 || local.y < 0 ||
             local.x > miniImage.getWidth() ||
             local.y > miniImage.getHeight()) {
-            System.out.println(" --> MISS minimap");
             return false;
         }
 
@@ -210,115 +388,107 @@ public class MiniMapView {
         outPos[0] = nx * mapWidth;
         outPos[1] = ny * mapHeight;
 
-        System.out.println(" --> HIT minimap! nx=" + nx + " ny=" + ny +
-                "   world=" + outPos[0] + "," + outPos[1]);
+        LOG.trace("screenToWorld: stage={},{} -> world={},{}", stageX, stageY, outPos[0], outPos[1]);
 
         return true;
     }
 
     /**
      * ============================================================================
-     * Rendu complet de la mini-carte :
-     *   1. Rendu de la carte dans le FBO
-     *   2. Rendu du brouillard de guerre
-     *   3. Rendu du marqueur du colon
-     *   4. Affectation du FBO → miniImage
+     * Mise à jour de la mini-carte (une fois par frame, après les événements) :
+     *   1. Ne fait rien si aucun événement n'a marqué de zone
+     *   2. Recalcule les texels du rectangle marqué (terrain + brouillard),
+     *      puis les marqueurs des villes et de l'unité suivie
+     *   3. Envoie uniquement ce rectangle au GPU
      * ============================================================================
      */
-    public void renderMiniMap(boolean[][] explored, Unit unit) {
+    public void flush() {
 
-        if (mapRenderer == null || fbo == null || explored == null || unit == null)
+        if (rasterTexture == null || explored == null || dirtyX1 < dirtyX0)
             return;
 
-        // -------------------------------
-        // Étape 1 — rendre dans le FBO
-        // -------------------------------
-        fbo.begin();
-        Gdx.gl.glViewport(0, 0, MINIMAP_SIZE, MINIMAP_SIZE);
-        Gdx.gl.glClearColor(0, 0, 0, 0);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-
-        // Calcul du viewport de la mini-caméra selon ratio carte→FBO
-        float mapAspect = mapWidth / mapHeight;
-        float fboAspect = 1f; // carré
-
-        if (fboAspect > mapAspect) {
-            miniCamera.viewportHeight = mapHeight;
-            miniCamera.viewportWidth = mapHeight * fboAspect;
-        } else {
-            miniCamera.viewportWidth = mapWidth;
-            miniCamera.viewportHeight = mapWidth / fboAspect;
-        }
-
-        miniCamera.position.set(mapWidth / 2f, mapHeight / 2f, 0);
-        miniCamera.update();
-
-        mapRenderer.setView(miniCamera);
-        mapRenderer.render();
+        int x0 = dirtyX0, y0 = dirtyY0, x1 = dirtyX1, y1 = dirtyY1;
 
         // -------------------------------
-        // Étape 2 — brouillard de guerre
+        // Étape 1 — terrain + brouillard
         // -------------------------------
-        miniBatch.setProjectionMatrix(
-                miniBatch.getProjectionMatrix().idt().setToOrtho2D(0, 0, MINIMAP_SIZE, MINIMAP_SIZE));
-        miniBatch.begin();
-
-        int mapTilesX = explored.length;
-        int mapTilesY = explored[0].length;
-
-        float tileW = (float) MINIMAP_SIZE / mapTilesX;
-        float tileH = (float) MINIMAP_SIZE / mapTilesY;
-
-        int unitTileX = (int) (unit.getX() / 32f);
-        int unitTileY = (int) (unit.getY() / 32f);
-
-        int radius = 5;
-
-        for (int x = 0; x < mapTilesX; x++) {
-            for (int y = 0; y < mapTilesY; y++) {
-
-                boolean visible =
-                        (x - unitTileX) * (x - unitTileX) +
-                        (y - unitTileY) * (y - unitTileY)
-                        <= radius * radius;
-
-                if (!explored[x][y])
-                    miniBatch.setColor(0f, 0f, 0f, 0.95f); // Jamais vu
-                else if (!visible)
-                    miniBatch.setColor(0f, 0f, 0f, 0.55f); // Vu mais pas visible
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                float fog;
+                if (!explored.isExplored(x, y))
+                    fog = FOG_UNEXPLORED;  // Jamais vu
+                else if (!explored.isVisible(x, y))
+                    fog = FOG_EXPLORED;    // Vu mais pas visible
                 else
-                    miniBatch.setColor(0f, 0f, 0f, 0.20f); // Actuellement visible
+                    fog = FOG_VISIBLE;     // Actuellement visible
 
-                miniBatch.draw(fogPixel, x * tileW, y * tileH, tileW, tileH);
+                raster.drawPixel(x, tilesY - 1 - y, darken(terrainColors[x + y * tilesX], 1f - fog));
             }
         }
 
         // -------------------------------
-        // Étape 3 — marqueur du colon
+        // Étape 2 — villes (texel doré) puis unité suivie (croix de 5 texels)
         // -------------------------------
-        float mx = unitTileX * tileW;
-        float my = unitTileY * tileH;
-
-        miniBatch.setColor(1f, 0.2f, 0.2f, 1f);
-        miniBatch.draw(settlerPixel,
-                mx - tileW * 0.5f,
-                my - tileH * 0.5f,
-                tileW * 1.5f,
-                tileH * 1.5f);
-
-        miniBatch.setColor(1, 1, 1, 1);
-        miniBatch.end();
+        int city = Color.rgba8888(1f, 0.84f, 0f, 1f);
+        for (int i = 0; i < cityTiles.size; i++) {
+            int cx = cityTiles.get(i) % tilesX;
+            int cy = cityTiles.get(i) / tilesX;
+            if (cx >= x0 && cx <= x1 && cy >= y0 && cy <= y1)
+                drawMarker(cx, cy, city);
+        }
 
-        fbo.end();
+        if (unitHandle >= 0) {
+            int marker = Color.rgba8888(1f, 0.2f, 0.2f, 1f);
+            drawMarker(unitTileX, unitTileY, marker);
+            drawMarker(unitTileX - 1, unitTileY, marker);
+            drawMarker(unitTileX + 1, unitTileY, marker);
+            drawMarker(unitTileX, unitTileY - 1, marker);
+            drawMarker(unitTileX, unitTileY + 1, marker);
+        }
 
         // -------------------------------
-        // Étape 4 — appliquer texture FBO à miniImage
+        // Étape 3 — envoi du rectangle modifié
         // -------------------------------
-        Texture tex = fbo.getColorBufferTexture();
-        TextureRegion region = new TextureRegion(tex, 0, 0, MINIMAP_SIZE, MINIMAP_SIZE);
-        region.flip(false, true);
+        uploadRegion(x0, y0, x1, y1);
+        dirtyX0 = 0; dirtyY0 = 0; dirtyX1 = -1; dirtyY1 = -1;
+    }
+
+    private void drawMarker(int x, int y, int color) {
+        if (x >= 0 && y >= 0 && x < tilesX && y < tilesY)
+            raster.drawPixel(x, tilesY - 1 - y, color);
+    }
+
+    private static int darken(int rgba, float factor) {
+        int r = (int) (((rgba >>> 24) & 0xff) * factor);
+        int g = (int) (((rgba >>> 16) & 0xff) * factor);
+        int b = (int) (((rgba >>> 8) & 0xff) * factor);
+        return (r << 24) | (g << 16) | (b << 8) | 0xff;
+    }
+
+    /**
+     * Envoie au GPU le rectangle de tuiles [x0..x1] x [y0..y1].
+     */
+    private void uploadRegion(int x0, int y0, int x1, int y1) {
+        int w = x1 - x0 + 1;
+        int h = y1 - y0 + 1;
+        int rowBytes = w * 4;
+
+        if (upload == null || upload.capacity() < rowBytes * h)
+            upload = BufferUtils.newByteBuffer(rowBytes * h);
+        upload.clear();
+
+        ByteBuffer pixels = raster.getPixels();
+        int topRow = tilesY - 1 - y1;
+        for (int row = 0; row < h; row++) {
+            int from = ((topRow + row) * tilesX + x0) * 4;
+            for (int i = 0; i < rowBytes; i++)
+                upload.put(pixels.get(from + i));
+        }
+        upload.flip();
 
-        miniImage.setDrawable(new TextureRegionDrawable(region));
+        rasterTexture.bind();
+        Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, x0, topRow, w, h,
+                GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE, upload);
     }
 
     /**
@@ -332,9 +502,8 @@ public class MiniMapView {
      * Libération des ressources internes.
      */
     public void dispose() {
-        if (panelTexture != null) panelTexture.dispose();
-        if (fogPixel != null) fogPixel.dispose();
-        if (fbo != null) fbo.dispose();
-        miniBatch.dispose();
+        if (panelTexture != null) TextureRegistry.get().release(PANEL_TEXTURE);
+        if (rasterTexture != null) rasterTexture.dispose();
+        if (raster != null) raster.dispose();
     }
 }
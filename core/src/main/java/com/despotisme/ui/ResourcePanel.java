@@ -9,9 +9,12 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.despotisme.managers.TextureRegistry;
 
 public class ResourcePanel {
     private final Table table;
+    private final Array<String> texturePaths = new Array<>(); // released in dispose()
 
     private static final float PANEL_WIDTH = 420f;
     private static final float PANEL_HEIGHT = 300f;
@@ -19,7 +22,7 @@ public class ResourcePanel {
     public ResourcePanel(Skin skin) {
         table = new Table(skin);
         table.setBackground(new NinePatchDrawable(
-                new NinePatch(new Texture("ui/panel_resources.png"), 24, 24, 24, 24)));
+                new NinePatch(acquire("ui/panel_resources.png"), 24, 24, 24, 24)));
         table.align(Align.top);
         table.defaults().pad(10).center();
 
@@ -38,7 +41,7 @@ public class ResourcePanel {
     }
 
     private void addResourceRow(String iconPath, String value, Skin skin) {
-        Image icon = new Image(new Texture(iconPath));
+        Image icon = new Image(acquire(iconPath));
         Label label = new Label(value, skin);
         label.setColor(Color.WHITE);
 
@@ -49,7 +52,18 @@ public class ResourcePanel {
         table.add(row).center().row();
     }
 
+    private Texture acquire(String path) {
+        texturePaths.add(path);
+        return TextureRegistry.get().acquire(path);
+    }
+
     public Table getTable() {
         return table;
     }
+
+    public void dispose() {
+        for (String path : texturePaths)
+            TextureRegistry.get().release(path);
+        texturePaths.clear();
+    }
 }
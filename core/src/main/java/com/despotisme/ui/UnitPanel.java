@@ -9,22 +9,37 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.utils.Align;
+import com.despotisme.constants.UnitsConstants;
 import com.despotisme.entities.Unit;
+import com.despotisme.events.EventBus;
+import com.despotisme.events.TurnEnded;
+import com.despotisme.events.UnitMoved;
+import com.despotisme.managers.TextureRegistry;
 
 public class UnitPanel {
 
     private final Table table;
     private final Label typeLabel;
     private final Label positionLabel;
+    private final Label movesLabel;
     private final Image icon;
 
+    private Unit shown;     // unité affichée, rafraîchie par les événements
+
+    // Valeurs affichées : les textes ne sont refaits (et le layout
+    // invalidé) que si elles changent
+    private int shownX = Integer.MIN_VALUE, shownY, shownMoves = -1, shownMaxMoves;
+    private final StringBuilder text = new StringBuilder(32);  // tampon des libellés (aucune allocation)
+
+    private static final String PANEL_TEXTURE = "ui/panel_unit.png";
+
     private static final float PANEL_WIDTH = 420f;
     private static final float PANEL_HEIGHT = 300f;
 
     public UnitPanel(Skin skin) {
         table = new Table(skin);
         table.setBackground(new NinePatchDrawable(
-                new NinePatch(new Texture("ui/panel_unit.png"), 24, 24, 24, 24)));
+                new NinePatch(TextureRegistry.get().acquire(PANEL_TEXTURE), 24, 24, 24, 24)));
         table.align(Align.top);
         table.defaults().pad(10).center();
 
@@ -32,16 +47,19 @@ public class UnitPanel {
         title.setEllipsis(true);
         table.add(title).center().padBottom(10).row();
 
-        icon = new Image(new Texture("characters/settler/settler_standing_front.png"));
+        icon = new Image(TextureRegistry.get().acquire(UnitsConstants.SETTLER_FRONT_TEXTURE));
         table.add(icon).size(64, 64).padBottom(10).center().row();
 
         typeLabel = new Label("Colon", skin);
         typeLabel.setColor(Color.WHITE);
         positionLabel = new Label("(0, 0)", skin);
         positionLabel.setColor(Color.LIGHT_GRAY);
+        movesLabel = new Label("", skin);
+        movesLabel.setColor(Color.LIGHT_GRAY);
 
         table.add(typeLabel).center().padBottom(6).row();
         table.add(positionLabel).center().padBottom(6).row();
+        table.add(movesLabel).center().padBottom(6).row();
 
         table.setSize(PANEL_WIDTH, PANEL_HEIGHT);
         table.setWidth(PANEL_WIDTH);
@@ -49,12 +67,53 @@ public class UnitPanel {
 
     }
 
+    // Rafraîchi seulement quand l'unité affichée bouge ou qu'un tour se termine
+    // (une unité retirée du store, colon devenu ville, n'est plus lue)
+    public void subscribe(EventBus events) {
+        events.subscribe(UnitMoved.TYPE, e -> {
+            if (shown != null && shown.isAlive() && e.handle == shown.getHandle())
+                updateInfo(shown);
+        });
+        events.subscribe(TurnEnded.TYPE, e -> {
+            if (shown != null && shown.isAlive())
+                updateInfo(shown);
+        });
+    }
+
+    /** Plus aucune unité affichée : les événements ne rafraîchissent plus rien. */
+    public void clear() {
+        shown = null;
+    }
+
     public void updateInfo(Unit unit) {
+        shown = unit;
         typeLabel.setText(unit.getName());
-        positionLabel.setText("Pos: (" + (int) unit.getX() + ", " + (int) unit.getY() + ")");
+
+        int x = (int) unit.getX();
+        int y = (int) unit.getY();
+        if (x != shownX || y != shownY) {
+            shownX = x;
+            shownY = y;
+            text.setLength(0);
+            text.append("Pos: (").append(x).append(", ").append(y).append(')');
+            positionLabel.setText(text);
+        }
+
+        if (unit.getMoves() != shownMoves || unit.getMaxMoves() != shownMaxMoves) {
+            shownMoves = unit.getMoves();
+            shownMaxMoves = unit.getMaxMoves();
+            text.setLength(0);
+            text.append("Mouvements: ").append(shownMoves).append(" / ").append(shownMaxMoves);
+            movesLabel.setText(text);
+        }
     }
 
     public Table getTable() {
         return table;
     }
+
+    public void dispose() {
+        TextureRegistry.get().release(PANEL_TEXTURE);
+        TextureRegistry.get().release(UnitsConstants.SETTLER_FRONT_TEXTURE);
+    }
 }
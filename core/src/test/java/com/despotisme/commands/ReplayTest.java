@@ -0,0 +1,129 @@
+package com.despotisme.commands;
+
+import com.despotisme.entities.UnitType;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.net.StateHash;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplayTest {
+
+    private static final int TURNS = 35;
+
+    @TempDir
+    Path dir;
+
+    private final TerrainGrid terrain = openTerrain(32, 32);
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdown();
+    }
+
+    // joue une partie enregistrée : apparitions, ordres, déplacements et fondations ; renvoie la partie finale
+    private GameManager record(Path journal) throws IOException {
+        GameManager game = new GameManager(pool);
+        game.setTerrain(terrain);
+        CommandProcessor commands = new CommandProcessor(game);
+        commands.record(new CommandJournal(journal, "maps/test.dmap"));
+
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 12; i++)
+            commands.execute(new SpawnUnitCommand(UnitType.SETTLER, random.nextInt(32), random.nextInt(32)));
+        for (int turn = 0; turn < TURNS; turn++) {
+            int units = game.getStore().getUnitCount();
+            for (int slot = 0; slot < units; slot++) {
+                if (random.nextInt(4) == 0)
+                    commands.execute(new GotoCommand(slot, random.nextInt(32), random.nextInt(32)));
+            }
+            if (turn % 7 == 3 && units > 0)
+                commands.execute(new FoundCityCommand(random.nextInt(units), "C" + turn));
+            commands.execute(EndTurnCommand.INSTANCE);
+        }
+        commands.close();
+        assertEquals(null, commands.getLastError());
+        return game;
+    }
+
+    @Test
+    void replayMatchesEveryKeyframe() throws IOException {
+        Path journal = dir.resolve("game" + CommandJournal.EXTENSION);
+        GameManager played = record(journal);
+
+        Replay replay = new Replay(JournalReader.open(journal), terrain, pool);
+
+        assertEquals(-1, replay.verify());
+        assertEquals(0, replay.getRejected());
+        assertEquals(StateHash.of(played), StateHash.of(replay.getGame()));
+    }
+
+    @Test
+    void seekRebuildsAnyTurn() throws IOException {
+        Path journal = dir.resolve("game" + CommandJournal.EXTENSION);
+        GameManager played = record(journal);
+
+        Replay replay = new Replay(JournalReader.open(journal), terrain, pool);
+        GameManager turn20 = replay.seek(20);
+        assertEquals(20, turn20.getTurnCount());
+
+        replay.runToEnd();
+        assertEquals(StateHash.of(played), StateHash.of(replay.getGame()));
+    }
+
+    @Test
+    void tamperedJournalIsCaughtAtTheNextKeyframe() throws IOException {
+        Path journal = dir.resolve("game" + CommandJournal.EXTENSION);
+        record(journal);
+
+        // rejouée sur un terrain avec un mur : les ordres mènent ailleurs, les keyframes divergent
+        TerrainGrid changed = openTerrain(32, 32);
+        wall(changed, 16, 0, 30);
+        Replay replay = new Replay(JournalReader.open(journal), changed, pool);
+
+        int turn = replay.verify();
+        assertEquals(0, turn % CommandProcessor.KEYFRAME_INTERVAL);
+    }
+
+    @Test
+    void cutLastRecordIsIgnored() throws IOException {
+        Path journal = dir.resolve("game" + CommandJournal.EXTENSION);
+        record(journal);
+        byte[] bytes = Files.readAllBytes(journal);
+
+        // partie tuée pendant l'écriture : la dernière fin de tour est perdue
+        JournalReader reader = new JournalReader(ByteBuffer.wrap(bytes, 0, bytes.length - 1).slice());
+        assertEquals(TURNS, reader.getLastTurn());
+
+        Replay replay = new Replay(reader, terrain, pool);
+        assertEquals(TURNS, replay.seek(TURNS).getTurnCount());
+    }
+
+    // terrain ouvert : toutes les cases praticables, coût 1, 2 de nourriture et 1 de production
+    private static TerrainGrid openTerrain(int width, int height) {
+        TerrainGrid terrain = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                terrain.set(x, y, true, false, 1, 2, 1, 0);
+        }
+        return terrain;
+    }
+
+    // colonne impraticable qui bloque la vue en x, de y0 à y1 inclus
+    private static void wall(TerrainGrid terrain, int x, int y0, int y1) {
+        for (int y = y0; y <= y1; y++)
+            terrain.set(x, y, false, true, 1, 0, 0, 0);
+    }
+}
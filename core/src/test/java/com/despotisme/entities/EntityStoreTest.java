@@ -0,0 +1,119 @@
+package com.despotisme.entities;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityStoreTest {
+
+    private final EntityStore store = new EntityStore();
+
+    @Test
+    void removingAUnitMovesTheLastOneIntoItsSlot() {
+        int a = store.createUnit(UnitType.SETTLER, 1, 1);
+        int b = store.createUnit(UnitType.SETTLER, 2, 2);
+        int c = store.createUnit(UnitType.SETTLER, 3, 3);
+        store.setUnitOwner(store.unitSlot(c), 5);
+
+        store.removeUnit(a);
+
+        assertEquals(2, store.getUnitCount());
+        assertFalse(store.isUnitAlive(a));
+        int slot = store.unitSlot(c);
+        assertEquals(0, slot);
+        assertEquals(c, store.unitHandleAt(slot));
+        assertEquals(3, store.getUnitTileX(slot));
+        assertEquals(3, store.getUnitTileY(slot));
+        assertEquals(5, store.getUnitOwner(slot));
+        assertEquals(1, store.unitSlot(b));
+        assertEquals(2, store.getUnitTileX(store.unitSlot(b)));
+    }
+
+    @Test
+    void removingTheLastUnitMovesNothing() {
+        int a = store.createUnit(UnitType.SETTLER, 1, 1);
+        int b = store.createUnit(UnitType.SETTLER, 2, 2);
+
+        store.removeUnit(b);
+
+        assertEquals(1, store.getUnitCount());
+        assertEquals(0, store.unitSlot(a));
+        assertEquals(1, store.getUnitTileX(0));
+    }
+
+    @Test
+    void aRemovedHandleStaysDeadWhenItsIndexIsReused() {
+        int old = store.createUnit(UnitType.SETTLER, 1, 1);
+        store.removeUnit(old);
+        int reused = store.createUnit(UnitType.SETTLER, 4, 4);
+
+        assertNotEquals(old, reused);
+        assertFalse(store.isUnitAlive(old));
+        assertTrue(store.isUnitAlive(reused));
+    }
+
+    @Test
+    void handlesStayUniqueOverManyRecycles() {
+        Set<Integer> seen = new HashSet<>();
+        // au-delà des générations : un index épuisé est retiré, jamais recyclé
+        for (int i = 0; i <= HandleTable.MAX_GENERATION + 10; i++) {
+            int handle = store.createUnit(UnitType.SETTLER, 0, 0);
+            assertTrue(seen.add(handle), "handle " + handle + " given twice");
+            store.removeUnit(handle);
+        }
+    }
+
+    @Test
+    void spatialIndexFollowsMovesAndRemovals() {
+        int a = store.createUnit(UnitType.SETTLER, 1, 1);
+        store.setUnitTile(store.unitSlot(a), 6, 7);
+
+        assertEquals(a, store.getUnitIndex().nearest(6, 7, 0));
+        assertEquals(-1, store.getUnitIndex().nearest(1, 1, 0));
+
+        store.removeUnit(a);
+        assertEquals(-1, store.getUnitIndex().nearest(6, 7, 0));
+    }
+
+    @Test
+    void sizingTheIndexOnTheMapKeepsTheIndexedEntities() {
+        // 1000 cases de large : au-delà de la table par défaut, dont les seaux se replieraient
+        int a = store.createUnit(UnitType.SETTLER, 3, 3);
+        int b = store.createUnit(UnitType.SETTLER, 3 + 512, 3);
+        store.setMapSize(1000, 600);
+        int c = store.createUnit(UnitType.SETTLER, 999, 599);
+
+        IntArray found = new IntArray();
+        assertEquals(1, store.getUnitIndex().at(3, 3, found));
+        assertEquals(a, found.first());
+        assertEquals(b, store.getUnitIndex().nearest(3 + 512, 3, 0));
+        assertEquals(c, store.getUnitIndex().nearest(999, 599, 0));
+        assertEquals(3, store.getUnitIndex().inRect(-8, -8, 1007, 607, found));
+
+        store.setUnitTile(store.unitSlot(b), 3, 4);
+        assertEquals(2, store.getUnitIndex().inRect(0, 0, 7, 7, found));
+    }
+
+    @Test
+    void removingACityMovesTheLastOneIntoItsSlot() {
+        int rome = store.createCity("Rome", 1, 1);
+        int paris = store.createCity("Paris", 10, 10);
+        store.setCityOwner(store.citySlot(paris), 2);
+
+        store.removeCity(rome);
+
+        assertFalse(store.isCityAlive(rome));
+        assertEquals(1, store.getCityCount());
+        assertEquals(0, store.citySlot(paris));
+        assertEquals("Paris", store.getCityName(0));
+        assertEquals(2, store.getCityOwner(0));
+    }
+}
@@ -0,0 +1,114 @@
+package com.despotisme.managers;
+
+import com.despotisme.map.TerrainGrid;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlowFieldCacheTest {
+
+    private final TerrainGrid terrain = openTerrain(16, 16);
+
+    @Test
+    void fieldLeadsToItsGoal() {
+        FlowField field = new FlowFieldCache(terrain, 2).get(8, 8);
+
+        assertEquals(0, field.getCost(8, 8));
+        assertEquals(-1, field.nextTile(8, 8));
+        assertEquals(4, field.getCost(8, 4));
+
+        int tile = terrain.index(0, 0);
+        int steps = 0;
+        while (field.nextTile(tile) >= 0) {
+            tile = field.nextTile(tile);
+            steps++;
+        }
+        assertEquals(terrain.index(8, 8), tile);
+        assertEquals(16, steps);
+    }
+
+    @Test
+    void sameGoalReusesTheField() {
+        FlowFieldCache cache = new FlowFieldCache(terrain, 2);
+        FlowField first = cache.get(3, 4);
+        cache.get(10, 10);
+
+        assertSame(first, cache.get(3, 4));
+    }
+
+    @Test
+    void leastRecentlyUsedFieldIsRecomputedWhenFull() {
+        FlowFieldCache cache = new FlowFieldCache(terrain, 2);
+        FlowField a = cache.get(1, 1);
+        FlowField b = cache.get(2, 2);
+        cache.get(1, 1);                       // b est maintenant le plus ancien
+
+        FlowField c = cache.get(3, 3);
+
+        assertSame(b, c);
+        assertTrue(c.isValidFor(3, 3));
+        assertTrue(a.isValidFor(1, 1));
+        assertSame(a, cache.get(1, 1));
+    }
+
+    @Test
+    void terrainChangeInvalidatesTheField() {
+        FlowFieldCache cache = new FlowFieldCache(terrain, 2);
+        FlowField field = cache.get(5, 5);
+        assertEquals(2, field.getCost(5, 3));
+
+        wall(terrain, 5, 4, 4);
+        assertFalse(field.isValidFor(5, 5));
+
+        FlowField recomputed = cache.get(5, 5);
+        assertEquals(4, recomputed.getCost(5, 3));
+    }
+
+    @Test
+    void goalSetsAreComparedTileByTile() {
+        FlowFieldCache cache = new FlowFieldCache(terrain, 4);
+        int[] goals = {terrain.index(1, 1), terrain.index(14, 14)};
+        int[] others = {terrain.index(1, 14), terrain.index(14, 1)};
+
+        FlowField field = cache.get(goals, 2);
+        FlowField other = cache.get(others, 2);
+
+        assertNotSame(field, other);
+        assertSame(field, cache.get(goals, 2));
+        assertEquals(0, other.getCost(1, 14));
+        assertEquals(0, field.getCost(14, 14));
+    }
+
+    @Test
+    void singleGoalAndOneTileSetDoNotMix() {
+        FlowFieldCache cache = new FlowFieldCache(terrain, 4);
+        FlowField single = cache.get(6, 6);
+        int[] pair = {terrain.index(6, 6), terrain.index(0, 0)};
+
+        FlowField set = cache.get(pair, 2);
+
+        assertNotSame(single, set);
+        assertEquals(0, set.getCost(0, 0));
+    }
+
+    // terrain ouvert : toutes les cases praticables, coût 1, 2 de nourriture et 1 de production
+    private static TerrainGrid openTerrain(int width, int height) {
+        TerrainGrid terrain = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                terrain.set(x, y, true, false, 1, 2, 1, 0);
+        }
+        return terrain;
+    }
+
+    // colonne impraticable qui bloque la vue en x, de y0 à y1 inclus
+    private static void wall(TerrainGrid terrain, int x, int y0, int y1) {
+        for (int y = y0; y <= y1; y++)
+            terrain.set(x, y, false, true, 1, 0, 0, 0);
+    }
+}
@@ -0,0 +1,206 @@
+package com.despotisme.managers;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.City;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.Settler;
+import com.despotisme.entities.Unit;
+import com.despotisme.entities.UnitType;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.net.StateHash;
+import com.despotisme.turn.BarbarianPhase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameManagerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdown();
+    }
+
+    private static GameManager game(ForkJoinPool pool) {
+        GameManager game = new GameManager(pool);
+        game.setTerrain(openTerrain(32, 32));
+        return game;
+    }
+
+    private static Unit settler(GameManager game, int tileX, int tileY) {
+        return game.createUnit(UnitType.SETTLER.key, tileX * MapConstants.TILE_SIZE, tileY * MapConstants.TILE_SIZE);
+    }
+
+    @Test
+    void endTurnCountsTheTurnAndRestoresMoves() {
+        GameManager game = game(pool);
+        Unit unit = settler(game, 1, 1);
+        EntityStore store = game.getStore();
+        store.spendUnitMoves(store.unitSlot(unit.getHandle()), 2);
+        int first = game.getTurnCount();
+
+        game.endTurn();
+
+        assertEquals(first + 1, game.getTurnCount());
+        assertEquals(UnitType.SETTLER.moves, store.getUnitMoves(store.unitSlot(unit.getHandle())));
+    }
+
+    @Test
+    void gotoWalksTurnAfterTurnUntilArrival() {
+        GameManager game = game(pool);
+        Unit unit = settler(game, 0, 0);
+        EntityStore store = game.getStore();
+
+        assertTrue(game.orderMove(unit, 10, 0));
+        // marche tout de suite avec les mouvements de ce tour
+        assertEquals(UnitType.SETTLER.moves, unit.getTileX());
+
+        for (int turn = 0; turn < 5 && store.hasUnitDestination(store.unitSlot(unit.getHandle())); turn++)
+            game.endTurn();
+
+        int slot = store.unitSlot(unit.getHandle());
+        assertEquals(10, unit.getTileX());
+        assertEquals(0, unit.getTileY());
+        assertFalse(store.hasUnitDestination(slot));
+    }
+
+    @Test
+    void gotoToAnUnreachableTileIsRefused() {
+        GameManager game = new GameManager(pool);
+        TerrainGrid terrain = openTerrain(16, 16);
+        wall(terrain, 8, 0, 15);
+        game.setTerrain(terrain);
+        Unit unit = settler(game, 0, 0);
+
+        assertFalse(game.orderMove(unit, 12, 3));
+        assertFalse(game.getStore().hasUnitDestination(game.getStore().unitSlot(unit.getHandle())));
+        assertEquals(0, unit.getTileX());
+    }
+
+    @Test
+    void foundingACityRemovesTheSettlerAndKeepsItsOwner() {
+        GameManager game = game(pool);
+        Unit unit = settler(game, 5, 5);
+        EntityStore store = game.getStore();
+        store.setUnitOwner(store.unitSlot(unit.getHandle()), 3);
+
+        City city = game.foundCity("Lutèce", (Settler) unit);
+
+        assertNotNull(city);
+        assertFalse(unit.isAlive());
+        assertEquals(0, store.getUnitCount());
+        int slot = store.citySlot(city.getHandle());
+        assertEquals(3, store.getCityOwner(slot));
+        assertEquals(5, store.getCityTileX(slot));
+        assertEquals("Lutèce", store.getCityName(slot));
+    }
+
+    @Test
+    void citiesKeepTheirDistance() {
+        GameManager game = game(pool);
+        assertNotNull(game.foundCity("A", (Settler) settler(game, 5, 5)));
+
+        Unit tooClose = settler(game, 5 + MapConstants.MIN_CITY_DISTANCE - 1, 5);
+        assertNull(game.foundCity("B", (Settler) tooClose));
+        assertTrue(tooClose.isAlive());
+
+        assertTrue(game.canFoundCity(5 + MapConstants.MIN_CITY_DISTANCE, 5));
+    }
+
+    @Test
+    void citiesGrowAndProduceOverTurns() {
+        GameManager game = game(pool);
+        City city = game.foundCity("A", (Settler) settler(game, 10, 10));
+        EntityStore store = game.getStore();
+        store.setCityBuild(store.citySlot(city.getHandle()), UnitType.SETTLER);
+
+        for (int turn = 0; turn < 50; turn++)
+            game.endTurn();
+
+        int slot = store.citySlot(city.getHandle());
+        assertTrue(store.getCityPopulation(slot) > 1, "population " + store.getCityPopulation(slot));
+        assertTrue(store.getUnitCount() > 0, "no unit produced");
+    }
+
+    @Test
+    void barbariansMarchOnTheNearestCity() {
+        GameManager game = game(pool);
+        City city = game.foundCity("A", (Settler) settler(game, 20, 20));
+        Unit near = barbarian(game, 10, 20);
+        Unit far = barbarian(game, 20, 20 - BarbarianPhase.SIGHT - 1);
+
+        game.endTurn();
+        assertTrue(near.getTileX() > 10, "x " + near.getTileX());
+
+        for (int turn = 0; turn < 5; turn++)
+            game.endTurn();
+        assertEquals(city.getTileX(), near.getTileX());
+        assertEquals(city.getTileY(), near.getTileY());
+        // trop loin pour voir la ville
+        assertEquals(20 - BarbarianPhase.SIGHT - 1, far.getTileY());
+    }
+
+    @Test
+    void turnsGiveTheSameStateWhateverTheThreadCount() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            GameManager a = populated(single);
+            GameManager b = populated(pool);
+            for (int turn = 0; turn < 30; turn++) {
+                a.endTurn();
+                b.endTurn();
+                assertEquals(StateHash.of(a), StateHash.of(b), "turn " + a.getTurnCount());
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    // colons sur des cases au hasard avec des ordres de déplacement au hasard, quelques villes, des barbares
+    private static GameManager populated(ForkJoinPool pool) {
+        GameManager game = game(pool);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 200; i++) {
+            Unit unit = settler(game, random.nextInt(32), random.nextInt(32));
+            if (i % 40 == 0)
+                game.foundCity("C" + i, (Settler) unit);
+            else
+                game.orderMove(unit, random.nextInt(32), random.nextInt(32));
+        }
+        for (int i = 0; i < 100; i++)
+            barbarian(game, random.nextInt(32), random.nextInt(32));
+        return game;
+    }
+
+    private static Unit barbarian(GameManager game, int tileX, int tileY) {
+        Unit unit = settler(game, tileX, tileY);
+        game.getStore().setUnitOwner(game.getStore().unitSlot(unit.getHandle()), EntityStore.BARBARIANS);
+        return unit;
+    }
+
+    // terrain ouvert : toutes les cases praticables, coût 1, 2 de nourriture et 1 de production
+    private static TerrainGrid openTerrain(int width, int height) {
+        TerrainGrid terrain = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                terrain.set(x, y, true, false, 1, 2, 1, 0);
+        }
+        return terrain;
+    }
+
+    // colonne impraticable qui bloque la vue en x, de y0 à y1 inclus
+    private static void wall(TerrainGrid terrain, int x, int y0, int y1) {
+        for (int y = y0; y <= y1; y++)
+            terrain.set(x, y, false, true, 1, 0, 0, 0);
+    }
+}
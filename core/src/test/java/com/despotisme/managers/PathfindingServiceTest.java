@@ -0,0 +1,137 @@
+package com.despotisme.managers;
+
+import com.despotisme.map.TerrainGrid;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathfindingServiceTest {
+
+    private final TerrainGrid terrain = openTerrain(10, 10);
+    private final Path path = new Path();
+
+    @Test
+    void straightLineOnOpenGround() {
+        PathfindingService pathfinding = new PathfindingService(terrain);
+
+        assertTrue(pathfinding.findPath(0, 0, 5, 0, path));
+        assertEquals(5, path.getLength());
+        assertEquals(1, path.getX(0));
+        assertEquals(5, path.getX(4));
+        assertEquals(0, path.getY(4));
+    }
+
+    @Test
+    void goesAroundAWall() {
+        wall(terrain, 3, 0, 8);
+        PathfindingService pathfinding = new PathfindingService(terrain);
+
+        assertTrue(pathfinding.findPath(0, 0, 6, 0, path));
+        // descente jusqu'au passage en y = 9 puis remontée : 6 en travers, 9 en bas, 9 en haut
+        assertEquals(24, path.getLength());
+        for (int i = 0; i < path.getLength(); i++)
+            assertTrue(terrain.isWalkable(path.getX(i), path.getY(i)));
+    }
+
+    @Test
+    void prefersCheapTilesOverShortOnes() {
+        for (int y = 0; y < 3; y++)
+            terrain.set(2, y, true, false, 9, 0, 0, 0);
+        PathfindingService pathfinding = new PathfindingService(terrain);
+
+        assertTrue(pathfinding.findPath(0, 0, 4, 0, path));
+        for (int i = 0; i < path.getLength(); i++)
+            assertEquals(1, terrain.getMoveCost(path.getX(i), path.getY(i)));
+    }
+
+    @Test
+    void unreachableTargetIsRefused() {
+        wall(terrain, 3, 0, 9);
+        PathfindingService pathfinding = new PathfindingService(terrain);
+
+        assertFalse(pathfinding.findPath(0, 0, 6, 0, path));
+        assertFalse(pathfinding.findPath(0, 0, 3, 3, path));
+    }
+
+    @Test
+    void reusedServiceGivesTheSameAnswers() {
+        PathfindingService pathfinding = new PathfindingService(terrain);
+        Path other = new Path();
+
+        assertTrue(pathfinding.findPath(0, 0, 9, 9, path));
+        assertTrue(pathfinding.findPath(9, 0, 0, 9, other));
+        assertTrue(pathfinding.findPath(0, 0, 9, 9, other));
+        assertEquals(path.getLength(), other.getLength());
+        for (int i = 0; i < path.getLength(); i++)
+            assertEquals(path.getTile(i), other.getTile(i));
+    }
+
+    @Test
+    void splitTurnsSpendsTheMovesOfEachTurn() {
+        PathfindingService pathfinding = new PathfindingService(terrain);
+        assertTrue(pathfinding.findPath(0, 0, 7, 0, path));
+
+        pathfinding.splitTurns(path, 3, 3);
+
+        assertEquals(3, path.getTurns());
+        assertEquals(0, path.getTurnStart(0));
+        assertEquals(3, path.getTurnEnd(0));
+        assertEquals(6, path.getTurnEnd(1));
+        assertEquals(7, path.getTurnEnd(2));
+    }
+
+    @Test
+    void splitTurnsStartsWithTheMovesLeft() {
+        PathfindingService pathfinding = new PathfindingService(terrain);
+        assertTrue(pathfinding.findPath(0, 0, 4, 0, path));
+
+        pathfinding.splitTurns(path, 1, 3);
+
+        assertEquals(2, path.getTurns());
+        assertEquals(1, path.getTurnEnd(0));
+        assertEquals(4, path.getTurnEnd(1));
+    }
+
+    @Test
+    void aTileDearerThanAWholeTurnTakesOneFullTurn() {
+        TerrainGrid corridor = openTerrain(4, 1);
+        corridor.set(2, 0, true, false, 5, 0, 0, 0);
+        PathfindingService pathfinding = new PathfindingService(corridor);
+        assertTrue(pathfinding.findPath(0, 0, 3, 0, path));
+
+        pathfinding.splitTurns(path, 3, 3);
+
+        // (1,0) ce tour, la case de coût 5 seule au tour suivant, puis (3,0)
+        assertEquals(3, path.getTurns());
+        assertEquals(1, path.getTurnEnd(0));
+        assertEquals(2, path.getTurnEnd(1));
+        assertEquals(3, path.getTurnEnd(2));
+    }
+
+    @Test
+    void entryRule() {
+        assertTrue(PathfindingService.canEnter(1, 1, 3));
+        assertFalse(PathfindingService.canEnter(2, 1, 3));
+        assertTrue(PathfindingService.canEnter(5, 3, 3));   // mouvements pleins : toute case
+        assertFalse(PathfindingService.canEnter(1, 0, 3));
+    }
+
+    // terrain ouvert : toutes les cases praticables, coût 1, 2 de nourriture et 1 de production
+    private static TerrainGrid openTerrain(int width, int height) {
+        TerrainGrid terrain = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                terrain.set(x, y, true, false, 1, 2, 1, 0);
+        }
+        return terrain;
+    }
+
+    // colonne impraticable qui bloque la vue en x, de y0 à y1 inclus
+    private static void wall(TerrainGrid terrain, int x, int y0, int y1) {
+        for (int y = y0; y <= y1; y++)
+            terrain.set(x, y, false, true, 1, 0, 0, 0);
+    }
+}
@@ -0,0 +1,238 @@
+package com.despotisme.net;
+
+import com.despotisme.commands.FoundCityCommand;
+import com.despotisme.commands.GotoCommand;
+import com.despotisme.commands.MoveUnitCommand;
+import com.despotisme.commands.SpawnUnitCommand;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.Unit;
+import com.despotisme.entities.UnitType;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.TerrainGrid;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockstepClientTest {
+
+    private static final String MAP = "worlds/test.world";
+
+    private final TerrainGrid terrain = openTerrain(40, 40);
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final ExecutorService players = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        players.shutdownNow();
+        players.awaitTermination(10, TimeUnit.SECONDS);
+        pool.shutdown();
+    }
+
+    // partie d'un pair : même terrain et même départ sur chaque pair
+    private GameManager peer(int playerCount) {
+        GameManager game = new GameManager(pool);
+        game.setTerrain(terrain);
+        LockstepClient.setupPlayers(game, playerCount, 4, 5);
+        return game;
+    }
+
+    private interface Orders {
+        void give(LockstepClient client, GameManager game, int turn);
+    }
+
+    // serveur + clients en mémoire ; renvoie chaque client une fois sa partie finie
+    private LockstepClient[] play(int playerCount, int turns, Orders orders) throws Exception {
+        LockstepServer server = new LockstepServer(playerCount);
+        LockstepClient[] clients = new LockstepClient[playerCount];
+        @SuppressWarnings("unchecked")
+        Future<Void>[] done = new Future[playerCount];
+
+        for (int p = 0; p < playerCount; p++) {
+            GameManager game = peer(playerCount);
+            InProcessLink[] pair = InProcessLink.pair();
+            LockstepClient client = new LockstepClient(pair[0], game);
+            clients[p] = client;
+            done[p] = players.submit(() -> {
+                try {
+                    client.join(MAP);
+                    for (int t = 0; t < turns; t++) {
+                        orders.give(client, game, t);
+                        client.endTurn();
+                        if (!client.awaitTurn())
+                            break;
+                    }
+                } finally {
+                    client.close();
+                }
+                return null;
+            });
+            server.accept(pair[1]);
+        }
+        server.run();
+        for (Future<Void> player : done)
+            player.get(30, TimeUnit.SECONDS);
+        return clients;
+    }
+
+    // déplacements et fondations au hasard sur les unités du joueur
+    private static Orders randomOrders(long seed) {
+        return new Orders() {
+            private final SplittableRandom random = new SplittableRandom(seed);
+
+            @Override
+            public void give(LockstepClient client, GameManager game, int turn) {
+                EntityStore store = game.getStore();
+                for (int slot = 0; slot < store.getUnitCount(); slot++) {
+                    if (store.getUnitOwner(slot) != client.getPlayer() || store.hasUnitDestination(slot))
+                        continue;
+                    if (random.nextInt(5) == 0)
+                        client.submit(new FoundCityCommand(slot, "P" + client.getPlayer() + "-" + turn));
+                    else
+                        client.submit(new GotoCommand(slot, random.nextInt(40), random.nextInt(40)));
+                }
+            }
+        };
+    }
+
+    @Test
+    void everyPeerEndsInTheSameState() throws Exception {
+        LockstepClient[] clients = play(3, 40, randomOrders(1));
+
+        for (LockstepClient client : clients) {
+            assertEquals(-1, client.getDesyncTurn());
+            assertEquals(clients[0].getLastHash(), client.getLastHash());
+            assertEquals(clients[0].getRejected(), client.getRejected());
+        }
+    }
+
+    @Test
+    void playersGetTheirSeatsInOrder() throws Exception {
+        LockstepClient[] clients = play(2, 1, (client, game, turn) -> { });
+
+        assertEquals(0, clients[0].getPlayer());
+        assertEquals(1, clients[1].getPlayer());
+        assertEquals(2, clients[1].getPlayerCount());
+    }
+
+    @Test
+    void aPeerThatDivergesIsReportedAsADesync() throws Exception {
+        LockstepClient[] clients = play(2, 10, (client, game, turn) -> {
+            if (client.getPlayer() == 1 && turn == 4)
+                game.getStore().setUnitHp(0, 1);   // changement local, pas une commande
+        });
+
+        assertEquals(5, clients[0].getDesyncTurn());
+        assertEquals(5, clients[1].getDesyncTurn());
+    }
+
+    @Test
+    void spawningIsRefusedTheSameWayOnEveryPeer() throws Exception {
+        LockstepClient[] clients = play(2, 3, (client, game, turn) -> {
+            if (client.getPlayer() == 1)
+                client.submit(new SpawnUnitCommand(UnitType.SETTLER, 0, 0));
+        });
+
+        for (LockstepClient client : clients) {
+            assertEquals(-1, client.getDesyncTurn());
+            assertEquals(3, client.getRejected());
+        }
+    }
+
+    @Test
+    void ordersToAnotherPlayerUnitsAreRefused() throws Exception {
+        // le slot 0 est au joueur 0 : le joueur 1 tente de le déplacer et d'y fonder une ville
+        GameManager start = peer(2);
+        GameManager[] games = new GameManager[2];
+        LockstepClient[] clients = play(2, 3, (client, game, turn) -> {
+            games[client.getPlayer()] = game;
+            if (client.getPlayer() == 1) {
+                client.submit(new GotoCommand(0, 39, 39));
+                client.submit(new FoundCityCommand(0, "stolen"));
+            }
+        });
+
+        for (LockstepClient client : clients) {
+            assertEquals(-1, client.getDesyncTurn());
+            assertEquals(6, client.getRejected());
+        }
+        EntityStore store = games[0].getStore();
+        assertEquals(start.getStore().getUnitCount(), store.getUnitCount());
+        assertEquals(start.getStore().getUnitTileX(0), store.getUnitTileX(0));
+        assertEquals(start.getStore().getUnitTileY(0), store.getUnitTileY(0));
+        assertEquals(0, games[0].getCities().size());
+    }
+
+    @Test
+    void foundingsDoNotShiftTheSlotsOfTheTurn() throws Exception {
+        // chaque unité du joueur fonde ou bouge dans le même tour : les déplacements doivent viser les unités que le joueur voyait
+        LockstepClient[] clients = play(2, 2, (client, game, turn) -> {
+            EntityStore store = game.getStore();
+            for (int slot = 0; slot < store.getUnitCount(); slot++) {
+                if (store.getUnitOwner(slot) != client.getPlayer())
+                    continue;
+                if (slot % 2 == 0)
+                    client.submit(new FoundCityCommand(slot, "F" + slot));
+                else
+                    client.submit(new MoveUnitCommand(slot, store.getUnitTileX(slot) + 1, store.getUnitTileY(slot),
+                            Unit.Direction.RIGHT));
+            }
+        });
+
+        assertEquals(-1, clients[0].getDesyncTurn());
+        assertEquals(clients[0].getLastHash(), clients[1].getLastHash());
+    }
+
+    @Test
+    void aSecondGameOnAnotherMapIsRejected() throws Exception {
+        LockstepServer server = new LockstepServer(2);
+        InProcessLink[] first = InProcessLink.pair();
+        InProcessLink[] second = InProcessLink.pair();
+        Future<LockstepClient.Seat> host = players.submit(() -> LockstepClient.connect(first[0], MAP, GameManager.FIRST_TURN));
+        server.accept(first[1]);
+        assertEquals(MAP, host.get().mapPath());
+
+        Future<LockstepClient.Seat> other = players.submit(() -> LockstepClient.connect(second[0], "maps/other.dmap", GameManager.FIRST_TURN));
+        assertThrows(IOException.class, () -> server.accept(second[1]));
+        Exception e = assertThrows(Exception.class, other::get);
+        assertTrue(e.getCause() instanceof IOException);
+        server.close();
+    }
+
+    @Test
+    void aJoinerWithoutAMapGetsTheHostOne() throws Exception {
+        LockstepServer server = new LockstepServer(2);
+        InProcessLink[] first = InProcessLink.pair();
+        InProcessLink[] second = InProcessLink.pair();
+        players.submit(() -> LockstepClient.connect(first[0], MAP, GameManager.FIRST_TURN));
+        server.accept(first[1]);
+
+        Future<LockstepClient.Seat> joiner = players.submit(() -> LockstepClient.connect(second[0], "", GameManager.FIRST_TURN));
+        server.accept(second[1]);
+
+        assertEquals(MAP, joiner.get().mapPath());
+        assertEquals(1, joiner.get().player());
+        server.close();
+    }
+
+    // terrain ouvert : toutes les cases praticables, coût 1, 2 de nourriture et 1 de production
+    private static TerrainGrid openTerrain(int width, int height) {
+        TerrainGrid terrain = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                terrain.set(x, y, true, false, 1, 2, 1, 0);
+        }
+        return terrain;
+    }
+}
@@ -0,0 +1,172 @@
+package com.despotisme.save;
+
+import com.despotisme.constants.MapConstants;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.Settler;
+import com.despotisme.entities.Unit;
+import com.despotisme.entities.UnitType;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.ExploredArea;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.net.StateHash;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SaveFormatTest {
+
+    private static final String MAP = "maps/test.dmap";
+
+    @TempDir
+    Path dir;
+
+    private final TerrainGrid terrain = openTerrain(24, 24);
+
+    // colons de deux joueurs, un ordre de déplacement, une ville qui produit, quelques tours joués
+    private GameManager playedGame() {
+        GameManager game = new GameManager();
+        game.setTerrain(terrain);
+        EntityStore store = game.getStore();
+        for (int i = 0; i < 6; i++) {
+            Unit unit = game.createUnit(UnitType.SETTLER.key, i * 3 * MapConstants.TILE_SIZE, 2 * MapConstants.TILE_SIZE);
+            store.setUnitOwner(store.unitSlot(unit.getHandle()), i % 2);
+        }
+        game.foundCity("Ys", (Settler) game.getUnitView(store.unitHandleAt(0)));
+        game.orderMove(game.getUnitView(store.unitHandleAt(1)), 20, 20);
+        for (int turn = 0; turn < 3; turn++)
+            game.endTurn();
+        return game;
+    }
+
+    private GameManager restored(SaveData data) {
+        GameManager game = new GameManager();
+        game.setTerrain(terrain);
+        SaveManager.apply(data, game, null);
+        return game;
+    }
+
+    @Test
+    void encodedModelReadsBackTheSameState() throws IOException {
+        GameManager game = playedGame();
+
+        byte[] file = SaveFormat.encode(SaveManager.copyModel(MAP, game), new Deflater());
+        SaveData read = SaveFormat.read(ByteBuffer.wrap(file));
+
+        assertEquals(MAP, read.mapPath);
+        assertEquals(game.getTurnCount(), read.turnCount);
+        assertEquals(StateHash.of(game), StateHash.of(restored(read)));
+    }
+
+    @Test
+    void ownersSurviveTheRoundTrip() throws IOException {
+        GameManager game = playedGame();
+        SaveData read = SaveFormat.read(ByteBuffer.wrap(SaveFormat.encode(SaveManager.copyModel(MAP, game), new Deflater())));
+
+        EntityStore store = game.getStore();
+        for (int slot = 0; slot < store.getUnitCount(); slot++)
+            assertEquals(store.getUnitOwner(slot), read.units.owner[slot]);
+        assertEquals(store.getCityOwner(0), read.cities.owner[0]);
+    }
+
+    @Test
+    void autosaveWritesTheExploredTilesToo() throws IOException {
+        GameManager game = playedGame();
+        ExploredArea explored = new ExploredArea(terrain.getWidth(), terrain.getHeight(), 0);
+        long[] bits = explored.packBits();
+        bits[0] = 0b1011;
+        bits[bits.length - 1] = 1L << 40;
+        explored.unpackBits(bits);
+        Path file = dir.resolve("autosave" + SaveFormat.EXTENSION);
+
+        SaveManager saves = new SaveManager();
+        assertTrue(saves.save(file, MAP, game, explored));
+        saves.shutdown();
+        SaveData read = SaveManager.read(file);
+
+        assertArrayEquals(explored.packBits(), read.exploredBits);
+        assertEquals(StateHash.of(game), StateHash.of(restored(read)));
+    }
+
+    @Test
+    void autosaveWithoutExploredTilesLeavesTheSectionOut() throws IOException {
+        GameManager game = playedGame();
+        Path file = dir.resolve("replay" + SaveFormat.EXTENSION);
+
+        SaveManager saves = new SaveManager();
+        assertTrue(saves.save(file, MAP, game, null));
+        saves.shutdown();
+        assertNull(saves.getLastError());
+        SaveData read = SaveManager.read(file);
+
+        assertNull(read.exploredBits);
+        assertEquals(StateHash.of(game), StateHash.of(restored(read)));
+    }
+
+    @Test
+    void tilesOutsideTheMapAreRefusedBeforeAnythingIsCreated() {
+        SaveData unitOut = SaveManager.copyModel(MAP, playedGame());
+        unitOut.units.tileX[unitOut.units.count - 1] = terrain.getWidth();
+        SaveData cityOut = SaveManager.copyModel(MAP, playedGame());
+        cityOut.cities.tileY[0] = -1;
+
+        for (SaveData data : new SaveData[] { unitOut, cityOut }) {
+            GameManager game = new GameManager();
+            game.setTerrain(terrain);
+            assertThrows(IllegalArgumentException.class, () -> SaveManager.apply(data, game, null));
+            assertEquals(0, game.getStore().getUnitCount());
+            assertEquals(0, game.getStore().getCityCount());
+        }
+    }
+
+    @Test
+    void damagedFilesAreIOExceptions() {
+        byte[] file = SaveFormat.encode(SaveManager.copyModel(MAP, playedGame()), new Deflater());
+
+        assertThrows(IOException.class, () -> SaveFormat.read(ByteBuffer.wrap(new byte[0])));
+        assertThrows(IOException.class, () -> SaveFormat.read(ByteBuffer.wrap(Arrays.copyOf(file, file.length / 2))));
+
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 2000; i++) {
+            byte[] damaged = file.clone();
+            for (int n = 1 + random.nextInt(4); n > 0; n--)
+                damaged[random.nextInt(damaged.length)] = (byte) random.nextInt(256);
+            try {
+                SaveFormat.read(ByteBuffer.wrap(damaged));
+            } catch (IOException e) {
+                // attendu : toute autre exception est un bug
+            }
+        }
+    }
+
+    @Test
+    void otherVersionsAreRefused() {
+        byte[] file = SaveFormat.encode(SaveManager.copyModel(MAP, playedGame()), new Deflater());
+        ByteBuffer.wrap(file).putInt(4, SaveFormat.VERSION - 1);
+
+        IOException e = assertThrows(IOException.class, () -> SaveFormat.read(ByteBuffer.wrap(file)));
+        assertTrue(e.getMessage().contains("version"));
+    }
+
+    // terrain ouvert : toutes les cases praticables, coût 1, 2 de nourriture et 1 de production
+    private static TerrainGrid openTerrain(int width, int height) {
+        TerrainGrid terrain = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                terrain.set(x, y, true, false, 1, 2, 1, 0);
+        }
+        return terrain;
+    }
+}
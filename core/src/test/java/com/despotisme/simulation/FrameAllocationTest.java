@@ -0,0 +1,178 @@
+package com.despotisme.simulation;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.despotisme.commands.CommandJournal;
+import com.despotisme.commands.CommandProcessor;
+import com.despotisme.commands.MoveUnitCommand;
+import com.despotisme.constants.MapConstants;
+import com.despotisme.debug.ThreadAllocation;
+import com.despotisme.entities.City;
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.Settler;
+import com.despotisme.entities.Unit;
+import com.despotisme.entities.UnitType;
+import com.despotisme.events.EventBus;
+import com.despotisme.events.VisibilityChanged;
+import com.despotisme.managers.GameManager;
+import com.despotisme.map.TerrainGrid;
+import com.despotisme.map.VisibilityEngine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * ============================================================================
+ * FrameAllocationTest
+ * ----------------------------------------------------------------------------
+ * Régression d'allocation des chemins par frame et par entrée : ce que
+ * MapScreen fait à chaque frame côté modèle (commande clavier + journal,
+ * mise à jour de la ligne de vue, livraison des événements aux listeners
+ * du brouillard et de la mini-carte, requêtes des entités visibles,
+ * recherche au clic) ne doit rien allouer une fois chaud. Les fins de tour
+ * n'en font pas partie (les tâches ForkJoin allouent à chaque tour).
+ * ============================================================================
+ */
+class FrameAllocationTest {
+
+    private static final int WARMUP_FRAMES = 50_000;
+    private static final int FRAMES = 100_000;
+    private static final double BUDGET_BYTES_PER_FRAME = 1;
+
+    private static final int MOVE_EVERY = 4;                 // frames entre deux déplacements clavier
+    private static final int VIEW_HALF_WIDTH = 20;           // cases visibles autour de l'unité
+    private static final int VIEW_HALF_HEIGHT = 12;
+    private static final Unit.Direction[] DIRECTIONS = {
+            Unit.Direction.RIGHT, Unit.Direction.UP, Unit.Direction.LEFT, Unit.Direction.DOWN
+    };
+
+    private final ForkJoinPool pool = new ForkJoinPool(1);
+
+    private GameManager game;
+    private CommandProcessor commands;
+    private VisibilityEngine visibility;
+    private Unit unit;
+    private final IntArray visibleHandles = new IntArray();
+    private final MoveUnitCommand move = new MoveUnitCommand();
+    private int frame;
+    private int revealed;   // VisibilityChanged reçus (garde les listeners observables)
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void steadyStateFramesStayWithinTheAllocationBudget(@TempDir Path dir) throws Exception {
+        assumeTrue(ThreadAllocation.isSupported(), "this JVM does not count allocated bytes per thread");
+
+        TerrainGrid terrain = openTerrain(128, 128);
+        for (int x = 16; x < 128; x += 32)
+            wall(terrain, x, 8, 119);
+        game = new GameManager(pool);
+        game.setTerrain(terrain);
+        populate(terrain, 100, 1L);
+
+        try (CommandJournal journal = new CommandJournal(dir.resolve("frames" + CommandJournal.EXTENSION), "allocation")) {
+            start(terrain, journal);
+            for (int i = 0; i < WARMUP_FRAMES; i++)
+                frame();
+
+            long start = ThreadAllocation.bytes();
+            for (int i = 0; i < FRAMES; i++)
+                frame();
+            long total = ThreadAllocation.bytes() - start;
+
+            double perFrame = total / (double) FRAMES;
+            assertTrue(perFrame <= BUDGET_BYTES_PER_FRAME,
+                    FRAMES + " frames allocated " + total + " bytes (" + perFrame + " bytes/frame, budget "
+                            + BUDGET_BYTES_PER_FRAME + "), " + revealed + " visibility events");
+        }
+    }
+
+    // colons au hasard comme Simulation.populate : une ville sur deux, les autres en route
+    private void populate(TerrainGrid terrain, int settlers, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int width = terrain.getWidth();
+        int height = terrain.getHeight();
+        for (int n = 0; n < settlers; n++) {
+            int x, y;
+            do {
+                x = random.nextInt(width);
+                y = random.nextInt(height);
+            } while (!terrain.isWalkable(x, y));
+
+            Unit unit = game.createUnit(UnitType.SETTLER.key, x * MapConstants.TILE_SIZE, y * MapConstants.TILE_SIZE);
+            if (n % 2 == 0 && game.canFoundCity(x, y)) {
+                City city = game.foundCity("City " + n, (Settler) unit);
+                game.getStore().setCityBuild(game.getStore().citySlot(city.getHandle()), UnitType.SETTLER);
+                continue;
+            }
+            int tx = Math.max(0, Math.min(width - 1, x + random.nextInt(-20, 21)));
+            int ty = Math.max(0, Math.min(height - 1, y + random.nextInt(-20, 21)));
+            game.orderMove(unit, tx, ty);
+        }
+    }
+
+    // mêmes listeners que MapScreen / FogOfWarRenderer / MiniMapView, sans les envois GL
+    private void start(TerrainGrid terrain, CommandJournal journal) {
+        commands = new CommandProcessor(game);
+        commands.record(journal);
+        unit = game.getUnits().get(0);
+
+        EventBus events = game.getEvents();
+        visibility = new VisibilityEngine(terrain, game.getStore(), 1);
+        visibility.getPlayer(0).setEvents(events);
+        events.subscribe(VisibilityChanged.TYPE, e -> revealed++);
+    }
+
+    private void frame() {
+        EntityStore store = game.getStore();
+
+        if (frame++ % MOVE_EVERY == 0) {
+            Unit.Direction dir = DIRECTIONS[(frame / MOVE_EVERY) % DIRECTIONS.length];
+            int tx = unit.getTileX() + (dir == Unit.Direction.RIGHT ? 1 : dir == Unit.Direction.LEFT ? -1 : 0);
+            int ty = unit.getTileY() + (dir == Unit.Direction.UP ? 1 : dir == Unit.Direction.DOWN ? -1 : 0);
+            commands.execute(move.set(store.unitSlot(unit.getHandle()), tx, ty, dir));
+        }
+
+        visibility.update();
+        game.getEvents().dispatch();
+
+        int x = unit.getTileX();
+        int y = unit.getTileY();
+        int n = store.getCityIndex().inRect(x - VIEW_HALF_WIDTH, y - VIEW_HALF_HEIGHT,
+                x + VIEW_HALF_WIDTH, y + VIEW_HALF_HEIGHT, visibleHandles);
+        for (int i = 0; i < n; i++)
+            game.getCityView(visibleHandles.get(i));
+        n = store.getUnitIndex().inRect(x - VIEW_HALF_WIDTH, y - VIEW_HALF_HEIGHT,
+                x + VIEW_HALF_WIDTH, y + VIEW_HALF_HEIGHT, visibleHandles);
+        for (int i = 0; i < n; i++)
+            game.getUnitView(visibleHandles.get(i));
+
+        game.unitAt(x, y);
+    }
+
+    // terrain ouvert : toutes les cases praticables, coût 1, 2 de nourriture et 1 de production
+    private static TerrainGrid openTerrain(int width, int height) {
+        TerrainGrid terrain = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                terrain.set(x, y, true, false, 1, 2, 1, 0);
+        }
+        return terrain;
+    }
+
+    // colonne impraticable qui bloque la vue en x, de y0 à y1 inclus
+    private static void wall(TerrainGrid terrain, int x, int y0, int y1) {
+        for (int y = y0; y <= y1; y++)
+            terrain.set(x, y, false, true, 1, 0, 0, 0);
+    }
+}
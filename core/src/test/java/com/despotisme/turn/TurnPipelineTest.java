@@ -0,0 +1,160 @@
+package com.despotisme.turn;
+
+import com.despotisme.entities.EntityStore;
+import com.despotisme.entities.UnitType;
+import com.despotisme.map.TerrainGrid;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TurnPipelineTest {
+
+    private static final int SIZE = 64;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdown();
+    }
+
+    // les phases de GameManager ; les unités produites apparaissent sur la case de leur ville
+    private static TurnPipeline pipeline(EntityStore store, TerrainGrid terrain, ForkJoinPool pool) {
+        CityTiles tiles = new CityTiles(store, terrain);
+        return new TurnPipeline(store, pool)
+                .add(new UpkeepPhase(store))
+                .add(new ProductionPhase(store, tiles, (type, city) -> {
+                    int slot = store.citySlot(city);
+                    store.createUnit(type, store.getCityTileX(slot), store.getCityTileY(slot));
+                }))
+                .add(new GrowthPhase(store, tiles))
+                .add(new MovementPhase(store, terrain, pool.getParallelism()));
+    }
+
+    @Test
+    void gotoOrdersWalkTurnAfterTurn() {
+        EntityStore store = new EntityStore();
+        int unit = store.createUnit(UnitType.SETTLER, 0, 0);
+        store.setUnitDestination(store.unitSlot(unit), 3 * UnitType.SETTLER.moves, 0);
+        TurnPipeline turn = pipeline(store, openTerrain(SIZE, SIZE), pool);
+
+        turn.run();
+        assertEquals(UnitType.SETTLER.moves, store.getUnitTileX(store.unitSlot(unit)));
+
+        turn.run();
+        turn.run();
+        int slot = store.unitSlot(unit);
+        assertEquals(3 * UnitType.SETTLER.moves, store.getUnitTileX(slot));
+        assertFalse(store.hasUnitDestination(slot));
+    }
+
+    @Test
+    void anOrderToItsOwnTileEndsAtOnce() {
+        EntityStore store = new EntityStore();
+        int unit = store.createUnit(UnitType.SETTLER, 5, 5);
+        store.setUnitDestination(store.unitSlot(unit), 5, 5);
+
+        pipeline(store, openTerrain(SIZE, SIZE), pool).run();
+
+        int slot = store.unitSlot(unit);
+        assertFalse(store.hasUnitDestination(slot));
+        assertEquals(UnitType.SETTLER.moves, store.getUnitMoves(slot));
+    }
+
+    @Test
+    void citiesGrowAndProduceOverTurns() {
+        EntityStore store = new EntityStore();
+        int city = store.createCity("A", 10, 10);
+        store.setCityBuild(store.citySlot(city), UnitType.SETTLER);
+        TurnPipeline turn = pipeline(store, openTerrain(SIZE, SIZE), pool);
+
+        for (int i = 0; i < 50; i++)
+            turn.run();
+
+        int slot = store.citySlot(city);
+        assertTrue(store.getCityPopulation(slot) > 1, "population " + store.getCityPopulation(slot));
+        assertTrue(store.getUnitCount() > 0, "no unit produced");
+    }
+
+    @Test
+    void turnsGiveTheSameStateWhateverTheThreadCount() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            EntityStore a = populated();
+            EntityStore b = populated();
+            TurnPipeline turnA = pipeline(a, walledTerrain(), single);
+            TurnPipeline turnB = pipeline(b, walledTerrain(), pool);
+            for (int turn = 0; turn < 30; turn++) {
+                turnA.run();
+                turnB.run();
+                assertEquals(fingerprint(a), fingerprint(b), "turn " + turn);
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    // plusieurs partitions d'unités : colons au hasard avec des destinations au hasard, quelques villes
+    private static EntityStore populated() {
+        EntityStore store = new EntityStore();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 3 * TurnPipeline.PARTITION_SIZE; i++) {
+            int unit = store.createUnit(UnitType.SETTLER, random.nextInt(SIZE), random.nextInt(SIZE));
+            store.setUnitDestination(store.unitSlot(unit), random.nextInt(SIZE), random.nextInt(SIZE));
+        }
+        for (int i = 0; i < 20; i++) {
+            int city = store.createCity("C" + i, random.nextInt(SIZE), random.nextInt(SIZE));
+            store.setCityBuild(store.citySlot(city), UnitType.SETTLER);
+        }
+        return store;
+    }
+
+    // tout l'état de simulation du store, slot par slot
+    private static long fingerprint(EntityStore store) {
+        long h = 17;
+        for (int slot = 0; slot < store.getUnitCount(); slot++) {
+            h = 31 * h + store.getUnitTileX(slot);
+            h = 31 * h + store.getUnitTileY(slot);
+            h = 31 * h + store.getUnitMoves(slot);
+            h = 31 * h + store.getUnitHp(slot);
+            h = 31 * h + (store.hasUnitDestination(slot) ? store.getUnitDestinationX(slot) * SIZE + store.getUnitDestinationY(slot) : -1);
+        }
+        for (int slot = 0; slot < store.getCityCount(); slot++) {
+            h = 31 * h + store.getCityPopulation(slot);
+            h = 31 * h + store.getCityFood(slot);
+            h = 31 * h + store.getCityProduction(slot);
+        }
+        return h;
+    }
+
+    // terrain ouvert : toutes les cases praticables, coût 1, 2 de nourriture et 1 de production
+    private static TerrainGrid openTerrain(int width, int height) {
+        TerrainGrid terrain = new TerrainGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                terrain.set(x, y, true, false, 1, 2, 1, 0);
+        }
+        return terrain;
+    }
+
+    // murs percés en alternance et quelques cases chères : des routes qui ne sont pas des lignes droites
+    private static TerrainGrid walledTerrain() {
+        TerrainGrid terrain = openTerrain(SIZE, SIZE);
+        for (int x = 8; x < SIZE; x += 16) {
+            for (int y = 0; y < SIZE; y++) {
+                if (x % 32 == 8 ? y < SIZE - 4 : y >= 4)
+                    terrain.set(x, y, false, true, 1, 0, 0, 0);
+            }
+        }
+        for (int y = 0; y < SIZE; y += 5)
+            terrain.set(SIZE / 2 + 3, y, true, false, 3, 1, 2, 0);
+        return terrain;
+    }
+}